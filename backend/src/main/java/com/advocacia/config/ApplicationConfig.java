@@ -22,7 +22,7 @@ public class ApplicationConfig {
 
     private final UserRepository userRepository;
 
-    /** TransactionTemplate com REQUIRES_NEW para persistir fallback de auditoria em transação separada (evita rollback). */
+    /** TransactionTemplate com REQUIRES_NEW para o writer de auditoria gravar lotes em transação própria. */
     @Bean(name = "transactionTemplateRequiresNew")
     public TransactionTemplate transactionTemplateRequiresNew(PlatformTransactionManager ptm) {
         TransactionTemplate tt = new TransactionTemplate(ptm);
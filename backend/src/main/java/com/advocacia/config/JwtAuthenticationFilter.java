@@ -1,13 +1,17 @@
 package com.advocacia.config;
 
+import com.advocacia.entity.User;
 import com.advocacia.service.JwtService;
+import com.advocacia.service.UserAuthCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
@@ -16,13 +20,31 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
 
+/**
+ * Autenticação por JWT. Com {@code jwt.trust-claims=true} (padrão) o usuário vem das claims assinadas conferidas
+ * contra o {@link UserAuthCache} (sem consulta ao banco por requisição); tokens emitidos antes das claims de
+ * autenticação, ou com {@code jwt.trust-claims=false}, carregam o usuário pelo {@link UserDetailsService}.
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final UserAuthCache userAuthCache;
+    private final boolean trustClaims;
+
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   UserDetailsService userDetailsService,
+                                   UserAuthCache userAuthCache,
+                                   @Value("${jwt.trust-claims:true}") boolean trustClaims) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.userAuthCache = userAuthCache;
+        this.trustClaims = trustClaims;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -42,17 +64,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         jwt = authHeader.substring(7);
         
         try {
-            username = jwtService.extractUsername(jwt);
+            // Uma verificação por token (assinatura + expiração); usos seguintes do mesmo token vêm do cache
+            final Claims claims = jwtService.extractAllClaims(jwt);
+            username = claims.getSubject();
 
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                UsernamePasswordAuthenticationToken authToken = null;
+
+                if (trustClaims && claims.get(JwtService.CLAIM_TOKEN_VERSION) != null) {
+                    // Id, versão e status conferidos contra o usuário em cache; perfil vem do usuário, não do token
+                    Optional<User> user = userAuthCache.resolve(claims);
+                    if (user.isPresent()) {
+                        authToken = new UsernamePasswordAuthenticationToken(
+                                user.get(),
+                                null,
+                                List.of(new SimpleGrantedAuthority("ROLE_" + user.get().getRole()))
+                        );
+                    }
+                } else {
+                    UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+                    if (jwtService.isTokenValid(claims, userDetails)) {
+                        authToken = new UsernamePasswordAuthenticationToken(
+                                userDetails,
+                                null,
+                                userDetails.getAuthorities()
+                        );
+                    }
+                }
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
+                if (authToken != null) {
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
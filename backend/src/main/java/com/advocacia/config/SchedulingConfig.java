@@ -0,0 +1,12 @@
+package com.advocacia.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tarefas agendadas (ex.: limpeza de uploads em partes abandonados).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
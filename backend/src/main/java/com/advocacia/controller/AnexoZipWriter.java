@@ -0,0 +1,126 @@
+package com.advocacia.controller;
+
+import com.advocacia.entity.ContratoAnexo;
+import com.advocacia.service.FileStorageService;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Monta um ZIP com os anexos de um contrato direto no stream de saída, sem arquivo temporário nem buffer do ZIP
+ * inteiro em memória. Formatos já comprimidos (PDF, imagens, Office, ZIP) entram sem compressão: no disco como
+ * STORED (CRC calculado numa leitura prévia do arquivo, que fica no cache de páginas), em armazenamento remoto como
+ * DEFLATED nível 0, para não baixar o objeto duas vezes. Os demais usam DEFLATED na compressão mais rápida.
+ */
+@Slf4j
+final class AnexoZipWriter {
+
+    private static final Set<String> JA_COMPRIMIDOS = Set.of(
+            "pdf", "jpg", "jpeg", "png", "gif", "webp", "heic", "tif", "tiff",
+            "zip", "7z", "rar", "gz", "docx", "xlsx", "pptx", "odt", "ods", "mp3", "mp4");
+
+    private static final int BUFFER = 64 * 1024;
+
+    private AnexoZipWriter() {
+    }
+
+    static void write(OutputStream out, FileStorageService storage, List<ContratoAnexo> anexos) throws IOException {
+        Set<String> nomesUsados = new HashSet<>();
+        byte[] buffer = new byte[BUFFER];
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (ContratoAnexo anexo : anexos) {
+                long tamanho = storage.size(anexo.getNomeArquivo());
+                if (tamanho < 0) {
+                    log.warn("Anexo {} sem arquivo no armazenamento ({}), fora do ZIP", anexo.getId(), anexo.getNomeArquivo());
+                    continue;
+                }
+
+                ZipEntry entry = new ZipEntry(nomeUnico(anexo.getNomeOriginal(), nomesUsados));
+                if (anexo.getCreatedAt() != null) {
+                    entry.setTime(anexo.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+                }
+                Optional<Path> local = storage.localPath(anexo.getNomeArquivo());
+                if (jaComprimido(anexo)) {
+                    if (local.isPresent()) {
+                        entry.setMethod(ZipEntry.STORED);
+                        entry.setSize(tamanho);
+                        entry.setCompressedSize(tamanho);
+                        entry.setCrc(crc32(local.get(), buffer));
+                    } else {
+                        entry.setMethod(ZipEntry.DEFLATED);
+                        zip.setLevel(Deflater.NO_COMPRESSION);
+                    }
+                } else {
+                    entry.setMethod(ZipEntry.DEFLATED);
+                    zip.setLevel(Deflater.BEST_SPEED);
+                }
+
+                zip.putNextEntry(entry);
+                try (InputStream in = local.isPresent()
+                        ? Files.newInputStream(local.get())
+                        : storage.open(anexo.getNomeArquivo(), 0, -1)) {
+                    int lidos;
+                    while ((lidos = in.read(buffer)) != -1) {
+                        zip.write(buffer, 0, lidos);
+                    }
+                }
+                zip.closeEntry();
+            }
+        }
+    }
+
+    /** Nome da entrada sem separadores de pasta e sem repetir: "rg.pdf", "rg (2).pdf", ... */
+    static String nomeUnico(String nomeOriginal, Set<String> usados) {
+        String nome = nomeOriginal == null ? "" : nomeOriginal.replaceAll("[\\\\/:\\x00-\\x1f]", "_").strip();
+        if (nome.isEmpty() || nome.chars().allMatch(c -> c == '.')) {
+            nome = "anexo";
+        }
+        String candidato = nome;
+        int ponto = nome.lastIndexOf('.');
+        String base = ponto > 0 ? nome.substring(0, ponto) : nome;
+        String extensao = ponto > 0 ? nome.substring(ponto) : "";
+        for (int i = 2; !usados.add(candidato.toLowerCase(Locale.ROOT)); i++) {
+            candidato = base + " (" + i + ")" + extensao;
+        }
+        return candidato;
+    }
+
+    private static boolean jaComprimido(ContratoAnexo anexo) {
+        String tipo = anexo.getTipoMime() == null ? "" : anexo.getTipoMime().toLowerCase(Locale.ROOT);
+        if (tipo.equals("application/pdf") || tipo.startsWith("image/") && !tipo.equals("image/bmp")
+                && !tipo.equals("image/svg+xml") || tipo.startsWith("video/") || tipo.equals("application/zip")) {
+            return true;
+        }
+        String nome = anexo.getNomeOriginal() == null ? "" : anexo.getNomeOriginal();
+        int ponto = nome.lastIndexOf('.');
+        return ponto >= 0 && JA_COMPRIMIDOS.contains(nome.substring(ponto + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static long crc32(Path arquivo, byte[] buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer bb = ByteBuffer.wrap(buffer);
+        try (FileChannel channel = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            while (channel.read(bb.clear()) != -1) {
+                crc.update(bb.flip());
+            }
+        }
+        return crc.getValue();
+    }
+}
@@ -1,37 +1,54 @@
 package com.advocacia.controller;
 
 import com.advocacia.dto.ContratoAnexoResponse;
+import com.advocacia.dto.UploadSessaoRequest;
+import com.advocacia.dto.UploadSessaoResponse;
 import com.advocacia.entity.Contrato;
 import com.advocacia.entity.ContratoAnexo;
 import com.advocacia.repository.ContratoAnexoRepository;
 import com.advocacia.repository.ContratoRepository;
+import com.advocacia.service.AnexoPreviewService;
+import com.advocacia.service.ChunkedUploadService;
 import com.advocacia.service.FileStorageService;
+import jakarta.validation.Valid;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
-@RequestMapping("/api/contratos/{contratoId}/anexos")
+@RequestMapping("/api/contratos/{contratoId}")
+@PreAuthorize("@userPermissionService.hasScreenAccess(authentication, 'contratos')")
 @RequiredArgsConstructor
 public class ContratoAnexoController {
 
+    /** Prévias são imutáveis para um anexo (conteúdo endereçado pelo hash): o navegador não precisa revalidar. */
+    private static final String CACHE_PREVIA = "private, max-age=604800, immutable";
+
     private final ContratoRepository contratoRepository;
     private final ContratoAnexoRepository anexoRepository;
     private final FileStorageService fileStorageService;
+    private final ChunkedUploadService chunkedUploadService;
+    private final AnexoPreviewService previewService;
 
     /**
      * Lista todos os anexos de um contrato.
      */
-    @GetMapping
+    @GetMapping("/anexos")
     public ResponseEntity<List<ContratoAnexoResponse>> listarAnexos(@PathVariable Long contratoId) {
         // Verificar se contrato existe
         if (!contratoRepository.existsById(contratoId)) {
@@ -48,9 +65,9 @@ public class ContratoAnexoController {
 
     /**
      * Faz upload de um arquivo para o contrato.
+     * Sem transação envolvendo o método: o registro precisa estar gravado antes de o lock do conteúdo ser liberado.
      */
-    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    @Transactional
+    @PostMapping(value = "/anexos", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<ContratoAnexoResponse> uploadAnexo(
             @PathVariable Long contratoId,
             @RequestParam("file") MultipartFile file) {
@@ -58,57 +75,235 @@ public class ContratoAnexoController {
         Contrato contrato = contratoRepository.findById(contratoId)
                 .orElseThrow(() -> new RuntimeException("Contrato não encontrado"));
 
-        // Armazenar arquivo
-        String nomeArquivo = fileStorageService.store(file);
-
-        // Criar registro no banco
-        ContratoAnexo anexo = ContratoAnexo.builder()
+        // Armazenar arquivo (hash e tamanho na mesma passada; conteúdo repetido reaproveita o arquivo existente)
+        // e criar o registro no banco
+        ContratoAnexo anexo = fileStorageService.store(file, stored -> anexoRepository.save(ContratoAnexo.builder()
                 .contrato(contrato)
                 .nomeOriginal(file.getOriginalFilename())
-                .nomeArquivo(nomeArquivo)
+                .nomeArquivo(stored.nomeArquivo())
                 .tipoMime(file.getContentType())
-                .tamanho(file.getSize())
-                .build();
+                .tamanho(stored.tamanho())
+                .sha256(stored.sha256())
+                .build()));
+
+        previewService.agendar(anexo.getNomeArquivo(), anexo.getTipoMime());
+        return ResponseEntity.status(HttpStatus.CREATED).body(ContratoAnexoResponse.fromEntity(anexo));
+    }
 
-        anexo = anexoRepository.save(anexo);
+    /**
+     * Upload em streaming: o corpo da requisição é o próprio arquivo (Content-Type = tipo do arquivo) e o nome
+     * original vem em {@code nome}. Sem multipart, o conteúdo vai direto do socket para o arquivo final, com
+     * SHA-256 e tamanho calculados na mesma passada; o limite é {@code file.max-upload-size}.
+     */
+    @PostMapping("/anexos/stream")
+    public ResponseEntity<ContratoAnexoResponse> uploadAnexoStream(
+            @PathVariable Long contratoId,
+            @RequestParam("nome") String nome,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            HttpServletRequest request) throws IOException {
 
+        if (!contratoRepository.existsById(contratoId)) {
+            throw new RuntimeException("Contrato não encontrado");
+        }
+        // Content-Length declarado acima do limite: recusa antes de ler o corpo
+        if (request.getContentLengthLong() > fileStorageService.getMaxUploadSize()) {
+            throw new MaxUploadSizeExceededException(fileStorageService.getMaxUploadSize());
+        }
+
+        // Sem transação durante a cópia: a conexão com o banco só é usada para gravar o registro no final
+        String tipoMime = contentType != null ? contentType : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        ContratoAnexo anexo = fileStorageService.store(request.getInputStream(), nome,
+                stored -> anexoRepository.save(ContratoAnexo.builder()
+                        .contrato(contratoRepository.getReferenceById(contratoId))
+                        .nomeOriginal(nome)
+                        .nomeArquivo(stored.nomeArquivo())
+                        .tipoMime(tipoMime)
+                        .tamanho(stored.tamanho())
+                        .sha256(stored.sha256())
+                        .build()));
+
+        previewService.agendar(anexo.getNomeArquivo(), anexo.getTipoMime());
         return ResponseEntity.status(HttpStatus.CREATED).body(ContratoAnexoResponse.fromEntity(anexo));
     }
 
+    // ========== UPLOAD EM PARTES (RETOMÁVEL) ==========
+
     /**
-     * Baixa um anexo específico.
+     * Inicia um upload em partes. A resposta traz o uploadId, o tamanho de cada parte e o total de partes.
      */
-    @GetMapping("/{anexoId}/download")
-    public ResponseEntity<Resource> downloadAnexo(
+    @PostMapping("/anexos/uploads")
+    public ResponseEntity<UploadSessaoResponse> iniciarUpload(
             @PathVariable Long contratoId,
-            @PathVariable Long anexoId) {
+            @Valid @RequestBody UploadSessaoRequest request) {
+
+        if (!contratoRepository.existsById(contratoId)) {
+            throw new RuntimeException("Contrato não encontrado");
+        }
+        UploadSessaoResponse sessao = chunkedUploadService.iniciar(contratoId, request.getNome(),
+                request.getTipoMime(), request.getTamanho());
+        return ResponseEntity.status(HttpStatus.CREATED).body(sessao);
+    }
+
+    /**
+     * Estado do upload, com as partes já recebidas (o cliente reenvia só as que faltam).
+     */
+    @GetMapping("/anexos/uploads/{uploadId}")
+    public ResponseEntity<UploadSessaoResponse> statusUpload(
+            @PathVariable Long contratoId,
+            @PathVariable String uploadId) {
+        return ResponseEntity.ok(chunkedUploadService.status(contratoId, uploadId));
+    }
+
+    /**
+     * Envia a parte {@code indice} (corpo = bytes da parte). Partes podem ser enviadas em paralelo e repetidas.
+     */
+    @PutMapping("/anexos/uploads/{uploadId}/partes/{indice}")
+    public ResponseEntity<Void> enviarParte(
+            @PathVariable Long contratoId,
+            @PathVariable String uploadId,
+            @PathVariable int indice,
+            HttpServletRequest request) throws IOException {
+        chunkedUploadService.receberParte(contratoId, uploadId, indice, request.getInputStream());
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Conclui o upload: monta o arquivo a partir das partes e cria o anexo.
+     */
+    @PostMapping("/anexos/uploads/{uploadId}/concluir")
+    public ResponseEntity<ContratoAnexoResponse> concluirUpload(
+            @PathVariable Long contratoId,
+            @PathVariable String uploadId) {
+
+        ContratoAnexo anexo = chunkedUploadService.concluir(contratoId, uploadId,
+                (sessao, stored) -> anexoRepository.save(ContratoAnexo.builder()
+                        .contrato(contratoRepository.getReferenceById(contratoId))
+                        .nomeOriginal(sessao.getNome())
+                        .nomeArquivo(stored.nomeArquivo())
+                        .tipoMime(sessao.getTipoMime() != null ? sessao.getTipoMime() : MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                        .tamanho(stored.tamanho())
+                        .sha256(stored.sha256())
+                        .build()));
+
+        previewService.agendar(anexo.getNomeArquivo(), anexo.getTipoMime());
+        return ResponseEntity.status(HttpStatus.CREATED).body(ContratoAnexoResponse.fromEntity(anexo));
+    }
+
+    /**
+     * Cancela o upload e descarta as partes recebidas.
+     */
+    @DeleteMapping("/anexos/uploads/{uploadId}")
+    public ResponseEntity<Void> cancelarUpload(
+            @PathVariable Long contratoId,
+            @PathVariable String uploadId) {
+        chunkedUploadService.cancelar(contratoId, uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Baixa um anexo específico. Suporta Range (retomar/visualizar trechos de PDFs grandes) e GET condicional:
+     * o ETag é o SHA-256 do conteúdo, então reabrir um anexo já baixado custa um 304.
+     */
+    @GetMapping("/anexos/{anexoId}/download")
+    public void downloadAnexo(
+            @PathVariable Long contratoId,
+            @PathVariable Long anexoId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
         ContratoAnexo anexo = anexoRepository.findById(anexoId)
                 .orElseThrow(() -> new RuntimeException("Anexo não encontrado"));
 
         // Verificar se o anexo pertence ao contrato
         if (!anexo.getContrato().getId().equals(contratoId)) {
-            return ResponseEntity.notFound().build();
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
         }
 
-        Resource resource = fileStorageService.load(anexo.getNomeArquivo());
+        // Anexos gravados antes do hash na gravação recebem o hash no primeiro download
+        if (anexo.getSha256() == null) {
+            anexo.setSha256(fileStorageService.sha256(anexo.getNomeArquivo()));
+            anexoRepository.save(anexo);
+        }
 
         String contentType = anexo.getTipoMime();
         if (contentType == null) {
             contentType = "application/octet-stream";
         }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + anexo.getNomeOriginal() + "\"")
-                .body(resource);
+        String disposition = ContentDisposition.attachment()
+                .filename(anexo.getNomeOriginal(), StandardCharsets.UTF_8)
+                .build()
+                .toString();
+        long lastModified = anexo.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        FileRangeResponder.write(request, response, fileStorageService, anexo.getNomeArquivo(),
+                contentType, disposition, anexo.getSha256(), lastModified);
+    }
+
+    /**
+     * Prévia do anexo (JPEG reduzido da primeira página do PDF ou da imagem). Se ainda não existe, é gerada no pool
+     * de prévias; 202 com Retry-After se não ficou pronta a tempo, 404 para tipos sem prévia ou conteúdo inválido.
+     */
+    @GetMapping("/anexos/{anexoId}/preview")
+    public void previewAnexo(
+            @PathVariable Long contratoId,
+            @PathVariable Long anexoId,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        ContratoAnexo anexo = anexoRepository.findById(anexoId)
+                .orElseThrow(() -> new RuntimeException("Anexo não encontrado"));
+
+        // Verificar se o anexo pertence ao contrato
+        if (!anexo.getContrato().getId().equals(contratoId)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        AnexoPreviewService.Previa previa = previewService.obter(anexo.getNomeArquivo(), anexo.getTipoMime());
+        if (previa.situacao() == AnexoPreviewService.Previa.Situacao.INDISPONIVEL) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (previa.situacao() == AnexoPreviewService.Previa.Situacao.EM_GERACAO) {
+            response.setStatus(HttpServletResponse.SC_ACCEPTED);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+            return;
+        }
+
+        String nomeArquivo = anexo.getNomeArquivo();
+        String etag = "preview-" + nomeArquivo.substring(nomeArquivo.lastIndexOf('/') + 1);
+        long lastModified = anexo.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        FileRangeResponder.write(request, response, fileStorageService, previa.chave(), MediaType.IMAGE_JPEG_VALUE,
+                ContentDisposition.inline().build().toString(), etag, lastModified, CACHE_PREVIA);
+    }
+
+    /**
+     * Baixa todos os anexos do contrato num único ZIP, montado em streaming direto na resposta.
+     */
+    @GetMapping("/anexos.zip")
+    public void downloadZip(@PathVariable Long contratoId, HttpServletResponse response) throws IOException {
+        if (!contratoRepository.existsById(contratoId)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        List<ContratoAnexo> anexos = anexoRepository.findByContratoIdOrderByCreatedAtDesc(contratoId);
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("contrato-" + contratoId + "-anexos.zip")
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        AnexoZipWriter.write(response.getOutputStream(), fileStorageService, anexos);
     }
 
     /**
      * Exclui um anexo específico.
      */
-    @DeleteMapping("/{anexoId}")
-    @Transactional
+    @DeleteMapping("/anexos/{anexoId}")
     public ResponseEntity<Void> excluirAnexo(
             @PathVariable Long contratoId,
             @PathVariable Long anexoId) {
@@ -121,11 +316,10 @@ public class ContratoAnexoController {
             return ResponseEntity.notFound().build();
         }
 
-        // Excluir arquivo do disco
-        fileStorageService.delete(anexo.getNomeArquivo());
-
-        // Excluir registro do banco
+        // Excluir registro do banco; o arquivo só sai do disco quando nenhum outro anexo usa o mesmo conteúdo
         anexoRepository.delete(anexo);
+        String nomeArquivo = anexo.getNomeArquivo();
+        fileStorageService.release(nomeArquivo, () -> anexoRepository.countByNomeArquivo(nomeArquivo));
 
         return ResponseEntity.noContent().build();
     }
@@ -1,28 +1,97 @@
 package com.advocacia.controller;
 
 import com.advocacia.dto.*;
+import com.advocacia.entity.ContratoStatus;
 import com.advocacia.service.ContratoAuditService;
 import com.advocacia.service.ContratoService;
+import com.advocacia.service.ParcelamentoService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/contratos")
+@PreAuthorize("@userPermissionService.hasScreenAccess(authentication, 'contratos')")
 @RequiredArgsConstructor
 public class ContratoController {
 
     private final ContratoService contratoService;
     private final ContratoAuditService auditService;
+    private final ParcelamentoService parcelamentoService;
 
     @GetMapping
     public ResponseEntity<List<ContratoResponse>> findAll() {
         return ResponseEntity.ok(contratoService.findAll());
     }
 
+    /**
+     * Listagem paginada por cursor. Enviar o nextCursor da resposta anterior para obter a próxima página.
+     */
+    @GetMapping("/pagina")
+    public ResponseEntity<CursorPageResponse<ContratoResponse>> findPage(
+            @RequestParam(required = false) ContratoStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String documento,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        ContratoFiltro filtro = ContratoFiltro.builder()
+                .status(status)
+                .dataInicio(dataInicio)
+                .dataFim(dataFim)
+                .documento(documento)
+                .build();
+        return ResponseEntity.ok(contratoService.findPage(filtro, cursor, limit));
+    }
+
+    /**
+     * Resumo paginado para listagens (id, status, primeiro vendedor/comprador, valor total e datas).
+     */
+    @GetMapping("/resumo")
+    public ResponseEntity<CursorPageResponse<ContratoResumoResponse>> findResumos(
+            @RequestParam(required = false) ContratoStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataInicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dataFim,
+            @RequestParam(required = false) String documento,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        ContratoFiltro filtro = ContratoFiltro.builder()
+                .status(status)
+                .dataInicio(dataInicio)
+                .dataFim(dataFim)
+                .documento(documento)
+                .build();
+        return ResponseEntity.ok(contratoService.findResumos(filtro, cursor, limit));
+    }
+
+    /**
+     * Busca textual (nome, CPF/CNPJ, matrícula, placa, chassi...) ordenada por relevância. Enviar o nextCursor
+     * da resposta anterior para obter a próxima página.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<CursorPageResponse<ContratoBuscaResponse>> search(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(contratoService.search(q, cursor, limit));
+    }
+
+    /**
+     * Cronograma de parcelas do saldo (total - entrada - permutas - financiamento) com vencimentos em dias
+     * úteis. Ao salvar, as parcelas enviadas precisam somar o mesmo saldo.
+     */
+    @PostMapping("/parcelamento/preview")
+    public ResponseEntity<ParcelamentoPreviewResponse> previewParcelamento(@RequestBody ParcelamentoPreviewRequest request) {
+        return ResponseEntity.ok(parcelamentoService.preview(request));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ContratoResponse> findById(@PathVariable Long id) {
         return ResponseEntity.ok(contratoService.findById(id));
@@ -59,6 +128,18 @@ public class ContratoController {
         return ResponseEntity.ok(auditService.getHistorico(id));
     }
 
+    /**
+     * Histórico paginado por cursor; {@code since} (ISO date-time) retorna só alterações posteriores, para polling.
+     */
+    @GetMapping("/{id}/historico/pagina")
+    public ResponseEntity<CursorPageResponse<ContratoAlteracaoResponse>> getHistoricoPage(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(auditService.getHistoricoPage(id, since, cursor, limit));
+    }
+
     @DeleteMapping("/all")
     public ResponseEntity<Void> deleteAll() {
         contratoService.deleteAll();
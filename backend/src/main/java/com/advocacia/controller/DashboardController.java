@@ -0,0 +1,27 @@
+package com.advocacia.controller;
+
+import com.advocacia.dto.DashboardStatsResponse;
+import com.advocacia.service.DashboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/dashboard")
+@PreAuthorize("@userPermissionService.hasScreenAccess(authentication, 'dashboard')")
+@RequiredArgsConstructor
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    /**
+     * Contratos por status, totais mensais dos últimos {@code meses} e parcelas vencendo nos próximos {@code dias}.
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<DashboardStatsResponse> getStats(
+            @RequestParam(required = false) Integer meses,
+            @RequestParam(required = false) Integer dias) {
+        return ResponseEntity.ok(dashboardService.getStats(meses, dias));
+    }
+}
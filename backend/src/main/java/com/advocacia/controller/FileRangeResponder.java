@@ -0,0 +1,140 @@
+package com.advocacia.controller;
+
+import com.advocacia.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Envio de arquivos armazenados com GET condicional (ETag/Last-Modified → 304) e Range de um intervalo (206/416).
+ * No armazenamento em disco o conteúdo não passa pelo heap (sendfile do Tomcat quando disponível, senão
+ * FileChannel.transferTo); em armazenamento remoto o intervalo é lido já recortado e copiado em streaming.
+ */
+final class FileRangeResponder {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileRangeResponder() {
+    }
+
+    /**
+     * @param etag             valor do ETag forte (sem aspas), ex.: SHA-256 do conteúdo
+     * @param lastModifiedMillis instante de modificação; arquivos de anexo são imutáveis
+     */
+    static void write(HttpServletRequest request, HttpServletResponse response, FileStorageService storage,
+                      String filename, String contentType, String contentDisposition, String etag,
+                      long lastModifiedMillis) throws IOException {
+        write(request, response, storage, filename, contentType, contentDisposition, etag, lastModifiedMillis,
+                "private, no-cache");
+    }
+
+    /**
+     * @param cacheControl valor do Cache-Control (conteúdo imutável pode dispensar a revalidação)
+     */
+    static void write(HttpServletRequest request, HttpServletResponse response, FileStorageService storage,
+                      String filename, String contentType, String contentDisposition, String etag,
+                      long lastModifiedMillis, String cacheControl) throws IOException {
+        long length = storage.size(filename);
+        if (length < 0) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        // Define ETag/Last-Modified e responde 304 quando o cliente já tem esta versão
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModifiedMillis)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition);
+
+        long start = 0;
+        long end = length - 1;
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0 && ifRangeMatches(request, etag, lastModifiedMillis)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of();
+            }
+            // Vários intervalos (multipart/byteranges) não são suportados: responde o arquivo inteiro
+            if (ranges.size() == 1) {
+                try {
+                    start = ranges.get(0).getRangeStart(length);
+                    end = ranges.get(0).getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    start = length;
+                }
+                if (start >= length || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+        if ("HEAD".equalsIgnoreCase(request.getMethod()) || count <= 0) {
+            return;
+        }
+
+        Optional<Path> local = storage.localPath(filename);
+        if (local.isEmpty()) {
+            try (InputStream in = storage.open(filename, start, count)) {
+                in.transferTo(response.getOutputStream());
+            }
+            return;
+        }
+        Path file = local.get();
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long sent = channel.transferTo(position, remaining, out);
+                if (sent <= 0) break;
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+
+    /** If-Range: o intervalo só vale se o validador enviado ainda corresponde ao arquivo. */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModifiedMillis) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.isBlank()) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals("\"" + etag + "\"");
+        }
+        long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+        return since >= 0 && lastModifiedMillis / 1000 <= since / 1000;
+    }
+}
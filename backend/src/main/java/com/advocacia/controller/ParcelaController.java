@@ -0,0 +1,47 @@
+package com.advocacia.controller;
+
+import com.advocacia.dto.CursorPageResponse;
+import com.advocacia.dto.ParcelaItemDto;
+import com.advocacia.dto.ParcelaPagamentoRequest;
+import com.advocacia.dto.ParcelaPendenteResponse;
+import com.advocacia.service.ParcelaService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/parcelas")
+@PreAuthorize("@userPermissionService.hasScreenAccess(authentication, 'contratos')")
+@RequiredArgsConstructor
+public class ParcelaController {
+
+    private final ParcelaService parcelaService;
+
+    /**
+     * Parcelas em aberto vencendo nos próximos {@code dias} (padrão 7), de todos os contratos finalizados.
+     */
+    @GetMapping("/proximas")
+    public ResponseEntity<CursorPageResponse<ParcelaPendenteResponse>> findProximas(
+            @RequestParam(required = false) Integer dias,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(parcelaService.findProximas(dias, cursor, limit));
+    }
+
+    /**
+     * Parcelas vencidas e não pagas de todos os contratos finalizados, mais antigas primeiro.
+     */
+    @GetMapping("/vencidas")
+    public ResponseEntity<CursorPageResponse<ParcelaPendenteResponse>> findVencidas(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(parcelaService.findVencidas(cursor, limit));
+    }
+
+    @PutMapping("/{id}/pagamento")
+    public ResponseEntity<ParcelaItemDto> registrarPagamento(@PathVariable Long id,
+                                                             @RequestBody ParcelaPagamentoRequest request) {
+        return ResponseEntity.ok(parcelaService.registrarPagamento(id, request));
+    }
+}
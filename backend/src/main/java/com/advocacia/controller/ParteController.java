@@ -0,0 +1,28 @@
+package com.advocacia.controller;
+
+import com.advocacia.dto.ParteContratoResponse;
+import com.advocacia.service.ContratoService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/partes")
+@PreAuthorize("@userPermissionService.hasScreenAccess(authentication, 'contratos')")
+@RequiredArgsConstructor
+public class ParteController {
+
+    private final ContratoService contratoService;
+
+    /**
+     * Contratos em que o CPF/CNPJ aparece como vendedor, sócio, comprador ou cônjuge. Enviar só os dígitos
+     * (pontos e hífen são aceitos; a barra do CNPJ não cabe no caminho).
+     */
+    @GetMapping("/{documento}/contratos")
+    public ResponseEntity<List<ParteContratoResponse>> findContratos(@PathVariable String documento) {
+        return ResponseEntity.ok(contratoService.findContratosByDocumento(documento));
+    }
+}
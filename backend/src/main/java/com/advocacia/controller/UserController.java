@@ -7,18 +7,22 @@ import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/users")
+@PreAuthorize("@userPermissionService.hasScreenAccess(authentication, 'usuarios')")
 @RequiredArgsConstructor
 public class UserController {
 
     private final UserService userService;
 
+    /** Também usada pela tela de permissões para listar os usuários. */
     @GetMapping
+    @PreAuthorize("@userPermissionService.hasScreenAccess(authentication, 'usuarios', 'permissoes')")
     public ResponseEntity<List<UserResponse>> findAll() {
         return ResponseEntity.ok(userService.findAll());
     }
@@ -1,15 +1,19 @@
 package com.advocacia.controller;
 
 import com.advocacia.dto.ScreenResponse;
+import com.advocacia.entity.User;
 import com.advocacia.service.UserPermissionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 
 @RestController
 @RequestMapping("/api")
+@PreAuthorize("@userPermissionService.hasScreenAccess(authentication, 'permissoes')")
 @RequiredArgsConstructor
 public class UserPermissionController {
 
@@ -20,6 +24,13 @@ public class UserPermissionController {
         return ResponseEntity.ok(userPermissionService.findAllScreens());
     }
 
+    /** Telas do usuário logado (menu e guard de rotas do frontend); servida do cache de permissões. */
+    @GetMapping("/users/me/screens")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<String>> getMyScreens(@AuthenticationPrincipal User user) {
+        return ResponseEntity.ok(userPermissionService.findScreenCodesByUserId(user.getId()));
+    }
+
     @GetMapping("/users/{id}/screens")
     public ResponseEntity<List<String>> getUserScreens(@PathVariable Long id) {
         return ResponseEntity.ok(userPermissionService.findScreenCodesByUserId(id));
@@ -17,6 +17,8 @@ public class ContratoAlteracaoResponse {
     private Long contratoId;
     private String username;
     private LocalDateTime changedAt;
+    /** Instante em que a entrada foi gravada; use o maior valor recebido como próximo {@code since}. */
+    private LocalDateTime recordedAt;
     private List<FieldChange> changes;
 
     @Data
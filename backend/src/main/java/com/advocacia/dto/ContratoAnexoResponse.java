@@ -1,6 +1,7 @@
 package com.advocacia.dto;
 
 import com.advocacia.entity.ContratoAnexo;
+import com.advocacia.service.AnexoPreviewService;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -20,6 +21,9 @@ public class ContratoAnexoResponse {
     private String nomeArquivo;
     private String tipoMime;
     private Long tamanho;
+    private String sha256;
+    /** Há prévia (miniatura) em GET .../anexos/{id}/preview. */
+    private boolean previa;
     private LocalDateTime createdAt;
 
     public static ContratoAnexoResponse fromEntity(ContratoAnexo anexo) {
@@ -30,6 +34,8 @@ public class ContratoAnexoResponse {
                 .nomeArquivo(anexo.getNomeArquivo())
                 .tipoMime(anexo.getTipoMime())
                 .tamanho(anexo.getTamanho())
+                .sha256(anexo.getSha256())
+                .previa(AnexoPreviewService.suportado(anexo.getTipoMime()))
                 .createdAt(anexo.getCreatedAt())
                 .build();
     }
@@ -0,0 +1,21 @@
+package com.advocacia.dto;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado da busca textual: o mesmo resumo da listagem (campos no mesmo nível do JSON) e a relevância.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContratoBuscaResponse {
+    @JsonUnwrapped
+    private ContratoResumoResponse contrato;
+    /** ts_rank do resultado; maior é mais relevante. */
+    private Float relevancia;
+}
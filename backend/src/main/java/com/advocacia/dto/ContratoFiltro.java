@@ -0,0 +1,26 @@
+package com.advocacia.dto;
+
+import com.advocacia.entity.ContratoStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Filtros da listagem paginada de contratos. Campos nulos não filtram.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContratoFiltro {
+    private ContratoStatus status;
+    /** Data de criação inicial (inclusiva). */
+    private LocalDate dataInicio;
+    /** Data de criação final (inclusiva). */
+    private LocalDate dataFim;
+    /** CPF/CNPJ de vendedor ou comprador (com ou sem máscara). */
+    private String documento;
+}
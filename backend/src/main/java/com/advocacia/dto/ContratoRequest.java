@@ -69,6 +69,8 @@ public class ContratoRequest {
     private String negocioPrazoPagamento;
     private LocalDate negocioDataPrimeiraParcela;
     private List<ParcelaItemDto> parcelas;
+    /** true: permite remover parcelas já pagas ou alterar seu vencimento/valor (senão o salvamento é recusado). */
+    private Boolean substituirParcelasPagas;
 
     // ========== PÁGINA 4: CONTA BANCÁRIA ==========
     private String contaTitular;
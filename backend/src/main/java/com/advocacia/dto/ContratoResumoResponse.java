@@ -0,0 +1,31 @@
+package com.advocacia.dto;
+
+import com.advocacia.entity.ContratoStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContratoResumoResponse {
+    private Long id;
+    private ContratoStatus status;
+    private Integer paginaAtual;
+    /** Nome do primeiro vendedor (menor ordem). */
+    private String vendedorNome;
+    private Integer totalVendedores;
+    /** Nome do primeiro comprador (menor ordem). */
+    private String compradorNome;
+    private Integer totalCompradores;
+    private BigDecimal negocioValorTotal;
+    private LocalDate dataContrato;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
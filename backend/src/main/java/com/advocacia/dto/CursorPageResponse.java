@@ -0,0 +1,22 @@
+package com.advocacia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados paginada por cursor (keyset).
+ * nextCursor é opaco para o cliente e deve ser reenviado como parâmetro "cursor" para obter a próxima página.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CursorPageResponse<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
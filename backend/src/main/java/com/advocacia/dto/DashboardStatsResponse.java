@@ -0,0 +1,40 @@
+package com.advocacia.dto;
+
+import com.advocacia.entity.ContratoStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DashboardStatsResponse {
+    /** Quantidade de contratos por status (todos os status presentes, zero quando não há). */
+    private Map<ContratoStatus, Long> contratosPorStatus;
+    /** Totais por mês do contrato e status, do mês mais antigo pedido até hoje. */
+    private List<Mensal> mensal;
+    /** Parcelas em aberto de contratos finalizados vencendo de hoje até {@code proximasParcelasAte}. */
+    private Long proximasParcelasQuantidade;
+    private BigDecimal proximasParcelasValor;
+    private LocalDate proximasParcelasAte;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Mensal {
+        /** Primeiro dia do mês. */
+        private LocalDate mes;
+        private ContratoStatus status;
+        private Long contratos;
+        private BigDecimal negocioValorTotal;
+        private BigDecimal honorariosValor;
+    }
+}
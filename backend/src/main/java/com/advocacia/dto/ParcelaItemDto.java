@@ -16,4 +16,8 @@ public class ParcelaItemDto {
     /** Data de vencimento em ISO (yyyy-MM-dd). */
     private String vencimento;
     private BigDecimal valor;
+    /** Situação de pagamento; ignorada ao salvar o contrato (alterada por PUT /api/parcelas/{id}/pagamento). */
+    private Boolean pago;
+    /** Data do pagamento em ISO (yyyy-MM-dd). */
+    private String pagoEm;
 }
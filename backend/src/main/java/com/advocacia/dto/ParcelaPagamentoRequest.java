@@ -0,0 +1,18 @@
+package com.advocacia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParcelaPagamentoRequest {
+    private Boolean pago;
+    /** Data do pagamento; hoje quando omitida. */
+    private LocalDate pagoEm;
+}
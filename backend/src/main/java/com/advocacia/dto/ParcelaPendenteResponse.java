@@ -0,0 +1,25 @@
+package com.advocacia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParcelaPendenteResponse {
+    private Long id;
+    private Long contratoId;
+    private Integer numero;
+    private LocalDate vencimento;
+    private BigDecimal valor;
+    /** Nome do primeiro comprador (menor ordem). */
+    private String compradorNome;
+    /** Dias desde o vencimento; negativo para parcelas a vencer. */
+    private Long diasAtraso;
+}
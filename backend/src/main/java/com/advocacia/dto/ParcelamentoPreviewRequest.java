@@ -0,0 +1,31 @@
+package com.advocacia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Valores do negócio usados para gerar o parcelamento (mesmos nomes do {@link ContratoRequest}).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParcelamentoPreviewRequest {
+    private BigDecimal negocioValorTotal;
+    private BigDecimal negocioValorEntrada;
+    private BigDecimal negocioValorImovelPermuta;
+    private BigDecimal negocioValorVeiculoPermuta;
+    private BigDecimal negocioValorFinanciamento;
+    private Integer negocioNumParcelas;
+    private LocalDate negocioDataPrimeiraParcela;
+    /** Dia do vencimento ("10" ou "Todo dia 10"); sem ele, o dia da 1ª parcela. */
+    private String negocioVencimentos;
+    /** Parcelas já pagas do contrato: mantidas como estão, o restante do saldo é dividido entre as demais. */
+    private List<ParcelaItemDto> parcelasPagas;
+}
@@ -0,0 +1,19 @@
+package com.advocacia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParcelamentoPreviewResponse {
+    /** Saldo a parcelar: total - entrada - permutas - financiamento (mínimo zero). */
+    private BigDecimal saldo;
+    private List<ParcelaItemDto> parcelas;
+}
@@ -0,0 +1,28 @@
+package com.advocacia.dto;
+
+import com.advocacia.entity.ContratoStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Contrato em que um CPF/CNPJ aparece, com os papéis que ele ocupa (VENDEDOR, SOCIO, COMPRADOR, CONJUGE).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParteContratoResponse {
+    private Long contratoId;
+    private ContratoStatus status;
+    private LocalDate dataContrato;
+    private LocalDateTime createdAt;
+    private List<String> papeis;
+    /** Nome registrado para o documento (primeiro papel encontrado). */
+    private String nome;
+}
@@ -0,0 +1,31 @@
+package com.advocacia.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Início de um upload em partes: nome original, tipo e tamanho total do arquivo.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessaoRequest {
+
+    @NotBlank(message = "O nome do arquivo é obrigatório")
+    @Size(max = 255, message = "O nome do arquivo deve ter no máximo 255 caracteres")
+    private String nome;
+
+    @Size(max = 100, message = "O tipo do arquivo deve ter no máximo 100 caracteres")
+    private String tipoMime;
+
+    @NotNull(message = "O tamanho do arquivo é obrigatório")
+    @Positive(message = "O tamanho do arquivo deve ser maior que zero")
+    private Long tamanho;
+}
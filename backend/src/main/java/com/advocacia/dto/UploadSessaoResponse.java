@@ -0,0 +1,27 @@
+package com.advocacia.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Estado de um upload em partes. A parte N cobre os bytes [N * tamanhoParte, (N + 1) * tamanhoParte);
+ * partesRecebidas permite ao cliente retomar enviando só as que faltam.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSessaoResponse {
+    private String uploadId;
+    private Long contratoId;
+    private String nome;
+    private String tipoMime;
+    private long tamanho;
+    private long tamanhoParte;
+    private int totalPartes;
+    private List<Integer> partesRecebidas;
+}
@@ -0,0 +1,36 @@
+package com.advocacia.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reivindicação da conclusão de um upload em partes: só o pedido que a inseriu monta o arquivo; anexoId fica
+ * preenchido quando o anexo foi registrado.
+ */
+@Entity
+@Table(name = "anexo_upload_conclusoes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AnexoUploadConclusao {
+
+    @Id
+    @Column(name = "upload_id", length = 36)
+    private String uploadId;
+
+    @Column(name = "contrato_id", nullable = false)
+    private Long contratoId;
+
+    @Column(name = "anexo_id")
+    private Long anexoId;
+
+    /** Início da conclusão; uma reivindicação sem anexo e antiga demais é de um pedido que não terminou. */
+    @Column(name = "iniciada_em", nullable = false)
+    private LocalDateTime iniciadaEm;
+}
@@ -2,8 +2,6 @@ package com.advocacia.entity;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -23,7 +21,8 @@ import java.util.List;
 public class Contrato {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contratos_seq")
+    @SequenceGenerator(name = "contratos_seq", sequenceName = "contratos_id_seq", allocationSize = 50)
     private Long id;
 
     // ========== STATUS E CONTROLE ==========
@@ -251,10 +250,6 @@ public class Contrato {
     @Column(name = "negocio_data_primeira_parcela")
     private LocalDate negocioDataPrimeiraParcela;
 
-    @JdbcTypeCode(SqlTypes.JSON)
-    @Column(name = "negocio_parcelas", columnDefinition = "jsonb")
-    private String negocioParcelas;
-
     // ========== PÁGINA 4: CONTA BANCÁRIA ==========
     @Column(name = "conta_titular", length = 200)
     private String contaTitular;
@@ -297,16 +292,20 @@ public class Contrato {
     // ========== VENDEDORES E COMPRADORES (N:1) ==========
     @OneToMany(mappedBy = "contrato", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("ordem ASC")
-    @org.hibernate.annotations.BatchSize(size = 20)
     @Builder.Default
     private List<ContratoVendedor> vendedores = new ArrayList<>();
 
     @OneToMany(mappedBy = "contrato", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("ordem ASC")
-    @org.hibernate.annotations.BatchSize(size = 20)
     @Builder.Default
     private List<ContratoComprador> compradores = new ArrayList<>();
 
+    // ========== PARCELAS (contrato_parcelas; a coluna JSONB negocio_parcelas ficou obsoleta) ==========
+    @OneToMany(mappedBy = "contrato", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("numero ASC")
+    @Builder.Default
+    private List<ContratoParcela> parcelas = new ArrayList<>();
+
     // ========== AUDITORIA ==========
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 
@@ -21,7 +22,8 @@ import java.util.Map;
 public class ContratoAlteracao {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contrato_alteracoes_seq")
+    @SequenceGenerator(name = "contrato_alteracoes_seq", sequenceName = "contrato_alteracoes_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "contrato_id", nullable = false)
@@ -34,7 +36,30 @@ public class ContratoAlteracao {
     @Builder.Default
     private LocalDateTime changedAt = LocalDateTime.now();
 
+    /**
+     * Instante da última gravação: insert ou mesclagem de um autosave (pode ser posterior a changedAt: fila assíncrona
+     * e agrupamento); base do polling {@code since}.
+     */
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    /** Instante do insert; início da janela de agrupamento ({@code audit.coalesce.window}). */
+    @Column(name = "first_recorded_at", nullable = false, updatable = false)
+    private LocalDateTime firstRecordedAt;
+
     @Type(JsonBinaryType.class)
     @Column(columnDefinition = "jsonb", nullable = false)
     private List<Map<String, String>> changes;
+
+    @PrePersist
+    protected void onCreate() {
+        // Precisão do TIMESTAMP do banco: o valor em memória é o mesmo devolvido ao cliente como próximo since
+        recordedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        firstRecordedAt = recordedAt;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        recordedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
 }
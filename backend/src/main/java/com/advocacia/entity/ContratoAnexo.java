@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class ContratoAnexo {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contrato_anexos_seq")
+    @SequenceGenerator(name = "contrato_anexos_seq", sequenceName = "contrato_anexos_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,6 +37,10 @@ public class ContratoAnexo {
     @Column(name = "tamanho")
     private Long tamanho;
 
+    /** SHA-256 (hex) do conteúdo; usado como ETag forte no download. */
+    @Column(name = "sha256", length = 64)
+    private String sha256;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
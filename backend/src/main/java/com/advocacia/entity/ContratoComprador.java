@@ -5,8 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "contrato_compradores")
 @Data
 @NoArgsConstructor
@@ -15,7 +17,8 @@ import lombok.NoArgsConstructor;
 public class ContratoComprador {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contrato_compradores_seq")
+    @SequenceGenerator(name = "contrato_compradores_seq", sequenceName = "contrato_compradores_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
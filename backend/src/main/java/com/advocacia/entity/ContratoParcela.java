@@ -0,0 +1,46 @@
+package com.advocacia.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@DynamicUpdate
+@Table(name = "contrato_parcelas",
+        uniqueConstraints = @UniqueConstraint(name = "uk_contrato_parcelas_numero", columnNames = {"contrato_id", "numero"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ContratoParcela {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contrato_parcelas_seq")
+    @SequenceGenerator(name = "contrato_parcelas_seq", sequenceName = "contrato_parcelas_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "contrato_id", nullable = false)
+    private Contrato contrato;
+
+    @Column(nullable = false)
+    private Integer numero;
+
+    private LocalDate vencimento;
+
+    @Column(precision = 15, scale = 2)
+    private BigDecimal valor;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean pago = false;
+
+    @Column(name = "pago_em")
+    private LocalDate pagoEm;
+}
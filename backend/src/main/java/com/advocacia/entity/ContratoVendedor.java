@@ -5,8 +5,10 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "contrato_vendedores")
 @Data
 @NoArgsConstructor
@@ -15,7 +17,8 @@ import lombok.NoArgsConstructor;
 public class ContratoVendedor {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contrato_vendedores_seq")
+    @SequenceGenerator(name = "contrato_vendedores_seq", sequenceName = "contrato_vendedores_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -45,6 +45,11 @@ public class User implements UserDetails {
     @Builder.Default
     private Boolean active = true;
 
+    /** Incrementada quando perfil, senha, login ou status mudam: tokens emitidos antes deixam de valer. */
+    @Column(name = "token_version", nullable = false)
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
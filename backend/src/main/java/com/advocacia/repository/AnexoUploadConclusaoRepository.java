@@ -0,0 +1,53 @@
+package com.advocacia.repository;
+
+import com.advocacia.entity.AnexoUploadConclusao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface AnexoUploadConclusaoRepository extends JpaRepository<AnexoUploadConclusao, String> {
+
+    /**
+     * Reivindica a conclusão da sessão; 0 quando outro pedido, em qualquer nó, já a reivindicou. Dois inserts
+     * simultâneos: a chave primária recusa o segundo (violação de integridade, tratada por quem chama).
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO anexo_upload_conclusoes (upload_id, contrato_id, iniciada_em)
+            SELECT :uploadId, :contratoId, :agora
+            WHERE NOT EXISTS (SELECT 1 FROM anexo_upload_conclusoes WHERE upload_id = :uploadId)
+            """, nativeQuery = true)
+    int reivindicar(@Param("uploadId") String uploadId, @Param("contratoId") Long contratoId,
+                    @Param("agora") LocalDateTime agora);
+
+    /** Assume uma conclusão sem anexo iniciada antes de {@code limite} (o pedido que a reivindicou não terminou). */
+    @Transactional
+    @Modifying
+    @Query("""
+            UPDATE AnexoUploadConclusao c SET c.iniciadaEm = :agora
+            WHERE c.uploadId = :uploadId AND c.anexoId IS NULL AND c.iniciadaEm < :limite
+            """)
+    int retomar(@Param("uploadId") String uploadId, @Param("limite") LocalDateTime limite,
+                @Param("agora") LocalDateTime agora);
+
+    /** Grava o anexo criado; chamado na transação que registra o anexo. */
+    @Transactional
+    @Modifying
+    @Query("UPDATE AnexoUploadConclusao c SET c.anexoId = :anexoId WHERE c.uploadId = :uploadId")
+    int registrarAnexo(@Param("uploadId") String uploadId, @Param("anexoId") Long anexoId);
+
+    /** Desfaz a reivindicação de uma conclusão que falhou, liberando nova tentativa. */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM AnexoUploadConclusao c WHERE c.uploadId = :uploadId AND c.anexoId IS NULL")
+    int liberar(@Param("uploadId") String uploadId);
+
+    boolean existsByUploadIdAndAnexoIdIsNullAndIniciadaEmAfter(String uploadId, LocalDateTime limite);
+}
@@ -1,12 +1,20 @@
 package com.advocacia.repository;
 
 import com.advocacia.entity.ContratoAlteracao;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ContratoAlteracaoRepository extends JpaRepository<ContratoAlteracao, Long> {
+public interface ContratoAlteracaoRepository extends JpaRepository<ContratoAlteracao, Long>, JpaSpecificationExecutor<ContratoAlteracao> {
     List<ContratoAlteracao> findByContratoIdOrderByChangedAtDesc(Long contratoId);
+
+    /** Última entrada do contrato, bloqueada até o fim da transação (agrupamento de autosave). */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ContratoAlteracao> findFirstByContratoIdOrderByChangedAtDescIdDesc(Long contratoId);
 }
@@ -0,0 +1,40 @@
+package com.advocacia.repository;
+
+import com.advocacia.entity.ContratoAlteracao;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+
+/**
+ * Specifications do histórico paginado. Predicados opcionais só são gerados quando informados,
+ * mantendo o acesso por idx_contrato_alteracoes_contrato_date (contrato_id, changed_at DESC).
+ */
+public final class ContratoAlteracaoSpecifications {
+
+    private ContratoAlteracaoSpecifications() {
+    }
+
+    public static Specification<ContratoAlteracao> doContrato(Long contratoId) {
+        return (root, query, cb) -> cb.equal(root.get("contratoId"), contratoId);
+    }
+
+    /**
+     * Alterações gravadas depois de {@code since} (polling incremental), por idx_contrato_alteracoes_contrato_recorded.
+     */
+    public static Specification<ContratoAlteracao> desde(LocalDateTime since) {
+        return (root, query, cb) -> since == null ? cb.and() : cb.greaterThan(root.get("recordedAt"), since);
+    }
+
+    /**
+     * Posição após o cursor na ordem (changed_at DESC, id DESC).
+     */
+    public static Specification<ContratoAlteracao> aposCursor(LocalDateTime changedAt, Long id) {
+        return (root, query, cb) -> {
+            if (changedAt == null || id == null) return cb.and();
+            return cb.or(
+                    cb.lessThan(root.get("changedAt"), changedAt),
+                    cb.and(cb.equal(root.get("changedAt"), changedAt), cb.lessThan(root.get("id"), id))
+            );
+        };
+    }
+}
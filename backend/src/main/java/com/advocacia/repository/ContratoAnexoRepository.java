@@ -12,4 +12,7 @@ public interface ContratoAnexoRepository extends JpaRepository<ContratoAnexo, Lo
     List<ContratoAnexo> findByContratoIdOrderByCreatedAtDesc(Long contratoId);
 
     void deleteByContratoId(Long contratoId);
+
+    /** Quantos anexos apontam para o mesmo arquivo (conteúdo deduplicado). */
+    long countByNomeArquivo(String nomeArquivo);
 }
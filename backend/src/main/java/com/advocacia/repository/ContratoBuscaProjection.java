@@ -0,0 +1,8 @@
+package com.advocacia.repository;
+
+/**
+ * Resumo de contrato retornado pela busca textual, com a relevância do resultado.
+ */
+public interface ContratoBuscaProjection extends ContratoResumoProjection {
+    Float getRelevancia();
+}
@@ -0,0 +1,43 @@
+package com.advocacia.repository;
+
+import com.advocacia.entity.ContratoParcela;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ContratoParcelaRepository extends JpaRepository<ContratoParcela, Long> {
+
+    /**
+     * Parcelas em aberto de contratos finalizados com vencimento entre {@code de} (nulo: sem limite) e
+     * {@code ate}, em ordem de vencimento. Varredura de faixa no índice parcial de pendentes (V21), paginada
+     * por keyset em (vencimento, id).
+     */
+    @Query(value = """
+            SELECT p.id AS id,
+                   p.contrato_id AS contratoId,
+                   p.numero AS numero,
+                   p.vencimento AS vencimento,
+                   p.valor AS valor,
+                   (SELECT cp.nome FROM contrato_compradores cp WHERE cp.contrato_id = p.contrato_id ORDER BY cp.ordem, cp.id LIMIT 1) AS compradorNome
+            FROM contrato_parcelas p
+            JOIN contratos c ON c.id = p.contrato_id
+            WHERE NOT p.pago
+              AND (CAST(:de AS DATE) IS NULL OR p.vencimento >= CAST(:de AS DATE))
+              AND p.vencimento <= CAST(:ate AS DATE)
+              AND c.status = 'FINAL'
+              AND (CAST(:cursorVencimento AS DATE) IS NULL
+                   OR (p.vencimento, p.id) > (CAST(:cursorVencimento AS DATE), CAST(:cursorId AS BIGINT)))
+            ORDER BY p.vencimento, p.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<ParcelaPendenteProjection> findPendentes(@Param("de") LocalDate de,
+                                                  @Param("ate") LocalDate ate,
+                                                  @Param("cursorVencimento") LocalDate cursorVencimento,
+                                                  @Param("cursorId") Long cursorId,
+                                                  @Param("limit") int limit);
+}
@@ -3,14 +3,128 @@ package com.advocacia.repository;
 import com.advocacia.entity.Contrato;
 import com.advocacia.entity.ContratoStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ContratoRepository extends JpaRepository<Contrato, Long> {
+public interface ContratoRepository extends JpaRepository<Contrato, Long>, JpaSpecificationExecutor<Contrato>,
+        ContratoResumoRepository {
 
     List<Contrato> findByStatus(ContratoStatus status);
 
     List<Contrato> findAllByOrderByCreatedAtDesc();
+
+    /**
+     * Inicializa vendedores dos contratos já carregados (uma consulta IN para todos).
+     * Vendedores e compradores são bags: buscá-los em consultas separadas evita MultipleBagFetchException e produto cartesiano.
+     */
+    @Query("SELECT DISTINCT c FROM Contrato c LEFT JOIN FETCH c.vendedores WHERE c.id IN :ids")
+    List<Contrato> fetchVendedoresByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Inicializa compradores dos contratos já carregados (uma consulta IN para todos). */
+    @Query("SELECT DISTINCT c FROM Contrato c LEFT JOIN FETCH c.compradores WHERE c.id IN :ids")
+    List<Contrato> fetchCompradoresByIdIn(@Param("ids") Collection<Long> ids);
+
+    /** Inicializa parcelas dos contratos já carregados (uma consulta IN para todos). */
+    @Query("SELECT DISTINCT c FROM Contrato c LEFT JOIN FETCH c.parcelas WHERE c.id IN :ids")
+    List<Contrato> fetchParcelasByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Busca textual ordenada por relevância (coluna {@code busca}, mantida por triggers, índice GIN). A
+     * subconsulta ordena e pagina só ids e relevância; nomes e contagens das partes são calculados apenas
+     * para as linhas da página. Apenas PostgreSQL.
+     */
+    @Query(value = """
+            SELECT c.id AS id,
+                   c.status AS status,
+                   c.pagina_atual AS paginaAtual,
+                   (SELECT v.nome FROM contrato_vendedores v WHERE v.contrato_id = c.id ORDER BY v.ordem, v.id LIMIT 1) AS vendedorNome,
+                   (SELECT CAST(COUNT(*) AS INTEGER) FROM contrato_vendedores v WHERE v.contrato_id = c.id) AS totalVendedores,
+                   (SELECT cp.nome FROM contrato_compradores cp WHERE cp.contrato_id = c.id ORDER BY cp.ordem, cp.id LIMIT 1) AS compradorNome,
+                   (SELECT CAST(COUNT(*) AS INTEGER) FROM contrato_compradores cp WHERE cp.contrato_id = c.id) AS totalCompradores,
+                   c.negocio_valor_total AS negocioValorTotal,
+                   c.data_contrato AS dataContrato,
+                   c.created_at AS createdAt,
+                   c.updated_at AS updatedAt,
+                   r.relevancia AS relevancia
+            FROM (SELECT b.id AS id,
+                         ts_rank(b.busca, to_tsquery('portugues_sem_acento', :consulta)) AS relevancia,
+                         b.created_at AS created_at
+                  FROM contratos b
+                  WHERE b.busca @@ to_tsquery('portugues_sem_acento', :consulta)
+                  ORDER BY relevancia DESC, b.created_at DESC, b.id DESC
+                  LIMIT :limit OFFSET :offset) r
+            JOIN contratos c ON c.id = r.id
+            ORDER BY r.relevancia DESC, r.created_at DESC, r.id DESC
+            """, nativeQuery = true)
+    List<ContratoBuscaProjection> search(@Param("consulta") String consulta,
+                                         @Param("offset") int offset,
+                                         @Param("limit") int limit);
+
+    /**
+     * Contratos em que o documento (só dígitos) aparece como vendedor, sócio, comprador ou cônjuge. Cada ramo
+     * usa um índice: documento (V13) ou a expressão sobre os dígitos do CPF de sócio/cônjuge (V19).
+     */
+    @Query(value = """
+            SELECT p.contrato_id AS contratoId,
+                   c.status AS status,
+                   c.data_contrato AS dataContrato,
+                   c.created_at AS createdAt,
+                   p.papel AS papel,
+                   p.nome AS nome
+            FROM (SELECT v.contrato_id, 'VENDEDOR' AS papel, v.nome, 1 AS ordem
+                  FROM contrato_vendedores v WHERE v.documento = :documento
+                  UNION ALL
+                  SELECT v.contrato_id, 'SOCIO', v.socio_nome, 2
+                  FROM contrato_vendedores v WHERE regexp_replace(v.socio_cpf, '\\D', '', 'g') = :documento
+                  UNION ALL
+                  SELECT cp.contrato_id, 'COMPRADOR', cp.nome, 3
+                  FROM contrato_compradores cp WHERE cp.documento = :documento
+                  UNION ALL
+                  SELECT cp.contrato_id, 'CONJUGE', cp.conjuge_nome, 4
+                  FROM contrato_compradores cp WHERE regexp_replace(cp.conjuge_cpf, '\\D', '', 'g') = :documento) p
+            JOIN contratos c ON c.id = p.contrato_id
+            ORDER BY c.created_at DESC, c.id DESC, p.ordem
+            """, nativeQuery = true)
+    List<ParteContratoProjection> findParticipacoesByDocumento(@Param("documento") String documento);
+
+    /** Contratos por status (dashboard_status, mantida por trigger). */
+    @Query(value = """
+            SELECT d.status AS chave, d.total AS quantidade, CAST(NULL AS NUMERIC) AS valor
+            FROM dashboard_status d
+            WHERE d.total <> 0
+            """, nativeQuery = true)
+    List<DashboardContagemProjection> findDashboardStatus();
+
+    /** Totais mensais a partir de {@code desde} (dashboard_mensal, mantida por trigger). */
+    @Query(value = """
+            SELECT d.mes AS mes,
+                   d.status AS status,
+                   d.contratos AS contratos,
+                   d.negocio_valor_total AS negocioValorTotal,
+                   d.honorarios_valor AS honorariosValor
+            FROM dashboard_mensal d
+            WHERE d.mes >= :desde AND d.contratos <> 0
+            ORDER BY d.mes, d.status
+            """, nativeQuery = true)
+    List<DashboardMensalProjection> findDashboardMensal(@Param("desde") LocalDate desde);
+
+    /** Parcelas em aberto de contratos finalizados com vencimento no intervalo (faixa do índice de pendentes, V21). */
+    @Query(value = """
+            SELECT 'PARCELAS' AS chave,
+                   CAST(COUNT(*) AS BIGINT) AS quantidade,
+                   COALESCE(SUM(p.valor), 0) AS valor
+            FROM contrato_parcelas p
+            JOIN contratos c ON c.id = p.contrato_id
+            WHERE NOT p.pago
+              AND p.vencimento >= :inicio AND p.vencimento <= :fim
+              AND c.status = 'FINAL'
+            """, nativeQuery = true)
+    DashboardContagemProjection findDashboardParcelas(@Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
 }
@@ -0,0 +1,22 @@
+package com.advocacia.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de resumo de contrato para listagens (sem hidratar a entidade nem as coleções de partes).
+ */
+public interface ContratoResumoProjection {
+    Long getId();
+    String getStatus();
+    Integer getPaginaAtual();
+    String getVendedorNome();
+    Integer getTotalVendedores();
+    String getCompradorNome();
+    Integer getTotalCompradores();
+    BigDecimal getNegocioValorTotal();
+    LocalDate getDataContrato();
+    LocalDateTime getCreatedAt();
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,18 @@
+package com.advocacia.repository;
+
+import com.advocacia.entity.Contrato;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Resumo de contratos para listagens, com os mesmos filtros e cursor da listagem completa ({@link ContratoSpecifications}).
+ */
+public interface ContratoResumoRepository {
+
+    /**
+     * Só as colunas exibidas, nome do primeiro vendedor/comprador e contagem das partes, numa única consulta
+     * ordenada por (created_at, id) DESC. O WHERE contém apenas os predicados gerados pela specification.
+     */
+    List<ContratoResumoProjection> findResumos(Specification<Contrato> spec, int limit);
+}
@@ -0,0 +1,111 @@
+package com.advocacia.repository;
+
+import com.advocacia.entity.Contrato;
+import com.advocacia.entity.ContratoComprador;
+import com.advocacia.entity.ContratoStatus;
+import com.advocacia.entity.ContratoVendedor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.hibernate.query.criteria.JpaSubQuery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Consulta de resumo em Criteria: a specification da listagem vira o WHERE (sem predicados "parâmetro nulo"),
+ * e as partes entram como subconsultas correlacionadas (primeiro nome por ordem, id; contagem).
+ */
+class ContratoResumoRepositoryImpl implements ContratoResumoRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ContratoResumoProjection> findResumos(Specification<Contrato> spec, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Contrato> c = query.from(Contrato.class);
+
+        query.multiselect(
+                c.get("id"),
+                c.get("status"),
+                c.get("paginaAtual"),
+                primeiroNome(query, cb, c, ContratoVendedor.class),
+                totalPartes(query, cb, c, ContratoVendedor.class),
+                primeiroNome(query, cb, c, ContratoComprador.class),
+                totalPartes(query, cb, c, ContratoComprador.class),
+                c.get("negocioValorTotal"),
+                c.get("dataContrato"),
+                c.get("createdAt"),
+                c.get("updatedAt"));
+        Predicate where = spec != null ? spec.toPredicate(c, query, cb) : null;
+        if (where != null) query.where(where);
+        query.orderBy(cb.desc(c.get("createdAt")), cb.desc(c.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultStream()
+                .map(ContratoResumoRepositoryImpl::toProjection)
+                .toList();
+    }
+
+    private static Expression<String> primeiroNome(CriteriaQuery<?> query, CriteriaBuilder cb, Root<Contrato> c, Class<?> parte) {
+        JpaSubQuery<String> sub = (JpaSubQuery<String>) query.subquery(String.class);
+        Root<?> p = sub.from(parte);
+        sub.select(p.get("nome"))
+                .where(cb.equal(p.get("contrato"), c))
+                .orderBy(cb.asc(p.get("ordem")), cb.asc(p.get("id")))
+                .fetch(1);
+        return sub;
+    }
+
+    private static Expression<Long> totalPartes(CriteriaQuery<?> query, CriteriaBuilder cb, Root<Contrato> c, Class<?> parte) {
+        Subquery<Long> sub = query.subquery(Long.class);
+        Root<?> p = sub.from(parte);
+        return sub.select(cb.count(p)).where(cb.equal(p.get("contrato"), c));
+    }
+
+    private static ContratoResumoProjection toProjection(Tuple t) {
+        ContratoStatus status = t.get(1, ContratoStatus.class);
+        return new Resumo(
+                t.get(0, Long.class),
+                status != null ? status.name() : null,
+                t.get(2, Integer.class),
+                t.get(3, String.class),
+                t.get(4, Long.class).intValue(),
+                t.get(5, String.class),
+                t.get(6, Long.class).intValue(),
+                t.get(7, BigDecimal.class),
+                t.get(8, LocalDate.class),
+                t.get(9, LocalDateTime.class),
+                t.get(10, LocalDateTime.class));
+    }
+
+    private record Resumo(Long id, String status, Integer paginaAtual, String vendedorNome, Integer totalVendedores,
+                          String compradorNome, Integer totalCompradores, BigDecimal negocioValorTotal,
+                          LocalDate dataContrato, LocalDateTime createdAt, LocalDateTime updatedAt)
+            implements ContratoResumoProjection {
+
+        @Override public Long getId() { return id; }
+        @Override public String getStatus() { return status; }
+        @Override public Integer getPaginaAtual() { return paginaAtual; }
+        @Override public String getVendedorNome() { return vendedorNome; }
+        @Override public Integer getTotalVendedores() { return totalVendedores; }
+        @Override public String getCompradorNome() { return compradorNome; }
+        @Override public Integer getTotalCompradores() { return totalCompradores; }
+        @Override public BigDecimal getNegocioValorTotal() { return negocioValorTotal; }
+        @Override public LocalDate getDataContrato() { return dataContrato; }
+        @Override public LocalDateTime getCreatedAt() { return createdAt; }
+        @Override public LocalDateTime getUpdatedAt() { return updatedAt; }
+    }
+}
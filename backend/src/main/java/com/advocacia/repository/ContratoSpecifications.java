@@ -0,0 +1,70 @@
+package com.advocacia.repository;
+
+import com.advocacia.dto.ContratoFiltro;
+import com.advocacia.entity.Contrato;
+import com.advocacia.entity.ContratoComprador;
+import com.advocacia.entity.ContratoVendedor;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Specifications da listagem de contratos. Só gera predicados para filtros informados,
+ * para que o planner use os índices de V13 (status/created_at e documento das partes).
+ */
+public final class ContratoSpecifications {
+
+    private ContratoSpecifications() {
+    }
+
+    public static Specification<Contrato> comFiltro(ContratoFiltro filtro) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (filtro == null) return cb.and();
+
+            if (filtro.getStatus() != null) {
+                predicates.add(cb.equal(root.get("status"), filtro.getStatus()));
+            }
+            if (filtro.getDataInicio() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), filtro.getDataInicio().atStartOfDay()));
+            }
+            if (filtro.getDataFim() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), filtro.getDataFim().plusDays(1).atStartOfDay()));
+            }
+            if (filtro.getDocumento() != null && !filtro.getDocumento().isBlank()) {
+                String documento = filtro.getDocumento();
+
+                Subquery<Long> vendedor = query.subquery(Long.class);
+                Root<ContratoVendedor> v = vendedor.from(ContratoVendedor.class);
+                vendedor.select(v.get("contrato").get("id"))
+                        .where(cb.equal(v.get("contrato"), root), cb.equal(v.get("documento"), documento));
+
+                Subquery<Long> comprador = query.subquery(Long.class);
+                Root<ContratoComprador> c = comprador.from(ContratoComprador.class);
+                comprador.select(c.get("contrato").get("id"))
+                        .where(cb.equal(c.get("contrato"), root), cb.equal(c.get("documento"), documento));
+
+                predicates.add(cb.or(cb.exists(vendedor), cb.exists(comprador)));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Posição após o cursor na ordem (created_at DESC, id DESC).
+     */
+    public static Specification<Contrato> aposCursor(LocalDateTime createdAt, Long id) {
+        return (root, query, cb) -> {
+            if (createdAt == null || id == null) return cb.and();
+            return cb.or(
+                    cb.lessThan(root.get("createdAt"), createdAt),
+                    cb.and(cb.equal(root.get("createdAt"), createdAt), cb.lessThan(root.get("id"), id))
+            );
+        };
+    }
+}
@@ -0,0 +1,12 @@
+package com.advocacia.repository;
+
+import java.math.BigDecimal;
+
+/**
+ * Contagem com valor somado (contratos por status, parcelas num intervalo de vencimento).
+ */
+public interface DashboardContagemProjection {
+    String getChave();
+    Long getQuantidade();
+    BigDecimal getValor();
+}
@@ -0,0 +1,15 @@
+package com.advocacia.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Linha de dashboard_mensal: totais de um mês para um status.
+ */
+public interface DashboardMensalProjection {
+    LocalDate getMes();
+    String getStatus();
+    Long getContratos();
+    BigDecimal getNegocioValorTotal();
+    BigDecimal getHonorariosValor();
+}
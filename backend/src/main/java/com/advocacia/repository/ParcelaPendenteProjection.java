@@ -0,0 +1,16 @@
+package com.advocacia.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Parcela em aberto com o contrato e o primeiro comprador, para listagens entre contratos.
+ */
+public interface ParcelaPendenteProjection {
+    Long getId();
+    Long getContratoId();
+    Integer getNumero();
+    LocalDate getVencimento();
+    BigDecimal getValor();
+    String getCompradorNome();
+}
@@ -0,0 +1,16 @@
+package com.advocacia.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Participação de um documento em um contrato: uma linha por papel (vendedor, sócio, comprador, cônjuge).
+ */
+public interface ParteContratoProjection {
+    Long getContratoId();
+    String getStatus();
+    LocalDate getDataContrato();
+    LocalDateTime getCreatedAt();
+    String getPapel();
+    String getNome();
+}
@@ -0,0 +1,324 @@
+package com.advocacia.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prévias dos anexos: JPEG pequeno (lado maior até {@code file.preview.max-dimension}) da primeira página de PDFs
+ * ou da imagem reduzida, gravado no armazenamento em {@code .previews/<chave>.jpg} ao lado do original. Como a chave
+ * do original é o hash do conteúdo, anexos repetidos compartilham a mesma prévia.
+ * <p>
+ * Após o upload a prévia é gerada em background num pool limitado (threads e fila); com a fila cheia a tarefa é
+ * descartada e a prévia é agendada de novo no primeiro pedido, assim como a de anexos anteriores a este recurso.
+ * A geração nunca roda na thread da requisição: o pedido aguarda a tarefa do pool (compartilhada por pedidos
+ * simultâneos do mesmo arquivo) por até {@code file.preview.wait} e, se ela não terminou, responde "em geração".
+ */
+@Service
+@Slf4j
+public class AnexoPreviewService {
+
+    private static final float QUALIDADE_JPEG = 0.8f;
+    /** Conteúdos cuja geração falhou (PDF corrompido, imagem ilegível): não são tentados de novo a cada pedido. */
+    private static final int MAX_FALHAS_LEMBRADAS = 10_000;
+
+    private final FileStorageService storage;
+    private final int dimensaoMaxima;
+    private final Duration espera;
+    private final ThreadPoolExecutor executor;
+    /** Geração em andamento por arquivo: agendamento e pedidos do mesmo arquivo compartilham a mesma tarefa. */
+    private final Map<String, CompletableFuture<Boolean>> emGeracao = new ConcurrentHashMap<>();
+    private final Set<String> falharam = ConcurrentHashMap.newKeySet();
+
+    private final Counter geradas;
+    private final Counter falhas;
+    private final Counter descartadas;
+
+    public AnexoPreviewService(FileStorageService storage,
+                               MeterRegistry meterRegistry,
+                               @Value("${file.preview.threads:2}") int threads,
+                               @Value("${file.preview.queue-capacity:200}") int queueCapacity,
+                               @Value("${file.preview.max-dimension:320}") int dimensaoMaxima,
+                               @Value("${file.preview.wait:2s}") Duration espera) {
+        this.storage = storage;
+        this.dimensaoMaxima = Math.max(16, dimensaoMaxima);
+        this.espera = espera;
+
+        AtomicInteger sequencia = new AtomicInteger();
+        int tamanhoPool = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(tamanhoPool, tamanhoPool, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "anexo-preview-" + sequencia.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        Gauge.builder("anexo.preview.queue.depth", executor, e -> e.getQueue().size())
+                .description("Prévias de anexos aguardando geração")
+                .register(meterRegistry);
+        this.geradas = meterRegistry.counter("anexo.preview.generated");
+        this.falhas = meterRegistry.counter("anexo.preview.failed");
+        this.descartadas = meterRegistry.counter("anexo.preview.queue.full");
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Tipos com prévia: PDF e imagens que o ImageIO lê (JPEG, PNG, GIF, BMP, TIFF).
+     */
+    public static boolean suportado(String tipoMime) {
+        if (tipoMime == null) return false;
+        String tipo = tipoMime.toLowerCase(Locale.ROOT);
+        return tipo.equals("application/pdf")
+                || tipo.startsWith("image/") && ImageIO.getImageReadersByMIMEType(tipo).hasNext();
+    }
+
+    /**
+     * Agenda a geração da prévia em background (após o upload). Não bloqueia: fila cheia descarta a tarefa.
+     */
+    public void agendar(String nomeArquivo, String tipoMime) {
+        if (!suportado(tipoMime)) return;
+        submeter(nomeArquivo, tipoMime);
+    }
+
+    /**
+     * Prévia do arquivo. Se ainda não existe, agenda a geração no pool (ou acompanha a já em andamento) e aguarda
+     * até {@code file.preview.wait}; {@link Previa.Situacao#EM_GERACAO} se ela não terminou ou a fila está cheia.
+     * {@link Previa.Situacao#INDISPONIVEL} se o tipo não tem prévia ou a geração falhou.
+     */
+    public Previa obter(String nomeArquivo, String tipoMime) {
+        if (!suportado(tipoMime)) return Previa.INDISPONIVEL;
+        String chave = FileStorageService.previewPath(nomeArquivo);
+        if (storage.size(chave) >= 0) return Previa.pronta(chave);
+        if (falharam.contains(nomeArquivo)) return Previa.INDISPONIVEL;
+
+        CompletableFuture<Boolean> geracao = submeter(nomeArquivo, tipoMime);
+        if (geracao == null) return Previa.EM_GERACAO;
+        try {
+            return geracao.get(espera.toMillis(), TimeUnit.MILLISECONDS) ? Previa.pronta(chave) : Previa.INDISPONIVEL;
+        } catch (TimeoutException e) {
+            return Previa.EM_GERACAO;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Previa.EM_GERACAO;
+        } catch (ExecutionException e) {
+            return Previa.INDISPONIVEL;
+        }
+    }
+
+    /**
+     * Tarefa de geração do arquivo: a já em andamento ou uma nova no pool. Null se a fila está cheia.
+     */
+    private CompletableFuture<Boolean> submeter(String nomeArquivo, String tipoMime) {
+        CompletableFuture<Boolean> nova = new CompletableFuture<>();
+        CompletableFuture<Boolean> atual = emGeracao.putIfAbsent(nomeArquivo, nova);
+        if (atual != null) return atual;
+        try {
+            executor.execute(() -> {
+                try {
+                    nova.complete(gerar(nomeArquivo, tipoMime));
+                } catch (Throwable t) {
+                    nova.completeExceptionally(t);
+                    throw t;
+                } finally {
+                    emGeracao.remove(nomeArquivo, nova);
+                }
+            });
+            return nova;
+        } catch (RejectedExecutionException e) {
+            emGeracao.remove(nomeArquivo, nova);
+            nova.complete(false);
+            descartadas.increment();
+            return null;
+        }
+    }
+
+    /**
+     * Gera e publica a prévia se ela ainda não existe. Retorna se a prévia está disponível.
+     */
+    boolean gerar(String nomeArquivo, String tipoMime) {
+        String chave = FileStorageService.previewPath(nomeArquivo);
+        if (storage.size(chave) >= 0) return true;
+
+        Path copiaLocal = null;
+        boolean decodificando = false;
+        Path destino = storage.getTempPath().resolve(UUID.randomUUID() + ".preview.jpg");
+        try {
+            Optional<Path> local = storage.localPath(nomeArquivo);
+            Path origem;
+            if (local.isPresent()) {
+                origem = local.get();
+            } else {
+                // Armazenamento remoto: PDFBox e ImageIO precisam de acesso aleatório, então o original vem para o disco
+                copiaLocal = storage.getTempPath().resolve(UUID.randomUUID() + ".preview.src");
+                try (InputStream in = storage.open(nomeArquivo, 0, -1)) {
+                    Files.copy(in, copiaLocal);
+                }
+                origem = copiaLocal;
+            }
+
+            decodificando = true;
+            BufferedImage imagem = "application/pdf".equalsIgnoreCase(tipoMime)
+                    ? renderizarPdf(origem)
+                    : lerImagemReduzida(origem);
+            if (imagem == null) {
+                throw new IOException("conteúdo sem página ou formato de imagem não reconhecido");
+            }
+            decodificando = false;
+            gravarJpeg(imagem, destino);
+            storage.storeDerived(chave, destino);
+
+            // Original excluído durante a geração: não deixa prévia órfã
+            if (storage.size(nomeArquivo) < 0) {
+                storage.delete(chave);
+                return false;
+            }
+            geradas.increment();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            falhas.increment();
+            // Só falhas do próprio conteúdo são lembradas; erro do armazenamento é tentado de novo no próximo pedido
+            if (decodificando) {
+                if (falharam.size() >= MAX_FALHAS_LEMBRADAS) {
+                    falharam.clear();
+                }
+                falharam.add(nomeArquivo);
+            }
+            log.warn("Falha ao gerar prévia de {} ({}): {}", nomeArquivo, tipoMime, e.toString());
+            return false;
+        } finally {
+            deleteQuietly(copiaLocal);
+            deleteQuietly(destino);
+        }
+    }
+
+    /**
+     * Resultado de {@link #obter}: chave da prévia pronta no armazenamento, geração ainda em andamento ou sem prévia.
+     */
+    public record Previa(Situacao situacao, String chave) {
+
+        public enum Situacao { PRONTA, EM_GERACAO, INDISPONIVEL }
+
+        static final Previa EM_GERACAO = new Previa(Situacao.EM_GERACAO, null);
+        static final Previa INDISPONIVEL = new Previa(Situacao.INDISPONIVEL, null);
+
+        static Previa pronta(String chave) {
+            return new Previa(Situacao.PRONTA, chave);
+        }
+    }
+
+    private BufferedImage renderizarPdf(Path arquivo) throws IOException {
+        try (PDDocument documento = Loader.loadPDF(arquivo.toFile())) {
+            if (documento.getNumberOfPages() == 0) return null;
+            PDRectangle pagina = documento.getPage(0).getCropBox();
+            float escala = dimensaoMaxima / Math.max(pagina.getWidth(), pagina.getHeight());
+            return reduzir(new PDFRenderer(documento).renderImage(0, escala, ImageType.RGB));
+        }
+    }
+
+    private BufferedImage lerImagemReduzida(Path arquivo) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(arquivo.toFile())) {
+            Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+            if (readers == null || !readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int maior = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Decodifica já subamostrado (~2x o tamanho final): foto de celular não ocupa dezenas de MB no heap
+                int passo = Math.max(1, maior / (dimensaoMaxima * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(passo, passo, 0, 0);
+                return reduzir(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /** Ajusta ao lado maior e converte para RGB (JPEG sem alfa; transparência vira fundo branco). */
+    private BufferedImage reduzir(BufferedImage origem) {
+        double escala = Math.min(1.0, (double) dimensaoMaxima / Math.max(origem.getWidth(), origem.getHeight()));
+        int largura = Math.max(1, (int) Math.round(origem.getWidth() * escala));
+        int altura = Math.max(1, (int) Math.round(origem.getHeight() * escala));
+
+        BufferedImage destino = new BufferedImage(largura, altura, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, largura, altura);
+            g.drawImage(origem, 0, 0, largura, altura, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+
+    private static void gravarJpeg(BufferedImage imagem, Path destino) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(destino.toFile())) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(QUALIDADE_JPEG);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(imagem, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) return;
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // temporário da geração; a prévia já foi publicada ou descartada
+        }
+    }
+}
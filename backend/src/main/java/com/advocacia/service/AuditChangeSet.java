@@ -0,0 +1,50 @@
+package com.advocacia.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alterações coletadas campo a campo durante um update, no mesmo formato path/oldValue/newValue do diff completo.
+ * <p>
+ * Só os campos efetivamente tocados pelo request passam por aqui; o contrato inteiro não é convertido em resposta
+ * antes e depois apenas para a auditoria. Criado por {@link ContratoAuditService#newChangeSet()}, que fornece o
+ * differ com os campos ignorados do histórico.
+ */
+public final class AuditChangeSet {
+
+    private static final AuditChangeSet DISABLED = new AuditChangeSet(null);
+
+    private final AuditDiffer differ;
+    private final List<Map<String, String>> changes = new ArrayList<>();
+
+    AuditChangeSet(AuditDiffer differ) {
+        this.differ = differ;
+    }
+
+    /** Conjunto que não registra nada (ex.: criação do contrato, que não gera histórico). */
+    public static AuditChangeSet disabled() {
+        return DISABLED;
+    }
+
+    /** false quando as alterações são descartadas: quem chama pode pular snapshots montados só para a auditoria. */
+    public boolean isTracking() {
+        return differ != null;
+    }
+
+    /**
+     * Registra o campo (ou subárvore, ex.: "vendedores", "parcelas") se o valor mudou.
+     */
+    public void track(String path, Object before, Object after) {
+        if (differ == null) return;
+        differ.diff(path, before, after, changes);
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public List<Map<String, String>> changes() {
+        return changes;
+    }
+}
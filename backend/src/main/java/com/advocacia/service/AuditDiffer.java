@@ -0,0 +1,271 @@
+package com.advocacia.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Diff campo a campo entre dois snapshots (ex.: ContratoResponse antes/depois) sem montar árvores JSON.
+ * <p>
+ * Os getters de cada classe são resolvidos uma única vez (MethodHandle, cache por classe) e os valores são
+ * comparados diretamente; o path ("vendedores[0].nome") só é montado quando há diferença.
+ * A saída (path/oldValue/newValue e formato dos valores) é a mesma do diff anterior via {@code valueToTree}:
+ * listas comparadas por índice, item novo como ("null", json do item) e item removido como (json, "(removido)").
+ */
+final class AuditDiffer {
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final ObjectMapper mapper;
+    private final Set<String> ignoredRoot;
+    private final Set<String> ignoredAnyLevel;
+
+    private final ClassValue<BeanModel> models = new ClassValue<>() {
+        @Override
+        protected BeanModel computeValue(Class<?> type) {
+            return BeanModel.of(type, ignoredRoot, ignoredAnyLevel);
+        }
+    };
+
+    AuditDiffer(ObjectMapper mapper, Set<String> ignoredRoot, Set<String> ignoredAnyLevel) {
+        this.mapper = mapper;
+        this.ignoredRoot = ignoredRoot;
+        this.ignoredAnyLevel = ignoredAnyLevel;
+    }
+
+    List<Map<String, String>> diff(Object before, Object after) {
+        List<Map<String, String>> changes = new ArrayList<>();
+        diffValue(null, null, -1, before, after, changes);
+        return changes;
+    }
+
+    /**
+     * Diff de um único campo ou subárvore sob {@code path} (ex.: "observacoes", "vendedores"), acumulado em {@code changes}.
+     */
+    void diff(String path, Object before, Object after, List<Map<String, String>> changes) {
+        diffValue(null, path, -1, before, after, changes);
+    }
+
+    // ========== DIFF ==========
+
+    private void diffValue(Path parent, String name, int index, Object before, Object after, List<Map<String, String>> changes) {
+        if (before == after) return;
+        if (before != null && after != null) {
+            if (isBean(before) && isBean(after)) {
+                diffObject(new Path(parent, name, index), before, after, changes);
+                return;
+            }
+            if (before instanceof Collection<?> b && after instanceof Collection<?> a) {
+                diffList(new Path(parent, name, index), b, a, changes);
+                return;
+            }
+            if (before.equals(after)) return;
+        }
+        String bVal = text(before);
+        String aVal = text(after);
+        if (!bVal.equals(aVal)) {
+            changes.add(changeEntry(Path.render(parent, name, index), bVal, aVal));
+        }
+    }
+
+    private void diffObject(Path path, Object before, Object after, List<Map<String, String>> changes) {
+        boolean root = path.isRoot();
+        if (before instanceof Map<?, ?> || after instanceof Map<?, ?>) {
+            diffMaps(path, asMap(before), asMap(after), root, changes);
+            return;
+        }
+        BeanModel model = models.get(before.getClass());
+        if (after.getClass() != before.getClass()) {
+            diffMaps(path, model.toMap(before), models.get(after.getClass()).toMap(after), root, changes);
+            return;
+        }
+        for (Property p : model.properties) {
+            if (p.ignoredAnyLevel || (root && p.ignoredRoot)) continue;
+            diffValue(root ? null : path, p.name, -1, p.get(before), p.get(after), changes);
+        }
+    }
+
+    private void diffMaps(Path path, Map<String, Object> before, Map<String, Object> after, boolean root, List<Map<String, String>> changes) {
+        Set<String> keys = new LinkedHashSet<>(before.keySet());
+        keys.addAll(after.keySet());
+        for (String key : keys) {
+            if (ignoredAnyLevel.contains(key) || (root && ignoredRoot.contains(key))) continue;
+            diffValue(root ? null : path, key, -1, before.get(key), after.get(key), changes);
+        }
+    }
+
+    private void diffList(Path path, Collection<?> before, Collection<?> after, List<Map<String, String>> changes) {
+        Iterator<?> bIt = before.iterator();
+        Iterator<?> aIt = after.iterator();
+        int i = 0;
+        while (bIt.hasNext() || aIt.hasNext()) {
+            boolean hasB = bIt.hasNext();
+            boolean hasA = aIt.hasNext();
+            Object bElem = hasB ? bIt.next() : null;
+            Object aElem = hasA ? aIt.next() : null;
+            if (!hasB) {
+                changes.add(changeEntry(Path.render(path, null, i), "null", text(aElem)));
+            } else if (!hasA) {
+                changes.add(changeEntry(Path.render(path, null, i), text(bElem), "(removido)"));
+            } else {
+                diffValue(path, null, i, bElem, aElem, changes);
+            }
+            i++;
+        }
+    }
+
+    // ========== VALORES ==========
+
+    private static boolean isScalar(Object value) {
+        return value instanceof CharSequence || value instanceof Number || value instanceof Boolean
+                || value instanceof Enum<?> || value instanceof Character || value instanceof java.time.temporal.TemporalAccessor
+                || value instanceof UUID || value.getClass().isArray();
+    }
+
+    private static boolean isBean(Object value) {
+        return !isScalar(value) && !(value instanceof Collection<?>);
+    }
+
+    /** Mesmo texto que nodeToString(valueToTree(value)) produzia, sem passar pelo Jackson nos tipos comuns. */
+    private String text(Object value) {
+        if (value == null) return "null";
+        if (value instanceof String s) return s;
+        if (value instanceof Enum<?> e) return e.name();
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof Boolean || value instanceof BigInteger) {
+            return value.toString();
+        }
+        // valueToTree normaliza decimais (STRIP_TRAILING_BIGDECIMAL_ZEROES): 250000.00 era gravado como "2.5E+5"
+        if (value instanceof BigDecimal bd) return bd.signum() == 0 ? "0" : bd.stripTrailingZeros().toString();
+        if (value instanceof LocalDate d) return d.toString();
+        if (value instanceof LocalDateTime dt) return dt.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        JsonNode node = mapper.valueToTree(value);
+        if (node == null || node.isNull() || node.isMissingNode()) return "null";
+        if (node.isValueNode()) return node.asText();
+        return node.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> asMap(Object value) {
+        if (value instanceof Map<?, ?> m) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            m.forEach((k, v) -> out.put(String.valueOf(k), v));
+            return out;
+        }
+        return models.get(value.getClass()).toMap(value);
+    }
+
+    private static Map<String, String> changeEntry(String path, String oldValue, String newValue) {
+        Map<String, String> entry = new LinkedHashMap<>();
+        entry.put("path", path);
+        entry.put("oldValue", oldValue);
+        entry.put("newValue", newValue);
+        return entry;
+    }
+
+    // ========== MODELO POR CLASSE ==========
+
+    /** Nó de path; o texto só é montado (e guardado) quando alguma alteração é emitida. */
+    private static final class Path {
+        private final Path parent;
+        private final String name;
+        private final int index;
+        private String rendered;
+
+        Path(Path parent, String name, int index) {
+            this.parent = parent;
+            this.name = name;
+            this.index = index;
+        }
+
+        boolean isRoot() {
+            return parent == null && name == null && index < 0;
+        }
+
+        String render() {
+            if (rendered == null) rendered = render(parent, name, index);
+            return rendered;
+        }
+
+        static String render(Path parent, String name, int index) {
+            String prefix = parent == null || parent.isRoot() ? "" : parent.render();
+            if (name != null) return prefix.isEmpty() ? name : prefix + "." + name;
+            if (index >= 0) return prefix + "[" + index + "]";
+            return prefix;
+        }
+    }
+
+    private record Property(String name, MethodHandle getter, boolean ignoredRoot, boolean ignoredAnyLevel) {
+        Object get(Object bean) {
+            try {
+                return getter.invokeExact(bean);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new IllegalStateException("Falha ao ler " + name, t);
+            }
+        }
+    }
+
+    private record BeanModel(List<Property> properties, Map<String, Property> byName) {
+
+        /** Propriedades na ordem de declaração dos campos (a mesma que o Jackson usa ao serializar os DTOs Lombok). */
+        static BeanModel of(Class<?> type, Set<String> ignoredRoot, Set<String> ignoredAnyLevel) {
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) hierarchy.add(0, c);
+
+            List<Property> properties = new ArrayList<>();
+            Map<String, Property> byName = new HashMap<>();
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            for (Class<?> c : hierarchy) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())) continue;
+                    Method getter = findGetter(type, field);
+                    if (getter == null || byName.containsKey(field.getName())) continue;
+                    try {
+                        getter.trySetAccessible();
+                        MethodHandle handle = lookup.unreflect(getter).asType(GETTER_TYPE);
+                        Property p = new Property(field.getName(), handle,
+                                ignoredRoot.contains(field.getName()), ignoredAnyLevel.contains(field.getName()));
+                        properties.add(p);
+                        byName.put(p.name(), p);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Getter inacessível: " + getter, e);
+                    }
+                }
+            }
+            return new BeanModel(List.copyOf(properties), Map.copyOf(byName));
+        }
+
+        private static Method findGetter(Class<?> type, Field field) {
+            String suffix = Character.toUpperCase(field.getName().charAt(0)) + field.getName().substring(1);
+            for (String name : new String[]{"get" + suffix, "is" + suffix}) {
+                try {
+                    Method m = type.getMethod(name);
+                    if (m.getReturnType() != void.class) return m;
+                } catch (NoSuchMethodException ignored) {
+                    // tenta o próximo prefixo
+                }
+            }
+            return null;
+        }
+
+        Map<String, Object> toMap(Object bean) {
+            Map<String, Object> out = new LinkedHashMap<>();
+            for (Property p : properties) out.put(p.name(), p.get(bean));
+            return out;
+        }
+    }
+}
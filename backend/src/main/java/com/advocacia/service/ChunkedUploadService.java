@@ -0,0 +1,392 @@
+package com.advocacia.service;
+
+import com.advocacia.dto.UploadSessaoResponse;
+import com.advocacia.entity.AnexoUploadConclusao;
+import com.advocacia.entity.ContratoAnexo;
+import com.advocacia.repository.AnexoUploadConclusaoRepository;
+import com.advocacia.repository.ContratoAnexoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Upload retomável em partes: iniciar → enviar parte N (em qualquer ordem, em paralelo, repetindo as que falharam)
+ * → concluir.
+ * <p>
+ * Cada sessão fica no {@link StorageBackend} sob {@code .uploads/<uploadId>/}: os metadados e um objeto por parte
+ * recebida. Nada fica em memória nem no disco de um nó específico, então a sessão sobrevive a reinícios e as partes
+ * podem chegar por nós diferentes. Na conclusão as partes são lidas em sequência pelo {@link FileStorageService}
+ * (hash, deduplicação e registro do anexo numa única passada, com buffer fixo). Sessões sem atividade por mais de
+ * {@code file.upload-session-ttl} são removidas por uma tarefa agendada.
+ * <p>
+ * A conclusão é reivindicada no banco ({@link AnexoUploadConclusao}, chave uploadId): um pedido repetido, em
+ * qualquer nó, não monta o arquivo de novo; recebe o anexo já registrado ou, se a conclusão ainda está em
+ * andamento, um erro para tentar mais tarde.
+ */
+@Slf4j
+@Service
+public class ChunkedUploadService {
+
+    private static final String PREFIXO = ".uploads/";
+    private static final String METADADOS = "sessao.properties";
+    /** Conclusão reivindicada há mais tempo que isso e sem anexo: o pedido que a reivindicou não terminou. */
+    private static final Duration CONCLUSAO_ABANDONADA = Duration.ofMinutes(30);
+
+    private final FileStorageService fileStorageService;
+    private final StorageBackend backend;
+    private final AnexoUploadConclusaoRepository conclusaoRepository;
+    private final ContratoAnexoRepository anexoRepository;
+    private final long tamanhoParte;
+    private final Duration ttl;
+
+    public ChunkedUploadService(FileStorageService fileStorageService,
+                                StorageBackend backend,
+                                AnexoUploadConclusaoRepository conclusaoRepository,
+                                ContratoAnexoRepository anexoRepository,
+                                @Value("${file.chunk-size:8MB}") DataSize tamanhoParte,
+                                @Value("${file.upload-session-ttl:24h}") Duration ttl) {
+        this.fileStorageService = fileStorageService;
+        this.backend = backend;
+        this.conclusaoRepository = conclusaoRepository;
+        this.anexoRepository = anexoRepository;
+        this.tamanhoParte = tamanhoParte.toBytes();
+        this.ttl = ttl;
+    }
+
+    /**
+     * Abre uma sessão de upload para o contrato. O tamanho de cada parte é definido pelo servidor.
+     */
+    public UploadSessaoResponse iniciar(Long contratoId, String nome, String tipoMime, long tamanho) {
+        FileStorageService.validarNome(nome);
+        if (tamanho <= 0) {
+            throw new IllegalArgumentException("O tamanho do arquivo deve ser maior que zero");
+        }
+        if (tamanho > fileStorageService.getMaxUploadSize()) {
+            throw new MaxUploadSizeExceededException(fileStorageService.getMaxUploadSize());
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        Properties metadados = new Properties();
+        metadados.setProperty("contratoId", contratoId.toString());
+        metadados.setProperty("nome", nome);
+        if (tipoMime != null) metadados.setProperty("tipoMime", tipoMime);
+        metadados.setProperty("tamanho", Long.toString(tamanho));
+        // Guardado na sessão: mudar file.chunk-size não afeta uploads em andamento
+        metadados.setProperty("tamanhoParte", Long.toString(tamanhoParte));
+
+        Path temp = tempFile(uploadId, METADADOS);
+        try {
+            try (Writer out = Files.newBufferedWriter(temp)) {
+                metadados.store(out, null);
+            }
+            backend.put(PREFIXO + uploadId + "/" + METADADOS, temp);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao iniciar upload: " + nome, e);
+        } finally {
+            deleteQuietly(temp);
+        }
+        return toResponse(uploadId, metadados, List.of());
+    }
+
+    /**
+     * Estado da sessão, com as partes já recebidas (para retomar um upload interrompido).
+     */
+    public UploadSessaoResponse status(Long contratoId, String uploadId) {
+        String prefixo = sessaoPrefixo(uploadId);
+        return toResponse(uploadId, carregar(prefixo, contratoId), partesRecebidas(prefixo));
+    }
+
+    /**
+     * Grava a parte {@code indice}. O corpo precisa ter exatamente o tamanho esperado da parte; reenviar uma parte
+     * substitui a anterior. Partes diferentes podem chegar em paralelo (cada uma é um objeto próprio).
+     */
+    public void receberParte(Long contratoId, String uploadId, int indice, InputStream in) {
+        String prefixo = sessaoPrefixo(uploadId);
+        Properties metadados = carregar(prefixo, contratoId);
+        long tamanho = Long.parseLong(metadados.getProperty("tamanho"));
+        long parte = Long.parseLong(metadados.getProperty("tamanhoParte"));
+        int total = totalPartes(tamanho, parte);
+        if (indice < 0 || indice >= total) {
+            throw new IllegalArgumentException("Parte inválida: " + indice + " (total " + total + ")");
+        }
+        long esperado = Math.min(parte, tamanho - indice * parte);
+
+        Path temp = tempFile(uploadId, Integer.toString(indice));
+        try {
+            long recebido = 0;
+            try (ReadableByteChannel source = Channels.newChannel(in);
+                 FileChannel target = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+                // Lê no máximo um byte além do esperado: basta para detectar parte maior sem consumir o resto
+                while (recebido <= esperado) {
+                    long n = target.transferFrom(source, recebido, esperado + 1 - recebido);
+                    if (n <= 0) break;
+                    recebido += n;
+                }
+            }
+            if (recebido != esperado) {
+                throw new IllegalArgumentException("Parte " + indice + " com tamanho inválido: esperado "
+                        + esperado + " bytes" + (recebido > esperado ? ", recebido mais" : ", recebido " + recebido));
+            }
+            backend.put(prefixo + indice, temp);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao gravar a parte " + indice + " do upload " + uploadId, e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    /**
+     * Monta o arquivo a partir das partes e o entrega ao {@link FileStorageService} junto com {@code registrar}
+     * (que grava o anexo). A sessão só é removida depois do registro; se algo falhar, a reivindicação é desfeita e
+     * uma nova tentativa de conclusão encontra as partes intactas. Repetir a conclusão devolve o mesmo anexo.
+     */
+    public ContratoAnexo concluir(Long contratoId, String uploadId,
+                                  BiFunction<UploadSessaoResponse, FileStorageService.StoredFile, ContratoAnexo> registrar) {
+        String prefixo = sessaoPrefixo(uploadId);
+        String id = uploadIdDe(prefixo);
+        // Já concluída (a sessão pode nem existir mais): mesmo resultado
+        Optional<ContratoAnexo> anterior = anexoConcluido(contratoId, id);
+        if (anterior.isPresent()) return anterior.get();
+
+        Properties metadados = carregar(prefixo, contratoId);
+        long tamanho = Long.parseLong(metadados.getProperty("tamanho"));
+        int total = totalPartes(tamanho, Long.parseLong(metadados.getProperty("tamanhoParte")));
+        List<Integer> recebidas = partesRecebidas(prefixo);
+        if (recebidas.size() < total) {
+            List<Integer> faltando = new ArrayList<>();
+            for (int i = 0; i < total && faltando.size() < 20; i++) {
+                if (Collections.binarySearch(recebidas, i) < 0) faltando.add(i);
+            }
+            throw new RuntimeException("Upload incompleto: faltam " + (total - recebidas.size()) + " parte(s), ex.: " + faltando);
+        }
+        LocalDateTime agora = LocalDateTime.now();
+        if (!reivindicar(id, contratoId, agora)
+                && conclusaoRepository.retomar(id, agora.minus(CONCLUSAO_ABANDONADA), agora) == 0) {
+            // Outro pedido chegou antes: pode ter terminado nesse meio-tempo
+            return anexoConcluido(contratoId, id)
+                    .orElseThrow(() -> new RuntimeException("Upload já está sendo concluído: " + uploadId));
+        }
+
+        boolean registrado = false;
+        try {
+            UploadSessaoResponse sessao = toResponse(id, metadados, recebidas);
+            ContratoAnexo resultado;
+            try (InputStream in = new SequenceInputStream(partes(prefixo, total))) {
+                // Anexo e conclusão gravados na mesma transação (a do lock do conteúdo)
+                resultado = fileStorageService.store(in, sessao.getNome(), stored -> {
+                    ContratoAnexo anexo = registrar.apply(sessao, stored);
+                    conclusaoRepository.registrarAnexo(id, anexo.getId());
+                    return anexo;
+                });
+            } catch (IOException e) {
+                throw new RuntimeException("Falha ao montar o upload " + uploadId, e);
+            }
+            registrado = true;
+            excluirSessao(prefixo);
+            return resultado;
+        } finally {
+            if (!registrado) liberarQuietly(id);
+        }
+    }
+
+    private boolean reivindicar(String uploadId, Long contratoId, LocalDateTime agora) {
+        try {
+            return conclusaoRepository.reivindicar(uploadId, contratoId, agora) == 1;
+        } catch (DataIntegrityViolationException e) {
+            // Insert simultâneo em outro nó: a chave primária escolheu o outro pedido
+            return false;
+        }
+    }
+
+    private Optional<ContratoAnexo> anexoConcluido(Long contratoId, String uploadId) {
+        return conclusaoRepository.findById(uploadId)
+                .filter(c -> c.getAnexoId() != null && contratoId.equals(c.getContratoId()))
+                .flatMap(c -> anexoRepository.findById(c.getAnexoId()));
+    }
+
+    private void liberarQuietly(String uploadId) {
+        try {
+            conclusaoRepository.liberar(uploadId);
+        } catch (RuntimeException e) {
+            // a reivindicação expira em CONCLUSAO_ABANDONADA
+            log.warn("Falha ao liberar a conclusão do upload {}: {}", uploadId, e.getMessage());
+        }
+    }
+
+    /**
+     * Descarta a sessão e as partes já recebidas.
+     */
+    public void cancelar(Long contratoId, String uploadId) {
+        String prefixo = sessaoPrefixo(uploadId);
+        carregar(prefixo, contratoId);
+        excluirSessao(prefixo);
+    }
+
+    /**
+     * Remove sessões sem atividade (nenhuma parte nova) há mais de {@code file.upload-session-ttl}.
+     */
+    @Scheduled(fixedDelayString = "${file.upload-session-cleanup-interval:PT1H}", initialDelayString = "PT5M")
+    public int limparSessoesAbandonadas() {
+        Instant limite = Instant.now().minus(ttl);
+        int removidas = 0;
+        try {
+            // Última atividade de cada sessão = objeto mais recente sob o prefixo dela
+            Map<String, List<StorageBackend.StoredObject>> sessoes = backend.list(PREFIXO).stream()
+                    .collect(Collectors.groupingBy(o -> o.chave().substring(PREFIXO.length()).split("/", 2)[0]));
+            for (var sessao : sessoes.entrySet()) {
+                Instant ultimaAtividade = sessao.getValue().stream()
+                        .map(StorageBackend.StoredObject::modificadoEm).max(Comparator.naturalOrder()).orElse(Instant.MIN);
+                if (ultimaAtividade.isBefore(limite) && !concluindoEmAlgumNo(sessao.getKey())) {
+                    for (StorageBackend.StoredObject objeto : sessao.getValue()) {
+                        backend.delete(objeto.chave());
+                    }
+                    removidas++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Falha ao limpar uploads em partes abandonados: {}", e.getMessage());
+        }
+        if (removidas > 0) {
+            log.info("Uploads em partes abandonados removidos: {}", removidas);
+        }
+        return removidas;
+    }
+
+    /** Conclusão em andamento (reivindicada, sem anexo e não abandonada), em qualquer nó. */
+    private boolean concluindoEmAlgumNo(String uploadId) {
+        LocalDateTime limite = LocalDateTime.now().minus(CONCLUSAO_ABANDONADA);
+        return conclusaoRepository.existsByUploadIdAndAnexoIdIsNullAndIniciadaEmAfter(uploadId, limite);
+    }
+
+    // ========== SESSÃO ==========
+
+    private static String sessaoPrefixo(String uploadId) {
+        try {
+            // Só UUIDs: o id vira parte da chave no armazenamento
+            return PREFIXO + UUID.fromString(uploadId) + "/";
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Sessão de upload não encontrada: " + uploadId);
+        }
+    }
+
+    private Properties carregar(String prefixo, Long contratoId) {
+        Properties metadados = new Properties();
+        try (Reader in = new InputStreamReader(backend.open(prefixo + METADADOS, 0, -1), StandardCharsets.UTF_8)) {
+            metadados.load(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Sessão de upload não encontrada: " + uploadIdDe(prefixo));
+        }
+        if (!contratoId.toString().equals(metadados.getProperty("contratoId"))) {
+            throw new RuntimeException("Sessão de upload não encontrada: " + uploadIdDe(prefixo));
+        }
+        return metadados;
+    }
+
+    private List<Integer> partesRecebidas(String prefixo) {
+        try {
+            return backend.list(prefixo).stream()
+                    .map(o -> o.chave().substring(prefixo.length()))
+                    .filter(nome -> !nome.isEmpty() && nome.chars().allMatch(Character::isDigit))
+                    .map(Integer::valueOf)
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Sessão de upload não encontrada: " + uploadIdDe(prefixo), e);
+        }
+    }
+
+    /** Partes em ordem, abertas uma de cada vez conforme a leitura avança. */
+    private Enumeration<InputStream> partes(String prefixo, int total) {
+        return new Enumeration<>() {
+            private int proxima = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return proxima < total;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                try {
+                    return backend.open(prefixo + proxima++, 0, -1);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
+
+    private void excluirSessao(String prefixo) {
+        try {
+            // Metadados por último: enquanto existirem, a sessão ainda pode ser cancelada ou limpa
+            List<String> chaves = new ArrayList<>(backend.list(prefixo).stream().map(StorageBackend.StoredObject::chave).toList());
+            chaves.sort(Comparator.comparing(chave -> chave.endsWith(METADADOS)));
+            for (String chave : chaves) {
+                backend.delete(chave);
+            }
+        } catch (IOException e) {
+            // a limpeza agendada remove o que sobrar
+            log.warn("Falha ao remover a sessão de upload {}: {}", uploadIdDe(prefixo), e.getMessage());
+        }
+    }
+
+    private static String uploadIdDe(String prefixo) {
+        return prefixo.substring(PREFIXO.length(), prefixo.length() - 1);
+    }
+
+    private Path tempFile(String uploadId, String nome) {
+        return fileStorageService.getTempPath().resolve(uploadId + "." + nome + "." + UUID.randomUUID() + ".part");
+    }
+
+    private static int totalPartes(long tamanho, long tamanhoParte) {
+        return (int) ((tamanho + tamanhoParte - 1) / tamanhoParte);
+    }
+
+    private static UploadSessaoResponse toResponse(String uploadId, Properties metadados, List<Integer> recebidas) {
+        long tamanho = Long.parseLong(metadados.getProperty("tamanho"));
+        long parte = Long.parseLong(metadados.getProperty("tamanhoParte"));
+        return UploadSessaoResponse.builder()
+                .uploadId(uploadId)
+                .contratoId(Long.valueOf(metadados.getProperty("contratoId")))
+                .nome(metadados.getProperty("nome"))
+                .tipoMime(metadados.getProperty("tipoMime"))
+                .tamanho(tamanho)
+                .tamanhoParte(parte)
+                .totalPartes(totalPartes(tamanho, parte))
+                .partesRecebidas(recebidas)
+                .build();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // arquivo temporário já publicado ou descartado
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.advocacia.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Exclusão mútua por arquivo armazenado entre todos os nós: publicação + registro do anexo x contagem de
+ * referências + exclusão do mesmo conteúdo.
+ * <p>
+ * A ação roda numa transação (a do chamador, se houver) que primeiro toma {@code pg_advisory_xact_lock} sobre o
+ * hash da chave; o lock só é solto no commit, depois que o registro feito pela ação já está visível aos outros
+ * nós. Fora do Postgres (perfil h2, nó único) vale só o lock local, que também evita disputar o lock do banco
+ * entre threads do mesmo nó.
+ */
+@Component
+public class ConteudoLock {
+
+    private final TransactionOperations transacao;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean advisory;
+    private final Object[] locks = Stream.generate(Object::new).limit(64).toArray();
+
+    @Autowired
+    public ConteudoLock(PlatformTransactionManager transactionManager,
+                        JdbcTemplate jdbcTemplate,
+                        @Value("${spring.datasource.url:}") String datasourceUrl) {
+        this(new TransactionTemplate(transactionManager), jdbcTemplate, datasourceUrl.startsWith("jdbc:postgresql:"));
+    }
+
+    ConteudoLock(TransactionOperations transacao, JdbcTemplate jdbcTemplate, boolean advisory) {
+        this.transacao = transacao;
+        this.jdbcTemplate = jdbcTemplate;
+        this.advisory = advisory;
+    }
+
+    /** Só o lock local, sem banco (testes e uso fora do contexto Spring). */
+    public static ConteudoLock local() {
+        return new ConteudoLock(TransactionOperations.withoutTransaction(), null, false);
+    }
+
+    public <T> T executar(String nomeArquivo, Supplier<T> acao) {
+        synchronized (locks[Math.floorMod(nomeArquivo.hashCode(), locks.length)]) {
+            return transacao.execute(status -> {
+                if (advisory) {
+                    jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))", rs -> { }, nomeArquivo);
+                }
+                return acao.get();
+            });
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package com.advocacia.service;
+
+import com.advocacia.entity.ContratoAlteracao;
+import com.advocacia.repository.ContratoAlteracaoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agrupa as alterações de rajadas de autosave (o wizard salva página a página) numa única entrada de histórico:
+ * alterações do mesmo usuário no mesmo contrato dentro de {@code audit.coalesce.window} a partir da primeira são
+ * mescladas (primeiro oldValue e último newValue por path; paths que voltaram ao valor original somem). Janela 0
+ * repassa direto ao {@link ContratoAuditWriter}.
+ * <p>
+ * Modo transacional do writer (padrão): a alteração é mesclada na última entrada do contrato, lida com lock e
+ * atualizada na própria transação do contrato, quando é do mesmo usuário e foi inserida dentro da janela; senão
+ * vira uma linha nova. Durável como o histórico sem agrupamento; cada update atualiza o recordedAt da entrada,
+ * então o polling incremental ({@code since}) a recebe de novo. Se as alterações se anulam a linha não é removida
+ * (o polling não tem como informar remoções): fica como entrada neutra, "sem alteração líquida".
+ * <p>
+ * Modo assíncrono: a primeira alteração abre uma entrada em memória, as seguintes são mescladas nela e ao fim da
+ * janela ela segue para a fila do writer, com o changedAt da última edição; o recordedAt do insert evita que o
+ * polling a perca. Um crash perde as entradas abertas.
+ */
+@Component
+@Slf4j
+public class ContratoAuditCoalescer {
+
+    private static final long SWEEP_INTERVAL_MS = 1000;
+
+    private final ContratoAuditWriter auditWriter;
+    private final ContratoAlteracaoRepository alteracaoRepository;
+    private final Duration window;
+    private final Map<Chave, Aberta> abertas = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Counter coalescidas;
+
+    private ScheduledExecutorService sweeper;
+
+    public ContratoAuditCoalescer(ContratoAuditWriter auditWriter,
+                                  ContratoAlteracaoRepository alteracaoRepository,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${audit.coalesce.window:60s}") Duration window) {
+        this.auditWriter = auditWriter;
+        this.alteracaoRepository = alteracaoRepository;
+        this.window = window;
+        this.meterRegistry = meterRegistry;
+        this.coalescidas = meterRegistry.counter("contrato.audit.coalesced");
+    }
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("contrato.audit.coalesce.open", abertas, Map::size)
+                .description("Entradas de histórico abertas aguardando o fim da janela de agrupamento")
+                .register(meterRegistry);
+        if (!isEnabled() || !auditWriter.isAsync()) return;
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "contrato-audit-coalescer");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::fecharExpiradas, SWEEP_INTERVAL_MS, SWEEP_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) sweeper.shutdownNow();
+        flush();
+    }
+
+    public boolean isEnabled() {
+        return window.toMillis() > 0;
+    }
+
+    /**
+     * Entrega a alteração. Com agrupamento no modo transacional, mescla na transação corrente; no assíncrono, só
+     * após o commit.
+     */
+    public void submit(ContratoAlteracao alteracao) {
+        if (!isEnabled()) {
+            auditWriter.submit(alteracao);
+            return;
+        }
+        if (!auditWriter.isAsync()) {
+            mesclarNaTransacao(alteracao);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mesclar(alteracao);
+                }
+            });
+        } else {
+            mesclar(alteracao);
+        }
+    }
+
+    /**
+     * Fecha todas as entradas abertas, independentemente da janela (testes e shutdown).
+     */
+    public void flush() {
+        for (Chave chave : List.copyOf(abertas.keySet())) {
+            Aberta aberta = abertas.remove(chave);
+            if (aberta != null) emitir(aberta.alteracao());
+        }
+    }
+
+    /**
+     * Mescla na última entrada do contrato (bloqueada até o commit) se for do mesmo usuário e tiver sido inserida
+     * dentro da janela; senão grava uma entrada nova. Sem transação ativa não há como bloquear: grava direto.
+     */
+    private void mesclarNaTransacao(ContratoAlteracao nova) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            auditWriter.submit(nova);
+            return;
+        }
+        ContratoAlteracao ultima = alteracaoRepository
+                .findFirstByContratoIdOrderByChangedAtDescIdDesc(nova.getContratoId()).orElse(null);
+        if (ultima == null || !Objects.equals(ultima.getUsername(), nova.getUsername())
+                || ultima.getFirstRecordedAt().isBefore(LocalDateTime.now().minus(window))) {
+            auditWriter.submit(nova);
+            return;
+        }
+
+        coalescidas.increment();
+        ContratoAlteracao mesclada = mesclar(ultima, nova);
+        if (mesclada.getChanges().isEmpty()) {
+            // A entrada já foi gravada e o polling (since) pode tê-la entregue: vira neutra em vez de sumir,
+            // e o recordedAt avança para o cliente recebê-la de novo
+            log.info("[HISTORICO] contrato {}: alterações agrupadas se anularam, entrada {} sem alteração líquida",
+                    ultima.getContratoId(), ultima.getId());
+            ultima.setChanges(List.of(ContratoAuditService.semAlteracaoLiquida()));
+        } else {
+            ultima.setChanges(mesclada.getChanges());
+        }
+        ultima.setChangedAt(mesclada.getChangedAt());
+        alteracaoRepository.save(ultima);
+    }
+
+    private void mesclar(ContratoAlteracao nova) {
+        Chave chave = new Chave(nova.getContratoId(), nova.getUsername());
+        long agora = System.nanoTime();
+        ContratoAlteracao[] fechada = new ContratoAlteracao[1];
+        abertas.compute(chave, (k, atual) -> {
+            if (atual != null && agora - atual.abertaEmNanos() < window.toNanos()) {
+                coalescidas.increment();
+                return new Aberta(mesclar(atual.alteracao(), nova), atual.abertaEmNanos());
+            }
+            if (atual != null) fechada[0] = atual.alteracao();
+            return new Aberta(nova, agora);
+        });
+        if (fechada[0] != null) emitir(fechada[0]);
+    }
+
+    private void fecharExpiradas() {
+        try {
+            long agora = System.nanoTime();
+            abertas.forEach((chave, aberta) -> {
+                if (agora - aberta.abertaEmNanos() >= window.toNanos() && abertas.remove(chave, aberta)) {
+                    emitir(aberta.alteracao());
+                }
+            });
+        } catch (Exception e) {
+            log.error("[HISTORICO] erro ao fechar entradas agrupadas: {}", e.getMessage(), e);
+        }
+    }
+
+    private void emitir(ContratoAlteracao alteracao) {
+        if (alteracao.getChanges().isEmpty()) {
+            log.info("[HISTORICO] contrato {}: alterações agrupadas se anularam, nada a gravar", alteracao.getContratoId());
+            return;
+        }
+        auditWriter.enqueue(alteracao);
+    }
+
+    /** Mantém o primeiro oldValue e o último newValue de cada path; descarta o registro sintético "sem diff" se houver alterações reais. */
+    static ContratoAlteracao mesclar(ContratoAlteracao primeira, ContratoAlteracao seguinte) {
+        Map<String, Map<String, String>> porPath = new LinkedHashMap<>();
+        for (Map<String, String> c : primeira.getChanges()) porPath.put(c.get("path"), c);
+        for (Map<String, String> c : seguinte.getChanges()) {
+            porPath.merge(c.get("path"), c, (antes, depois) -> {
+                Map<String, String> m = new LinkedHashMap<>(depois);
+                m.put("oldValue", antes.get("oldValue"));
+                if (antes.containsKey("displayOld")) m.put("displayOld", antes.get("displayOld"));
+                return m;
+            });
+        }
+
+        List<Map<String, String>> changes = new ArrayList<>();
+        for (Map<String, String> c : porPath.values()) {
+            if (Objects.equals(c.get("oldValue"), c.get("newValue"))) continue;
+            changes.add(c);
+        }
+        if (changes.size() > 1) {
+            changes.removeIf(c -> ContratoAuditService.SEM_DIFF.equals(c.get("oldValue")));
+        }
+
+        return ContratoAlteracao.builder()
+                .contratoId(primeira.getContratoId())
+                .username(primeira.getUsername())
+                .changedAt(seguinte.getChangedAt())
+                .changes(changes)
+                .build();
+    }
+
+    private record Chave(Long contratoId, String username) {
+    }
+
+    private record Aberta(ContratoAlteracao alteracao, long abertaEmNanos) {
+    }
+}
@@ -1,20 +1,20 @@
 package com.advocacia.service;
 
 import com.advocacia.dto.ContratoAlteracaoResponse;
+import com.advocacia.dto.CursorPageResponse;
 import com.advocacia.entity.ContratoAlteracao;
 import com.advocacia.repository.ContratoAlteracaoRepository;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.advocacia.repository.ContratoAlteracaoSpecifications;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -25,14 +25,29 @@ import java.util.stream.Collectors;
 public class ContratoAuditService {
 
     private final ContratoAlteracaoRepository alteracaoRepository;
-    private final TransactionTemplate transactionTemplateRequiresNew;
+    private final ContratoAuditCoalescer auditCoalescer;
 
-    public ContratoAuditService(ContratoAlteracaoRepository alteracaoRepository,
-                               @Qualifier("transactionTemplateRequiresNew") TransactionTemplate transactionTemplateRequiresNew) {
+    public ContratoAuditService(ContratoAlteracaoRepository alteracaoRepository, ContratoAuditCoalescer auditCoalescer) {
         this.alteracaoRepository = alteracaoRepository;
-        this.transactionTemplateRequiresNew = transactionTemplateRequiresNew;
+        this.auditCoalescer = auditCoalescer;
     }
 
+    private static final int HISTORICO_DEFAULT_PAGE_SIZE = 50;
+    private static final int HISTORICO_MAX_PAGE_SIZE = 200;
+
+    private static final Sort HISTORICO_SORT = Sort.by(Sort.Direction.DESC, "changedAt")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
+
+    /** oldValue do registro sintético gravado quando um save não altera nada. */
+    static final String SEM_DIFF = "sem diff";
+
+    /** newValue da entrada agrupada cujas alterações se anularam (ver {@link #semAlteracaoLiquida()}). */
+    static final String SEM_ALTERACAO_LIQUIDA = "sem alteração líquida";
+
+    private static final String KEY_LABEL = "label";
+    private static final String KEY_DISPLAY_OLD = "displayOld";
+    private static final String KEY_DISPLAY_NEW = "displayNew";
+
     private static final ObjectMapper MAPPER = new ObjectMapper()
             .registerModule(new JavaTimeModule())
             .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
@@ -47,126 +62,122 @@ public class ContratoAuditService {
             "createdAt", "updatedAt", "id", "ordem", "status", "paginaAtual"
     );
 
-    /** Campos escalares do contrato usados no fallback quando o diff recursivo retorna vazio. */
-    private static final List<String> SCALAR_AUDIT_FIELDS = Arrays.asList(
-            "imovelMatricula", "imovelLivro", "imovelOficio", "imovelProprietario", "imovelMomentoPosse",
-            "imovelPrazoTransferencia", "imovelPrazoEscritura", "imovelDescricao",
-            "permutaImovelMatricula", "permutaImovelLivro", "permutaImovelOficio", "permutaImovelProprietario",
-            "permutaImovelMomentoPosse", "permutaImovelPrazoTransferencia", "permutaImovelPrazoEscritura", "permutaImovelDescricao",
-            "veiculoMarca", "veiculoAno", "veiculoModelo", "veiculoPlaca", "veiculoChassi", "veiculoCor",
-            "veiculoMotor", "veiculoRenavam", "veiculoDataEntrega", "veiculoKm",
-            "negocioValorTotal", "negocioValorEntrada", "negocioFormaPagamento", "negocioNumParcelas",
-            "negocioValorParcela", "negocioVencimentos", "negocioValorImovelPermuta", "negocioValorVeiculoPermuta",
-            "negocioValorFinanciamento", "negocioPrazoPagamento",
-            "contaTitular", "contaBanco", "contaAgencia", "contaPix",
-            "honorariosValor", "honorariosFormaPagamento", "honorariosDataPagamento",
-            "observacoes", "dataContrato", "assinaturaCorretor", "assinaturaAgenciador", "assinaturaGestor"
-    );
+    private static final AuditDiffer DIFFER = new AuditDiffer(MAPPER, IGNORED_FIELDS_ROOT, IGNORED_FIELDS_ANY_LEVEL);
+
+    /** Conjunto de alterações para um update, comparado com as mesmas regras do histórico. */
+    public AuditChangeSet newChangeSet() {
+        return new AuditChangeSet(DIFFER);
+    }
 
     /**
-     * Compara before e after (qualquer objeto), gera diff e persiste se houver mudanças.
+     * Registra as alterações já coletadas campo a campo durante o update (sem snapshot/diff do contrato inteiro).
+     * Só a montagem do diff tem fallback: uma falha ao gravar o histórico propaga e desfaz o update, porque no modo
+     * transacional a gravação está na transação do contrato (já marcada para rollback pelo repositório).
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void recordChanges(Long contratoId, Object before, Object after) {
+    public void recordChanges(Long contratoId, AuditChangeSet changeSet) {
+        List<Map<String, String>> changes;
         try {
-            JsonNode beforeNode = MAPPER.valueToTree(before);
-            JsonNode afterNode = MAPPER.valueToTree(after);
-
-            List<Map<String, String>> changes = new ArrayList<>();
-            computeDiff("", beforeNode, afterNode, changes);
-
-            log.info("Auditoria contrato {}: {} alteração(ões) detectada(s)", contratoId, changes.size());
-
-            if (changes.isEmpty()) {
-                String beforeVal = beforeNode.has("negocioValorTotal") ? nodeToString(beforeNode.get("negocioValorTotal")) : "ausente";
-                String afterVal = afterNode.has("negocioValorTotal") ? nodeToString(afterNode.get("negocioValorTotal")) : "ausente";
-                String beforeObs = beforeNode.has("observacoes") ? nodeToString(beforeNode.get("observacoes")) : "ausente";
-                String afterObs = afterNode.has("observacoes") ? nodeToString(afterNode.get("observacoes")) : "ausente";
-                log.info("Diff vazio para contrato {} - negocioValorTotal before: {}, after: {}; observacoes before: {}, after: {}",
-                        contratoId, beforeVal, afterVal, beforeObs, afterObs);
-
-                List<Map<String, String>> manualChanges = buildManualScalarChanges(beforeNode, afterNode);
-                if (!manualChanges.isEmpty()) {
-                    log.info("Fallback manual: {} campo(s) alterado(s) para contrato {}", manualChanges.size(), contratoId);
-                    changes = manualChanges;
-                } else {
-                    // Teste definitivo: sempre gravar uma linha para validar tabela e leitura (temporário para diagnóstico)
-                    log.info("Teste definitivo: gravando registro de auditoria para contrato {} (diff e manual vazios)", contratoId);
-                    changes = List.of(changeEntry("alteracao", "sem diff", "registro de auditoria"));
-                }
-            }
-
-            String username = getCurrentUsername();
-
-            ContratoAlteracao alteracao = ContratoAlteracao.builder()
-                    .contratoId(contratoId)
-                    .username(username)
-                    .changedAt(LocalDateTime.now())
-                    .changes(changes)
-                    .build();
-
-            log.info("[HISTORICO] antes do save: contratoId={}, username={}, changes size={}", contratoId, username, changes.size());
-            ContratoAlteracao saved = alteracaoRepository.save(alteracao);
-            log.info("[HISTORICO] depois do save: id gerado={}", saved != null ? saved.getId() : null);
+            changes = changeSet.changes();
         } catch (Exception e) {
-            log.error("Erro ao registrar alteração do contrato {}: {}", contratoId, e.getMessage(), e);
-            saveFallbackInNewTransaction(contratoId, "alteracao", "erro ao gerar diff", e.getMessage() != null ? e.getMessage() : "erro");
+            log.error("Erro ao gerar diff do contrato {}: {}", contratoId, e.getMessage(), e);
+            changes = List.of(changeEntry("alteracao", "erro ao gerar diff", e.getMessage() != null ? e.getMessage() : "erro"));
         }
-    }
-
-    /** Persiste uma linha de fallback em transação nova (REQUIRES_NEW) para não ser revertida pelo rollback da transação que falhou. */
-    private void saveFallbackInNewTransaction(Long contratoId, String path, String oldValue, String newValue) {
-        try {
-            transactionTemplateRequiresNew.executeWithoutResult(status -> {
-                String username = getCurrentUsername();
-                List<Map<String, String>> fallbackChanges = List.of(changeEntry(path, oldValue, newValue));
-                ContratoAlteracao fallback = ContratoAlteracao.builder()
-                        .contratoId(contratoId)
-                        .username(username)
-                        .changedAt(LocalDateTime.now())
-                        .changes(fallbackChanges)
-                        .build();
-                log.info("[HISTORICO] fallback antes do save: contratoId={}, username={}, changes size=1", contratoId, username);
-                ContratoAlteracao savedFallback = alteracaoRepository.save(fallback);
-                log.info("[HISTORICO] fallback depois do save: id gerado={}", savedFallback != null ? savedFallback.getId() : null);
-            });
-        } catch (Exception fallbackEx) {
-            log.warn("Fallback de auditoria também falhou para contrato {}: {}", contratoId, fallbackEx.getMessage());
+        log.info("Auditoria contrato {}: {} alteração(ões) detectada(s)", contratoId, changes.size());
+        if (changes.isEmpty()) {
+            if (auditCoalescer.isEnabled()) {
+                // Autosave sem alteração não gera linha; com agrupamento só o que mudou entra no histórico
+                return;
+            }
+            // Mesmo comportamento do diff completo: todo save gera uma linha de histórico
+            changes = List.of(changeEntry("alteracao", SEM_DIFF, "registro de auditoria"));
         }
+        submitChanges(contratoId, changes);
     }
 
     /**
-     * Registra uma mudança simples (ex.: finalização).
+     * Entrada neutra de uma mesclagem cujas alterações se anularam, já com rótulos como as gravadas por
+     * {@link #prepareForStorage}. Usa o oldValue {@link #SEM_DIFF}: uma alteração real mesclada depois a substitui.
      */
-    @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void recordSimpleChange(Long contratoId, String path, String oldValue, String newValue) {
-        try {
-            List<Map<String, String>> changes = List.of(changeEntry(path, oldValue, newValue));
+    static Map<String, String> semAlteracaoLiquida() {
+        Map<String, String> entry = new LinkedHashMap<>();
+        entry.put("path", "alteracao");
+        entry.put("oldValue", SEM_DIFF);
+        entry.put("newValue", SEM_ALTERACAO_LIQUIDA);
+        entry.put(KEY_LABEL, "alteracao");
+        entry.put(KEY_DISPLAY_OLD, SEM_DIFF);
+        entry.put(KEY_DISPLAY_NEW, SEM_ALTERACAO_LIQUIDA);
+        return entry;
+    }
 
-            String username = getCurrentUsername();
+    private void submitChanges(Long contratoId, List<Map<String, String>> changes) {
+        List<Map<String, String>> stored = prepareForStorage(changes);
+        if (stored.isEmpty()) {
+            log.info("[HISTORICO] contrato {}: nenhuma alteração exibível (só campos técnicos), nada a gravar", contratoId);
+            return;
+        }
+        String username = getCurrentUsername();
 
-            ContratoAlteracao alteracao = ContratoAlteracao.builder()
-                    .contratoId(contratoId)
-                    .username(username)
-                    .changedAt(LocalDateTime.now())
-                    .changes(changes)
-                    .build();
+        ContratoAlteracao alteracao = ContratoAlteracao.builder()
+                .contratoId(contratoId)
+                .username(username)
+                .changedAt(LocalDateTime.now())
+                .changes(stored)
+                .build();
 
-            alteracaoRepository.save(alteracao);
-        } catch (Exception e) {
-            log.error("Erro ao registrar alteração simples do contrato {}: {}", contratoId, e.getMessage(), e);
-        }
+        log.info("[HISTORICO] enviando para gravação: contratoId={}, username={}, changes size={}", contratoId, username, stored.size());
+        auditCoalescer.submit(alteracao);
+    }
+
+    /**
+     * Registra uma mudança simples (ex.: finalização). Falha na gravação propaga, como em {@link #recordChanges}.
+     */
+    public void recordSimpleChange(Long contratoId, String path, String oldValue, String newValue) {
+        submitChanges(contratoId, List.of(changeEntry(path, oldValue, newValue)));
     }
 
     public List<ContratoAlteracaoResponse> getHistorico(Long contratoId) {
         List<ContratoAlteracaoResponse> list = alteracaoRepository.findByContratoIdOrderByChangedAtDesc(contratoId).stream()
-                .map(this::toResponse)
-                .map(this::sanitizeAndEnrichResponse)
+                .map(this::toHistoricoResponse)
                 .collect(Collectors.toList());
         log.info("[HISTORICO] GET historico contratoId={} size={}", contratoId, list.size());
         return list;
     }
 
+    /**
+     * Histórico paginado por cursor (keyset em changed_at, id), do mais recente para o mais antigo.
+     * {@code since} restringe a alterações gravadas depois do instante informado (recordedAt, polling incremental).
+     * changedAt não serve de base: uma entrada agrupada ({@code audit.coalesce.window}) ou ainda na fila do writer é
+     * inserida depois com o changedAt da edição. O cliente usa o maior recordedAt recebido como próximo {@code since},
+     * com alguns segundos de sobreposição para transações que gravaram antes mas fizeram commit depois.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ContratoAlteracaoResponse> getHistoricoPage(Long contratoId, LocalDateTime since, String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? HISTORICO_DEFAULT_PAGE_SIZE : Math.min(limit, HISTORICO_MAX_PAGE_SIZE);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+
+        Specification<ContratoAlteracao> spec = ContratoAlteracaoSpecifications.doContrato(contratoId)
+                .and(ContratoAlteracaoSpecifications.desde(since));
+        if (after != null) {
+            spec = spec.and(ContratoAlteracaoSpecifications.aposCursor(after.timestamp(), after.id()));
+        }
+
+        List<ContratoAlteracao> rows = alteracaoRepository.findBy(spec, q -> q.sortBy(HISTORICO_SORT).limit(pageSize + 1).all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ContratoAlteracao> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ContratoAlteracao last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getChangedAt(), last.getId()).encode();
+        }
+
+        return CursorPageResponse.<ContratoAlteracaoResponse>builder()
+                .items(page.stream().map(this::toHistoricoResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
     /**
      * Sanitiza alterações (remove técnicas e old==new) e preenche label/displayOld/displayNew para UX.
      */
@@ -199,6 +210,33 @@ public class ContratoAuditService {
         return value;
     }
 
+    /**
+     * Sanitização e rótulos aplicados uma vez, na gravação: cada entrada já sai com label/displayOld/displayNew
+     * e a leitura do histórico não precisa reprocessar as linhas.
+     */
+    private List<Map<String, String>> prepareForStorage(List<Map<String, String>> changes) {
+        List<Map<String, String>> stored = new ArrayList<>(changes.size());
+        for (Map<String, String> c : changes) {
+            String path = c.get("path");
+            String oldValue = c.get("oldValue");
+            String newValue = c.get("newValue");
+            if (!isAuditablePath(path) || Objects.equals(nullSafe(oldValue), nullSafe(newValue))) continue;
+            Map<String, String> entry = changeEntry(path, oldValue, newValue);
+            entry.put(KEY_LABEL, labelForPath(path));
+            entry.put(KEY_DISPLAY_OLD, formatValue(path, oldValue));
+            entry.put(KEY_DISPLAY_NEW, formatValue(path, newValue));
+            stored.add(entry);
+        }
+        return stored;
+    }
+
+    /** Linhas gravadas antes da sanitização na escrita não têm label: essas ainda são tratadas na leitura. */
+    private ContratoAlteracaoResponse toHistoricoResponse(ContratoAlteracao entity) {
+        ContratoAlteracaoResponse r = toResponse(entity);
+        boolean enriquecida = entity.getChanges() != null && entity.getChanges().stream().allMatch(m -> m.containsKey(KEY_LABEL));
+        return enriquecida ? r : sanitizeAndEnrichResponse(r);
+    }
+
     private ContratoAlteracaoResponse sanitizeAndEnrichResponse(ContratoAlteracaoResponse r) {
         List<ContratoAlteracaoResponse.FieldChange> sanitized = sanitizeAuditChanges(r.getChanges());
         List<ContratoAlteracaoResponse.FieldChange> enriched = sanitized.stream()
@@ -216,6 +254,7 @@ public class ContratoAuditService {
                 .contratoId(r.getContratoId())
                 .username(r.getUsername())
                 .changedAt(r.getChangedAt())
+                .recordedAt(r.getRecordedAt())
                 .changes(enriched)
                 .build();
     }
@@ -277,6 +316,9 @@ public class ContratoAuditService {
                             .path(m.getOrDefault("path", ""))
                             .oldValue(m.getOrDefault("oldValue", ""))
                             .newValue(m.getOrDefault("newValue", ""))
+                            .label(m.get(KEY_LABEL))
+                            .displayOld(m.get(KEY_DISPLAY_OLD))
+                            .displayNew(m.get(KEY_DISPLAY_NEW))
                             .build())
                     .collect(Collectors.toList());
         }
@@ -286,6 +328,7 @@ public class ContratoAuditService {
                 .contratoId(entity.getContratoId())
                 .username(entity.getUsername())
                 .changedAt(entity.getChangedAt())
+                .recordedAt(entity.getRecordedAt())
                 .changes(fieldChanges)
                 .build();
     }
@@ -298,74 +341,6 @@ public class ContratoAuditService {
         return "sistema";
     }
 
-    /**
-     * Comparação manual de campos escalares quando o diff recursivo retorna vazio.
-     */
-    private List<Map<String, String>> buildManualScalarChanges(JsonNode beforeNode, JsonNode afterNode) {
-        List<Map<String, String>> manual = new ArrayList<>();
-        if (beforeNode == null || !beforeNode.isObject() || afterNode == null || !afterNode.isObject()) {
-            return manual;
-        }
-        for (String field : SCALAR_AUDIT_FIELDS) {
-            String bVal = nodeToString(beforeNode.get(field));
-            String aVal = nodeToString(afterNode.get(field));
-            if (!bVal.equals(aVal)) {
-                manual.add(changeEntry(field, bVal, aVal));
-            }
-        }
-        return manual;
-    }
-
-    // ========== DIFF RECURSIVO ==========
-
-    private void computeDiff(String prefix, JsonNode before, JsonNode after, List<Map<String, String>> changes) {
-        if (before == null && after == null) return;
-        if (before == null) before = MAPPER.nullNode();
-        if (after == null) after = MAPPER.nullNode();
-
-        if (before.isObject() && after.isObject()) {
-            Set<String> allKeys = new LinkedHashSet<>();
-            before.fieldNames().forEachRemaining(allKeys::add);
-            after.fieldNames().forEachRemaining(allKeys::add);
-
-            for (String key : allKeys) {
-                if (prefix.isEmpty() && IGNORED_FIELDS_ROOT.contains(key)) continue;
-                if (IGNORED_FIELDS_ANY_LEVEL.contains(key)) continue;
-                String path = prefix.isEmpty() ? key : prefix + "." + key;
-                computeDiff(path, before.get(key), after.get(key), changes);
-            }
-        } else if (before.isArray() && after.isArray()) {
-            int maxLen = Math.max(before.size(), after.size());
-            for (int i = 0; i < maxLen; i++) {
-                String path = prefix + "[" + i + "]";
-                JsonNode bElem = i < before.size() ? before.get(i) : null;
-                JsonNode aElem = i < after.size() ? after.get(i) : null;
-
-                if (bElem == null && aElem != null) {
-                    changes.add(changeEntry(path, "null", nodeToString(aElem)));
-                } else if (bElem != null && aElem == null) {
-                    changes.add(changeEntry(path, nodeToString(bElem), "(removido)"));
-                } else {
-                    computeDiff(path, bElem, aElem, changes);
-                }
-            }
-        } else {
-            String bVal = nodeToString(before);
-            String aVal = nodeToString(after);
-            if (!bVal.equals(aVal)) {
-                changes.add(changeEntry(prefix, bVal, aVal));
-            }
-        }
-    }
-
-    private String nodeToString(JsonNode node) {
-        if (node == null || node.isNull() || node.isMissingNode()) return "null";
-        if (node.isTextual()) return node.asText();
-        if (node.isNumber()) return node.asText();
-        if (node.isBoolean()) return node.asText();
-        return node.toString();
-    }
-
     private String nullSafe(String value) {
         return value == null ? "null" : value;
     }
@@ -0,0 +1,233 @@
+package com.advocacia.service;
+
+import com.advocacia.entity.ContratoAlteracao;
+import com.advocacia.repository.ContratoAlteracaoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistência do histórico de alterações de contratos.
+ * <p>
+ * Modo transacional (padrão, {@code audit.writer.async=false}): a alteração é gravada na própria transação do
+ * contrato (mesma conexão, mesmo commit) — durável e atômica com o update.
+ * <p>
+ * Modo assíncrono ({@code audit.writer.async=true}): após o commit da transação de negócio a alteração entra numa
+ * fila em memória limitada, drenada por uma thread que grava em lote (saveAll + JDBC batch) numa única transação.
+ * Fila cheia → gravação síncrona; no shutdown a fila é drenada. Um crash da JVM (OOM, kill -9, queda do host)
+ * perde o que estiver na fila e, com agrupamento, as entradas abertas: o contrato fica alterado sem histórico.
+ * Só vale a pena quando a latência do update pesa mais que a completude do histórico.
+ */
+@Component
+@Slf4j
+public class ContratoAuditWriter {
+
+    private static final long POLL_TIMEOUT_MS = 500;
+    private static final Duration FLUSH_TIMEOUT = Duration.ofSeconds(10);
+
+    private final ContratoAlteracaoRepository alteracaoRepository;
+    private final TransactionTemplate transactionTemplateRequiresNew;
+    private final MeterRegistry meterRegistry;
+    private final boolean async;
+    private final int batchSize;
+    private final BlockingQueue<Pendente> queue;
+    /** Entradas aceitas e ainda não gravadas (fila + lote em gravação). */
+    private final AtomicLong pendentes = new AtomicLong();
+
+    private final Counter gravadas;
+    private final Counter falhas;
+    private final Counter gravacoesSincronas;
+    private final Timer lag;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public ContratoAuditWriter(ContratoAlteracaoRepository alteracaoRepository,
+                               @Qualifier("transactionTemplateRequiresNew") TransactionTemplate transactionTemplateRequiresNew,
+                               MeterRegistry meterRegistry,
+                               @Value("${audit.writer.async:false}") boolean async,
+                               @Value("${audit.writer.queue-capacity:10000}") int queueCapacity,
+                               @Value("${audit.writer.batch-size:100}") int batchSize) {
+        this.alteracaoRepository = alteracaoRepository;
+        this.transactionTemplateRequiresNew = transactionTemplateRequiresNew;
+        this.meterRegistry = meterRegistry;
+        this.async = async;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+
+        this.lag = Timer.builder("contrato.audit.write.lag")
+                .description("Tempo entre o enfileiramento e a gravação da alteração")
+                .register(meterRegistry);
+        this.gravadas = meterRegistry.counter("contrato.audit.written");
+        this.falhas = meterRegistry.counter("contrato.audit.failed");
+        this.gravacoesSincronas = meterRegistry.counter("contrato.audit.queue.full");
+    }
+
+    @PostConstruct
+    public void start() {
+        // Registrados só com o bean construído: o gauge guarda referência ao writer
+        Gauge.builder("contrato.audit.queue.depth", queue, BlockingQueue::size)
+                .description("Alterações de contrato aguardando gravação")
+                .register(meterRegistry);
+        Gauge.builder("contrato.audit.queue.oldest.age", this, w -> w.oldestPendingAgeMillis())
+                .description("Idade (ms) da alteração mais antiga na fila")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        if (!async) return;
+        running = true;
+        worker = new Thread(this::drainLoop, "contrato-audit-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            try {
+                worker.join(FLUSH_TIMEOUT.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drainNow();
+    }
+
+    /**
+     * Entrega a alteração para gravação. No modo assíncrono só entra na fila após o commit da transação
+     * corrente (um update revertido não gera histórico); sem transação ativa, entra imediatamente.
+     */
+    public void submit(ContratoAlteracao alteracao) {
+        if (!async) {
+            alteracaoRepository.save(alteracao);
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(alteracao);
+                }
+            });
+        } else {
+            enqueue(alteracao);
+        }
+    }
+
+    /**
+     * Grava tudo o que estiver pendente e aguarda o lote em andamento (testes e shutdown).
+     */
+    public void flush() {
+        drainNow();
+        long deadline = System.nanoTime() + FLUSH_TIMEOUT.toNanos();
+        while (pendentes.get() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /** Enfileira imediatamente, sem esperar commit (usado por quem já está fora da transação, ex.: o agrupador). */
+    void enqueue(ContratoAlteracao alteracao) {
+        Pendente pendente = new Pendente(alteracao, System.nanoTime());
+        pendentes.incrementAndGet();
+        if (!queue.offer(pendente)) {
+            gravacoesSincronas.increment();
+            log.warn("[HISTORICO] fila de auditoria cheia ({}), gravando contrato {} de forma síncrona",
+                    queue.size(), alteracao.getContratoId());
+            persist(List.of(pendente));
+        }
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                Pendente first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                List<Pendente> lote = new ArrayList<>(batchSize);
+                lote.add(first);
+                queue.drainTo(lote, batchSize - 1);
+                persist(lote);
+            } catch (InterruptedException e) {
+                if (!running) return;
+            } catch (Exception e) {
+                log.error("[HISTORICO] erro inesperado no writer de auditoria: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void drainNow() {
+        List<Pendente> lote = new ArrayList<>(batchSize);
+        while (queue.drainTo(lote, batchSize) > 0) {
+            persist(lote);
+            lote = new ArrayList<>(batchSize);
+        }
+    }
+
+    /** Grava o lote numa transação; se falhar, tenta item a item para isolar a linha problemática. */
+    private void persist(List<Pendente> lote) {
+        try {
+            transactionTemplateRequiresNew.executeWithoutResult(status ->
+                    alteracaoRepository.saveAll(lote.stream().map(Pendente::alteracao).toList()));
+            lote.forEach(this::markWritten);
+        } catch (Exception e) {
+            log.warn("[HISTORICO] falha ao gravar lote de {} alteração(ões), tentando individualmente: {}", lote.size(), e.getMessage());
+            for (Pendente p : lote) {
+                try {
+                    p.alteracao().setId(null);
+                    transactionTemplateRequiresNew.executeWithoutResult(status -> alteracaoRepository.save(p.alteracao()));
+                    markWritten(p);
+                } catch (Exception itemEx) {
+                    falhas.increment();
+                    pendentes.decrementAndGet();
+                    log.error("[HISTORICO] alteração perdida para contrato {} ({}): {}",
+                            p.alteracao().getContratoId(), p.alteracao().getChanges(), itemEx.getMessage());
+                }
+            }
+        }
+    }
+
+    private void markWritten(Pendente p) {
+        gravadas.increment();
+        lag.record(System.nanoTime() - p.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+        pendentes.decrementAndGet();
+    }
+
+    private double oldestPendingAgeMillis() {
+        Pendente head = queue.peek();
+        return head == null ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - head.enqueuedAtNanos());
+    }
+
+    private record Pendente(ContratoAlteracao alteracao, long enqueuedAtNanos) {
+    }
+}
@@ -3,21 +3,36 @@ package com.advocacia.service;
 import com.advocacia.dto.*;
 import com.advocacia.entity.Contrato;
 import com.advocacia.entity.ContratoComprador;
+import com.advocacia.entity.ContratoParcela;
 import com.advocacia.entity.ContratoStatus;
 import com.advocacia.entity.ContratoVendedor;
+import com.advocacia.repository.ContratoBuscaProjection;
 import com.advocacia.repository.ContratoRepository;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.advocacia.repository.ContratoResumoProjection;
+import com.advocacia.repository.ParteContratoProjection;
+import com.advocacia.repository.ContratoSpecifications;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,22 +40,179 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ContratoService {
 
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
+    /** Tamanho máximo da lista IN ao carregar as partes de vários contratos. */
+    private static final int PARTES_FETCH_CHUNK = 500;
+
+    /** Resultados da busca textual além desta posição não são paginados (refinar os termos). */
+    static final int MAX_BUSCA_RESULTADOS = 1000;
+    private static final int MAX_BUSCA_TERMOS = 8;
+
+    private static final Sort LISTAGEM_SORT = Sort.by(Sort.Direction.DESC, "createdAt")
+            .and(Sort.by(Sort.Direction.DESC, "id"));
 
     private final ContratoRepository contratoRepository;
     private final ContratoAuditService auditService;
+    private final ParcelamentoService parcelamentoService;
 
     @Transactional(readOnly = true)
     public List<ContratoResponse> findAll() {
-        return contratoRepository.findAllByOrderByCreatedAtDesc().stream()
+        List<Contrato> contratos = contratoRepository.findAllByOrderByCreatedAtDesc();
+        fetchPartes(contratos);
+        return contratos.stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Listagem paginada por cursor (keyset em created_at, id), com filtros opcionais.
+     * Busca limit + 1 linhas para saber se há próxima página sem executar COUNT.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ContratoResponse> findPage(ContratoFiltro filtro, String cursor, Integer limit) {
+        int pageSize = normalizePageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        ContratoFiltro efetivo = normalizeFiltro(filtro);
+
+        Specification<Contrato> spec = listagemSpec(efetivo, after);
+        List<Contrato> rows = contratoRepository.findBy(spec, q -> q.sortBy(LISTAGEM_SORT).limit(pageSize + 1).all());
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Contrato> page = hasMore ? rows.subList(0, pageSize) : rows;
+        fetchPartes(page);
+        String nextCursor = null;
+        if (hasMore) {
+            Contrato last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorPageResponse.<ContratoResponse>builder()
+                .items(page.stream().map(this::toResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Resumo paginado para telas de listagem: uma única consulta por página, sem carregar partes nem parcelas.
+     * Filtros e cursor são os mesmos de {@link #findPage}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ContratoResumoResponse> findResumos(ContratoFiltro filtro, String cursor, Integer limit) {
+        int pageSize = normalizePageSize(limit);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        ContratoFiltro efetivo = normalizeFiltro(filtro);
+
+        List<ContratoResumoProjection> rows = contratoRepository.findResumos(listagemSpec(efetivo, after), pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ContratoResumoProjection> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ContratoResumoProjection last = page.get(page.size() - 1);
+            nextCursor = new KeysetCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+
+        return CursorPageResponse.<ContratoResumoResponse>builder()
+                .items(page.stream().map(this::toResumoResponse).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Busca textual por nomes e documentos das partes, matrícula, placa, chassi, renavam e descrições,
+     * ordenada por relevância. Cada termo casa por prefixo ("silv" encontra "Silva"); CPF/CNPJ e placas podem
+     * vir com ou sem pontuação. O cursor ({@link OffsetCursor}) é a posição do próximo resultado.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ContratoBuscaResponse> search(String termo, String cursor, Integer limit) {
+        String consulta = toTsQuery(termo);
+        if (consulta == null) {
+            throw new IllegalArgumentException("Informe ao menos um termo de busca com 2 caracteres");
+        }
+        int pageSize = normalizePageSize(limit);
+        int offset = OffsetCursor.decode(cursor).offset();
+        if (offset >= MAX_BUSCA_RESULTADOS) {
+            return CursorPageResponse.<ContratoBuscaResponse>builder().items(List.of()).hasMore(false).build();
+        }
+
+        List<ContratoBuscaProjection> rows = contratoRepository.search(consulta, offset, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize && offset + pageSize < MAX_BUSCA_RESULTADOS;
+        List<ContratoBuscaProjection> page = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+
+        return CursorPageResponse.<ContratoBuscaResponse>builder()
+                .items(page.stream()
+                        .map(p -> ContratoBuscaResponse.builder().contrato(toResumoResponse(p)).relevancia(p.getRelevancia()).build())
+                        .collect(Collectors.toList()))
+                .nextCursor(hasMore ? new OffsetCursor(offset + pageSize).encode() : null)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    /**
+     * Converte o texto digitado em tsquery: termos com dígito (CPF, placa, matrícula) perdem a pontuação, os
+     * demais são separados nas letras; cada termo vira prefixo e todos precisam casar. Só letras e dígitos
+     * chegam ao to_tsquery, então a entrada não consegue formar sintaxe de consulta. Retorna null sem termos
+     * utilizáveis (menos de 2 caracteres).
+     */
+    static String toTsQuery(String termo) {
+        if (termo == null) return null;
+        List<String> termos = new ArrayList<>();
+        for (String token : termo.trim().split("\\s+")) {
+            if (token.chars().anyMatch(Character::isDigit)) {
+                termos.add(token.replaceAll("[^\\p{L}\\p{N}]", ""));
+            } else {
+                termos.addAll(List.of(token.split("[^\\p{L}]+")));
+            }
+        }
+        String consulta = termos.stream()
+                .filter(t -> t.length() >= 2)
+                .distinct()
+                .limit(MAX_BUSCA_TERMOS)
+                .map(t -> t + ":*")
+                .collect(Collectors.joining(" & "));
+        return consulta.isEmpty() ? null : consulta;
+    }
+
+    /**
+     * Todos os contratos em que o CPF/CNPJ aparece (vendedor, sócio, comprador ou cônjuge), mais recentes
+     * primeiro: consulta de conflito de interesses no atendimento. Aceita o documento com ou sem máscara.
+     */
+    @Transactional(readOnly = true)
+    public List<ParteContratoResponse> findContratosByDocumento(String documento) {
+        String digitos = sanitizeDigits(documento);
+        if (digitos == null || (digitos.length() != 11 && digitos.length() != 14)) {
+            throw new IllegalArgumentException("Documento deve ser um CPF (11 dígitos) ou CNPJ (14 dígitos)");
+        }
+
+        Map<Long, ParteContratoResponse> porContrato = new LinkedHashMap<>();
+        for (ParteContratoProjection p : contratoRepository.findParticipacoesByDocumento(digitos)) {
+            ParteContratoResponse r = porContrato.computeIfAbsent(p.getContratoId(), id -> ParteContratoResponse.builder()
+                    .contratoId(id)
+                    .status(p.getStatus() != null ? ContratoStatus.valueOf(p.getStatus()) : null)
+                    .dataContrato(p.getDataContrato())
+                    .createdAt(p.getCreatedAt())
+                    .papeis(new ArrayList<>())
+                    .nome(p.getNome())
+                    .build());
+            if (!r.getPapeis().contains(p.getPapel())) {
+                r.getPapeis().add(p.getPapel());
+            }
+            if (r.getNome() == null) {
+                r.setNome(p.getNome());
+            }
+        }
+        return new ArrayList<>(porContrato.values());
+    }
+
     @Transactional(readOnly = true)
     public ContratoResponse findById(Long id) {
         Contrato contrato = contratoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Contrato não encontrado"));
+        fetchPartes(List.of(contrato));
         return toResponse(contrato);
     }
 
@@ -51,7 +223,8 @@ public class ContratoService {
                 .paginaAtual(1)
                 .build();
 
-        updateContratoFromRequest(contrato, request);
+        // Criação não gera histórico: nada é comparado campo a campo
+        updateContratoFromRequest(contrato, request, AuditChangeSet.disabled());
         contrato = contratoRepository.save(contrato);
         return toResponse(contrato);
     }
@@ -63,32 +236,14 @@ public class ContratoService {
         Contrato contrato = contratoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Contrato não encontrado"));
 
-        // Snapshot antes da alteração
-        ContratoResponse before = toResponse(contrato);
-        log.info("[HISTORICO] contrato id={} BEFORE negocioValorTotal={}", id, before.getNegocioValorTotal());
-
-        updateContratoFromRequest(contrato, request);
+        // Só os campos tocados pelo request entram na auditoria; não há snapshot do contrato inteiro
+        AuditChangeSet changes = auditService.newChangeSet();
+        updateContratoFromRequest(contrato, request, changes);
         contrato = contratoRepository.save(contrato);
 
-        ContratoResponse after = toResponse(contrato);
-        log.info("[HISTORICO] contrato id={} AFTER negocioValorTotal={}", id, after.getNegocioValorTotal());
+        auditService.recordChanges(id, changes);
 
-        try {
-            auditService.recordChanges(id, before, after);
-        } catch (Exception e) {
-            log.warn("Auditoria não registrada para contrato {}: {}", id, e.getMessage(), e);
-            if (!Objects.equals(before.getNegocioValorTotal(), after.getNegocioValorTotal())) {
-                try {
-                    auditService.recordSimpleChange(id, "negocioValorTotal",
-                            before.getNegocioValorTotal() != null ? before.getNegocioValorTotal().toPlainString() : "null",
-                            after.getNegocioValorTotal() != null ? after.getNegocioValorTotal().toPlainString() : "null");
-                } catch (Exception fallbackEx) {
-                    log.warn("Fallback de auditoria (negocioValorTotal) também falhou para contrato {}: {}", id, fallbackEx.getMessage());
-                }
-            }
-        }
-
-        return after;
+        return toResponse(contrato);
     }
 
     @Transactional
@@ -104,11 +259,7 @@ public class ContratoService {
         contrato.setStatus(ContratoStatus.FINAL);
         contrato = contratoRepository.save(contrato);
 
-        try {
-            auditService.recordSimpleChange(id, "status", oldStatus, "FINAL");
-        } catch (Exception e) {
-            log.warn("Auditoria não registrada para contrato {} (finalizar): {}", id, e.getMessage());
-        }
+        auditService.recordSimpleChange(id, "status", oldStatus, "FINAL");
 
         return toResponse(contrato);
     }
@@ -130,47 +281,13 @@ public class ContratoService {
         Contrato contrato = contratoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Contrato não encontrado"));
 
-        // Snapshot antes
-        ContratoResponse before = toResponse(contrato);
-
-        contrato.getVendedores().clear();
-        if (vendedores != null) {
-            for (int i = 0; i < vendedores.size(); i++) {
-                VendedorRequest vr = vendedores.get(i);
-                ContratoVendedor v = ContratoVendedor.builder()
-                        .contrato(contrato)
-                        .ordem(i)
-                        .nome(vr.getNome())
-                        .documento(sanitizeDigits(vr.getDocumento()))
-                        .email(vr.getEmail())
-                        .telefone(vr.getTelefone())
-                        .endereco(vr.getEndereco())
-                        .socioNome(vr.getSocioNome())
-                        .socioCpf(vr.getSocioCpf())
-                        .socioNacionalidade(vr.getSocioNacionalidade())
-                        .socioProfissao(vr.getSocioProfissao())
-                        .socioEstadoCivil(vr.getSocioEstadoCivil())
-                        .socioRegimeBens(vr.getSocioRegimeBens())
-                        .socioRg(vr.getSocioRg())
-                        .socioCnh(vr.getSocioCnh())
-                        .socioEmail(vr.getSocioEmail())
-                        .socioTelefone(vr.getSocioTelefone())
-                        .socioEndereco(vr.getSocioEndereco())
-                        .build();
-                contrato.getVendedores().add(v);
-            }
-        }
+        AuditChangeSet changes = auditService.newChangeSet();
+        mergeVendedores(contrato, vendedores != null ? vendedores : List.of(), changes);
         contrato = contratoRepository.save(contrato);
 
-        ContratoResponse after = toResponse(contrato);
-        try {
-            auditService.recordChanges(id, before, after);
-        } catch (Exception e) {
-            log.warn("Auditoria não registrada para contrato {} (vendedores): {}", id, e.getMessage(), e);
-            throw new RuntimeException(e);
-        }
+        auditService.recordChanges(id, changes);
 
-        return after;
+        return toResponse(contrato);
     }
 
     @Transactional
@@ -178,47 +295,175 @@ public class ContratoService {
         Contrato contrato = contratoRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Contrato não encontrado"));
 
-        // Snapshot antes
-        ContratoResponse before = toResponse(contrato);
-
-        contrato.getCompradores().clear();
-        if (compradores != null) {
-            for (int i = 0; i < compradores.size(); i++) {
-                CompradorRequest cr = compradores.get(i);
-                ContratoComprador c = ContratoComprador.builder()
-                        .contrato(contrato)
-                        .ordem(i)
-                        .nome(cr.getNome())
-                        .documento(sanitizeDigits(cr.getDocumento()))
-                        .nacionalidade(cr.getNacionalidade())
-                        .profissao(cr.getProfissao())
-                        .estadoCivil(cr.getEstadoCivil())
-                        .regimeBens(cr.getRegimeBens())
-                        .rg(cr.getRg())
-                        .cnh(cr.getCnh())
-                        .email(cr.getEmail())
-                        .telefone(cr.getTelefone())
-                        .endereco(cr.getEndereco())
-                        .conjugeNome(cr.getConjugeNome())
-                        .conjugeCpf(cr.getConjugeCpf())
-                        .conjugeNacionalidade(cr.getConjugeNacionalidade())
-                        .conjugeProfissao(cr.getConjugeProfissao())
-                        .conjugeRg(cr.getConjugeRg())
-                        .build();
-                contrato.getCompradores().add(c);
+        AuditChangeSet changes = auditService.newChangeSet();
+        mergeCompradores(contrato, compradores != null ? compradores : List.of(), changes);
+        contrato = contratoRepository.save(contrato);
+
+        auditService.recordChanges(id, changes);
+
+        return toResponse(contrato);
+    }
+
+    /**
+     * Carrega vendedores, compradores e parcelas de todos os contratos com uma consulta IN por coleção,
+     * de modo que montar N respostas custe um número constante de consultas (e não 3 por contrato).
+     */
+    private void fetchPartes(List<Contrato> contratos) {
+        if (contratos.isEmpty()) return;
+        List<Long> ids = contratos.stream().map(Contrato::getId).collect(Collectors.toList());
+        for (int from = 0; from < ids.size(); from += PARTES_FETCH_CHUNK) {
+            List<Long> chunk = ids.subList(from, Math.min(from + PARTES_FETCH_CHUNK, ids.size()));
+            contratoRepository.fetchVendedoresByIdIn(chunk);
+            contratoRepository.fetchCompradoresByIdIn(chunk);
+            contratoRepository.fetchParcelasByIdIn(chunk);
+        }
+    }
+
+    /**
+     * Aplica a lista recebida sobre os vendedores atuais sem recriar linhas: casa cada item por id (quando enviado)
+     * ou pela ordem, atualiza apenas colunas alteradas, insere os novos e remove (orphanRemoval) os que saíram.
+     */
+    private void mergeVendedores(Contrato contrato, List<VendedorRequest> recebidos, AuditChangeSet changes) {
+        List<ContratoVendedor> atuais = contrato.getVendedores();
+        List<VendedorResponse> antes = changes.isTracking()
+                ? atuais.stream().map(this::toVendedorResponse).collect(Collectors.toList()) : null;
+        Map<Long, ContratoVendedor> porId = new HashMap<>();
+        Map<Integer, ContratoVendedor> porOrdem = new HashMap<>();
+        for (ContratoVendedor v : atuais) {
+            if (v.getId() != null) porId.put(v.getId(), v);
+            porOrdem.putIfAbsent(v.getOrdem(), v);
+        }
+
+        // Entidades com @Data têm equals/hashCode por campos; a identidade é o critério correto aqui
+        Set<ContratoVendedor> mantidos = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ContratoVendedor> novos = new ArrayList<>();
+        for (int i = 0; i < recebidos.size(); i++) {
+            VendedorRequest vr = recebidos.get(i);
+            ContratoVendedor vendedor = matchParte(porId, porOrdem, mantidos, vr.getId(), vr.getOrdem() != null ? vr.getOrdem() : i);
+            if (vendedor == null) {
+                vendedor = ContratoVendedor.builder().contrato(contrato).build();
+                novos.add(vendedor);
             }
+            mantidos.add(vendedor);
+            vendedor.setOrdem(i);
+            applyVendedor(vendedor, vr);
         }
-        contrato = contratoRepository.save(contrato);
 
-        ContratoResponse after = toResponse(contrato);
-        try {
-            auditService.recordChanges(id, before, after);
-        } catch (Exception e) {
-            log.warn("Auditoria não registrada para contrato {} (compradores): {}", id, e.getMessage(), e);
-            throw new RuntimeException(e);
+        atuais.removeIf(v -> !mantidos.contains(v));
+        atuais.addAll(novos);
+        atuais.sort(Comparator.comparing(ContratoVendedor::getOrdem));
+
+        if (changes.isTracking()) {
+            changes.track("vendedores", antes, atuais.stream().map(this::toVendedorResponse).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Mesmo merge de {@link #mergeVendedores} para compradores.
+     */
+    private void mergeCompradores(Contrato contrato, List<CompradorRequest> recebidos, AuditChangeSet changes) {
+        List<ContratoComprador> atuais = contrato.getCompradores();
+        List<CompradorResponse> antes = changes.isTracking()
+                ? atuais.stream().map(this::toCompradorResponse).collect(Collectors.toList()) : null;
+        Map<Long, ContratoComprador> porId = new HashMap<>();
+        Map<Integer, ContratoComprador> porOrdem = new HashMap<>();
+        for (ContratoComprador c : atuais) {
+            if (c.getId() != null) porId.put(c.getId(), c);
+            porOrdem.putIfAbsent(c.getOrdem(), c);
+        }
+
+        Set<ContratoComprador> mantidos = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ContratoComprador> novos = new ArrayList<>();
+        for (int i = 0; i < recebidos.size(); i++) {
+            CompradorRequest cr = recebidos.get(i);
+            ContratoComprador comprador = matchParte(porId, porOrdem, mantidos, cr.getId(), cr.getOrdem() != null ? cr.getOrdem() : i);
+            if (comprador == null) {
+                comprador = ContratoComprador.builder().contrato(contrato).build();
+                novos.add(comprador);
+            }
+            mantidos.add(comprador);
+            comprador.setOrdem(i);
+            applyComprador(comprador, cr);
         }
 
-        return after;
+        atuais.removeIf(c -> !mantidos.contains(c));
+        atuais.addAll(novos);
+        atuais.sort(Comparator.comparing(ContratoComprador::getOrdem));
+
+        if (changes.isTracking()) {
+            changes.track("compradores", antes, atuais.stream().map(this::toCompradorResponse).collect(Collectors.toList()));
+        }
+    }
+
+    private static <T> T matchParte(Map<Long, T> porId, Map<Integer, T> porOrdem, Set<T> usados, Long id, Integer ordem) {
+        T match = id != null ? porId.get(id) : null;
+        if (match == null) match = porOrdem.get(ordem);
+        return match != null && !usados.contains(match) ? match : null;
+    }
+
+    /** Setters com o mesmo valor não sujam a entidade; com @DynamicUpdate o UPDATE leva só as colunas alteradas. */
+    private void applyVendedor(ContratoVendedor v, VendedorRequest vr) {
+        v.setNome(vr.getNome());
+        v.setDocumento(sanitizeDigits(vr.getDocumento()));
+        v.setEmail(vr.getEmail());
+        v.setTelefone(vr.getTelefone());
+        v.setEndereco(vr.getEndereco());
+        v.setSocioNome(vr.getSocioNome());
+        v.setSocioCpf(vr.getSocioCpf());
+        v.setSocioNacionalidade(vr.getSocioNacionalidade());
+        v.setSocioProfissao(vr.getSocioProfissao());
+        v.setSocioEstadoCivil(vr.getSocioEstadoCivil());
+        v.setSocioRegimeBens(vr.getSocioRegimeBens());
+        v.setSocioRg(vr.getSocioRg());
+        v.setSocioCnh(vr.getSocioCnh());
+        v.setSocioEmail(vr.getSocioEmail());
+        v.setSocioTelefone(vr.getSocioTelefone());
+        v.setSocioEndereco(vr.getSocioEndereco());
+    }
+
+    private void applyComprador(ContratoComprador c, CompradorRequest cr) {
+        c.setNome(cr.getNome());
+        c.setDocumento(sanitizeDigits(cr.getDocumento()));
+        c.setNacionalidade(cr.getNacionalidade());
+        c.setProfissao(cr.getProfissao());
+        c.setEstadoCivil(cr.getEstadoCivil());
+        c.setRegimeBens(cr.getRegimeBens());
+        c.setRg(cr.getRg());
+        c.setCnh(cr.getCnh());
+        c.setEmail(cr.getEmail());
+        c.setTelefone(cr.getTelefone());
+        c.setEndereco(cr.getEndereco());
+        c.setConjugeNome(cr.getConjugeNome());
+        c.setConjugeCpf(cr.getConjugeCpf());
+        c.setConjugeNacionalidade(cr.getConjugeNacionalidade());
+        c.setConjugeProfissao(cr.getConjugeProfissao());
+        c.setConjugeRg(cr.getConjugeRg());
+    }
+
+    /** Filtros informados + posição após o cursor, na ordem (created_at DESC, id DESC) das listagens. */
+    private static Specification<Contrato> listagemSpec(ContratoFiltro filtro, KeysetCursor after) {
+        Specification<Contrato> spec = ContratoSpecifications.comFiltro(filtro);
+        return after != null ? spec.and(ContratoSpecifications.aposCursor(after.timestamp(), after.id())) : spec;
+    }
+
+    private int normalizePageSize(Integer limit) {
+        if (limit == null || limit <= 0) return DEFAULT_PAGE_SIZE;
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    /** Documento é gravado só com dígitos; o filtro precisa ser sanitizado da mesma forma. */
+    private ContratoFiltro normalizeFiltro(ContratoFiltro filtro) {
+        if (filtro == null) return new ContratoFiltro();
+        if (filtro.getDataInicio() != null && filtro.getDataFim() != null && filtro.getDataFim().isBefore(filtro.getDataInicio())) {
+            throw new IllegalArgumentException("Data final não pode ser anterior à data inicial");
+        }
+        String documento = isBlank(filtro.getDocumento()) ? null : sanitizeDigits(filtro.getDocumento());
+        return ContratoFiltro.builder()
+                .status(filtro.getStatus())
+                .dataInicio(filtro.getDataInicio())
+                .dataFim(filtro.getDataFim())
+                .documento(isBlank(documento) ? null : documento)
+                .build();
     }
 
     private boolean isBlank(String value) {
@@ -230,150 +475,160 @@ public class ContratoService {
         return value.replaceAll("\\D", "");
     }
 
-    private List<ParcelaItemDto> parseParcelas(String json) {
-        if (json == null || json.isBlank()) return null;
+    /**
+     * Aplica a lista de parcelas do formulário casando por número: atualiza vencimento/valor das existentes
+     * (mantendo a situação de pagamento), insere as novas e remove (orphanRemoval) as que saíram.
+     * Parcelas pagas só são removidas ou alteradas com {@code substituirPagas}: um cronograma regerado (ou uma
+     * lista vazia enviada por engano) não apaga o histórico de pagamentos.
+     */
+    private void mergeParcelas(Contrato contrato, List<ParcelaItemDto> recebidas, boolean substituirPagas,
+                               AuditChangeSet changes) {
+        List<ContratoParcela> atuais = contrato.getParcelas();
+        List<ParcelaItemDto> antes = changes.isTracking()
+                ? atuais.stream().map(this::toParcelaItemDto).collect(Collectors.toList()) : null;
+        Map<Integer, ContratoParcela> porNumero = new HashMap<>();
+        for (ContratoParcela p : atuais) {
+            porNumero.putIfAbsent(p.getNumero(), p);
+        }
+
+        List<ContratoParcela> resultado = new ArrayList<>();
+        // Parcela nova, alterada ou fora da posição atual; remoções aparecem na diferença de tamanho
+        boolean alterada = recebidas.size() != atuais.size();
+        for (int i = 0; i < recebidas.size(); i++) {
+            ParcelaItemDto item = recebidas.get(i);
+            int numero = item.getNumero() != null ? item.getNumero() : i + 1;
+            ContratoParcela parcela = porNumero.remove(numero);
+            if (parcela == null) {
+                parcela = ContratoParcela.builder().contrato(contrato).numero(numero).build();
+            }
+            LocalDate vencimento = parseVencimento(item.getVencimento(), numero);
+            // compareTo: 1500 e 1500.00 são o mesmo valor (não gera UPDATE nem histórico)
+            boolean valorAlterado = parcela.getValor() == null || item.getValor() == null
+                    ? !Objects.equals(parcela.getValor(), item.getValor())
+                    : parcela.getValor().compareTo(item.getValor()) != 0;
+            boolean vencimentoAlterado = !Objects.equals(parcela.getVencimento(), vencimento);
+            if ((valorAlterado || vencimentoAlterado) && Boolean.TRUE.equals(parcela.getPago()) && !substituirPagas) {
+                throw new IllegalArgumentException("Parcela " + numero + " já está paga: vencimento e valor não podem ser alterados");
+            }
+            if (vencimentoAlterado) parcela.setVencimento(vencimento);
+            if (valorAlterado) parcela.setValor(item.getValor());
+            alterada |= valorAlterado || vencimentoAlterado || i >= atuais.size() || atuais.get(i) != parcela;
+            resultado.add(parcela);
+        }
+        if (!substituirPagas) {
+            Set<ContratoParcela> mantidas = Collections.newSetFromMap(new IdentityHashMap<>());
+            mantidas.addAll(resultado);
+            for (ContratoParcela atual : atuais) {
+                if (!mantidas.contains(atual) && Boolean.TRUE.equals(atual.getPago())) {
+                    throw new IllegalArgumentException("Parcela " + atual.getNumero() + " já está paga e não pode ser removida");
+                }
+            }
+        }
+
+        if (alterada) {
+            if (changes.isTracking()) {
+                changes.track("parcelas", antes, resultado.stream().map(this::toParcelaItemDto).collect(Collectors.toList()));
+            }
+            atuais.clear();
+            atuais.addAll(resultado);
+            // Só a coleção mudou: marca o contrato como alterado
+            contrato.setUpdatedAt(LocalDateTime.now());
+        }
+    }
+
+    private static LocalDate parseVencimento(String vencimento, int numero) {
+        if (vencimento == null || vencimento.isBlank()) return null;
         try {
-            return OBJECT_MAPPER.readValue(json, new TypeReference<List<ParcelaItemDto>>() {});
-        } catch (JsonProcessingException e) {
-            log.warn("Erro ao deserializar parcelas: {}", e.getMessage());
-            return null;
+            return LocalDate.parse(vencimento.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Vencimento inválido na parcela " + numero + ": " + vencimento);
         }
     }
 
-    private void updateContratoFromRequest(Contrato contrato, ContratoRequest request) {
+    private void updateContratoFromRequest(Contrato contrato, ContratoRequest request, AuditChangeSet changes) {
         if (request == null) return;
 
         if (request.getPaginaAtual() != null) contrato.setPaginaAtual(request.getPaginaAtual());
 
         // ========== VENDEDORES ==========
         if (request.getVendedores() != null) {
-            contrato.getVendedores().clear();
-            for (int i = 0; i < request.getVendedores().size(); i++) {
-                VendedorRequest vr = request.getVendedores().get(i);
-                ContratoVendedor vendedor = ContratoVendedor.builder()
-                        .contrato(contrato)
-                        .ordem(i)
-                        .nome(vr.getNome())
-                        .documento(sanitizeDigits(vr.getDocumento()))
-                        .email(vr.getEmail())
-                        .telefone(vr.getTelefone())
-                        .endereco(vr.getEndereco())
-                        .socioNome(vr.getSocioNome())
-                        .socioCpf(vr.getSocioCpf())
-                        .socioNacionalidade(vr.getSocioNacionalidade())
-                        .socioProfissao(vr.getSocioProfissao())
-                        .socioEstadoCivil(vr.getSocioEstadoCivil())
-                        .socioRegimeBens(vr.getSocioRegimeBens())
-                        .socioRg(vr.getSocioRg())
-                        .socioCnh(vr.getSocioCnh())
-                        .socioEmail(vr.getSocioEmail())
-                        .socioTelefone(vr.getSocioTelefone())
-                        .socioEndereco(vr.getSocioEndereco())
-                        .build();
-                contrato.getVendedores().add(vendedor);
-            }
+            mergeVendedores(contrato, request.getVendedores(), changes);
         }
 
         // ========== COMPRADORES ==========
         if (request.getCompradores() != null) {
-            contrato.getCompradores().clear();
-            for (int i = 0; i < request.getCompradores().size(); i++) {
-                CompradorRequest cr = request.getCompradores().get(i);
-                ContratoComprador comprador = ContratoComprador.builder()
-                        .contrato(contrato)
-                        .ordem(i)
-                        .nome(cr.getNome())
-                        .documento(sanitizeDigits(cr.getDocumento()))
-                        .nacionalidade(cr.getNacionalidade())
-                        .profissao(cr.getProfissao())
-                        .estadoCivil(cr.getEstadoCivil())
-                        .regimeBens(cr.getRegimeBens())
-                        .rg(cr.getRg())
-                        .cnh(cr.getCnh())
-                        .email(cr.getEmail())
-                        .telefone(cr.getTelefone())
-                        .endereco(cr.getEndereco())
-                        .conjugeNome(cr.getConjugeNome())
-                        .conjugeCpf(cr.getConjugeCpf())
-                        .conjugeNacionalidade(cr.getConjugeNacionalidade())
-                        .conjugeProfissao(cr.getConjugeProfissao())
-                        .conjugeRg(cr.getConjugeRg())
-                        .build();
-                contrato.getCompradores().add(comprador);
-            }
+            mergeCompradores(contrato, request.getCompradores(), changes);
         }
 
         // Página 3: Imóvel Objeto
-        if (request.getImovelMatricula() != null) contrato.setImovelMatricula(request.getImovelMatricula());
-        if (request.getImovelLivro() != null) contrato.setImovelLivro(request.getImovelLivro());
-        if (request.getImovelOficio() != null) contrato.setImovelOficio(request.getImovelOficio());
-        if (request.getImovelProprietario() != null) contrato.setImovelProprietario(request.getImovelProprietario());
-        if (request.getImovelMomentoPosse() != null) contrato.setImovelMomentoPosse(request.getImovelMomentoPosse());
-        if (request.getImovelPrazoTransferencia() != null) contrato.setImovelPrazoTransferencia(request.getImovelPrazoTransferencia());
-        if (request.getImovelPrazoEscritura() != null) contrato.setImovelPrazoEscritura(request.getImovelPrazoEscritura());
-        if (request.getImovelDescricao() != null) contrato.setImovelDescricao(request.getImovelDescricao());
+        apply(changes, "imovelMatricula", contrato.getImovelMatricula(), request.getImovelMatricula(), contrato::setImovelMatricula);
+        apply(changes, "imovelLivro", contrato.getImovelLivro(), request.getImovelLivro(), contrato::setImovelLivro);
+        apply(changes, "imovelOficio", contrato.getImovelOficio(), request.getImovelOficio(), contrato::setImovelOficio);
+        apply(changes, "imovelProprietario", contrato.getImovelProprietario(), request.getImovelProprietario(), contrato::setImovelProprietario);
+        apply(changes, "imovelMomentoPosse", contrato.getImovelMomentoPosse(), request.getImovelMomentoPosse(), contrato::setImovelMomentoPosse);
+        apply(changes, "imovelPrazoTransferencia", contrato.getImovelPrazoTransferencia(), request.getImovelPrazoTransferencia(), contrato::setImovelPrazoTransferencia);
+        apply(changes, "imovelPrazoEscritura", contrato.getImovelPrazoEscritura(), request.getImovelPrazoEscritura(), contrato::setImovelPrazoEscritura);
+        apply(changes, "imovelDescricao", contrato.getImovelDescricao(), request.getImovelDescricao(), contrato::setImovelDescricao);
 
         // Página 3: Imóvel Permuta
-        if (request.getPermutaImovelMatricula() != null) contrato.setPermutaImovelMatricula(request.getPermutaImovelMatricula());
-        if (request.getPermutaImovelLivro() != null) contrato.setPermutaImovelLivro(request.getPermutaImovelLivro());
-        if (request.getPermutaImovelOficio() != null) contrato.setPermutaImovelOficio(request.getPermutaImovelOficio());
-        if (request.getPermutaImovelProprietario() != null) contrato.setPermutaImovelProprietario(request.getPermutaImovelProprietario());
-        if (request.getPermutaImovelMomentoPosse() != null) contrato.setPermutaImovelMomentoPosse(request.getPermutaImovelMomentoPosse());
-        if (request.getPermutaImovelPrazoTransferencia() != null) contrato.setPermutaImovelPrazoTransferencia(request.getPermutaImovelPrazoTransferencia());
-        if (request.getPermutaImovelPrazoEscritura() != null) contrato.setPermutaImovelPrazoEscritura(request.getPermutaImovelPrazoEscritura());
-        if (request.getPermutaImovelDescricao() != null) contrato.setPermutaImovelDescricao(request.getPermutaImovelDescricao());
+        apply(changes, "permutaImovelMatricula", contrato.getPermutaImovelMatricula(), request.getPermutaImovelMatricula(), contrato::setPermutaImovelMatricula);
+        apply(changes, "permutaImovelLivro", contrato.getPermutaImovelLivro(), request.getPermutaImovelLivro(), contrato::setPermutaImovelLivro);
+        apply(changes, "permutaImovelOficio", contrato.getPermutaImovelOficio(), request.getPermutaImovelOficio(), contrato::setPermutaImovelOficio);
+        apply(changes, "permutaImovelProprietario", contrato.getPermutaImovelProprietario(), request.getPermutaImovelProprietario(), contrato::setPermutaImovelProprietario);
+        apply(changes, "permutaImovelMomentoPosse", contrato.getPermutaImovelMomentoPosse(), request.getPermutaImovelMomentoPosse(), contrato::setPermutaImovelMomentoPosse);
+        apply(changes, "permutaImovelPrazoTransferencia", contrato.getPermutaImovelPrazoTransferencia(), request.getPermutaImovelPrazoTransferencia(), contrato::setPermutaImovelPrazoTransferencia);
+        apply(changes, "permutaImovelPrazoEscritura", contrato.getPermutaImovelPrazoEscritura(), request.getPermutaImovelPrazoEscritura(), contrato::setPermutaImovelPrazoEscritura);
+        apply(changes, "permutaImovelDescricao", contrato.getPermutaImovelDescricao(), request.getPermutaImovelDescricao(), contrato::setPermutaImovelDescricao);
 
         // Página 3: Veículo Permuta
-        if (request.getVeiculoMarca() != null) contrato.setVeiculoMarca(request.getVeiculoMarca());
-        if (request.getVeiculoAno() != null) contrato.setVeiculoAno(request.getVeiculoAno());
-        if (request.getVeiculoModelo() != null) contrato.setVeiculoModelo(request.getVeiculoModelo());
-        if (request.getVeiculoPlaca() != null) contrato.setVeiculoPlaca(request.getVeiculoPlaca());
-        if (request.getVeiculoChassi() != null) contrato.setVeiculoChassi(request.getVeiculoChassi());
-        if (request.getVeiculoCor() != null) contrato.setVeiculoCor(request.getVeiculoCor());
-        if (request.getVeiculoMotor() != null) contrato.setVeiculoMotor(request.getVeiculoMotor());
-        if (request.getVeiculoRenavam() != null) contrato.setVeiculoRenavam(request.getVeiculoRenavam());
-        if (request.getVeiculoDataEntrega() != null) contrato.setVeiculoDataEntrega(request.getVeiculoDataEntrega());
-        if (request.getVeiculoKm() != null) contrato.setVeiculoKm(request.getVeiculoKm());
+        apply(changes, "veiculoMarca", contrato.getVeiculoMarca(), request.getVeiculoMarca(), contrato::setVeiculoMarca);
+        apply(changes, "veiculoAno", contrato.getVeiculoAno(), request.getVeiculoAno(), contrato::setVeiculoAno);
+        apply(changes, "veiculoModelo", contrato.getVeiculoModelo(), request.getVeiculoModelo(), contrato::setVeiculoModelo);
+        apply(changes, "veiculoPlaca", contrato.getVeiculoPlaca(), request.getVeiculoPlaca(), contrato::setVeiculoPlaca);
+        apply(changes, "veiculoChassi", contrato.getVeiculoChassi(), request.getVeiculoChassi(), contrato::setVeiculoChassi);
+        apply(changes, "veiculoCor", contrato.getVeiculoCor(), request.getVeiculoCor(), contrato::setVeiculoCor);
+        apply(changes, "veiculoMotor", contrato.getVeiculoMotor(), request.getVeiculoMotor(), contrato::setVeiculoMotor);
+        apply(changes, "veiculoRenavam", contrato.getVeiculoRenavam(), request.getVeiculoRenavam(), contrato::setVeiculoRenavam);
+        apply(changes, "veiculoDataEntrega", contrato.getVeiculoDataEntrega(), request.getVeiculoDataEntrega(), contrato::setVeiculoDataEntrega);
+        apply(changes, "veiculoKm", contrato.getVeiculoKm(), request.getVeiculoKm(), contrato::setVeiculoKm);
 
         // Página 4: Negócio (valor 0 é aplicado quando enviado; null = campo não enviado)
-        if (request.getNegocioValorTotal() != null) contrato.setNegocioValorTotal(request.getNegocioValorTotal());
-        if (request.getNegocioValorEntrada() != null) contrato.setNegocioValorEntrada(request.getNegocioValorEntrada());
-        if (request.getNegocioFormaPagamento() != null) contrato.setNegocioFormaPagamento(request.getNegocioFormaPagamento());
-        if (request.getNegocioNumParcelas() != null) contrato.setNegocioNumParcelas(request.getNegocioNumParcelas());
-        if (request.getNegocioValorParcela() != null) contrato.setNegocioValorParcela(request.getNegocioValorParcela());
-        if (request.getNegocioVencimentos() != null) contrato.setNegocioVencimentos(request.getNegocioVencimentos());
+        apply(changes, "negocioValorTotal", contrato.getNegocioValorTotal(), request.getNegocioValorTotal(), contrato::setNegocioValorTotal);
+        apply(changes, "negocioValorEntrada", contrato.getNegocioValorEntrada(), request.getNegocioValorEntrada(), contrato::setNegocioValorEntrada);
+        apply(changes, "negocioFormaPagamento", contrato.getNegocioFormaPagamento(), request.getNegocioFormaPagamento(), contrato::setNegocioFormaPagamento);
+        apply(changes, "negocioNumParcelas", contrato.getNegocioNumParcelas(), request.getNegocioNumParcelas(), contrato::setNegocioNumParcelas);
+        apply(changes, "negocioValorParcela", contrato.getNegocioValorParcela(), request.getNegocioValorParcela(), contrato::setNegocioValorParcela);
+        apply(changes, "negocioVencimentos", contrato.getNegocioVencimentos(), request.getNegocioVencimentos(), contrato::setNegocioVencimentos);
         // Valores de permuta: null do request vira 0 (compatibilidade)
-        contrato.setNegocioValorImovelPermuta(request.getNegocioValorImovelPermuta() != null ? request.getNegocioValorImovelPermuta() : BigDecimal.ZERO);
-        contrato.setNegocioValorVeiculoPermuta(request.getNegocioValorVeiculoPermuta() != null ? request.getNegocioValorVeiculoPermuta() : BigDecimal.ZERO);
-        if (request.getNegocioValorFinanciamento() != null) contrato.setNegocioValorFinanciamento(request.getNegocioValorFinanciamento());
-        if (request.getNegocioPrazoPagamento() != null) contrato.setNegocioPrazoPagamento(request.getNegocioPrazoPagamento());
-        if (request.getNegocioDataPrimeiraParcela() != null) contrato.setNegocioDataPrimeiraParcela(request.getNegocioDataPrimeiraParcela());
+        apply(changes, "negocioValorImovelPermuta", contrato.getNegocioValorImovelPermuta(),
+                request.getNegocioValorImovelPermuta() != null ? request.getNegocioValorImovelPermuta() : BigDecimal.ZERO, contrato::setNegocioValorImovelPermuta);
+        apply(changes, "negocioValorVeiculoPermuta", contrato.getNegocioValorVeiculoPermuta(),
+                request.getNegocioValorVeiculoPermuta() != null ? request.getNegocioValorVeiculoPermuta() : BigDecimal.ZERO, contrato::setNegocioValorVeiculoPermuta);
+        apply(changes, "negocioValorFinanciamento", contrato.getNegocioValorFinanciamento(), request.getNegocioValorFinanciamento(), contrato::setNegocioValorFinanciamento);
+        apply(changes, "negocioPrazoPagamento", contrato.getNegocioPrazoPagamento(), request.getNegocioPrazoPagamento(), contrato::setNegocioPrazoPagamento);
+        apply(changes, "negocioDataPrimeiraParcela", contrato.getNegocioDataPrimeiraParcela(), request.getNegocioDataPrimeiraParcela(), contrato::setNegocioDataPrimeiraParcela);
         if (request.getParcelas() != null) {
-            try {
-                contrato.setNegocioParcelas(OBJECT_MAPPER.writeValueAsString(request.getParcelas()));
-            } catch (JsonProcessingException e) {
-                log.warn("Erro ao serializar parcelas: {}", e.getMessage());
-                contrato.setNegocioParcelas(null);
-            }
+            parcelamentoService.validar(contrato, request.getParcelas());
+            mergeParcelas(contrato, request.getParcelas(), Boolean.TRUE.equals(request.getSubstituirParcelasPagas()), changes);
         }
 
         // Página 4: Conta Bancária
-        if (request.getContaTitular() != null) contrato.setContaTitular(request.getContaTitular());
-        if (request.getContaBanco() != null) contrato.setContaBanco(request.getContaBanco());
-        if (request.getContaAgencia() != null) contrato.setContaAgencia(request.getContaAgencia());
-        if (request.getContaPix() != null) contrato.setContaPix(request.getContaPix());
+        apply(changes, "contaTitular", contrato.getContaTitular(), request.getContaTitular(), contrato::setContaTitular);
+        apply(changes, "contaBanco", contrato.getContaBanco(), request.getContaBanco(), contrato::setContaBanco);
+        apply(changes, "contaAgencia", contrato.getContaAgencia(), request.getContaAgencia(), contrato::setContaAgencia);
+        apply(changes, "contaPix", contrato.getContaPix(), request.getContaPix(), contrato::setContaPix);
 
         // Página 4: Honorários
-        if (request.getHonorariosValor() != null) contrato.setHonorariosValor(request.getHonorariosValor());
-        if (request.getHonorariosFormaPagamento() != null) contrato.setHonorariosFormaPagamento(request.getHonorariosFormaPagamento());
-        if (request.getHonorariosDataPagamento() != null) contrato.setHonorariosDataPagamento(request.getHonorariosDataPagamento());
+        apply(changes, "honorariosValor", contrato.getHonorariosValor(), request.getHonorariosValor(), contrato::setHonorariosValor);
+        apply(changes, "honorariosFormaPagamento", contrato.getHonorariosFormaPagamento(), request.getHonorariosFormaPagamento(), contrato::setHonorariosFormaPagamento);
+        apply(changes, "honorariosDataPagamento", contrato.getHonorariosDataPagamento(), request.getHonorariosDataPagamento(), contrato::setHonorariosDataPagamento);
 
         // Página 4: Observações e Assinaturas
-        if (request.getObservacoes() != null) contrato.setObservacoes(request.getObservacoes());
-        if (request.getDataContrato() != null) contrato.setDataContrato(request.getDataContrato());
-        if (request.getAssinaturaCorretor() != null) contrato.setAssinaturaCorretor(request.getAssinaturaCorretor());
-        if (request.getAssinaturaAgenciador() != null) contrato.setAssinaturaAgenciador(request.getAssinaturaAgenciador());
-        if (request.getAssinaturaGestor() != null) contrato.setAssinaturaGestor(request.getAssinaturaGestor());
+        apply(changes, "observacoes", contrato.getObservacoes(), request.getObservacoes(), contrato::setObservacoes);
+        apply(changes, "dataContrato", contrato.getDataContrato(), request.getDataContrato(), contrato::setDataContrato);
+        apply(changes, "assinaturaCorretor", contrato.getAssinaturaCorretor(), request.getAssinaturaCorretor(), contrato::setAssinaturaCorretor);
+        apply(changes, "assinaturaAgenciador", contrato.getAssinaturaAgenciador(), request.getAssinaturaAgenciador(), contrato::setAssinaturaAgenciador);
+        apply(changes, "assinaturaGestor", contrato.getAssinaturaGestor(), request.getAssinaturaGestor(), contrato::setAssinaturaGestor);
 
         // Validação jurídica: valores de permuta não negativos e soma não pode exceder valor total
         BigDecimal imovelPermuta = contrato.getNegocioValorImovelPermuta() != null ? contrato.getNegocioValorImovelPermuta() : BigDecimal.ZERO;
@@ -389,6 +644,13 @@ public class ContratoService {
         }
     }
 
+    /** Aplica o valor recebido (null = campo não enviado) e registra a alteração para a auditoria. */
+    private <T> void apply(AuditChangeSet changes, String campo, T atual, T recebido, Consumer<T> setter) {
+        if (recebido == null) return;
+        changes.track(campo, atual, recebido);
+        setter.accept(recebido);
+    }
+
     private ContratoResponse toResponse(Contrato contrato) {
         List<VendedorResponse> vendedorResponses = contrato.getVendedores() != null
                 ? contrato.getVendedores().stream().map(this::toVendedorResponse).collect(Collectors.toList())
@@ -443,7 +705,7 @@ public class ContratoService {
                 .negocioValorFinanciamento(contrato.getNegocioValorFinanciamento())
                 .negocioPrazoPagamento(contrato.getNegocioPrazoPagamento())
                 .negocioDataPrimeiraParcela(contrato.getNegocioDataPrimeiraParcela())
-                .parcelas(parseParcelas(contrato.getNegocioParcelas()))
+                .parcelas(contrato.getParcelas().stream().map(this::toParcelaItemDto).collect(Collectors.toList()))
                 .contaTitular(contrato.getContaTitular())
                 .contaBanco(contrato.getContaBanco())
                 .contaAgencia(contrato.getContaAgencia())
@@ -461,6 +723,32 @@ public class ContratoService {
                 .build();
     }
 
+    private ContratoResumoResponse toResumoResponse(ContratoResumoProjection p) {
+        return ContratoResumoResponse.builder()
+                .id(p.getId())
+                .status(p.getStatus() != null ? ContratoStatus.valueOf(p.getStatus()) : null)
+                .paginaAtual(p.getPaginaAtual())
+                .vendedorNome(p.getVendedorNome())
+                .totalVendedores(p.getTotalVendedores())
+                .compradorNome(p.getCompradorNome())
+                .totalCompradores(p.getTotalCompradores())
+                .negocioValorTotal(p.getNegocioValorTotal())
+                .dataContrato(p.getDataContrato())
+                .createdAt(p.getCreatedAt())
+                .updatedAt(p.getUpdatedAt())
+                .build();
+    }
+
+    private ParcelaItemDto toParcelaItemDto(ContratoParcela p) {
+        return ParcelaItemDto.builder()
+                .numero(p.getNumero())
+                .vencimento(p.getVencimento() != null ? p.getVencimento().toString() : null)
+                .valor(p.getValor())
+                .pago(p.getPago())
+                .pagoEm(p.getPagoEm() != null ? p.getPagoEm().toString() : null)
+                .build();
+    }
+
     private VendedorResponse toVendedorResponse(ContratoVendedor v) {
         return VendedorResponse.builder()
                 .id(v.getId())
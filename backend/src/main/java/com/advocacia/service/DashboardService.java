@@ -0,0 +1,71 @@
+package com.advocacia.service;
+
+import com.advocacia.dto.DashboardStatsResponse;
+import com.advocacia.entity.ContratoStatus;
+import com.advocacia.repository.ContratoRepository;
+import com.advocacia.repository.DashboardContagemProjection;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Números do dashboard lidos das tabelas de contadores (V20), atualizadas por trigger na mesma transação de
+ * cada insert/update/delete de contrato: o custo da leitura não depende da quantidade de contratos. Parcelas a
+ * vencer vêm de uma faixa do índice de parcelas em aberto (V21).
+ */
+@Service
+@RequiredArgsConstructor
+public class DashboardService {
+
+    static final int DEFAULT_MESES = 12;
+    static final int MAX_MESES = 60;
+    static final int DEFAULT_DIAS = 30;
+    static final int MAX_DIAS = 365;
+
+    private final ContratoRepository contratoRepository;
+
+    @Transactional(readOnly = true)
+    public DashboardStatsResponse getStats(Integer meses, Integer dias) {
+        int janelaMeses = limitar(meses, DEFAULT_MESES, MAX_MESES);
+        int janelaDias = limitar(dias, DEFAULT_DIAS, MAX_DIAS);
+        LocalDate hoje = LocalDate.now();
+
+        Map<ContratoStatus, Long> porStatus = new EnumMap<>(ContratoStatus.class);
+        for (ContratoStatus status : ContratoStatus.values()) {
+            porStatus.put(status, 0L);
+        }
+        for (DashboardContagemProjection p : contratoRepository.findDashboardStatus()) {
+            porStatus.put(ContratoStatus.valueOf(p.getChave()), p.getQuantidade());
+        }
+
+        LocalDate desde = hoje.withDayOfMonth(1).minusMonths(janelaMeses - 1L);
+        LocalDate ate = hoje.plusDays(janelaDias);
+        DashboardContagemProjection parcelas = contratoRepository.findDashboardParcelas(hoje, ate);
+
+        return DashboardStatsResponse.builder()
+                .contratosPorStatus(porStatus)
+                .mensal(contratoRepository.findDashboardMensal(desde).stream()
+                        .map(m -> DashboardStatsResponse.Mensal.builder()
+                                .mes(m.getMes())
+                                .status(ContratoStatus.valueOf(m.getStatus()))
+                                .contratos(m.getContratos())
+                                .negocioValorTotal(m.getNegocioValorTotal())
+                                .honorariosValor(m.getHonorariosValor())
+                                .build())
+                        .collect(Collectors.toList()))
+                .proximasParcelasQuantidade(parcelas.getQuantidade())
+                .proximasParcelasValor(parcelas.getValor())
+                .proximasParcelasAte(ate)
+                .build();
+    }
+
+    private static int limitar(Integer valor, int padrao, int maximo) {
+        if (valor == null || valor <= 0) return padrao;
+        return Math.min(valor, maximo);
+    }
+}
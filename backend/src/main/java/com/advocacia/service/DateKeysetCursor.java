@@ -0,0 +1,35 @@
+package com.advocacia.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Cursor de paginação keyset sobre (data, id), serializado como Base64 URL-safe. Formato próprio
+ * ({@code yyyy-MM-dd|id}): um {@link KeysetCursor} de outra listagem é recusado como inválido.
+ */
+public record DateKeysetCursor(LocalDate date, Long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = date.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica o cursor recebido do cliente; retorna null quando ausente.
+     */
+    public static DateKeysetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf(SEPARATOR);
+            if (sep <= 0 || raw.indexOf(SEPARATOR, sep + 1) >= 0) throw new IllegalArgumentException("Cursor inválido");
+            return new DateKeysetCursor(LocalDate.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
@@ -1,105 +1,298 @@
 package com.advocacia.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.annotation.PostConstruct;
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
+/**
+ * Armazenamento dos arquivos de anexos: recebe o upload num arquivo temporário local (hash e tamanho na mesma
+ * passada) e o publica no {@link StorageBackend} configurado, endereçado pelo conteúdo.
+ */
 @Service
 public class FileStorageService {
 
-    @Value("${file.upload-dir:./uploads}")
-    private String uploadDir;
+    private static final int BUFFER_SIZE = 64 * 1024;
 
-    private Path uploadPath;
+    private final StorageBackend backend;
+
+    /** Uploads em andamento; por padrão dentro de file.upload-dir, para a publicação no disco ser um rename atômico. */
+    @Value("${file.temp-dir:${file.upload-dir:./uploads}/.tmp}")
+    private String tempDir;
+
+    @Value("${file.max-upload-size:200MB}")
+    private DataSize maxUploadSize = DataSize.ofMegabytes(200);
+
+    private Path tempPath;
+
+    /** Publicação x liberação do mesmo conteúdo, entre todos os nós. */
+    private final ConteudoLock conteudoLock;
+
+    @Autowired
+    public FileStorageService(StorageBackend backend, ConteudoLock conteudoLock) {
+        this.backend = backend;
+        this.conteudoLock = conteudoLock;
+    }
+
+    public FileStorageService(StorageBackend backend) {
+        this(backend, ConteudoLock.local());
+    }
 
     @PostConstruct
     public void init() {
-        this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.tempPath = Paths.get(tempDir).toAbsolutePath().normalize();
         try {
-            Files.createDirectories(this.uploadPath);
+            Files.createDirectories(this.tempPath);
         } catch (IOException e) {
-            throw new RuntimeException("Não foi possível criar o diretório de upload: " + uploadDir, e);
+            throw new RuntimeException("Não foi possível criar o diretório temporário de upload: " + tempDir, e);
         }
     }
 
     /**
-     * Armazena o arquivo no disco e retorna o nome único gerado.
+     * Armazena o arquivo (ver {@link #store(InputStream, String, Function)}).
      */
-    public String store(MultipartFile file) {
+    public <T> T store(MultipartFile file, Function<StoredFile, T> registrar) {
         if (file == null || file.isEmpty()) {
             throw new RuntimeException("Arquivo vazio ou nulo");
         }
+        try (InputStream in = file.getInputStream()) {
+            return store(in, file.getOriginalFilename(), registrar);
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao armazenar arquivo: " + file.getOriginalFilename(), e);
+        }
+    }
 
-        String originalFilename = StringUtils.cleanPath(file.getOriginalFilename());
-        
-        // Validar nome do arquivo
-        if (originalFilename.contains("..")) {
-            throw new RuntimeException("Nome de arquivo inválido: " + originalFilename);
+    /**
+     * Grava o conteúdo lido de {@code in} calculando SHA-256 e tamanho na mesma passada (sem o arquivo inteiro
+     * em memória) e o publica no endereço do conteúdo ({@code ab/cd/<sha256>}): se o mesmo conteúdo já existe,
+     * a cópia recebida é descartada e o arquivo existente é reaproveitado. Acima de {@code file.max-upload-size}
+     * a gravação é interrompida e descartada.
+     * <p>
+     * {@code registrar} grava a referência (o anexo no banco) sob o mesmo {@link ConteudoLock} usado por
+     * {@link #release}, na transação que segura o lock: uma exclusão concorrente do último anexo com este conteúdo,
+     * em qualquer nó, não apaga o arquivo entre a verificação e o registro. Conteúdo novo é publicado dentro do
+     * lock (a conexão fica ocupada durante o envio ao backend).
+     */
+    public <T> T store(InputStream in, String originalFilename, Function<StoredFile, T> registrar) {
+        validarNome(originalFilename);
+        Path partial = this.tempPath.resolve(UUID.randomUUID() + ".part");
+        long limite = maxUploadSize.toBytes();
+
+        MessageDigest digest = sha256Digest();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long tamanho = 0;
+        try (ReadableByteChannel source = Channels.newChannel(in);
+             FileChannel target = FileChannel.open(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            while (source.read(buffer) >= 0) {
+                buffer.flip();
+                tamanho += buffer.remaining();
+                if (tamanho > limite) {
+                    throw new MaxUploadSizeExceededException(limite);
+                }
+                digest.update(buffer.duplicate());
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                buffer.clear();
+            }
+            if (tamanho == 0) {
+                throw new RuntimeException("Arquivo vazio ou nulo");
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(partial);
+            if (e instanceof RuntimeException re) throw re;
+            throw new RuntimeException("Falha ao armazenar arquivo: " + originalFilename, e);
         }
 
-        // Gerar nome único
-        String extension = "";
-        int dotIndex = originalFilename.lastIndexOf('.');
-        if (dotIndex > 0) {
-            extension = originalFilename.substring(dotIndex);
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        String nomeArquivo = contentPath(sha256);
+        long recebidos = tamanho;
+        return conteudoLock.executar(nomeArquivo, () -> {
+            boolean deduplicado;
+            try {
+                // Mesmo hash e mesmo tamanho: conteúdo já armazenado
+                deduplicado = backend.size(nomeArquivo) == recebidos;
+                if (deduplicado) {
+                    Files.delete(partial);
+                } else {
+                    backend.put(nomeArquivo, partial);
+                }
+            } catch (IOException e) {
+                deleteQuietly(partial);
+                throw new RuntimeException("Falha ao armazenar arquivo: " + originalFilename, e);
+            }
+
+            try {
+                return registrar.apply(new StoredFile(nomeArquivo, sha256, recebidos, deduplicado));
+            } catch (RuntimeException e) {
+                // Arquivo recém-publicado sem referência: remove; o lock impede que outro upload o tenha reaproveitado
+                if (!deduplicado) {
+                    try {
+                        delete(nomeArquivo);
+                    } catch (RuntimeException falhaAoRemover) {
+                        e.addSuppressed(falhaAoRemover);
+                    }
+                }
+                throw e;
+            }
+        });
+    }
+
+    /**
+     * Remove o arquivo se não restar nenhuma referência a ele. Chamado depois que o anexo já foi excluído do banco;
+     * {@code referencias} conta os anexos que ainda apontam para {@code filename} e é consultado sob o
+     * {@link ConteudoLock} do arquivo, depois que registros concorrentes de outros nós já foram confirmados.
+     */
+    public void release(String filename, LongSupplier referencias) {
+        conteudoLock.executar(filename, () -> {
+            if (referencias.getAsLong() == 0) {
+                delete(filename);
+                delete(previewPath(filename));
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Publica um arquivo derivado de um conteúdo já armazenado (ex.: a prévia) sob {@code chave}.
+     * O arquivo local {@code origem} é consumido.
+     */
+    public void storeDerived(String chave, Path origem) {
+        try {
+            backend.put(chave, origem);
+        } catch (IOException e) {
+            deleteQuietly(origem);
+            throw new RuntimeException("Falha ao armazenar arquivo: " + chave, e);
         }
-        String uniqueFilename = UUID.randomUUID().toString() + extension;
+    }
+
+    /**
+     * Tamanho máximo aceito por arquivo (uploads em streaming).
+     */
+    public long getMaxUploadSize() {
+        return maxUploadSize.toBytes();
+    }
 
+    /**
+     * Diretório local para uploads em andamento.
+     */
+    public Path getTempPath() {
+        return tempPath;
+    }
+
+    /**
+     * Tamanho do arquivo armazenado, ou -1 se não existe.
+     */
+    public long size(String filename) {
         try {
-            Path targetLocation = this.uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-            return uniqueFilename;
+            return backend.size(filename);
         } catch (IOException e) {
-            throw new RuntimeException("Falha ao armazenar arquivo: " + originalFilename, e);
+            throw new RuntimeException("Falha ao consultar arquivo: " + filename, e);
         }
     }
 
     /**
-     * Carrega o arquivo como Resource para download.
+     * Lê {@code quantidade} bytes do arquivo a partir de {@code inicio} (-1: até o fim).
      */
-    public Resource load(String filename) {
+    public InputStream open(String filename, long inicio, long quantidade) {
         try {
-            Path filePath = this.uploadPath.resolve(filename).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                return resource;
-            } else {
-                throw new RuntimeException("Arquivo não encontrado: " + filename);
-            }
-        } catch (MalformedURLException e) {
+            return backend.open(filename, inicio, quantidade);
+        } catch (IOException e) {
+            throw new RuntimeException("Arquivo não encontrado: " + filename, e);
+        }
+    }
+
+    /**
+     * Caminho local do arquivo quando o armazenamento é o disco (envio sem cópia pelo heap).
+     */
+    public Optional<Path> localPath(String filename) {
+        return backend.localPath(filename);
+    }
+
+    /**
+     * Calcula o SHA-256 (hex) de um arquivo já armazenado (anexos gravados antes do hash na gravação).
+     */
+    public String sha256(String filename) {
+        try (DigestInputStream in = new DigestInputStream(backend.open(filename, 0, -1), sha256Digest())) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(in.getMessageDigest().digest());
+        } catch (IOException e) {
             throw new RuntimeException("Arquivo não encontrado: " + filename, e);
         }
     }
 
     /**
-     * Remove o arquivo do disco.
+     * Remove o arquivo do armazenamento.
      */
     public void delete(String filename) {
         try {
-            Path filePath = this.uploadPath.resolve(filename).normalize();
-            Files.deleteIfExists(filePath);
+            backend.delete(filename);
         } catch (IOException e) {
             throw new RuntimeException("Falha ao excluir arquivo: " + filename, e);
         }
     }
 
+    static void validarNome(String originalFilename) {
+        String nome = StringUtils.cleanPath(originalFilename == null ? "" : originalFilename);
+        if (nome.isBlank() || nome.contains("..")) {
+            throw new RuntimeException("Nome de arquivo inválido: " + originalFilename);
+        }
+    }
+
+    /** Caminho relativo endereçado pelo conteúdo, com dois níveis de subdiretório pelo prefixo do hash. */
+    static String contentPath(String sha256) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    /** Chave da prévia (JPEG reduzido) de um arquivo; compartilhada por todos os anexos com o mesmo conteúdo. */
+    public static String previewPath(String filename) {
+        return ".previews/" + filename + ".jpg";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // arquivo parcial; sem efeito sobre o upload que já falhou
+        }
+    }
+
+    private static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
     /**
-     * Retorna o caminho completo do arquivo.
+     * Resultado do armazenamento: chave no armazenamento, hash do conteúdo, bytes recebidos e se o conteúdo
+     * já existia (nenhum arquivo novo gravado).
      */
-    public Path getFilePath(String filename) {
-        return this.uploadPath.resolve(filename).normalize();
+    public record StoredFile(String nomeArquivo, String sha256, long tamanho, boolean deduplicado) {
     }
 }
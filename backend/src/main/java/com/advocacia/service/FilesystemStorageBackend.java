@@ -0,0 +1,132 @@
+package com.advocacia.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Anexos em um diretório local ({@code file.upload-dir}); a chave é o caminho relativo dentro dele.
+ */
+@Component
+@ConditionalOnProperty(name = "file.storage", havingValue = "filesystem", matchIfMissing = true)
+public class FilesystemStorageBackend implements StorageBackend {
+
+    private final Path root;
+
+    public FilesystemStorageBackend(@Value("${file.upload-dir:./uploads}") String uploadDir) {
+        this.root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        try {
+            Files.createDirectories(this.root);
+        } catch (IOException e) {
+            throw new RuntimeException("Não foi possível criar o diretório de upload: " + uploadDir, e);
+        }
+    }
+
+    @Override
+    public void put(String chave, Path origem) throws IOException {
+        Path destino = resolve(chave);
+        try {
+            mover(origem, destino);
+        } catch (NoSuchFileException e) {
+            if (!Files.exists(origem)) {
+                throw e;
+            }
+            // delete() de outra chave removeu o diretório que acabou de ficar vazio entre criar e mover: recria
+            mover(origem, destino);
+        }
+    }
+
+    private static void mover(Path origem, Path destino) throws IOException {
+        Files.createDirectories(destino.getParent());
+        try {
+            Files.move(origem, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Origem em outro volume (file.temp-dir fora do upload-dir): copia para o lado e renomeia
+            Path parcial = destino.resolveSibling(destino.getFileName() + ".part");
+            Files.copy(origem, parcial, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(parcial, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Files.delete(origem);
+        }
+    }
+
+    @Override
+    public long size(String chave) throws IOException {
+        Path arquivo = resolve(chave);
+        return Files.isRegularFile(arquivo) ? Files.size(arquivo) : -1;
+    }
+
+    @Override
+    public InputStream open(String chave, long inicio, long quantidade) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(chave), StandardOpenOption.READ);
+        channel.position(inicio);
+        InputStream in = Channels.newInputStream(channel);
+        return quantidade < 0 ? in : new LimitedInputStream(in, quantidade);
+    }
+
+    @Override
+    public void delete(String chave) throws IOException {
+        Path arquivo = resolve(chave);
+        Files.deleteIfExists(arquivo);
+        // Remove diretórios de shard/sessão que ficaram vazios; put() de outra chave no mesmo diretório recria e tenta de novo
+        for (Path dir = arquivo.getParent(); dir != null && !dir.equals(root) && dir.startsWith(root); dir = dir.getParent()) {
+            try {
+                Files.deleteIfExists(dir);
+            } catch (DirectoryNotEmptyException e) {
+                break;
+            }
+        }
+    }
+
+    @Override
+    public List<StoredObject> list(String prefixo) throws IOException {
+        Path base = resolve(prefixo);
+        if (!Files.isDirectory(base)) {
+            return List.of();
+        }
+        try (Stream<Path> arquivos = Files.walk(base)) {
+            return arquivos.filter(Files::isRegularFile)
+                    .map(p -> {
+                        try {
+                            return new StoredObject(root.relativize(p).toString().replace('\\', '/'),
+                                    Files.size(p), Files.getLastModifiedTime(p).toInstant());
+                        } catch (IOException e) {
+                            // removido durante a listagem
+                            return null;
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .toList();
+        }
+    }
+
+    @Override
+    public Optional<Path> localPath(String chave) {
+        Path arquivo = resolve(chave);
+        return Files.isRegularFile(arquivo) ? Optional.of(arquivo) : Optional.empty();
+    }
+
+    private Path resolve(String chave) {
+        Path arquivo = root.resolve(chave).normalize();
+        if (!arquivo.startsWith(root)) {
+            throw new IllegalArgumentException("Chave de armazenamento inválida: " + chave);
+        }
+        return arquivo;
+    }
+}
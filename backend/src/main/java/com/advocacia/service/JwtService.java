@@ -1,6 +1,8 @@
 package com.advocacia.service;
 
+import com.advocacia.entity.User;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
@@ -9,19 +11,47 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+/**
+ * Emissão e validação de tokens JWT. A chave e o parser são montados uma vez; cada token é verificado
+ * (assinatura + expiração) uma única vez e as claims ficam num cache limitado até expirarem, então as
+ * requisições seguintes com o mesmo token não repetem HMAC nem parse do JSON.
+ * <p>
+ * O cache é indexado pelo SHA-256 do token (o token em si não fica guardado) e é desligado com
+ * {@code jwt.claims-cache.max-size=0}.
+ */
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String secretKey;
+    /** Claims de autenticação embutidas no token (ver {@link UserAuthCache}). */
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_ACTIVE = "active";
+    public static final String CLAIM_TOKEN_VERSION = "tv";
 
-    @Value("${jwt.expiration}")
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    private final int claimsCacheMaxSize;
+    private final SecretKey signInKey;
+    private final JwtParser parser;
+    private final Map<String, CachedClaims> claimsCache = new ConcurrentHashMap<>();
+
+    public JwtService(@Value("${jwt.secret}") String secretKey,
+                      @Value("${jwt.expiration}") long jwtExpiration,
+                      @Value("${jwt.claims-cache.max-size:10000}") int claimsCacheMaxSize) {
+        this.jwtExpiration = jwtExpiration;
+        this.claimsCacheMaxSize = Math.max(0, claimsCacheMaxSize);
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parser().verifyWith(signInKey).build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -32,6 +62,19 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Token com id, perfil, status e versão do token do usuário: a requisição autenticada é validada pelas
+     * claims, sem carregar o usuário do banco.
+     */
+    public String generateToken(User user) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_USER_ID, user.getId());
+        claims.put(CLAIM_ROLE, user.getRole());
+        claims.put(CLAIM_ACTIVE, user.isEnabled());
+        claims.put(CLAIM_TOKEN_VERSION, user.getTokenVersion());
+        return generateToken(claims, user);
+    }
+
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
     }
@@ -46,33 +89,75 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    /**
+     * Valida claims já verificadas (ver {@link #extractAllClaims}) contra o usuário carregado.
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername())
+                && !isExpired(claims);
+    }
+
+    /**
+     * Claims do token com assinatura e expiração verificadas. Lança {@link io.jsonwebtoken.JwtException}
+     * para token inválido ou expirado.
+     */
+    public Claims extractAllClaims(String token) {
+        if (claimsCacheMaxSize == 0) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+
+        String chave = hash(token);
+        CachedClaims cached = claimsCache.get(chave);
+        if (cached != null) {
+            if (cached.expiraEm() > System.currentTimeMillis()) {
+                return cached.claims();
+            }
+            claimsCache.remove(chave, cached);
+        }
+
+        // Expirado ou assinatura inválida: o parser lança e nada entra no cache
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            if (claimsCache.size() >= claimsCacheMaxSize) {
+                evict();
+            }
+            claimsCache.put(chave, new CachedClaims(claims, expiration.getTime()));
+        }
+        return claims;
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /** Cache cheio: descarta os expirados; se não bastar, recomeça vazio (tokens ativos voltam no próximo uso). */
+    private void evict() {
+        long agora = System.currentTimeMillis();
+        claimsCache.values().removeIf(c -> c.expiraEm() <= agora);
+        if (claimsCache.size() >= claimsCacheMaxSize) {
+            claimsCache.clear();
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(
+                    MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private record CachedClaims(Claims claims, long expiraEm) {
     }
 }
@@ -0,0 +1,51 @@
+package com.advocacia.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Lê no máximo {@code limite} bytes do stream de origem (fatias de arquivo em leituras por intervalo e partes de upload).
+ */
+final class LimitedInputStream extends FilterInputStream {
+
+    private long restante;
+
+    LimitedInputStream(InputStream in, long limite) {
+        super(in);
+        this.restante = limite;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (restante <= 0) return -1;
+        int b = in.read();
+        if (b >= 0) restante--;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (restante <= 0) return -1;
+        int n = in.read(b, off, (int) Math.min(len, restante));
+        if (n > 0) restante -= n;
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = in.skip(Math.min(n, restante));
+        restante -= skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), restante);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
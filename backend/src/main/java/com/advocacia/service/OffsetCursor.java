@@ -0,0 +1,29 @@
+package com.advocacia.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Cursor da busca textual (ordem por relevância, sem chave estável para keyset): a posição do próximo resultado,
+ * serializada como Base64 URL-safe e opaca para o cliente, como os demais cursores.
+ */
+public record OffsetCursor(int offset) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(String.valueOf(offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica o cursor recebido do cliente; posição 0 quando ausente.
+     */
+    public static OffsetCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) return new OffsetCursor(0);
+        try {
+            int offset = Integer.parseInt(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            if (offset < 0) throw new IllegalArgumentException("Cursor inválido");
+            return new OffsetCursor(offset);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.advocacia.service;
+
+import com.advocacia.dto.CursorPageResponse;
+import com.advocacia.dto.ParcelaItemDto;
+import com.advocacia.dto.ParcelaPagamentoRequest;
+import com.advocacia.dto.ParcelaPendenteResponse;
+import com.advocacia.entity.ContratoParcela;
+import com.advocacia.repository.ContratoParcelaRepository;
+import com.advocacia.repository.ParcelaPendenteProjection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Parcelas de todos os contratos: a vencer, vencidas e registro de pagamento. Só contratos finalizados entram
+ * nas listagens (parcelas de rascunho ainda não são cobráveis).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ParcelaService {
+
+    static final int DEFAULT_DIAS = 7;
+    static final int MAX_DIAS = 365;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ContratoParcelaRepository parcelaRepository;
+    private final ContratoAuditService auditService;
+
+    /** Em aberto com vencimento de hoje até hoje + {@code dias}. */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ParcelaPendenteResponse> findProximas(Integer dias, String cursor, Integer limit) {
+        int janela = dias == null || dias <= 0 ? DEFAULT_DIAS : Math.min(dias, MAX_DIAS);
+        LocalDate hoje = LocalDate.now();
+        return findPendentes(hoje, hoje.plusDays(janela), hoje, cursor, limit);
+    }
+
+    /** Em aberto com vencimento anterior a hoje, mais antigas primeiro. */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<ParcelaPendenteResponse> findVencidas(String cursor, Integer limit) {
+        LocalDate hoje = LocalDate.now();
+        return findPendentes(null, hoje.minusDays(1), hoje, cursor, limit);
+    }
+
+    @Transactional
+    public ParcelaItemDto registrarPagamento(Long id, ParcelaPagamentoRequest request) {
+        ContratoParcela parcela = parcelaRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Parcela não encontrada"));
+        if (request == null || request.getPago() == null) {
+            throw new IllegalArgumentException("Informe se a parcela foi paga");
+        }
+
+        boolean pagoAntes = Boolean.TRUE.equals(parcela.getPago());
+        LocalDate pagoEm = request.getPago() ? (request.getPagoEm() != null ? request.getPagoEm() : LocalDate.now()) : null;
+        if (pagoAntes != request.getPago() || !Objects.equals(parcela.getPagoEm(), pagoEm)) {
+            String antes = pagoAntes ? "pago em " + parcela.getPagoEm() : "em aberto";
+            parcela.setPago(request.getPago());
+            parcela.setPagoEm(pagoEm);
+            parcelaRepository.save(parcela);
+
+            Long contratoId = parcela.getContrato().getId();
+            auditService.recordSimpleChange(contratoId, "parcelas[" + parcela.getNumero() + "].pagamento",
+                    antes, request.getPago() ? "pago em " + pagoEm : "em aberto");
+        }
+
+        return ParcelaItemDto.builder()
+                .numero(parcela.getNumero())
+                .vencimento(parcela.getVencimento() != null ? parcela.getVencimento().toString() : null)
+                .valor(parcela.getValor())
+                .pago(parcela.getPago())
+                .pagoEm(parcela.getPagoEm() != null ? parcela.getPagoEm().toString() : null)
+                .build();
+    }
+
+    private CursorPageResponse<ParcelaPendenteResponse> findPendentes(LocalDate de, LocalDate ate, LocalDate hoje,
+                                                                      String cursor, Integer limit) {
+        int pageSize = limit == null || limit <= 0 ? DEFAULT_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        DateKeysetCursor after = DateKeysetCursor.decode(cursor);
+
+        List<ParcelaPendenteProjection> rows = parcelaRepository.findPendentes(de, ate,
+                after != null ? after.date() : null,
+                after != null ? after.id() : null,
+                pageSize + 1);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<ParcelaPendenteProjection> page = hasMore ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            ParcelaPendenteProjection last = page.get(page.size() - 1);
+            nextCursor = new DateKeysetCursor(last.getVencimento(), last.getId()).encode();
+        }
+
+        return CursorPageResponse.<ParcelaPendenteResponse>builder()
+                .items(page.stream().map(p -> ParcelaPendenteResponse.builder()
+                        .id(p.getId())
+                        .contratoId(p.getContratoId())
+                        .numero(p.getNumero())
+                        .vencimento(p.getVencimento())
+                        .valor(p.getValor())
+                        .compradorNome(p.getCompradorNome())
+                        .diasAtraso(ChronoUnit.DAYS.between(p.getVencimento(), hoje))
+                        .build()).collect(Collectors.toList()))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -0,0 +1,267 @@
+package com.advocacia.service;
+
+import com.advocacia.dto.ParcelaItemDto;
+import com.advocacia.dto.ParcelamentoPreviewRequest;
+import com.advocacia.dto.ParcelamentoPreviewResponse;
+import com.advocacia.entity.Contrato;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Cronograma de parcelas do saldo a pagar, gerado no servidor e conferido ao salvar o contrato.
+ * <p>
+ * Valores em centavos exatos: as parcelas 1..n-1 recebem o saldo dividido por n (truncado no centavo) e a
+ * última absorve o resto, então a soma é sempre o saldo. Vencimentos mensais a partir da 1ª parcela, no dia
+ * informado (ou no último dia de meses mais curtos), adiados para o próximo dia útil bancário: fins de semana,
+ * feriados nacionais, Carnaval, Sexta-feira Santa e Corpus Christi, mais {@code parcelamento.feriados-adicionais}
+ * (datas ISO separadas por vírgula, ex.: feriados municipais).
+ */
+@Service
+public class ParcelamentoService {
+
+    static final int MAX_PARCELAS = 480;
+
+    private static final Pattern DIA_VENCIMENTO = Pattern.compile("\\b(\\d{1,2})\\b");
+
+    private static final List<MonthDay> FERIADOS_FIXOS = List.of(
+            MonthDay.of(1, 1), MonthDay.of(4, 21), MonthDay.of(5, 1), MonthDay.of(9, 7), MonthDay.of(10, 12),
+            MonthDay.of(11, 2), MonthDay.of(11, 15), MonthDay.of(12, 25));
+    /** Consciência Negra: feriado nacional a partir de 2024 (Lei 14.759/2023). */
+    private static final MonthDay CONSCIENCIA_NEGRA = MonthDay.of(11, 20);
+
+    private final Set<LocalDate> feriadosAdicionais = new HashSet<>();
+    /** Feriados por ano, calculados uma vez (um cronograma de 480 parcelas consulta 40 anos). */
+    private final Map<Integer, Set<LocalDate>> feriadosPorAno = new ConcurrentHashMap<>();
+
+    public ParcelamentoService(@Value("${parcelamento.feriados-adicionais:}") String[] feriadosAdicionais) {
+        for (String data : feriadosAdicionais) {
+            if (data.isBlank()) continue;
+            try {
+                this.feriadosAdicionais.add(LocalDate.parse(data.trim()));
+            } catch (DateTimeParseException e) {
+                throw new IllegalStateException("parcelamento.feriados-adicionais: data inválida '" + data + "'", e);
+            }
+        }
+    }
+
+    public ParcelamentoPreviewResponse preview(ParcelamentoPreviewRequest request) {
+        if (request == null) throw new IllegalArgumentException("Informe os valores do negócio");
+        BigDecimal saldo = saldo(request.getNegocioValorTotal(), request.getNegocioValorEntrada(),
+                request.getNegocioValorImovelPermuta(), request.getNegocioValorVeiculoPermuta(),
+                request.getNegocioValorFinanciamento());
+        List<ParcelaItemDto> parcelas = saldo.signum() == 0 ? List.of()
+                : gerar(saldo, request.getNegocioNumParcelas(), request.getNegocioDataPrimeiraParcela(),
+                        parseDiaVencimento(request.getNegocioVencimentos()), request.getParcelasPagas());
+        return ParcelamentoPreviewResponse.builder().saldo(saldo).parcelas(parcelas).build();
+    }
+
+    /** Saldo a parcelar: total - entrada - permutas - financiamento, no centavo e nunca negativo. */
+    public BigDecimal saldo(BigDecimal total, BigDecimal entrada, BigDecimal imovelPermuta,
+                            BigDecimal veiculoPermuta, BigDecimal financiamento) {
+        BigDecimal saldo = valor(total).subtract(valor(entrada)).subtract(valor(imovelPermuta))
+                .subtract(valor(veiculoPermuta)).subtract(valor(financiamento));
+        return saldo.signum() < 0 ? BigDecimal.ZERO.setScale(2) : saldo.setScale(2, RoundingMode.HALF_UP);
+    }
+
+    public List<ParcelaItemDto> gerar(BigDecimal saldo, Integer numParcelas, LocalDate primeira, Integer diaVencimento) {
+        return gerar(saldo, numParcelas, primeira, diaVencimento, null);
+    }
+
+    /**
+     * Cronograma mantendo as parcelas já pagas (número, vencimento e valor): o saldo menos o total pago é dividido
+     * entre as parcelas em aberto, com o resto na última delas. Assim um novo valor do negócio não altera parcelas
+     * pagas, que o salvamento do contrato recusaria.
+     */
+    public List<ParcelaItemDto> gerar(BigDecimal saldo, Integer numParcelas, LocalDate primeira, Integer diaVencimento,
+                                      List<ParcelaItemDto> pagas) {
+        if (numParcelas == null || numParcelas < 1 || numParcelas > MAX_PARCELAS) {
+            throw new IllegalArgumentException("Número de parcelas deve estar entre 1 e " + MAX_PARCELAS);
+        }
+        if (primeira == null) {
+            throw new IllegalArgumentException("Informe a data da 1ª parcela");
+        }
+        if (diaVencimento != null && (diaVencimento < 1 || diaVencimento > 31)) {
+            throw new IllegalArgumentException("Dia do vencimento deve estar entre 1 e 31");
+        }
+
+        Map<Integer, ParcelaItemDto> pagasPorNumero = new HashMap<>();
+        long centavosPagos = 0;
+        for (ParcelaItemDto paga : pagas != null ? pagas : List.<ParcelaItemDto>of()) {
+            Integer numero = paga.getNumero();
+            if (numero == null || numero < 1 || paga.getValor() == null || paga.getValor().signum() < 0) {
+                throw new IllegalArgumentException("Parcela paga inválida: informe número e valor");
+            }
+            if (numero > numParcelas) {
+                throw new IllegalArgumentException("Parcela " + numero + " já está paga e não pode ser removida");
+            }
+            if (pagasPorNumero.put(numero, paga) == null) {
+                centavosPagos += centavos(paga.getValor());
+            }
+        }
+
+        long centavos = centavos(saldo) - centavosPagos;
+        int abertas = numParcelas - pagasPorNumero.size();
+        if (centavos < 0 || (abertas == 0 && centavos != 0)) {
+            throw new IllegalArgumentException("Parcelas pagas (" + BigDecimal.valueOf(centavosPagos, 2)
+                    + ") não fecham com o saldo a parcelar (" + saldo.setScale(2, RoundingMode.HALF_UP) + ")");
+        }
+        long base = abertas > 0 ? centavos / abertas : 0;
+        BigDecimal valorBase = BigDecimal.valueOf(base, 2);
+        int ultimaAberta = numParcelas;
+        while (pagasPorNumero.containsKey(ultimaAberta)) {
+            ultimaAberta--;
+        }
+        int dia = diaVencimento != null ? diaVencimento : primeira.getDayOfMonth();
+        YearMonth mes = YearMonth.from(primeira);
+
+        List<ParcelaItemDto> parcelas = new ArrayList<>(numParcelas);
+        for (int numero = 1; numero <= numParcelas; numero++, mes = mes.plusMonths(1)) {
+            ParcelaItemDto paga = pagasPorNumero.get(numero);
+            if (paga != null) {
+                parcelas.add(ParcelaItemDto.builder()
+                        .numero(numero)
+                        .vencimento(paga.getVencimento())
+                        .valor(paga.getValor())
+                        .pago(true)
+                        .pagoEm(paga.getPagoEm())
+                        .build());
+                continue;
+            }
+            LocalDate vencimento = proximoDiaUtil(mes.atDay(Math.min(dia, mes.lengthOfMonth())));
+            parcelas.add(ParcelaItemDto.builder()
+                    .numero(numero)
+                    .vencimento(vencimento.toString())
+                    .valor(numero == ultimaAberta ? BigDecimal.valueOf(base + centavos % abertas, 2) : valorBase)
+                    .build());
+        }
+        return parcelas;
+    }
+
+    /**
+     * Confere as parcelas enviadas com o contrato já atualizado: numeração 1..n em ordem, vencimentos em data
+     * válida, valores não negativos em centavos, quantidade igual ao nº de parcelas e soma igual ao saldo a
+     * parcelar. Vencimentos editados à mão (fora do cronograma gerado) são aceitos.
+     */
+    public void validar(Contrato contrato, List<ParcelaItemDto> parcelas) {
+        if (parcelas == null || parcelas.isEmpty()) return;
+        if (parcelas.size() > MAX_PARCELAS) {
+            throw new IllegalArgumentException("Número de parcelas deve estar entre 1 e " + MAX_PARCELAS);
+        }
+
+        BigDecimal soma = BigDecimal.ZERO;
+        for (int i = 0; i < parcelas.size(); i++) {
+            ParcelaItemDto p = parcelas.get(i);
+            int numero = i + 1;
+            if (p.getNumero() != null && p.getNumero() != numero) {
+                throw new IllegalArgumentException("Parcelas devem ser numeradas de 1 a " + parcelas.size() + " em ordem");
+            }
+            if (p.getValor() == null || p.getValor().signum() < 0 || p.getValor().stripTrailingZeros().scale() > 2) {
+                throw new IllegalArgumentException("Valor inválido na parcela " + numero);
+            }
+            try {
+                LocalDate.parse(p.getVencimento() != null ? p.getVencimento().trim() : "");
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Vencimento inválido na parcela " + numero);
+            }
+            soma = soma.add(p.getValor());
+        }
+
+        Integer numParcelas = contrato.getNegocioNumParcelas();
+        if (numParcelas != null && numParcelas != parcelas.size()) {
+            throw new IllegalArgumentException("Nº de parcelas (" + numParcelas + ") difere da lista enviada (" + parcelas.size() + ")");
+        }
+        BigDecimal saldo = saldo(contrato.getNegocioValorTotal(), contrato.getNegocioValorEntrada(),
+                contrato.getNegocioValorImovelPermuta(), contrato.getNegocioValorVeiculoPermuta(),
+                contrato.getNegocioValorFinanciamento());
+        if (soma.compareTo(saldo) != 0) {
+            throw new IllegalArgumentException("Soma das parcelas (" + soma.setScale(2, RoundingMode.HALF_UP)
+                    + ") difere do saldo a parcelar (" + saldo + ")");
+        }
+    }
+
+    /** Dia do vencimento (1-31) em "10" ou "Todo dia 10"; null quando ausente ou fora do intervalo. */
+    public static Integer parseDiaVencimento(String vencimentos) {
+        if (vencimentos == null) return null;
+        Matcher m = DIA_VENCIMENTO.matcher(vencimentos);
+        if (!m.find()) return null;
+        int dia = Integer.parseInt(m.group(1));
+        return dia >= 1 && dia <= 31 ? dia : null;
+    }
+
+    public LocalDate proximoDiaUtil(LocalDate data) {
+        LocalDate d = data;
+        while (!diaUtil(d)) {
+            d = d.plusDays(1);
+        }
+        return d;
+    }
+
+    public boolean diaUtil(LocalDate data) {
+        DayOfWeek dow = data.getDayOfWeek();
+        return dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY
+                && !feriadosPorAno.computeIfAbsent(data.getYear(), this::feriados).contains(data);
+    }
+
+    private Set<LocalDate> feriados(int ano) {
+        Set<LocalDate> feriados = new HashSet<>();
+        for (MonthDay md : FERIADOS_FIXOS) {
+            feriados.add(md.atYear(ano));
+        }
+        if (ano >= 2024) {
+            feriados.add(CONSCIENCIA_NEGRA.atYear(ano));
+        }
+        LocalDate pascoa = pascoa(ano);
+        feriados.add(pascoa.minusDays(48)); // Carnaval (segunda)
+        feriados.add(pascoa.minusDays(47)); // Carnaval (terça)
+        feriados.add(pascoa.minusDays(2));  // Sexta-feira Santa
+        feriados.add(pascoa.plusDays(60));  // Corpus Christi
+        for (LocalDate adicional : feriadosAdicionais) {
+            if (adicional.getYear() == ano) feriados.add(adicional);
+        }
+        return feriados;
+    }
+
+    /** Domingo de Páscoa (algoritmo de Meeus/Jones/Butcher, calendário gregoriano). */
+    static LocalDate pascoa(int ano) {
+        int a = ano % 19;
+        int b = ano / 100;
+        int c = ano % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int mes = (h + l - 7 * m + 114) / 31;
+        int dia = ((h + l - 7 * m + 114) % 31) + 1;
+        return LocalDate.of(ano, mes, dia);
+    }
+
+    private static long centavos(BigDecimal v) {
+        return v.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+    }
+
+    private static BigDecimal valor(BigDecimal v) {
+        return v != null ? v : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,205 @@
+package com.advocacia.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Anexos em um bucket S3 ou compatível (MinIO, Ceph...). Arquivos maiores que {@code file.s3.part-size} são
+ * enviados por multipart upload, uma parte de cada vez lida direto do arquivo local; leituras usam GET com Range
+ * e devolvem o stream da resposta, sem carregar o objeto em memória.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "file.storage", havingValue = "s3")
+public class S3StorageBackend implements StorageBackend {
+
+    /** Menor parte aceita pelo S3 (exceto a última). */
+    private static final long MIN_PART_SIZE = DataSize.ofMegabytes(5).toBytes();
+
+    private final S3Client s3;
+    private final String bucket;
+    private final String prefixo;
+    private final long partSize;
+
+    @Autowired
+    public S3StorageBackend(@Value("${file.s3.endpoint:}") String endpoint,
+                            @Value("${file.s3.region:us-east-1}") String region,
+                            @Value("${file.s3.bucket}") String bucket,
+                            @Value("${file.s3.prefix:}") String prefixo,
+                            @Value("${file.s3.access-key:}") String accessKey,
+                            @Value("${file.s3.secret-key:}") String secretKey,
+                            @Value("${file.s3.path-style:true}") boolean pathStyle,
+                            @Value("${file.s3.part-size:16MB}") DataSize partSize) {
+        this(buildClient(endpoint, region, accessKey, secretKey, pathStyle), bucket, prefixo,
+                Math.max(partSize.toBytes(), MIN_PART_SIZE));
+        criarBucketSeNecessario();
+    }
+
+    S3StorageBackend(S3Client s3, String bucket, String prefixo, long partSize) {
+        this.s3 = s3;
+        this.bucket = bucket;
+        String p = prefixo == null ? "" : prefixo;
+        this.prefixo = p.isEmpty() || p.endsWith("/") ? p : p + "/";
+        this.partSize = partSize;
+    }
+
+    private static S3Client buildClient(String endpoint, String region, String accessKey, String secretKey, boolean pathStyle) {
+        var builder = S3Client.builder()
+                .region(Region.of(region))
+                .forcePathStyle(pathStyle);
+        if (StringUtils.hasText(endpoint)) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        builder.credentialsProvider(StringUtils.hasText(accessKey)
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                : DefaultCredentialsProvider.create());
+        return builder.build();
+    }
+
+    /** Em ambiente local (MinIO) o bucket é criado na subida; em produção normalmente já existe. */
+    private void criarBucketSeNecessario() {
+        try {
+            s3.headBucket(b -> b.bucket(bucket));
+        } catch (NoSuchBucketException e) {
+            log.info("Bucket {} não existe; criando", bucket);
+            s3.createBucket(b -> b.bucket(bucket));
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        s3.close();
+    }
+
+    @Override
+    public void put(String chave, Path origem) throws IOException {
+        long tamanho = Files.size(origem);
+        try {
+            if (tamanho <= partSize) {
+                s3.putObject(b -> b.bucket(bucket).key(key(chave)).contentLength(tamanho), RequestBody.fromFile(origem));
+            } else {
+                putMultipart(key(chave), origem, tamanho);
+            }
+        } catch (SdkException e) {
+            throw new IOException("Falha ao enviar " + chave + " ao S3: " + e.getMessage(), e);
+        }
+        Files.deleteIfExists(origem);
+    }
+
+    private void putMultipart(String key, Path origem, long tamanho) {
+        String uploadId = s3.createMultipartUpload(b -> b.bucket(bucket).key(key)).uploadId();
+        try {
+            List<CompletedPart> partes = new ArrayList<>();
+            for (long inicio = 0; inicio < tamanho; inicio += partSize) {
+                int numero = partes.size() + 1;
+                long quantidade = Math.min(partSize, tamanho - inicio);
+                long offset = inicio;
+                // Cada tentativa do SDK reabre a fatia do arquivo: nada da parte fica em memória
+                RequestBody corpo = RequestBody.fromContentProvider(() -> openSlice(origem, offset, quantidade),
+                        quantidade, "application/octet-stream");
+                String etag = s3.uploadPart(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                        .partNumber(numero).contentLength(quantidade), corpo).eTag();
+                partes.add(CompletedPart.builder().partNumber(numero).eTag(etag).build());
+            }
+            s3.completeMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(m -> m.parts(partes)));
+        } catch (RuntimeException e) {
+            try {
+                s3.abortMultipartUpload(b -> b.bucket(bucket).key(key).uploadId(uploadId));
+            } catch (RuntimeException abortErro) {
+                e.addSuppressed(abortErro);
+            }
+            throw e;
+        }
+    }
+
+    private static InputStream openSlice(Path arquivo, long inicio, long quantidade) {
+        try {
+            FileChannel channel = FileChannel.open(arquivo, StandardOpenOption.READ);
+            channel.position(inicio);
+            return new LimitedInputStream(Channels.newInputStream(channel), quantidade);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public long size(String chave) throws IOException {
+        try {
+            return s3.headObject(b -> b.bucket(bucket).key(key(chave))).contentLength();
+        } catch (NoSuchKeyException e) {
+            return -1;
+        } catch (SdkException e) {
+            if (e instanceof S3Exception s3e && s3e.statusCode() == 404) return -1;
+            throw new IOException("Falha ao consultar " + chave + " no S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public InputStream open(String chave, long inicio, long quantidade) throws IOException {
+        String range = quantidade < 0 ? "bytes=" + inicio + "-" : "bytes=" + inicio + "-" + (inicio + quantidade - 1);
+        try {
+            if (quantidade == 0) return InputStream.nullInputStream();
+            return s3.getObject(b -> {
+                b.bucket(bucket).key(key(chave));
+                if (inicio > 0 || quantidade >= 0) b.range(range);
+            });
+        } catch (NoSuchKeyException e) {
+            throw new NoSuchFileException(chave);
+        } catch (SdkException e) {
+            throw new IOException("Falha ao ler " + chave + " do S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void delete(String chave) throws IOException {
+        try {
+            s3.deleteObject(b -> b.bucket(bucket).key(key(chave)));
+        } catch (SdkException e) {
+            throw new IOException("Falha ao excluir " + chave + " do S3: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<StoredObject> list(String prefixoChave) throws IOException {
+        try {
+            List<StoredObject> objetos = new ArrayList<>();
+            s3.listObjectsV2Paginator(b -> b.bucket(bucket).prefix(key(prefixoChave))).contents()
+                    .forEach(o -> objetos.add(new StoredObject(o.key().substring(prefixo.length()), o.size(), o.lastModified())));
+            return objetos;
+        } catch (SdkException e) {
+            throw new IOException("Falha ao listar " + prefixoChave + " no S3: " + e.getMessage(), e);
+        }
+    }
+
+    private String key(String chave) {
+        return prefixo + chave;
+    }
+}
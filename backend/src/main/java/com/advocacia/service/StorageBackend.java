@@ -0,0 +1,55 @@
+package com.advocacia.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Onde os arquivos dos anexos ficam guardados. Chaves são caminhos relativos com "/" (ex.: {@code ab/cd/<sha256>}).
+ * <p>
+ * Implementações: {@link FilesystemStorageBackend} (diretório local, padrão) e {@link S3StorageBackend}
+ * (S3 ou compatível, ex.: MinIO), escolhidas por {@code file.storage}. Com S3 vários nós do backend compartilham
+ * os mesmos arquivos sem disco compartilhado; a deduplicação e a exclusão do mesmo conteúdo entre nós são
+ * coordenadas pelo {@link ConteudoLock} no banco (Postgres).
+ */
+public interface StorageBackend {
+
+    /**
+     * Publica o arquivo local {@code origem} sob {@code chave}, substituindo o que houver. O arquivo de origem
+     * é consumido (movido ou removido após o envio).
+     */
+    void put(String chave, Path origem) throws IOException;
+
+    /**
+     * Tamanho do objeto em bytes, ou -1 se não existe.
+     */
+    long size(String chave) throws IOException;
+
+    /**
+     * Lê {@code quantidade} bytes a partir de {@code inicio} (-1: até o fim) sem carregar o objeto em memória.
+     */
+    InputStream open(String chave, long inicio, long quantidade) throws IOException;
+
+    /**
+     * Remove o objeto; não falha se ele não existe.
+     */
+    void delete(String chave) throws IOException;
+
+    /**
+     * Objetos sob o prefixo (recursivo).
+     */
+    List<StoredObject> list(String prefixo) throws IOException;
+
+    /**
+     * Caminho no disco local, quando o backend é o sistema de arquivos (permite envio com sendfile/transferTo).
+     */
+    default Optional<Path> localPath(String chave) {
+        return Optional.empty();
+    }
+
+    record StoredObject(String chave, long tamanho, Instant modificadoEm) {
+    }
+}
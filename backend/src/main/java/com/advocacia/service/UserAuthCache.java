@@ -0,0 +1,109 @@
+package com.advocacia.service;
+
+import com.advocacia.entity.User;
+import com.advocacia.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Usuários autenticados por token, em memória por pouco tempo ({@code jwt.user-cache.ttl}): a requisição
+ * autenticada confere as claims assinadas (id, versão do token, status) contra o usuário em cache em vez de
+ * consultar o banco a cada chamada.
+ * <p>
+ * {@link UserService} invalida a entrada após o commit de alterações e exclusões; o TTL limita o tempo em que
+ * outro nó (ou uma leitura concorrente à alteração) ainda enxerga o estado anterior.
+ */
+@Service
+public class UserAuthCache {
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Map<String, Entrada> cache = new ConcurrentHashMap<>();
+
+    public UserAuthCache(UserRepository userRepository,
+                         @Value("${jwt.user-cache.ttl:60s}") Duration ttl,
+                         @Value("${jwt.user-cache.max-size:1000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * Usuário dono do token, se as claims ainda valem: token com versão e status ativo, usuário existente com
+     * o mesmo id (um username liberado e reaproveitado por outra conta não aceita tokens da conta antiga), ativo
+     * e na mesma versão de token. Token mais novo que o cache (login logo após uma alteração) recarrega o
+     * usuário do banco. O perfil deve vir do usuário devolvido, nunca da claim.
+     */
+    public Optional<User> resolve(Claims claims) {
+        Integer versao = claims.get(JwtService.CLAIM_TOKEN_VERSION, Integer.class);
+        if (versao == null || !Boolean.TRUE.equals(claims.get(JwtService.CLAIM_ACTIVE, Boolean.class))) {
+            return Optional.empty();
+        }
+
+        String username = claims.getSubject();
+        User user = get(username);
+        if (user != null && user.getTokenVersion() < versao) {
+            invalidate(username);
+            user = get(username);
+        }
+        if (user == null || !Objects.equals(claims.get(JwtService.CLAIM_USER_ID, Long.class), user.getId())
+                || !user.isEnabled() || !versao.equals(user.getTokenVersion())) {
+            return Optional.empty();
+        }
+        return Optional.of(user);
+    }
+
+    /**
+     * Remove o usuário do cache; dentro de uma transação, só após o commit (uma leitura anterior ao commit não
+     * volta a popular o cache com o estado antigo depois da invalidação).
+     */
+    public void invalidateAfterCommit(String username) {
+        if (username == null) return;
+        invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(username);
+                }
+            });
+        }
+    }
+
+    public void invalidate(String username) {
+        cache.remove(username);
+    }
+
+    private User get(String username) {
+        long agora = System.currentTimeMillis();
+        Entrada entrada = cache.get(username);
+        if (entrada != null && entrada.expiraEm() > agora) {
+            return entrada.user();
+        }
+
+        User user = userRepository.findByUsername(username).orElse(null);
+        if (user != null) {
+            if (cache.size() >= maxSize) {
+                cache.values().removeIf(e -> e.expiraEm() <= agora);
+                if (cache.size() >= maxSize) {
+                    cache.clear();
+                }
+            }
+            cache.put(username, new Entrada(user, agora + ttlMillis));
+        }
+        return user;
+    }
+
+    private record Entrada(User user, long expiraEm) {
+    }
+}
@@ -7,20 +7,50 @@ import com.advocacia.entity.UserScreen;
 import com.advocacia.repository.ScreenRepository;
 import com.advocacia.repository.UserRepository;
 import com.advocacia.repository.UserScreenRepository;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
+/**
+ * Telas liberadas por usuário. Os códigos ficam em cache por usuário ({@code permissions.cache.ttl}) e são
+ * invalidados após o commit de {@link #updateUserScreens}; {@link #hasScreenAccess} é a checagem usada nos
+ * controllers ({@code @PreAuthorize}), com as mesmas regras do guard de rotas do frontend.
+ */
 @Service
-@RequiredArgsConstructor
 public class UserPermissionService {
 
+    public static final String SCREEN_DASHBOARD = "dashboard";
+
     private final ScreenRepository screenRepository;
     private final UserScreenRepository userScreenRepository;
     private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxSize;
+    private final Map<Long, Entrada> cache = new ConcurrentHashMap<>();
+
+    public UserPermissionService(ScreenRepository screenRepository,
+                                 UserScreenRepository userScreenRepository,
+                                 UserRepository userRepository,
+                                 @Value("${permissions.cache.ttl:5m}") Duration ttl,
+                                 @Value("${permissions.cache.max-size:1000}") int maxSize) {
+        this.screenRepository = screenRepository;
+        this.userScreenRepository = userScreenRepository;
+        this.userRepository = userRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.maxSize = Math.max(1, maxSize);
+    }
 
     public List<ScreenResponse> findAllScreens() {
         return screenRepository.findAllByOrderByDisplayOrderAsc().stream()
@@ -29,7 +59,63 @@ public class UserPermissionService {
     }
 
     public List<String> findScreenCodesByUserId(Long userId) {
-        return userScreenRepository.findScreenCodesByUserId(userId);
+        return List.copyOf(screenCodes(userId));
+    }
+
+    /**
+     * Acesso à tela (uso: {@code @PreAuthorize("@userPermissionService.hasScreenAccess(authentication, 'contratos')")}).
+     * ADMIN acessa tudo; usuário sem nenhuma tela liberada acessa o Dashboard; com vários códigos, basta um.
+     */
+    public boolean hasScreenAccess(Authentication authentication, String... screenCodes) {
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            return false;
+        }
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
+        if (admin) return true;
+
+        Set<String> liberadas = screenCodes(user.getId());
+        for (String code : screenCodes) {
+            if (liberadas.contains(code) || liberadas.isEmpty() && SCREEN_DASHBOARD.equals(code)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Descarta as telas em cache do usuário; dentro de uma transação, também após o commit.
+     */
+    public void invalidate(Long userId) {
+        cache.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.remove(userId);
+                }
+            });
+        }
+    }
+
+    private Set<String> screenCodes(Long userId) {
+        long agora = System.currentTimeMillis();
+        Entrada entrada = cache.get(userId);
+        if (entrada != null && entrada.expiraEm() > agora) {
+            return entrada.codes();
+        }
+
+        // Ordem de inserção preservada: a lista devolvida ao frontend segue a ordem da consulta
+        Set<String> codes = Collections.unmodifiableSet(
+                new LinkedHashSet<>(userScreenRepository.findScreenCodesByUserId(userId)));
+        if (cache.size() >= maxSize) {
+            cache.values().removeIf(e -> e.expiraEm() <= agora);
+            if (cache.size() >= maxSize) {
+                cache.clear();
+            }
+        }
+        cache.put(userId, new Entrada(codes, agora + ttlMillis));
+        return codes;
     }
 
     @Transactional
@@ -37,6 +123,7 @@ public class UserPermissionService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
 
+        invalidate(userId);
         userScreenRepository.deleteByUserId(userId);
 
         if (screenCodes != null && !screenCodes.isEmpty()) {
@@ -61,4 +148,7 @@ public class UserPermissionService {
                 .route(screen.getRoute())
                 .build();
     }
+
+    private record Entrada(Set<String> codes, long expiraEm) {
+    }
 }
@@ -22,6 +22,7 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserAuthCache userAuthCache;
 
     public List<UserResponse> findAll() {
         return userRepository.findAll().stream()
@@ -62,17 +63,30 @@ public class UserService {
             throw new DuplicateUsernameException("Usuário já existe com este login");
         }
 
+        String usernameAnterior = user.getUsername();
+        String roleAnterior = user.getRole();
+        Boolean activeAnterior = user.getActive();
+
         user.setUsername(request.getUsername());
         user.setName((request.getName() != null && !request.getName().isBlank()) ? request.getName() : request.getUsername());
         user.setEmail(request.getEmail());
         user.setRole(request.getRole() != null ? request.getRole() : user.getRole());
         user.setActive(request.getActive() != null ? request.getActive() : user.getActive());
 
-        if (request.getPassword() != null && !request.getPassword().isBlank()) {
+        boolean senhaAlterada = request.getPassword() != null && !request.getPassword().isBlank();
+        if (senhaAlterada) {
             user.setPassword(passwordEncoder.encode(request.getPassword()));
         }
 
+        // Login, perfil, status ou senha mudaram: tokens já emitidos deixam de valer
+        if (senhaAlterada || !usernameAnterior.equals(user.getUsername())
+                || !roleAnterior.equals(user.getRole()) || !activeAnterior.equals(user.getActive())) {
+            user.setTokenVersion(user.getTokenVersion() + 1);
+        }
+
         user = userRepository.save(user);
+        userAuthCache.invalidateAfterCommit(usernameAnterior);
+        userAuthCache.invalidateAfterCommit(user.getUsername());
         return toResponse(user);
     }
 
@@ -95,6 +109,7 @@ public class UserService {
         }
 
         userRepository.delete(user);
+        userAuthCache.invalidateAfterCommit(user.getUsername());
     }
 
     private UserResponse toResponse(User user) {
@@ -0,0 +1,13 @@
+-- =============================================
+-- V13: Índices para listagem paginada (keyset) de contratos
+-- =============================================
+
+-- Ordenação/cursor da listagem: ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_contratos_created_at_id ON contratos(created_at DESC, id DESC);
+
+-- Filtro por status mantendo a ordem do cursor
+CREATE INDEX IF NOT EXISTS idx_contratos_status_created_at_id ON contratos(status, created_at DESC, id DESC);
+
+-- Filtro por documento (CPF/CNPJ sanitizado) das partes
+CREATE INDEX IF NOT EXISTS idx_contrato_vendedores_documento ON contrato_vendedores(documento);
+CREATE INDEX IF NOT EXISTS idx_contrato_compradores_documento ON contrato_compradores(documento);
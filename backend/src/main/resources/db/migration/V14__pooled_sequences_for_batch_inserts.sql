@@ -0,0 +1,11 @@
+-- =============================================
+-- V14: Sequences com incremento 50 para ids de contratos, partes, anexos e histórico
+--      (Hibernate usa o otimizador "pooled": reserva 50 ids por chamada e pode
+--       agrupar os INSERTs em lote via JDBC, o que IDENTITY impede)
+-- =============================================
+
+ALTER SEQUENCE contratos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE contrato_vendedores_id_seq INCREMENT BY 50;
+ALTER SEQUENCE contrato_compradores_id_seq INCREMENT BY 50;
+ALTER SEQUENCE contrato_anexos_id_seq INCREMENT BY 50;
+ALTER SEQUENCE contrato_alteracoes_id_seq INCREMENT BY 50;
@@ -0,0 +1,6 @@
+-- =============================================
+-- V15: Hash SHA-256 do conteúdo dos anexos (ETag forte nos downloads e base para deduplicação)
+--      Anexos antigos ficam com NULL e recebem o hash no primeiro download.
+-- =============================================
+
+ALTER TABLE contrato_anexos ADD COLUMN IF NOT EXISTS sha256 VARCHAR(64);
@@ -0,0 +1,8 @@
+-- =============================================
+-- V16: Armazenamento endereçado pelo conteúdo
+--      Anexos com o mesmo SHA-256 compartilham o arquivo (nome_arquivo = ab/cd/<sha256>);
+--      o arquivo só é removido quando a última referência é excluída (contagem por nome_arquivo).
+--      Anexos antigos mantêm o nome UUID e continuam com uma referência cada.
+-- =============================================
+
+CREATE INDEX IF NOT EXISTS idx_contrato_anexos_nome_arquivo ON contrato_anexos(nome_arquivo);
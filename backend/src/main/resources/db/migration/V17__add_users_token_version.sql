@@ -0,0 +1,7 @@
+-- =============================================
+-- V17: Versão do token por usuário
+--      O JWT leva a versão vigente; alterar perfil, senha, login ou status incrementa a versão
+--      e invalida os tokens emitidos antes (autenticação pelas claims, sem consulta por requisição).
+-- =============================================
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_version INTEGER NOT NULL DEFAULT 0;
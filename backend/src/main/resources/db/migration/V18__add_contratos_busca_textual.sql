@@ -0,0 +1,113 @@
+-- =============================================
+-- V18: Busca textual de contratos (nomes e documentos das partes, matrícula, placa, chassi...)
+--      Coluna tsvector mantida por triggers em contratos, contrato_vendedores e contrato_compradores,
+--      indexada com GIN. Requer a extensão unaccent (confiável a partir do PostgreSQL 13: o dono do banco
+--      consegue criá-la sem superusuário).
+-- =============================================
+
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- Dicionário português sem acentos: "João" e "joao" geram o mesmo lexema
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_ts_config WHERE cfgname = 'portugues_sem_acento') THEN
+        CREATE TEXT SEARCH CONFIGURATION portugues_sem_acento (COPY = portuguese);
+        ALTER TEXT SEARCH CONFIGURATION portugues_sem_acento
+            ALTER MAPPING FOR hword, hword_part, word WITH unaccent, portuguese_stem;
+    END IF;
+END $$;
+
+ALTER TABLE contratos ADD COLUMN IF NOT EXISTS busca tsvector;
+
+-- Identificadores (CPF/CNPJ, matrícula, placa, chassi, renavam) sem pontuação: "ABC-1D23" vira "abc1d23"
+CREATE OR REPLACE FUNCTION contrato_busca_identificador(valor TEXT) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE AS $$
+    SELECT NULLIF(regexp_replace(lower(valor), '[^0-9a-z]', '', 'g'), '')
+$$;
+
+-- Documento de busca do contrato. Peso A: partes e identificadores; B: proprietários e veículo; C: descrições
+CREATE OR REPLACE FUNCTION contrato_busca_vetor(c contratos) RETURNS tsvector
+    LANGUAGE sql STABLE AS $$
+    SELECT setweight(to_tsvector('portugues_sem_acento', concat_ws(' ',
+               contrato_busca_identificador(c.imovel_matricula),
+               contrato_busca_identificador(c.permuta_imovel_matricula),
+               contrato_busca_identificador(c.veiculo_placa),
+               contrato_busca_identificador(c.veiculo_chassi),
+               contrato_busca_identificador(c.veiculo_renavam),
+               (SELECT string_agg(concat_ws(' ', v.nome, contrato_busca_identificador(v.documento),
+                                            v.socio_nome, contrato_busca_identificador(v.socio_cpf)), ' ')
+                FROM contrato_vendedores v WHERE v.contrato_id = c.id),
+               (SELECT string_agg(concat_ws(' ', cp.nome, contrato_busca_identificador(cp.documento),
+                                            cp.conjuge_nome, contrato_busca_identificador(cp.conjuge_cpf)), ' ')
+                FROM contrato_compradores cp WHERE cp.contrato_id = c.id))), 'A')
+        || setweight(to_tsvector('portugues_sem_acento', concat_ws(' ',
+               c.imovel_proprietario, c.permuta_imovel_proprietario, c.veiculo_marca, c.veiculo_modelo)), 'B')
+        || setweight(to_tsvector('portugues_sem_acento', concat_ws(' ',
+               c.imovel_descricao, c.permuta_imovel_descricao, c.observacoes)), 'C')
+$$;
+
+-- Contrato inserido ou com campo pesquisável alterado. O UPDATE feito pelas triggers das partes só altera
+-- "busca", fora da lista de colunas, e não dispara esta trigger de novo.
+CREATE OR REPLACE FUNCTION contratos_busca_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.busca := contrato_busca_vetor(NEW);
+    RETURN NEW;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_contratos_busca ON contratos;
+CREATE TRIGGER trg_contratos_busca
+    BEFORE INSERT OR UPDATE OF imovel_matricula, permuta_imovel_matricula, veiculo_placa, veiculo_chassi,
+        veiculo_renavam, imovel_proprietario, permuta_imovel_proprietario, veiculo_marca, veiculo_modelo,
+        imovel_descricao, permuta_imovel_descricao, observacoes
+    ON contratos
+    FOR EACH ROW EXECUTE FUNCTION contratos_busca_trigger();
+
+-- Partes alteradas: recalcula uma vez por comando os contratos afetados (tabelas de transição, então um
+-- lote de inserts de partes do mesmo contrato não recalcula o contrato linha a linha)
+CREATE OR REPLACE FUNCTION contrato_partes_busca_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        UPDATE contratos c SET busca = contrato_busca_vetor(c)
+        WHERE c.id IN (SELECT contrato_id FROM novas);
+    ELSIF TG_OP = 'UPDATE' THEN
+        UPDATE contratos c SET busca = contrato_busca_vetor(c)
+        WHERE c.id IN (SELECT contrato_id FROM novas UNION SELECT contrato_id FROM antigas);
+    ELSE
+        UPDATE contratos c SET busca = contrato_busca_vetor(c)
+        WHERE c.id IN (SELECT contrato_id FROM antigas);
+    END IF;
+    RETURN NULL;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_contrato_vendedores_busca_ins ON contrato_vendedores;
+DROP TRIGGER IF EXISTS trg_contrato_vendedores_busca_upd ON contrato_vendedores;
+DROP TRIGGER IF EXISTS trg_contrato_vendedores_busca_del ON contrato_vendedores;
+CREATE TRIGGER trg_contrato_vendedores_busca_ins AFTER INSERT ON contrato_vendedores
+    REFERENCING NEW TABLE AS novas
+    FOR EACH STATEMENT EXECUTE FUNCTION contrato_partes_busca_trigger();
+CREATE TRIGGER trg_contrato_vendedores_busca_upd AFTER UPDATE ON contrato_vendedores
+    REFERENCING OLD TABLE AS antigas NEW TABLE AS novas
+    FOR EACH STATEMENT EXECUTE FUNCTION contrato_partes_busca_trigger();
+CREATE TRIGGER trg_contrato_vendedores_busca_del AFTER DELETE ON contrato_vendedores
+    REFERENCING OLD TABLE AS antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION contrato_partes_busca_trigger();
+
+DROP TRIGGER IF EXISTS trg_contrato_compradores_busca_ins ON contrato_compradores;
+DROP TRIGGER IF EXISTS trg_contrato_compradores_busca_upd ON contrato_compradores;
+DROP TRIGGER IF EXISTS trg_contrato_compradores_busca_del ON contrato_compradores;
+CREATE TRIGGER trg_contrato_compradores_busca_ins AFTER INSERT ON contrato_compradores
+    REFERENCING NEW TABLE AS novas
+    FOR EACH STATEMENT EXECUTE FUNCTION contrato_partes_busca_trigger();
+CREATE TRIGGER trg_contrato_compradores_busca_upd AFTER UPDATE ON contrato_compradores
+    REFERENCING OLD TABLE AS antigas NEW TABLE AS novas
+    FOR EACH STATEMENT EXECUTE FUNCTION contrato_partes_busca_trigger();
+CREATE TRIGGER trg_contrato_compradores_busca_del AFTER DELETE ON contrato_compradores
+    REFERENCING OLD TABLE AS antigas
+    FOR EACH STATEMENT EXECUTE FUNCTION contrato_partes_busca_trigger();
+
+-- Contratos existentes
+UPDATE contratos c SET busca = contrato_busca_vetor(c);
+
+CREATE INDEX IF NOT EXISTS idx_contratos_busca ON contratos USING GIN (busca);
@@ -0,0 +1,14 @@
+-- =============================================
+-- V19: Consulta de contratos por documento da parte (vendedor, sócio, comprador, cônjuge)
+-- =============================================
+
+-- documento é gravado só com dígitos pelo serviço; linhas migradas dos campos antigos (V9) podem ter pontuação
+UPDATE contrato_vendedores SET documento = regexp_replace(documento, '\D', '', 'g') WHERE documento ~ '\D';
+UPDATE contrato_compradores SET documento = regexp_replace(documento, '\D', '', 'g') WHERE documento ~ '\D';
+
+-- documento das partes já tem índice (V13). CPF de sócio e cônjuge é gravado como digitado (com máscara):
+-- índice de expressão sobre os dígitos, usado pela consulta com a mesma expressão
+CREATE INDEX IF NOT EXISTS idx_contrato_vendedores_socio_cpf_digitos
+    ON contrato_vendedores (regexp_replace(socio_cpf, '\D', '', 'g'));
+CREATE INDEX IF NOT EXISTS idx_contrato_compradores_conjuge_cpf_digitos
+    ON contrato_compradores (regexp_replace(conjuge_cpf, '\D', '', 'g'));
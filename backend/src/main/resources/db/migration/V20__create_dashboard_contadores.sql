@@ -0,0 +1,113 @@
+-- =============================================
+-- V20: Contadores do dashboard mantidos incrementalmente
+--      Triggers em contratos aplicam, na mesma transação, a diferença entre a versão antiga e a nova de
+--      cada contrato; o dashboard lê só estas tabelas (poucas linhas, independente do volume de contratos).
+-- =============================================
+
+-- Contratos por status
+CREATE TABLE IF NOT EXISTS dashboard_status (
+    status VARCHAR(20) PRIMARY KEY,
+    total BIGINT NOT NULL DEFAULT 0
+);
+
+-- Totais por mês do contrato (data_contrato; sem ela, mês de criação) e status
+CREATE TABLE IF NOT EXISTS dashboard_mensal (
+    mes DATE NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    contratos BIGINT NOT NULL DEFAULT 0,
+    negocio_valor_total NUMERIC(17,2) NOT NULL DEFAULT 0,
+    honorarios_valor NUMERIC(17,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (mes, status)
+);
+
+-- Parcelas (negocio_parcelas) de contratos finalizados, por dia de vencimento
+CREATE TABLE IF NOT EXISTS dashboard_parcelas (
+    vencimento DATE PRIMARY KEY,
+    quantidade BIGINT NOT NULL DEFAULT 0,
+    valor NUMERIC(17,2) NOT NULL DEFAULT 0
+);
+
+-- Vencimento/valor da parcela gravados pelo formulário; texto inválido é ignorado em vez de falhar o salvamento
+CREATE OR REPLACE FUNCTION dashboard_data(texto TEXT) RETURNS DATE
+    LANGUAGE plpgsql STABLE AS $$
+BEGIN
+    IF texto IS NULL OR texto !~ '^\d{4}-\d{2}-\d{2}$' THEN
+        RETURN NULL;
+    END IF;
+    RETURN texto::date;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END $$;
+
+CREATE OR REPLACE FUNCTION dashboard_valor(texto TEXT) RETURNS NUMERIC
+    LANGUAGE plpgsql IMMUTABLE AS $$
+BEGIN
+    RETURN texto::numeric;
+EXCEPTION WHEN others THEN
+    RETURN NULL;
+END $$;
+
+-- Soma (sinal = 1) ou retira (sinal = -1) a contribuição de um contrato
+CREATE OR REPLACE FUNCTION dashboard_aplicar(c contratos, sinal INTEGER) RETURNS void
+    LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO dashboard_status AS d (status, total)
+    VALUES (c.status, sinal)
+    ON CONFLICT (status) DO UPDATE SET total = d.total + EXCLUDED.total;
+
+    INSERT INTO dashboard_mensal AS d (mes, status, contratos, negocio_valor_total, honorarios_valor)
+    VALUES (date_trunc('month', COALESCE(c.data_contrato, c.created_at::date))::date, c.status, sinal,
+            sinal * COALESCE(c.negocio_valor_total, 0), sinal * COALESCE(c.honorarios_valor, 0))
+    ON CONFLICT (mes, status) DO UPDATE SET
+        contratos = d.contratos + EXCLUDED.contratos,
+        negocio_valor_total = d.negocio_valor_total + EXCLUDED.negocio_valor_total,
+        honorarios_valor = d.honorarios_valor + EXCLUDED.honorarios_valor;
+
+    IF c.status = 'FINAL' AND jsonb_typeof(c.negocio_parcelas) = 'array' THEN
+        INSERT INTO dashboard_parcelas AS d (vencimento, quantidade, valor)
+        SELECT p.vencimento, sinal * COUNT(*), sinal * COALESCE(SUM(p.valor), 0)
+        FROM (SELECT dashboard_data(e ->> 'vencimento') AS vencimento, dashboard_valor(e ->> 'valor') AS valor
+              FROM jsonb_array_elements(c.negocio_parcelas) e
+              WHERE jsonb_typeof(e) = 'object') p
+        WHERE p.vencimento IS NOT NULL
+        GROUP BY p.vencimento
+        ON CONFLICT (vencimento) DO UPDATE SET
+            quantidade = d.quantidade + EXCLUDED.quantidade,
+            valor = d.valor + EXCLUDED.valor;
+    END IF;
+END $$;
+
+CREATE OR REPLACE FUNCTION contratos_dashboard_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        PERFORM dashboard_aplicar(OLD, -1);
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        PERFORM dashboard_aplicar(NEW, 1);
+    END IF;
+    RETURN NULL;
+END $$;
+
+-- Nenhuma escrita em contratos entre a carga inicial e a criação das triggers
+LOCK TABLE contratos IN SHARE ROW EXCLUSIVE MODE;
+
+DROP TRIGGER IF EXISTS trg_contratos_dashboard ON contratos;
+DROP TRIGGER IF EXISTS trg_contratos_dashboard_upd ON contratos;
+CREATE TRIGGER trg_contratos_dashboard
+    AFTER INSERT OR DELETE ON contratos
+    FOR EACH ROW EXECUTE FUNCTION contratos_dashboard_trigger();
+-- O formulário salva o contrato a cada página: só alterações nos campos agregados mexem nos contadores
+CREATE TRIGGER trg_contratos_dashboard_upd
+    AFTER UPDATE OF status, data_contrato, negocio_valor_total, honorarios_valor, negocio_parcelas ON contratos
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status
+          OR OLD.data_contrato IS DISTINCT FROM NEW.data_contrato
+          OR OLD.negocio_valor_total IS DISTINCT FROM NEW.negocio_valor_total
+          OR OLD.honorarios_valor IS DISTINCT FROM NEW.honorarios_valor
+          OR OLD.negocio_parcelas IS DISTINCT FROM NEW.negocio_parcelas)
+    EXECUTE FUNCTION contratos_dashboard_trigger();
+
+-- Carga inicial a partir dos contratos existentes
+TRUNCATE dashboard_status, dashboard_mensal, dashboard_parcelas;
+SELECT dashboard_aplicar(c, 1) FROM contratos c;
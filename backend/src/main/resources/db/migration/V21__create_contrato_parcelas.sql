@@ -0,0 +1,66 @@
+-- =============================================
+-- V21: Parcelas do contrato em tabela própria (antes: JSONB em contratos.negocio_parcelas)
+--      Permite consultar parcelas a vencer/vencidas de todos os contratos por faixa de vencimento.
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS contrato_parcelas (
+    id BIGSERIAL PRIMARY KEY,
+    contrato_id BIGINT NOT NULL REFERENCES contratos(id) ON DELETE CASCADE,
+    numero INTEGER NOT NULL,
+    vencimento DATE,
+    valor NUMERIC(15,2),
+    pago BOOLEAN NOT NULL DEFAULT FALSE,
+    pago_em DATE
+);
+
+-- Ids em blocos de 50, como as demais tabelas filhas (V14)
+ALTER SEQUENCE contrato_parcelas_id_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_contrato_parcelas_contrato ON contrato_parcelas(contrato_id, numero);
+
+-- Parcelas em aberto por vencimento: a vencer/vencidas de todos os contratos numa varredura de faixa
+CREATE INDEX IF NOT EXISTS idx_contrato_parcelas_pendentes_vencimento
+    ON contrato_parcelas(vencimento, id) WHERE NOT pago;
+
+-- Carga a partir do JSONB (funções de conversão tolerantes da V20); número ausente/inválido vira a posição
+INSERT INTO contrato_parcelas (contrato_id, numero, vencimento, valor)
+SELECT c.id,
+       CASE WHEN e.item ->> 'numero' ~ '^\d{1,9}$' THEN (e.item ->> 'numero')::int ELSE e.posicao::int END,
+       dashboard_data(e.item ->> 'vencimento'),
+       round(dashboard_valor(e.item ->> 'valor'), 2)
+FROM contratos c
+CROSS JOIN LATERAL jsonb_array_elements(c.negocio_parcelas) WITH ORDINALITY AS e(item, posicao)
+WHERE jsonb_typeof(c.negocio_parcelas) = 'array'
+  AND jsonb_typeof(e.item) = 'object';
+
+COMMENT ON COLUMN contratos.negocio_parcelas IS 'Obsoleta desde V21: parcelas em contrato_parcelas';
+
+-- Dashboard: parcelas a vencer passam a ser lidas de contrato_parcelas (consulta por faixa, só em aberto);
+-- os contadores da V20 deixam de acompanhar o JSONB
+CREATE OR REPLACE FUNCTION dashboard_aplicar(c contratos, sinal INTEGER) RETURNS void
+    LANGUAGE plpgsql AS $$
+BEGIN
+    INSERT INTO dashboard_status AS d (status, total)
+    VALUES (c.status, sinal)
+    ON CONFLICT (status) DO UPDATE SET total = d.total + EXCLUDED.total;
+
+    INSERT INTO dashboard_mensal AS d (mes, status, contratos, negocio_valor_total, honorarios_valor)
+    VALUES (date_trunc('month', COALESCE(c.data_contrato, c.created_at::date))::date, c.status, sinal,
+            sinal * COALESCE(c.negocio_valor_total, 0), sinal * COALESCE(c.honorarios_valor, 0))
+    ON CONFLICT (mes, status) DO UPDATE SET
+        contratos = d.contratos + EXCLUDED.contratos,
+        negocio_valor_total = d.negocio_valor_total + EXCLUDED.negocio_valor_total,
+        honorarios_valor = d.honorarios_valor + EXCLUDED.honorarios_valor;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_contratos_dashboard_upd ON contratos;
+CREATE TRIGGER trg_contratos_dashboard_upd
+    AFTER UPDATE OF status, data_contrato, negocio_valor_total, honorarios_valor ON contratos
+    FOR EACH ROW
+    WHEN (OLD.status IS DISTINCT FROM NEW.status
+          OR OLD.data_contrato IS DISTINCT FROM NEW.data_contrato
+          OR OLD.negocio_valor_total IS DISTINCT FROM NEW.negocio_valor_total
+          OR OLD.honorarios_valor IS DISTINCT FROM NEW.honorarios_valor)
+    EXECUTE FUNCTION contratos_dashboard_trigger();
+
+DROP TABLE IF EXISTS dashboard_parcelas;
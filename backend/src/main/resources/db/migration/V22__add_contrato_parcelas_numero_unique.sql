@@ -0,0 +1,20 @@
+-- =============================================
+-- V22: Número da parcela único por contrato
+--      O merge do formulário casa parcelas pelo número; a carga da V21 podia gravar números repetidos vindos
+--      do JSONB, e a repetida era removida sem aviso no salvamento seguinte. Contratos com números repetidos
+--      são renumerados pela ordem (número, id), como a posição na lista original.
+-- =============================================
+
+UPDATE contrato_parcelas p
+SET numero = r.ordinal
+FROM (SELECT id, row_number() OVER (PARTITION BY contrato_id ORDER BY numero, id) AS ordinal
+      FROM contrato_parcelas
+      WHERE contrato_id IN (SELECT contrato_id FROM contrato_parcelas
+                            GROUP BY contrato_id, numero HAVING COUNT(*) > 1)) r
+WHERE p.id = r.id
+  AND p.numero IS DISTINCT FROM r.ordinal;
+
+-- A constraint cria o índice (contrato_id, numero); o índice equivalente da V21 deixa de ser necessário
+ALTER TABLE contrato_parcelas
+    ADD CONSTRAINT uk_contrato_parcelas_numero UNIQUE (contrato_id, numero);
+DROP INDEX IF EXISTS idx_contrato_parcelas_contrato;
@@ -0,0 +1,13 @@
+-- =============================================
+-- V23: Instante de gravação do histórico
+--      changed_at é o instante da (última) edição; com gravação assíncrona e agrupamento de autosave a linha
+--      pode ser inserida bem depois dele. O polling incremental (since) passa a comparar recorded_at, gravado
+--      no insert, para não perder entradas que chegam com changed_at anterior ao último polling.
+-- =============================================
+
+ALTER TABLE contrato_alteracoes ADD COLUMN recorded_at TIMESTAMP;
+UPDATE contrato_alteracoes SET recorded_at = changed_at WHERE recorded_at IS NULL;
+ALTER TABLE contrato_alteracoes ALTER COLUMN recorded_at SET NOT NULL;
+ALTER TABLE contrato_alteracoes ALTER COLUMN recorded_at SET DEFAULT now();
+
+CREATE INDEX idx_contrato_alteracoes_contrato_recorded ON contrato_alteracoes(contrato_id, recorded_at);
@@ -0,0 +1,14 @@
+-- =============================================
+-- V24: Agrupamento do histórico no modo transacional
+--      Com audit.coalesce.window a última entrada do usuário no contrato é atualizada em vez de receber uma
+--      linha nova. recorded_at passa a ser o instante da última gravação (insert ou mesclagem), para o polling
+--      incremental (since) enxergar a entrada atualizada; first_recorded_at guarda o insert, início da janela.
+-- =============================================
+
+ALTER TABLE contrato_alteracoes ADD COLUMN first_recorded_at TIMESTAMP;
+UPDATE contrato_alteracoes SET first_recorded_at = recorded_at WHERE first_recorded_at IS NULL;
+ALTER TABLE contrato_alteracoes ALTER COLUMN first_recorded_at SET NOT NULL;
+ALTER TABLE contrato_alteracoes ALTER COLUMN first_recorded_at SET DEFAULT now();
+
+-- Última entrada do contrato (ORDER BY changed_at DESC, id DESC LIMIT 1) sem ordenar no agrupamento
+CREATE INDEX idx_contrato_alteracoes_contrato_changed_id ON contrato_alteracoes(contrato_id, changed_at DESC, id DESC);
@@ -0,0 +1,12 @@
+-- =============================================
+-- V25: Conclusão de uploads em partes
+--      Uma linha por sessão concluída ou em conclusão: o insert reivindica a sessão para um único pedido (em
+--      qualquer nó) e anexo_id registra o resultado, devolvido a quem repetir o pedido de conclusão.
+-- =============================================
+
+CREATE TABLE anexo_upload_conclusoes (
+    upload_id VARCHAR(36) PRIMARY KEY,
+    contrato_id BIGINT NOT NULL REFERENCES contratos(id) ON DELETE CASCADE,
+    anexo_id BIGINT REFERENCES contrato_anexos(id) ON DELETE CASCADE,
+    iniciada_em TIMESTAMP NOT NULL
+);
@@ -0,0 +1,40 @@
+-- =============================================
+-- V26: Trigger de busca de contratos só recalcula quando um campo pesquisável muda de valor
+--      Sem @DynamicUpdate o UPDATE do Hibernate lista todas as colunas a cada save do formulário, e UPDATE OF
+--      dispara sempre que a coluna aparece no SET, mesmo com o valor igual. Insert e update viram triggers
+--      separadas porque o WHEN do update compara OLD e NEW (mesmo guarda da V20 nos contadores do dashboard).
+-- =============================================
+
+-- Contrato inserido ou com campo pesquisável alterado (o WHEN da trigger de update filtra saves sem mudança).
+-- O UPDATE feito pelas triggers das partes só altera "busca", fora da lista de colunas, e não dispara esta de novo.
+CREATE OR REPLACE FUNCTION contratos_busca_trigger() RETURNS trigger
+    LANGUAGE plpgsql AS $$
+BEGIN
+    NEW.busca := contrato_busca_vetor(NEW);
+    RETURN NEW;
+END $$;
+
+DROP TRIGGER IF EXISTS trg_contratos_busca ON contratos;
+DROP TRIGGER IF EXISTS trg_contratos_busca_upd ON contratos;
+CREATE TRIGGER trg_contratos_busca
+    BEFORE INSERT ON contratos
+    FOR EACH ROW EXECUTE FUNCTION contratos_busca_trigger();
+CREATE TRIGGER trg_contratos_busca_upd
+    BEFORE UPDATE OF imovel_matricula, permuta_imovel_matricula, veiculo_placa, veiculo_chassi,
+        veiculo_renavam, imovel_proprietario, permuta_imovel_proprietario, veiculo_marca, veiculo_modelo,
+        imovel_descricao, permuta_imovel_descricao, observacoes
+    ON contratos
+    FOR EACH ROW
+    WHEN (OLD.imovel_matricula IS DISTINCT FROM NEW.imovel_matricula
+          OR OLD.permuta_imovel_matricula IS DISTINCT FROM NEW.permuta_imovel_matricula
+          OR OLD.veiculo_placa IS DISTINCT FROM NEW.veiculo_placa
+          OR OLD.veiculo_chassi IS DISTINCT FROM NEW.veiculo_chassi
+          OR OLD.veiculo_renavam IS DISTINCT FROM NEW.veiculo_renavam
+          OR OLD.imovel_proprietario IS DISTINCT FROM NEW.imovel_proprietario
+          OR OLD.permuta_imovel_proprietario IS DISTINCT FROM NEW.permuta_imovel_proprietario
+          OR OLD.veiculo_marca IS DISTINCT FROM NEW.veiculo_marca
+          OR OLD.veiculo_modelo IS DISTINCT FROM NEW.veiculo_modelo
+          OR OLD.imovel_descricao IS DISTINCT FROM NEW.imovel_descricao
+          OR OLD.permuta_imovel_descricao IS DISTINCT FROM NEW.permuta_imovel_descricao
+          OR OLD.observacoes IS DISTINCT FROM NEW.observacoes)
+    EXECUTE FUNCTION contratos_busca_trigger();
@@ -0,0 +1,126 @@
+package com.advocacia.config;
+
+import com.advocacia.repository.UserRepository;
+import com.advocacia.service.JwtService;
+import com.advocacia.service.UserAuthCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Caminho quente da autenticação: validação antiga (chave e parser recriados, token lido três vezes) x
+ * {@link JwtService} com parse único, sem e com cache de claims, e o {@link JwtAuthenticationFilter} completo,
+ * carregando o usuário por requisição (stub sem banco: a consulta real não entra na medida) ou pelas claims.
+ * <p>
+ * Execução: {@code mvn test-compile exec:java -Dexec.mainClass=com.advocacia.config.JwtFilterBenchmark -Dexec.classpathScope=test}
+ * (ou rodar o {@code main} pela IDE).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final FilterChain NO_OP = (request, response) -> { };
+
+    private final UserDetails admin = User.withUsername("admin").password("x").roles("ADMIN").build();
+
+    private JwtService semCache;
+    private JwtService comCache;
+    private JwtAuthenticationFilter filtro;
+    private JwtAuthenticationFilter filtroClaims;
+    private String token;
+    private String tokenClaims;
+
+    @Setup
+    public void setup() {
+        semCache = new JwtService(SECRET, 3_600_000, 0);
+        comCache = new JwtService(SECRET, 3_600_000, 10_000);
+        filtro = new JwtAuthenticationFilter(comCache, username -> admin, null, false);
+        token = comCache.generateToken(admin);
+
+        com.advocacia.entity.User usuario = com.advocacia.entity.User.builder()
+                .id(1L).username("admin").password("x").role("ADMIN").build();
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByUsername("admin")).thenReturn(Optional.of(usuario));
+        filtroClaims = new JwtAuthenticationFilter(comCache, username -> {
+            throw new IllegalStateException("não deve consultar o usuário");
+        }, new UserAuthCache(userRepository, Duration.ofMinutes(1), 1000), true);
+        tokenClaims = comCache.generateToken(usuario);
+    }
+
+    @Benchmark
+    public boolean legado() {
+        // Filtro: extractUsername; depois isTokenValid: extractUsername + isTokenExpired
+        String username = legadoClaims(token).getSubject();
+        return username != null
+                && legadoClaims(token).getSubject().equals(admin.getUsername())
+                && !legadoClaims(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean parseUnico() {
+        return semCache.isTokenValid(semCache.extractAllClaims(token), admin);
+    }
+
+    @Benchmark
+    public boolean parseComCache() {
+        return comCache.isTokenValid(comCache.extractAllClaims(token), admin);
+    }
+
+    @Benchmark
+    public Object filtroComCache() throws Exception {
+        return autenticar(filtro, token);
+    }
+
+    @Benchmark
+    public Object filtroPorClaims() throws Exception {
+        return autenticar(filtroClaims, tokenClaims);
+    }
+
+    private static Object autenticar(JwtAuthenticationFilter filtro, String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/contratos");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            filtro.doFilter(request, new MockHttpServletResponse(), NO_OP);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    /** Como era feito antes: chave decodificada e parser montado a cada leitura do token. */
+    private static Claims legadoClaims(String token) {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
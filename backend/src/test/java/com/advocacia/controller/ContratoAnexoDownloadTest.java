@@ -0,0 +1,214 @@
+package com.advocacia.controller;
+
+import com.advocacia.entity.Contrato;
+import com.advocacia.entity.ContratoAnexo;
+import com.advocacia.repository.ContratoAnexoRepository;
+import com.advocacia.repository.ContratoRepository;
+import com.advocacia.service.AnexoPreviewService;
+import com.advocacia.service.ChunkedUploadService;
+import com.advocacia.service.FileStorageService;
+import com.advocacia.service.FilesystemStorageBackend;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Download de anexos: Range, GET condicional por ETag (SHA-256), backfill do hash, prévias e ZIP com todos os anexos.
+ */
+class ContratoAnexoDownloadTest {
+
+    private static final String CONTEUDO = "0123456789abcdefghij";
+    private static final String URL = "/api/contratos/1/anexos/10/download";
+
+    @TempDir
+    Path uploadDir;
+
+    private final ContratoRepository contratoRepository = mock(ContratoRepository.class);
+    private final ContratoAnexoRepository anexoRepository = mock(ContratoAnexoRepository.class);
+    private ContratoAnexo anexo;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        FileStorageService storage = new FileStorageService(new FilesystemStorageBackend(uploadDir.toString()));
+        ReflectionTestUtils.setField(storage, "tempDir", uploadDir.resolve(".tmp").toString());
+        storage.init();
+        Files.writeString(uploadDir.resolve("arquivo.pdf"), CONTEUDO, StandardCharsets.UTF_8);
+
+        anexo = ContratoAnexo.builder()
+                .id(10L)
+                .contrato(Contrato.builder().id(1L).build())
+                .nomeOriginal("matrícula.pdf")
+                .nomeArquivo("arquivo.pdf")
+                .tipoMime("application/pdf")
+                .tamanho((long) CONTEUDO.length())
+                .createdAt(LocalDateTime.of(2025, 1, 10, 9, 0))
+                .build();
+        when(anexoRepository.findById(10L)).thenReturn(Optional.of(anexo));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new ContratoAnexoController(contratoRepository, anexoRepository, storage,
+                        mock(ChunkedUploadService.class),
+                        new AnexoPreviewService(storage, new SimpleMeterRegistry(), 1, 10, 32, Duration.ofSeconds(10)))).build();
+    }
+
+    @Test
+    void downloadCompleto_calculaHashEEnviaETag() throws Exception {
+        mockMvc.perform(get(URL))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(content().string(CONTEUDO));
+
+        verify(anexoRepository).save(anexo);
+    }
+
+    @Test
+    void range_retornaSomenteOIntervalo() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 5-9/20"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 5))
+                .andExpect(content().string("56789"));
+    }
+
+    @Test
+    void rangeForaDoArquivo_retorna416() throws Exception {
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=50-60"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */20"));
+    }
+
+    @Test
+    void ifNoneMatch_comMesmoHash_retorna304() throws Exception {
+        anexo.setSha256("abc123");
+
+        mockMvc.perform(get(URL).header(HttpHeaders.IF_NONE_MATCH, "\"abc123\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(anexoRepository, never()).save(any());
+    }
+
+    @Test
+    void ifRangeDesatualizado_enviaArquivoInteiro() throws Exception {
+        anexo.setSha256("abc123");
+
+        mockMvc.perform(get(URL).header(HttpHeaders.RANGE, "bytes=0-4").header(HttpHeaders.IF_RANGE, "\"outro\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTEUDO));
+    }
+
+    @Test
+    void zip_todosOsAnexosSemCompressaoParaPdfENomesUnicos() throws Exception {
+        Files.writeString(uploadDir.resolve("notas.txt"), "a".repeat(1000), StandardCharsets.UTF_8);
+        ContratoAnexo notas = ContratoAnexo.builder().id(11L).nomeOriginal("notas.txt").nomeArquivo("notas.txt")
+                .tipoMime("text/plain").createdAt(LocalDateTime.of(2025, 1, 11, 9, 0)).build();
+        ContratoAnexo copia = ContratoAnexo.builder().id(12L).nomeOriginal("matrícula.pdf").nomeArquivo("arquivo.pdf")
+                .tipoMime("application/pdf").createdAt(LocalDateTime.of(2025, 1, 12, 9, 0)).build();
+        ContratoAnexo semArquivo = ContratoAnexo.builder().id(13L).nomeOriginal("perdido.pdf").nomeArquivo("perdido.pdf")
+                .tipoMime("application/pdf").createdAt(LocalDateTime.of(2025, 1, 13, 9, 0)).build();
+        when(contratoRepository.existsById(1L)).thenReturn(true);
+        when(anexoRepository.findByContratoIdOrderByCreatedAtDesc(1L)).thenReturn(List.of(semArquivo, copia, notas, anexo));
+
+        byte[] zip = mockMvc.perform(get("/api/contratos/1/anexos.zip"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/zip"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"contrato-1-anexos.zip\""))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        List<ZipEntry> entradas = new ArrayList<>();
+        List<String> conteudos = new ArrayList<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip), StandardCharsets.UTF_8)) {
+            for (ZipEntry e; (e = in.getNextEntry()) != null; ) {
+                entradas.add(e);
+                conteudos.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertThat(entradas).extracting(ZipEntry::getName).containsExactly("matrícula.pdf", "notas.txt", "matrícula (2).pdf");
+        assertThat(entradas).extracting(ZipEntry::getMethod).containsExactly(ZipEntry.STORED, ZipEntry.DEFLATED, ZipEntry.STORED);
+        assertThat(conteudos).containsExactly(CONTEUDO, "a".repeat(1000), CONTEUDO);
+    }
+
+    @Test
+    void zip_contratoInexistente_retorna404() throws Exception {
+        mockMvc.perform(get("/api/contratos/2/anexos.zip")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void preview_imagem_geraJpegReduzidoEReaproveita() throws Exception {
+        ImageIO.write(new BufferedImage(400, 200, BufferedImage.TYPE_INT_RGB), "png", uploadDir.resolve("foto.png").toFile());
+        ContratoAnexo foto = ContratoAnexo.builder().id(20L).contrato(Contrato.builder().id(1L).build())
+                .nomeOriginal("foto.png").nomeArquivo("foto.png").tipoMime("image/png")
+                .createdAt(LocalDateTime.of(2025, 1, 10, 9, 0)).build();
+        when(anexoRepository.findById(20L)).thenReturn(Optional.of(foto));
+
+        byte[] jpeg = mockMvc.perform(get("/api/contratos/1/anexos/20/preview"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("image/jpeg"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "private, max-age=604800, immutable"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BufferedImage previa = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertThat(previa.getWidth()).isEqualTo(32);
+        assertThat(previa.getHeight()).isEqualTo(16);
+        assertThat(uploadDir.resolve(".previews/foto.png.jpg")).exists();
+
+        mockMvc.perform(get("/api/contratos/1/anexos/20/preview").header(HttpHeaders.IF_NONE_MATCH, "\"preview-foto.png\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void preview_pdf_renderizaPrimeiraPagina() throws Exception {
+        try (PDDocument documento = new PDDocument()) {
+            documento.addPage(new PDPage(PDRectangle.A4));
+            documento.save(uploadDir.resolve("arquivo.pdf").toFile());
+        }
+
+        byte[] jpeg = mockMvc.perform(get("/api/contratos/1/anexos/10/preview"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        BufferedImage previa = ImageIO.read(new ByteArrayInputStream(jpeg));
+        assertThat(previa.getHeight()).isEqualTo(32);
+        assertThat(previa.getWidth()).isLessThan(32);
+    }
+
+    @Test
+    void preview_tipoSemPreviaOuConteudoInvalido_retorna404() throws Exception {
+        // arquivo.pdf do setUp não é um PDF válido
+        mockMvc.perform(get("/api/contratos/1/anexos/10/preview")).andExpect(status().isNotFound());
+
+        anexo.setTipoMime("text/plain");
+        mockMvc.perform(get("/api/contratos/1/anexos/10/preview")).andExpect(status().isNotFound());
+        assertThat(uploadDir.resolve(".previews")).doesNotExist();
+    }
+}
@@ -0,0 +1,248 @@
+package com.advocacia.controller;
+
+import com.advocacia.entity.AnexoUploadConclusao;
+import com.advocacia.entity.Contrato;
+import com.advocacia.entity.ContratoAnexo;
+import com.advocacia.exception.GlobalExceptionHandler;
+import com.advocacia.repository.AnexoUploadConclusaoRepository;
+import com.advocacia.repository.ContratoAnexoRepository;
+import com.advocacia.repository.ContratoRepository;
+import com.advocacia.service.AnexoPreviewService;
+import com.advocacia.service.ChunkedUploadService;
+import com.advocacia.service.FileStorageService;
+import com.advocacia.service.FilesystemStorageBackend;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Upload em streaming: hash e tamanho calculados na gravação, limite de tamanho, descarte do arquivo parcial
+ * deduplicação por conteúdo (arquivo removido só com a última referência) e upload retomável em partes.
+ */
+class ContratoAnexoUploadTest {
+
+    private static final String URL = "/api/contratos/1/anexos/stream";
+
+    @TempDir
+    Path uploadDir;
+
+    private final ContratoRepository contratoRepository = mock(ContratoRepository.class);
+    private final ContratoAnexoRepository anexoRepository = mock(ContratoAnexoRepository.class);
+    private final AnexoUploadConclusaoRepository conclusaoRepository = mock(AnexoUploadConclusaoRepository.class);
+    private ChunkedUploadService chunkedUploadService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        FilesystemStorageBackend backend = new FilesystemStorageBackend(uploadDir.toString());
+        FileStorageService storage = new FileStorageService(backend);
+        ReflectionTestUtils.setField(storage, "tempDir", uploadDir.resolve(".tmp").toString());
+        ReflectionTestUtils.setField(storage, "maxUploadSize", DataSize.ofBytes(100));
+        storage.init();
+        // Partes de 4 bytes; TTL zero: toda sessão já conta como abandonada na limpeza
+        chunkedUploadService = new ChunkedUploadService(storage, backend, conclusaoRepository, anexoRepository,
+                DataSize.ofBytes(4), Duration.ZERO);
+        when(conclusaoRepository.reivindicar(any(), any(), any())).thenReturn(1);
+
+        when(contratoRepository.existsById(1L)).thenReturn(true);
+        when(contratoRepository.getReferenceById(1L)).thenReturn(Contrato.builder().id(1L).build());
+        when(anexoRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                        new ContratoAnexoController(contratoRepository, anexoRepository, storage, chunkedUploadService,
+                                mock(AnexoPreviewService.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void stream_gravaArquivoComHashETamanho() throws Exception {
+        byte[] conteudo = "conteúdo do PDF digitalizado".getBytes(StandardCharsets.UTF_8);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+
+        mockMvc.perform(post(URL).param("nome", "escritura.pdf")
+                        .contentType(MediaType.APPLICATION_PDF).content(conteudo))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sha256").value(hash))
+                .andExpect(jsonPath("$.tamanho").value(conteudo.length))
+                .andExpect(jsonPath("$.tipoMime").value("application/pdf"));
+
+        ArgumentCaptor<ContratoAnexo> captor = ArgumentCaptor.forClass(ContratoAnexo.class);
+        verify(anexoRepository).save(captor.capture());
+        String nomeArquivo = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+        assertThat(captor.getValue().getNomeArquivo()).isEqualTo(nomeArquivo);
+        assertThat(Files.readAllBytes(uploadDir.resolve(nomeArquivo))).isEqualTo(conteudo);
+    }
+
+    @Test
+    void conteudoRepetido_gravaUmaVezEExcluiSoNaUltimaReferencia() throws Exception {
+        byte[] conteudo = "RG digitalizado".getBytes(StandardCharsets.UTF_8);
+        for (String nome : new String[]{"rg.pdf", "rg-copia.pdf"}) {
+            mockMvc.perform(post(URL).param("nome", nome).contentType(MediaType.APPLICATION_PDF).content(conteudo))
+                    .andExpect(status().isCreated());
+        }
+
+        ArgumentCaptor<ContratoAnexo> captor = ArgumentCaptor.forClass(ContratoAnexo.class);
+        verify(anexoRepository, times(2)).save(captor.capture());
+        String nomeArquivo = captor.getAllValues().get(0).getNomeArquivo();
+        assertThat(captor.getAllValues().get(1).getNomeArquivo()).isEqualTo(nomeArquivo);
+        try (var arquivos = Files.walk(uploadDir)) {
+            assertThat(arquivos.filter(Files::isRegularFile)).hasSize(1);
+        }
+
+        ContratoAnexo anexo = captor.getAllValues().get(0);
+        anexo.setId(10L);
+        when(anexoRepository.findById(10L)).thenReturn(Optional.of(anexo));
+
+        // Ainda há outro anexo com o mesmo conteúdo: o arquivo fica
+        when(anexoRepository.countByNomeArquivo(nomeArquivo)).thenReturn(1L);
+        mockMvc.perform(delete("/api/contratos/1/anexos/10")).andExpect(status().isNoContent());
+        assertThat(uploadDir.resolve(nomeArquivo)).exists();
+
+        // Última referência: o arquivo sai do disco
+        when(anexoRepository.countByNomeArquivo(nomeArquivo)).thenReturn(0L);
+        mockMvc.perform(delete("/api/contratos/1/anexos/10")).andExpect(status().isNoContent());
+        assertThat(uploadDir.resolve(nomeArquivo)).doesNotExist();
+    }
+
+    @Test
+    void stream_acimaDoLimite_retorna413ENaoDeixaArquivo() throws Exception {
+        mockMvc.perform(post(URL).param("nome", "grande.pdf")
+                        .contentType(MediaType.APPLICATION_PDF).content(new byte[101]))
+                .andExpect(status().isPayloadTooLarge());
+
+        verify(anexoRepository, never()).save(any());
+        try (var arquivos = Files.walk(uploadDir)) {
+            assertThat(arquivos.filter(Files::isRegularFile)).isEmpty();
+        }
+    }
+
+    @Test
+    void emPartes_foraDeOrdemComReenvio_montaArquivo() throws Exception {
+        byte[] conteudo = "matrícula do imóvel".getBytes(StandardCharsets.UTF_8);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(conteudo));
+        String base = "/api/contratos/1/anexos/uploads";
+
+        String resposta = mockMvc.perform(post(base).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\":\"matricula.pdf\",\"tipoMime\":\"application/pdf\",\"tamanho\":" + conteudo.length + "}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.tamanhoParte").value(4))
+                .andExpect(jsonPath("$.totalPartes").value((conteudo.length + 3) / 4))
+                .andReturn().getResponse().getContentAsString();
+        String uploadId = JsonPath.read(resposta, "$.uploadId");
+        int total = (conteudo.length + 3) / 4;
+
+        // Parte com tamanho errado é recusada e não conta como recebida
+        mockMvc.perform(put(base + "/" + uploadId + "/partes/0").content(new byte[3]))
+                .andExpect(status().isBadRequest());
+        // Conclusão antes de todas as partes falha
+        mockMvc.perform(post(base + "/" + uploadId + "/concluir")).andExpect(status().isBadRequest());
+
+        for (int i = total - 1; i >= 0; i--) {
+            byte[] parte = Arrays.copyOfRange(conteudo, i * 4, Math.min(conteudo.length, (i + 1) * 4));
+            mockMvc.perform(put(base + "/" + uploadId + "/partes/" + i).content(parte))
+                    .andExpect(status().isNoContent());
+        }
+        mockMvc.perform(get(base + "/" + uploadId))
+                .andExpect(jsonPath("$.partesRecebidas.length()").value(total));
+
+        mockMvc.perform(post(base + "/" + uploadId + "/concluir"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sha256").value(hash))
+                .andExpect(jsonPath("$.nomeOriginal").value("matricula.pdf"))
+                .andExpect(jsonPath("$.tamanho").value(conteudo.length));
+
+        String nomeArquivo = hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash;
+        assertThat(Files.readAllBytes(uploadDir.resolve(nomeArquivo))).isEqualTo(conteudo);
+        // Sessão removida após a conclusão
+        mockMvc.perform(get(base + "/" + uploadId)).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void emPartes_conclusaoRepetida_devolveOMesmoAnexo() throws Exception {
+        String uploadId = enviarEmPartes("rg.pdf", "RG frente e verso".getBytes(StandardCharsets.UTF_8));
+        String concluir = "/api/contratos/1/anexos/uploads/" + uploadId + "/concluir";
+        when(anexoRepository.save(any())).thenAnswer(inv -> {
+            ContratoAnexo anexo = inv.getArgument(0);
+            anexo.setId(9L);
+            return anexo;
+        });
+
+        mockMvc.perform(post(concluir)).andExpect(status().isCreated());
+        verify(conclusaoRepository).registrarAnexo(uploadId, 9L);
+        ArgumentCaptor<ContratoAnexo> salvo = ArgumentCaptor.forClass(ContratoAnexo.class);
+        verify(anexoRepository).save(salvo.capture());
+
+        // Cliente repete a conclusão (ex.: em outro nó) depois que a sessão já foi removida
+        when(conclusaoRepository.findById(uploadId)).thenReturn(Optional.of(AnexoUploadConclusao.builder()
+                .uploadId(uploadId).contratoId(1L).anexoId(9L).build()));
+        when(anexoRepository.findById(9L)).thenReturn(Optional.of(salvo.getValue()));
+
+        mockMvc.perform(post(concluir))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.nomeOriginal").value("rg.pdf"));
+        verify(anexoRepository, times(1)).save(any());
+        verify(conclusaoRepository, times(1)).reivindicar(any(), any(), any());
+    }
+
+    @Test
+    void emPartes_conclusaoEmAndamentoEmOutroPedido_recusadaSemMontar() throws Exception {
+        String uploadId = enviarEmPartes("cnh.pdf", "CNH".getBytes(StandardCharsets.UTF_8));
+        when(conclusaoRepository.reivindicar(any(), any(), any())).thenReturn(0);
+
+        mockMvc.perform(post("/api/contratos/1/anexos/uploads/" + uploadId + "/concluir"))
+                .andExpect(status().isBadRequest());
+
+        verify(anexoRepository, never()).save(any());
+        // Partes intactas para quem está concluindo
+        mockMvc.perform(get("/api/contratos/1/anexos/uploads/" + uploadId))
+                .andExpect(jsonPath("$.partesRecebidas.length()").value(1));
+    }
+
+    @Test
+    void limpeza_removeSessoesAbandonadas() throws Exception {
+        mockMvc.perform(post("/api/contratos/1/anexos/uploads").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\":\"rg.pdf\",\"tamanho\":10}"))
+                .andExpect(status().isCreated());
+        Thread.sleep(5);
+
+        assertThat(chunkedUploadService.limparSessoesAbandonadas()).isEqualTo(1);
+        assertThat(uploadDir.resolve(".uploads")).doesNotExist();
+    }
+
+    private String enviarEmPartes(String nome, byte[] conteudo) throws Exception {
+        String base = "/api/contratos/1/anexos/uploads";
+        String resposta = mockMvc.perform(post(base).contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"nome\":\"" + nome + "\",\"tamanho\":" + conteudo.length + "}"))
+                .andReturn().getResponse().getContentAsString();
+        String uploadId = JsonPath.read(resposta, "$.uploadId");
+        for (int i = 0; i * 4 < conteudo.length; i++) {
+            mockMvc.perform(put(base + "/" + uploadId + "/partes/" + i)
+                            .content(Arrays.copyOfRange(conteudo, i * 4, Math.min(conteudo.length, (i + 1) * 4))))
+                    .andExpect(status().isNoContent());
+        }
+        return uploadId;
+    }
+}
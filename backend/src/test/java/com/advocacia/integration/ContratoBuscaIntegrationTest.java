@@ -0,0 +1,178 @@
+package com.advocacia.integration;
+
+import com.advocacia.dto.CompradorRequest;
+import com.advocacia.dto.ContratoBuscaResponse;
+import com.advocacia.dto.ContratoRequest;
+import com.advocacia.dto.ContratoResponse;
+import com.advocacia.dto.CursorPageResponse;
+import com.advocacia.dto.VendedorRequest;
+import com.advocacia.dto.VendedorResponse;
+import com.advocacia.service.ContratoService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de integração da busca textual (V18): coluna {@code busca} mantida pelas triggers de contratos e das
+ * partes (tabelas de transição), igual a {@code contrato_busca_vetor} após inserts, updates e deletes, com um lote
+ * de partes recalculando o contrato uma vez; a trigger de contratos (V26) não dispara no UPDATE que só altera
+ * {@code busca} nem no save sem campo pesquisável alterado. Requer Postgres (perfil dev), como
+ * {@link ContratoHistoricoIntegrationTest}; cada teste é revertido ao final.
+ */
+@SpringBootTest
+@Transactional
+class ContratoBuscaIntegrationTest {
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Sobrenome inventado: só os contratos deste teste casam com ele, mesmo num banco de dev com dados. */
+    private final String marca = "xq" + ThreadLocalRandom.current().ints(8, 'a', 'z' + 1)
+            .collect(StringBuilder::new, StringBuilder::appendCodePoint, StringBuilder::append);
+
+    @Test
+    void partesInseridasNumLote_entramNaBusca() {
+        Long id = criar("João", "José", "Ana").getId();
+
+        assertThat(buscaAtualizada(id)).isTrue();
+        assertThat(casa(id, "joao:* & " + marca + ":*")).isTrue();
+        assertThat(casa(id, "ana:* & " + marca + ":*")).isTrue();
+        // Documento sem pontuação e comprador
+        assertThat(casa(id, "11122233300:*")).isTrue();
+        assertThat(casa(id, "comprador:*")).isTrue();
+    }
+
+    @Test
+    void loteDeInsertsDePartes_recalculaOContratoUmaVezPorTabela() {
+        // Chamadas da função de trigger contadas na transação do teste (track_functions exige superusuário)
+        jdbcTemplate.execute("SET LOCAL track_functions = 'pl'");
+
+        criar("Simão", "André", "Tomé");
+
+        // Com reWriteBatchedInserts os 3 vendedores vão num único INSERT: uma chamada para eles e uma para o comprador
+        Long chamadas = jdbcTemplate.queryForObject("""
+                SELECT coalesce(sum(calls), 0) FROM pg_stat_xact_user_functions
+                WHERE funcname = 'contrato_partes_busca_trigger'""", Long.class);
+        assertThat(chamadas).isEqualTo(2);
+    }
+
+    @Test
+    void parteAlteradaERemovida_recalculaABusca() {
+        ContratoResponse criado = criar("Pedro", "Paulo");
+        List<VendedorResponse> vendedores = criado.getVendedores();
+
+        // Pedro vira Tiago; Paulo sai
+        contratoService.updateVendedores(criado.getId(), List.of(VendedorRequest.builder()
+                .id(vendedores.get(0).getId()).nome("Tiago " + marca).documento(vendedores.get(0).getDocumento()).build()));
+        entityManager.flush();
+
+        assertThat(buscaAtualizada(criado.getId())).isTrue();
+        assertThat(casa(criado.getId(), "tiago:*")).isTrue();
+        assertThat(casa(criado.getId(), "pedro:*")).isFalse();
+        assertThat(casa(criado.getId(), "paulo:*")).isFalse();
+    }
+
+    @Test
+    void campoDoContratoAlterado_mantemAsPartesNaBusca() {
+        Long id = criar("Mateus").getId();
+
+        ContratoRequest update = new ContratoRequest();
+        update.setObservacoes("Escritura lavrada no cartório de Itapetininga");
+        contratoService.update(id, update);
+        entityManager.flush();
+
+        assertThat(buscaAtualizada(id)).isTrue();
+        assertThat(casa(id, "itapetininga:*")).isTrue();
+        assertThat(casa(id, "mateus:* & " + marca + ":*")).isTrue();
+    }
+
+    @Test
+    void updateSoDeBusca_naoDisparaATriggerDeContratos() {
+        Long id = criar("Lucas").getId();
+
+        List<String> colunas = jdbcTemplate.queryForList("""
+                SELECT event_object_column FROM information_schema.triggered_update_columns
+                WHERE trigger_name = 'trg_contratos_busca_upd'""", String.class);
+        assertThat(colunas).contains("observacoes", "veiculo_placa").doesNotContain("busca");
+
+        // Se a trigger disparasse, recalcularia o vetor em vez de manter o NULL
+        jdbcTemplate.update("UPDATE contratos SET busca = NULL WHERE id = ?", id);
+        assertThat(jdbcTemplate.queryForObject("SELECT busca IS NULL FROM contratos WHERE id = ?", Boolean.class, id)).isTrue();
+    }
+
+    @Test
+    void saveSemCampoPesquisavelAlterado_naoRecalculaABusca() {
+        Long id = criar("Marcos").getId();
+
+        // O UPDATE do Hibernate lista todas as colunas, inclusive as pesquisáveis com o mesmo valor
+        jdbcTemplate.update("UPDATE contratos SET busca = NULL WHERE id = ?", id);
+        ContratoRequest update = new ContratoRequest();
+        update.setVeiculoCor("Prata");
+        contratoService.update(id, update);
+        entityManager.flush();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT busca IS NULL FROM contratos WHERE id = ?", Boolean.class, id)).isTrue();
+    }
+
+    @Test
+    void search_semAcentoPorPrefixo_paginadoComCursorOpaco() {
+        List<Long> criados = new ArrayList<>();
+        for (String nome : List.of("Tomé", "Tomás", "Tomásio")) {
+            criados.add(criar(nome).getId());
+        }
+
+        List<Long> encontrados = new ArrayList<>();
+        CursorPageResponse<ContratoBuscaResponse> page = contratoService.search("tome " + marca, null, 10);
+        assertThat(page.getItems()).hasSize(1);
+        assertThat(page.getItems().get(0).getRelevancia()).isPositive();
+
+        String cursor = null;
+        do {
+            page = contratoService.search("tom " + marca.toUpperCase(), cursor, 2);
+            page.getItems().forEach(r -> encontrados.add(r.getContrato().getId()));
+            cursor = page.getNextCursor();
+            if (cursor != null) assertThat(cursor).doesNotContainPattern("^\\d+$");
+        } while (cursor != null);
+
+        assertThat(encontrados).containsExactlyInAnyOrderElementsOf(criados);
+    }
+
+    private ContratoResponse criar(String... vendedores) {
+        ContratoRequest request = new ContratoRequest();
+        List<VendedorRequest> vs = new ArrayList<>();
+        for (int i = 0; i < vendedores.length; i++) {
+            vs.add(VendedorRequest.builder().nome(vendedores[i] + " " + marca).documento("111.222.333-0" + i).build());
+        }
+        request.setVendedores(vs);
+        request.setCompradores(List.of(CompradorRequest.builder().nome("Comprador " + marca).build()));
+        ContratoResponse criado = contratoService.create(request);
+        entityManager.flush();
+        return criado;
+    }
+
+    /** Coluna mantida pelas triggers igual ao vetor calculado agora a partir do contrato e das partes. */
+    private boolean buscaAtualizada(Long id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT c.busca = contrato_busca_vetor(c) FROM contratos c WHERE c.id = ?", Boolean.class, id);
+    }
+
+    private boolean casa(Long id, String tsquery) {
+        return jdbcTemplate.queryForObject(
+                "SELECT busca @@ to_tsquery('portugues_sem_acento', ?) FROM contratos WHERE id = ?", Boolean.class, tsquery, id);
+    }
+}
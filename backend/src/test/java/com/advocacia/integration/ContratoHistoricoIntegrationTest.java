@@ -4,6 +4,8 @@ import com.advocacia.dto.ContratoRequest;
 import com.advocacia.dto.ContratoResponse;
 import com.advocacia.repository.ContratoAlteracaoRepository;
 import com.advocacia.repository.ContratoRepository;
+import com.advocacia.service.ContratoAuditCoalescer;
+import com.advocacia.service.ContratoAuditWriter;
 import com.advocacia.service.ContratoService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +29,12 @@ class ContratoHistoricoIntegrationTest {
     @Autowired
     private ContratoAlteracaoRepository alteracaoRepository;
 
+    @Autowired
+    private ContratoAuditCoalescer auditCoalescer;
+
+    @Autowired
+    private ContratoAuditWriter auditWriter;
+
     @Test
     void update_observacoes_insere_linha_em_contrato_alteracoes() {
         ContratoRequest create = new ContratoRequest();
@@ -40,6 +48,9 @@ class ContratoHistoricoIntegrationTest {
         ContratoRequest update = new ContratoRequest();
         update.setObservacoes("teste-historico-ok-1");
         contratoService.update(contratoId, update);
+        // Só fazem diferença com audit.writer.async=true; no padrão o histórico é gravado na transação do contrato
+        auditCoalescer.flush();
+        auditWriter.flush();
 
         long countAfter = alteracaoRepository.findByContratoIdOrderByChangedAtDesc(contratoId).size();
         assertThat(countAfter)
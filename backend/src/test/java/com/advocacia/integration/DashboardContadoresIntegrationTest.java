@@ -0,0 +1,161 @@
+package com.advocacia.integration;
+
+import com.advocacia.dto.ContratoRequest;
+import com.advocacia.dto.VendedorRequest;
+import com.advocacia.service.ContratoService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Teste de integração dos contadores do dashboard (V20/V21): as triggers de contratos retiram a contribuição antiga e
+ * somam a nova em dashboard_status e dashboard_mensal; o WHEN ignora saves sem campo agregado alterado; carga inicial e
+ * triggers mantêm os contadores iguais aos agregados de contratos. Requer Postgres (perfil dev), como
+ * {@link ContratoBuscaIntegrationTest}; cada teste é revertido ao final.
+ */
+@SpringBootTest
+@Transactional
+class DashboardContadoresIntegrationTest {
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /** Mês distante e sorteado: a linha de dashboard_mensal é só deste teste, mesmo num banco de dev com dados. */
+    private final LocalDate dataContrato = LocalDate.of(ThreadLocalRandom.current().nextInt(2200, 2900), 3, 15);
+
+    @Test
+    void criarAtualizarFinalizarExcluir_atualizaOsContadores() {
+        long rascunhosAntes = status("DRAFT");
+        long finalizadosAntes = status("FINAL");
+
+        ContratoRequest create = new ContratoRequest();
+        create.setDataContrato(dataContrato);
+        create.setNegocioValorTotal(new BigDecimal("1000.00"));
+        create.setHonorariosValor(new BigDecimal("100.00"));
+        Long id = contratoService.create(create).getId();
+        entityManager.flush();
+        assertThat(status("DRAFT")).isEqualTo(rascunhosAntes + 1);
+        assertThat(mensal("DRAFT")).isEqualTo(new Mensal(1, new BigDecimal("1000.00"), new BigDecimal("100.00")));
+
+        // Valor alterado: sai a contribuição antiga, entra a nova
+        ContratoRequest valor = new ContratoRequest();
+        valor.setNegocioValorTotal(new BigDecimal("1500.00"));
+        contratoService.update(id, valor);
+        entityManager.flush();
+        assertThat(status("DRAFT")).isEqualTo(rascunhosAntes + 1);
+        assertThat(mensal("DRAFT")).isEqualTo(new Mensal(1, new BigDecimal("1500.00"), new BigDecimal("100.00")));
+
+        contratoService.finalizar(id);
+        entityManager.flush();
+        assertThat(status("DRAFT")).isEqualTo(rascunhosAntes);
+        assertThat(status("FINAL")).isEqualTo(finalizadosAntes + 1);
+        assertThat(mensal("DRAFT")).isEqualTo(Mensal.ZERO);
+        assertThat(mensal("FINAL")).isEqualTo(new Mensal(1, new BigDecimal("1500.00"), new BigDecimal("100.00")));
+
+        contratoService.delete(id);
+        entityManager.flush();
+        assertThat(status("FINAL")).isEqualTo(finalizadosAntes);
+        assertThat(mensal("FINAL")).isEqualTo(Mensal.ZERO);
+    }
+
+    @Test
+    void saveSemCampoAgregadoAlterado_naoDisparaATrigger() {
+        ContratoRequest create = new ContratoRequest();
+        create.setDataContrato(dataContrato);
+        create.setNegocioValorTotal(new BigDecimal("800.00"));
+        Long id = contratoService.create(create).getId();
+        entityManager.flush();
+        // Chamadas da função de trigger contadas na transação do teste (track_functions exige superusuário)
+        jdbcTemplate.execute("SET LOCAL track_functions = 'pl'");
+
+        // Só partes e um campo fora dos contadores: o UPDATE de contratos lista todas as colunas, o WHEN barra
+        contratoService.updateVendedores(id, List.of(VendedorRequest.builder().nome("Vendedor").build()));
+        ContratoRequest observacoes = new ContratoRequest();
+        observacoes.setObservacoes("sem efeito no dashboard");
+        contratoService.update(id, observacoes);
+        entityManager.flush();
+
+        assertThat(chamadasDaTrigger()).isZero();
+        assertThat(mensal("DRAFT")).isEqualTo(new Mensal(1, new BigDecimal("800.00"), BigDecimal.ZERO));
+    }
+
+    @Test
+    void contadores_batemComOsAgregadosDosContratos() {
+        ContratoRequest create = new ContratoRequest();
+        create.setDataContrato(dataContrato);
+        create.setNegocioValorTotal(new BigDecimal("250.00"));
+        contratoService.finalizar(contratoService.create(create).getId());
+        entityManager.flush();
+
+        Long statusDivergentes = jdbcTemplate.queryForObject("""
+                WITH contado AS (SELECT status, total FROM dashboard_status WHERE total <> 0),
+                     calculado AS (SELECT status, count(*) AS total FROM contratos GROUP BY status)
+                SELECT count(*) FROM ((SELECT * FROM contado EXCEPT SELECT * FROM calculado)
+                                      UNION ALL (SELECT * FROM calculado EXCEPT SELECT * FROM contado)) d""", Long.class);
+        Long mesesDivergentes = jdbcTemplate.queryForObject("""
+                WITH contado AS (SELECT mes, status, contratos, negocio_valor_total, honorarios_valor FROM dashboard_mensal
+                                 WHERE contratos <> 0 OR negocio_valor_total <> 0 OR honorarios_valor <> 0),
+                     calculado AS (SELECT date_trunc('month', COALESCE(data_contrato, created_at::date))::date AS mes, status,
+                                     count(*) AS contratos, COALESCE(sum(negocio_valor_total), 0) AS negocio_valor_total,
+                                     COALESCE(sum(honorarios_valor), 0) AS honorarios_valor
+                              FROM contratos GROUP BY 1, 2)
+                SELECT count(*) FROM ((SELECT * FROM contado EXCEPT SELECT * FROM calculado)
+                                      UNION ALL (SELECT * FROM calculado EXCEPT SELECT * FROM contado)) d""", Long.class);
+
+        assertThat(statusDivergentes).isZero();
+        assertThat(mesesDivergentes).isZero();
+    }
+
+    private long status(String status) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE((SELECT total FROM dashboard_status WHERE status = ?), 0)", Long.class, status);
+    }
+
+    /** Linha do mês do teste; sem linha, zerada (o mesmo que uma linha com todas as contribuições retiradas). */
+    private Mensal mensal(String status) {
+        List<Mensal> linhas = jdbcTemplate.query("""
+                SELECT contratos, negocio_valor_total, honorarios_valor FROM dashboard_mensal
+                WHERE mes = date_trunc('month', ?::date)::date AND status = ?""",
+                (rs, i) -> new Mensal(rs.getLong(1), rs.getBigDecimal(2), rs.getBigDecimal(3)), dataContrato, status);
+        return linhas.isEmpty() ? Mensal.ZERO : linhas.get(0);
+    }
+
+    private long chamadasDaTrigger() {
+        return jdbcTemplate.queryForObject("""
+                SELECT coalesce(sum(calls), 0) FROM pg_stat_xact_user_functions
+                WHERE funcname = 'contratos_dashboard_trigger'""", Long.class);
+    }
+
+    /** Valores comparados com compareTo: 100 e 100.00 são o mesmo valor. */
+    private record Mensal(long contratos, BigDecimal negocioValorTotal, BigDecimal honorariosValor) {
+        static final Mensal ZERO = new Mensal(0, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Mensal m && contratos == m.contratos
+                    && negocioValorTotal.compareTo(m.negocioValorTotal) == 0
+                    && honorariosValor.compareTo(m.honorariosValor) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(contratos);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.advocacia.integration;
+
+import com.advocacia.service.S3StorageBackend;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Backend S3 contra um MinIO real: multipart com várias partes, leitura por intervalo atravessando a fronteira
+ * das partes e exclusão. Requer {@code docker compose --profile s3 up minio} e {@code FILE_S3_ENDPOINT}
+ * (ex.: {@code http://localhost:9000}); credenciais em {@code FILE_S3_ACCESS_KEY}/{@code FILE_S3_SECRET_KEY},
+ * com o padrão do compose.
+ */
+@EnabledIfEnvironmentVariable(named = "FILE_S3_ENDPOINT", matches = ".+")
+class S3StorageBackendMinioIntegrationTest {
+
+    private static final int PARTE = (int) DataSize.ofMegabytes(5).toBytes();
+
+    @TempDir
+    Path tempDir;
+
+    private S3StorageBackend backend;
+    private final String chave = "it/" + UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        backend = new S3StorageBackend(System.getenv("FILE_S3_ENDPOINT"), "us-east-1", "advocacia-anexos-it", "testes",
+                env("FILE_S3_ACCESS_KEY", "advocacia"), env("FILE_S3_SECRET_KEY", "advocacia123"), true,
+                DataSize.ofBytes(PARTE));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        backend.delete(chave);
+        backend.close();
+    }
+
+    @Test
+    void multipart_leituraPorIntervaloEExclusao() throws IOException {
+        // Duas partes cheias e uma parcial
+        byte[] conteudo = new byte[2 * PARTE + 123_457];
+        new Random(42).nextBytes(conteudo);
+        Path origem = Files.write(tempDir.resolve("anexo.bin"), conteudo);
+
+        backend.put(chave, origem);
+
+        assertThat(origem).doesNotExist();
+        assertThat(backend.size(chave)).isEqualTo(conteudo.length);
+        assertThat(backend.list("it/")).anySatisfy(o -> assertThat(o.chave()).isEqualTo(chave));
+
+        // Intervalo que cruza a fronteira entre a 1ª e a 2ª parte
+        assertThat(ler(PARTE - 1000, 2000)).isEqualTo(Arrays.copyOfRange(conteudo, PARTE - 1000, PARTE + 1000));
+        // Do meio da última parte até o fim
+        int inicio = 2 * PARTE + 100_000;
+        assertThat(ler(inicio, -1)).isEqualTo(Arrays.copyOfRange(conteudo, inicio, conteudo.length));
+        assertThat(ler(0, -1)).isEqualTo(conteudo);
+
+        backend.delete(chave);
+
+        assertThat(backend.size(chave)).isEqualTo(-1);
+        assertThatThrownBy(() -> backend.open(chave, 0, -1)).isInstanceOf(NoSuchFileException.class);
+        // Excluir de novo não falha
+        backend.delete(chave);
+    }
+
+    private byte[] ler(long inicio, long quantidade) throws IOException {
+        try (InputStream in = backend.open(chave, inicio, quantidade)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static String env(String nome, String padrao) {
+        String valor = System.getenv(nome);
+        return valor == null || valor.isBlank() ? padrao : valor;
+    }
+}
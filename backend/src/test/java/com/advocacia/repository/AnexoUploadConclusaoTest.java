@@ -0,0 +1,53 @@
+package com.advocacia.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reivindicação da conclusão de uploads em partes: um único insert vence, retomada só de conclusões abandonadas,
+ * liberação só enquanto não há anexo.
+ */
+@H2JpaTest
+class AnexoUploadConclusaoTest {
+
+    private static final String UPLOAD = "0b6f7a52-3c1e-4f57-9d1a-2f8e5c4b7a10";
+    private static final LocalDateTime AGORA = LocalDateTime.of(2025, 3, 10, 14, 0);
+
+    @Autowired
+    private AnexoUploadConclusaoRepository repository;
+
+    @Test
+    void reivindicar_somenteOPrimeiroPedido() {
+        assertThat(repository.reivindicar(UPLOAD, 1L, AGORA)).isEqualTo(1);
+        assertThat(repository.reivindicar(UPLOAD, 1L, AGORA.plusSeconds(1))).isZero();
+
+        assertThat(repository.existsByUploadIdAndAnexoIdIsNullAndIniciadaEmAfter(UPLOAD, AGORA.minusMinutes(30))).isTrue();
+    }
+
+    @Test
+    void retomar_somenteConclusaoAbandonadaSemAnexo() {
+        repository.reivindicar(UPLOAD, 1L, AGORA);
+
+        assertThat(repository.retomar(UPLOAD, AGORA.minusMinutes(30), AGORA.plusMinutes(1))).isZero();
+        assertThat(repository.retomar(UPLOAD, AGORA.plusMinutes(30), AGORA.plusMinutes(31))).isEqualTo(1);
+
+        repository.registrarAnexo(UPLOAD, 9L);
+        assertThat(repository.retomar(UPLOAD, AGORA.plusHours(2), AGORA.plusHours(2))).isZero();
+        assertThat(repository.existsByUploadIdAndAnexoIdIsNullAndIniciadaEmAfter(UPLOAD, AGORA)).isFalse();
+    }
+
+    @Test
+    void liberar_desfazReivindicacaoSemAnexo() {
+        repository.reivindicar(UPLOAD, 1L, AGORA);
+        assertThat(repository.liberar(UPLOAD)).isEqualTo(1);
+        assertThat(repository.reivindicar(UPLOAD, 1L, AGORA)).isEqualTo(1);
+
+        repository.registrarAnexo(UPLOAD, 9L);
+        assertThat(repository.liberar(UPLOAD)).isZero();
+        assertThat(repository.reivindicar(UPLOAD, 1L, AGORA)).isZero();
+    }
+}
@@ -0,0 +1,83 @@
+package com.advocacia.repository;
+
+import com.advocacia.dto.ContratoRequest;
+import com.advocacia.dto.ParcelaItemDto;
+import com.advocacia.dto.ParcelaPagamentoRequest;
+import com.advocacia.entity.ContratoParcela;
+import com.advocacia.service.ContratoAuditCoalescer;
+import com.advocacia.service.ContratoService;
+import com.advocacia.service.ParcelaService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Histórico na transação do contrato (audit.writer.async=false): se a gravação falha, a operação falha com o
+ * mesmo erro e nada do contrato é gravado, em vez de o commit estourar depois com UnexpectedRollbackException.
+ * Sem a transação do teste: cada chamada ao serviço faz o próprio commit (ou rollback).
+ */
+@ContratoServiceJpaTest
+@Import(ParcelaService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ContratoAuditFalhaTest {
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ParcelaService parcelaService;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private ContratoParcelaRepository parcelaRepository;
+
+    @Autowired
+    private ContratoAuditCoalescer auditCoalescer;
+
+    @Test
+    void update_falhaAoGravarHistorico_desfazOUpdate() {
+        ContratoRequest create = new ContratoRequest();
+        create.setObservacoes("antes");
+        Long id = contratoService.create(create).getId();
+        doThrow(new DataAccessResourceFailureException("histórico indisponível")).when(auditCoalescer).submit(any());
+
+        ContratoRequest update = new ContratoRequest();
+        update.setObservacoes("depois");
+        assertThatThrownBy(() -> contratoService.update(id, update))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(contratoRepository.findById(id).orElseThrow().getObservacoes()).isEqualTo("antes");
+    }
+
+    @Test
+    void registrarPagamento_falhaAoGravarHistorico_mantemParcelaEmAberto() {
+        ContratoRequest create = new ContratoRequest();
+        create.setNegocioValorTotal(new BigDecimal("100.00"));
+        create.setParcelas(List.of(ParcelaItemDto.builder()
+                .numero(1).vencimento(LocalDate.now().toString()).valor(new BigDecimal("100.00")).build()));
+        Long contratoId = contratoService.create(create).getId();
+        ContratoParcela parcela = parcelaRepository.findAll().stream()
+                .filter(p -> p.getContrato().getId().equals(contratoId)).findFirst().orElseThrow();
+        doThrow(new DataAccessResourceFailureException("histórico indisponível")).when(auditCoalescer).submit(any());
+
+        assertThatThrownBy(() -> parcelaService.registrarPagamento(parcela.getId(),
+                ParcelaPagamentoRequest.builder().pago(true).build()))
+                .isInstanceOf(DataAccessResourceFailureException.class);
+
+        assertThat(parcelaRepository.findById(parcela.getId()).orElseThrow().getPago()).isNotEqualTo(Boolean.TRUE);
+    }
+}
@@ -0,0 +1,97 @@
+package com.advocacia.repository;
+
+import com.advocacia.dto.ContratoResponse;
+import com.advocacia.entity.Contrato;
+import com.advocacia.entity.ContratoComprador;
+import com.advocacia.entity.ContratoVendedor;
+import com.advocacia.service.ContratoService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Garante que montar N contratos com vendedores e compradores custa um número constante de consultas.
+ * Usa H2 em modo PostgreSQL com o schema gerado pelo Hibernate (as migrations Flyway são específicas do Postgres).
+ */
+@ContratoServiceJpaTest
+class ContratoFetchStatementCountTest {
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findAll_custaConsultasConstantes_independenteDoNumeroDeContratos() {
+        criarContratos(3);
+        long consultasCom3 = contarConsultas(() -> assertThat(contratoService.findAll()).hasSize(3));
+
+        criarContratos(12);
+        long consultasCom15 = contarConsultas(() -> {
+            List<ContratoResponse> all = contratoService.findAll();
+            assertThat(all).hasSize(15);
+            assertThat(all).allSatisfy(c -> {
+                assertThat(c.getVendedores()).hasSize(2);
+                assertThat(c.getCompradores()).hasSize(2);
+            });
+        });
+
+        // contratos + vendedores (IN) + compradores (IN) + parcelas (IN)
+        assertThat(consultasCom3).isEqualTo(4);
+        assertThat(consultasCom15).isEqualTo(consultasCom3);
+    }
+
+    @Test
+    void findById_carregaPartesSemConsultasExtrasPorColecao() {
+        Long id = criarContratos(1).get(0).getId();
+
+        long consultas = contarConsultas(() -> {
+            ContratoResponse response = contratoService.findById(id);
+            assertThat(response.getVendedores()).extracting("nome").containsExactly("Vendedor 0", "Vendedor 1");
+            assertThat(response.getCompradores()).extracting("nome").containsExactly("Comprador 0", "Comprador 1");
+        });
+
+        assertThat(consultas).isLessThanOrEqualTo(4);
+    }
+
+    private long contarConsultas(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private List<Contrato> criarContratos(int quantidade) {
+        List<Contrato> criados = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            Contrato contrato = Contrato.builder().build();
+            for (int j = 0; j < 2; j++) {
+                contrato.getVendedores().add(ContratoVendedor.builder().contrato(contrato).ordem(j).nome("Vendedor " + j).build());
+                contrato.getCompradores().add(ContratoComprador.builder().contrato(contrato).ordem(j).nome("Comprador " + j).build());
+            }
+            criados.add(contratoRepository.save(contrato));
+        }
+        entityManager.flush();
+        return criados;
+    }
+}
@@ -0,0 +1,220 @@
+package com.advocacia.repository;
+
+import com.advocacia.dto.ContratoAlteracaoResponse;
+import com.advocacia.dto.CursorPageResponse;
+import com.advocacia.entity.ContratoAlteracao;
+import com.advocacia.service.ContratoAuditCoalescer;
+import com.advocacia.service.ContratoAuditService;
+import com.advocacia.service.ContratoAuditWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Histórico paginado por (changed_at, id), filtro {@code since} por recorded_at e agrupamento de autosave no modo
+ * transacional, em H2 modo PostgreSQL.
+ */
+@H2JpaTest
+@Import(ContratoAuditService.class)
+class ContratoHistoricoPaginationTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 1, 10, 9, 0);
+
+    @Autowired
+    private ContratoAuditService auditService;
+
+    @Autowired
+    private ContratoAlteracaoRepository alteracaoRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private ContratoAuditCoalescer auditCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        List<ContratoAlteracao> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            // Dois registros no mesmo instante para exercitar o desempate por id
+            rows.add(alteracao(1L, BASE.plusMinutes(i), "observacoes", "v" + i));
+            rows.add(alteracao(1L, BASE.plusMinutes(i), "negocioValorTotal", String.valueOf(i)));
+        }
+        rows.add(alteracao(2L, BASE, "observacoes", "outro contrato"));
+        alteracaoRepository.saveAll(rows);
+    }
+
+    @Test
+    void paginaPorCursor_semRepetirNemPular() {
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            CursorPageResponse<ContratoAlteracaoResponse> page = auditService.getHistoricoPage(1L, null, cursor, 3);
+            page.getItems().forEach(r -> ids.add(r.getId()));
+            cursor = page.getNextCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(paginas).isEqualTo(4);
+        assertThat(ids).hasSize(10).doesNotHaveDuplicates();
+        List<ContratoAlteracaoResponse> todas = auditService.getHistorico(1L);
+        assertThat(todas.get(0).getChangedAt()).isEqualTo(BASE.plusMinutes(4));
+    }
+
+    @Test
+    void since_retornaSomenteAlteracoesGravadasDepois() throws InterruptedException {
+        LocalDateTime since = ultimaGravacao(1L);
+        Thread.sleep(5);
+        alteracaoRepository.saveAll(List.of(
+                alteracao(1L, BASE.plusMinutes(10), "observacoes", "nova"),
+                alteracao(1L, BASE.plusMinutes(11), "negocioValorTotal", "99")));
+
+        CursorPageResponse<ContratoAlteracaoResponse> page = auditService.getHistoricoPage(1L, since, null, null);
+
+        assertThat(page.getItems()).extracting(ContratoAlteracaoResponse::getChangedAt)
+                .containsExactly(BASE.plusMinutes(11), BASE.plusMinutes(10));
+        assertThat(page.getItems()).allMatch(r -> r.getRecordedAt().isAfter(since));
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void since_naoPerdeEntradaAgrupadaGravadaDepoisDoPolling() throws InterruptedException {
+        // Writer assíncrono e agrupador reais, sem threads: o teste fecha a janela e drena a fila manualmente
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        ContratoAuditWriter writer = new ContratoAuditWriter(alteracaoRepository, requiresNew, new SimpleMeterRegistry(), true, 10, 10);
+        ContratoAuditCoalescer coalescer = new ContratoAuditCoalescer(writer, alteracaoRepository, new SimpleMeterRegistry(), Duration.ofSeconds(60));
+        try {
+            LocalDateTime primeiraEdicao = LocalDateTime.now().minusSeconds(30);
+            coalescer.submit(alteracao(3L, primeiraEdicao, "observacoes", "a"));
+            coalescer.submit(alteracao(3L, primeiraEdicao.plusSeconds(20), "observacoes", "b"));
+
+            // Polling no meio da janela: nada gravado ainda
+            LocalDateTime since = LocalDateTime.now();
+            assertThat(auditService.getHistoricoPage(3L, since, null, null).getItems()).isEmpty();
+            Thread.sleep(5);
+
+            // Fim da janela: a entrada mesclada é inserida com o changedAt da última edição, anterior ao since
+            coalescer.flush();
+            writer.flush();
+
+            CursorPageResponse<ContratoAlteracaoResponse> page = auditService.getHistoricoPage(3L, since, null, null);
+            assertThat(page.getItems()).hasSize(1);
+            ContratoAlteracaoResponse entrada = page.getItems().get(0);
+            assertThat(entrada.getChangedAt()).isBefore(since);
+            assertThat(entrada.getRecordedAt()).isAfter(since);
+            assertThat(entrada.getChanges()).singleElement().satisfies(c -> assertThat(c.getNewValue()).isEqualTo("b"));
+        } finally {
+            // Sem transação de teste, setUp e o writer gravaram de fato
+            alteracaoRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void modoTransacional_mesclaNaUltimaEntradaDoUsuarioEAvancaRecordedAt() throws InterruptedException {
+        ContratoAuditCoalescer coalescer = coalescerTransacional(Duration.ofSeconds(60));
+        LocalDateTime agora = LocalDateTime.now();
+
+        coalescer.submit(alteracao(4L, "ana", agora, "observacoes", "null", "a"));
+        ContratoAlteracao aberta = alteracaoRepository.findByContratoIdOrderByChangedAtDesc(4L).get(0);
+        LocalDateTime since = aberta.getRecordedAt();
+        Thread.sleep(5);
+
+        coalescer.submit(alteracao(4L, "ana", agora.plusSeconds(5), "observacoes", "a", "b"));
+        coalescer.submit(alteracao(4L, "ana", agora.plusSeconds(10), "negocioValorTotal", "1", "2"));
+        alteracaoRepository.flush();
+
+        List<ContratoAlteracao> linhas = alteracaoRepository.findByContratoIdOrderByChangedAtDesc(4L);
+        assertThat(linhas).singleElement().satisfies(l -> {
+            assertThat(l.getId()).isEqualTo(aberta.getId());
+            assertThat(l.getChangedAt()).isEqualTo(agora.plusSeconds(10));
+            assertThat(l.getChanges()).extracting(c -> c.get("path") + ":" + c.get("oldValue") + ">" + c.get("newValue"))
+                    .containsExactly("observacoes:null>b", "negocioValorTotal:1>2");
+        });
+        // Entrada atualizada volta no polling incremental
+        assertThat(auditService.getHistoricoPage(4L, since, null, null).getItems()).hasSize(1);
+
+        // Outro usuário no meio fecha a entrada de ana
+        coalescer.submit(alteracao(4L, "bia", agora.plusSeconds(15), "observacoes", "b", "c"));
+        coalescer.submit(alteracao(4L, "ana", agora.plusSeconds(20), "observacoes", "c", "d"));
+        assertThat(alteracaoRepository.findByContratoIdOrderByChangedAtDesc(4L)).extracting(ContratoAlteracao::getUsername)
+                .containsExactly("ana", "bia", "ana");
+    }
+
+    @Test
+    void modoTransacional_foraDaJanelaOuAnulada() throws InterruptedException {
+        ContratoAuditCoalescer curta = coalescerTransacional(Duration.ofMillis(1));
+        LocalDateTime agora = LocalDateTime.now();
+        curta.submit(alteracao(5L, "ana", agora, "observacoes", "null", "a"));
+        Thread.sleep(5);
+        curta.submit(alteracao(5L, "ana", agora.plusSeconds(1), "observacoes", "a", "b"));
+        assertThat(alteracaoRepository.findByContratoIdOrderByChangedAtDesc(5L)).hasSize(2);
+
+        // Valor que volta ao original dentro da janela: a entrada some
+        ContratoAuditCoalescer coalescer = coalescerTransacional(Duration.ofSeconds(60));
+        coalescer.submit(alteracao(6L, "ana", agora, "observacoes", "x", "y"));
+        coalescer.submit(alteracao(6L, "ana", agora.plusSeconds(1), "observacoes", "y", "x"));
+        alteracaoRepository.flush();
+        assertThat(alteracaoRepository.findByContratoIdOrderByChangedAtDesc(6L)).isEmpty();
+    }
+
+    @Test
+    void linhaAntigaSemLabel_enriquecidaNaLeitura() {
+        CursorPageResponse<ContratoAlteracaoResponse> page = auditService.getHistoricoPage(2L, null, null, 10);
+
+        ContratoAlteracaoResponse.FieldChange change = page.getItems().get(0).getChanges().get(0);
+        assertThat(change.getLabel()).isEqualTo("Observações");
+        assertThat(change.getDisplayOld()).isEqualTo("(vazio)");
+    }
+
+    private LocalDateTime ultimaGravacao(Long contratoId) {
+        return auditService.getHistorico(contratoId).stream()
+                .map(ContratoAlteracaoResponse::getRecordedAt)
+                .max(LocalDateTime::compareTo)
+                .orElseThrow();
+    }
+
+    /** Writer transacional real: grava na transação do teste. */
+    private ContratoAuditCoalescer coalescerTransacional(Duration janela) {
+        ContratoAuditWriter writer = new ContratoAuditWriter(alteracaoRepository, new TransactionTemplate(transactionManager),
+                new SimpleMeterRegistry(), false, 10, 10);
+        return new ContratoAuditCoalescer(writer, alteracaoRepository, new SimpleMeterRegistry(), janela);
+    }
+
+    private static ContratoAlteracao alteracao(Long contratoId, String username, LocalDateTime changedAt,
+                                               String path, String oldValue, String newValue) {
+        return ContratoAlteracao.builder()
+                .contratoId(contratoId)
+                .username(username)
+                .changedAt(changedAt)
+                .changes(List.of(Map.of("path", path, "oldValue", oldValue, "newValue", newValue)))
+                .build();
+    }
+
+    private static ContratoAlteracao alteracao(Long contratoId, LocalDateTime changedAt, String path, String newValue) {
+        return ContratoAlteracao.builder()
+                .contratoId(contratoId)
+                .username("teste")
+                .changedAt(changedAt)
+                .changes(List.of(Map.of("path", path, "oldValue", "null", "newValue", newValue)))
+                .build();
+    }
+}
@@ -0,0 +1,192 @@
+package com.advocacia.repository;
+
+import com.advocacia.controller.ContratoController;
+import com.advocacia.dto.ContratoFiltro;
+import com.advocacia.dto.ContratoResponse;
+import com.advocacia.dto.CursorPageResponse;
+import com.advocacia.entity.Contrato;
+import com.advocacia.entity.ContratoComprador;
+import com.advocacia.entity.ContratoStatus;
+import com.advocacia.entity.ContratoVendedor;
+import com.advocacia.exception.GlobalExceptionHandler;
+import com.advocacia.service.ContratoAuditService;
+import com.advocacia.service.ContratoService;
+import com.advocacia.service.KeysetCursor;
+import com.advocacia.service.ParcelamentoService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listagem paginada por cursor (created_at, id): ida e volta do cursor, empates de created_at sem repetir nem
+ * pular, cada filtro isolado e combinado, limite ajustado ao intervalo e 400 para cursor inválido.
+ */
+@ContratoServiceJpaTest
+class ContratoPaginaTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 5, 5, 14, 30);
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void cursor_idaEVolta_apontaParaOUltimoItemDaPagina() {
+        criar(5, 3);
+
+        CursorPageResponse<ContratoResponse> page = contratoService.findPage(null, null, 4);
+
+        ContratoResponse ultimo = page.getItems().get(3);
+        KeysetCursor cursor = KeysetCursor.decode(page.getNextCursor());
+        assertThat(cursor).isEqualTo(new KeysetCursor(ultimo.getCreatedAt(), ultimo.getId()));
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    @Test
+    void empatesDeCreatedAt_desempatadosPorId_semRepetirNemPular() {
+        // 5 instantes com 5 contratos cada: toda página de 4 corta um grupo empatado
+        List<Contrato> criados = criar(5, 5);
+        List<Long> esperado = criados.stream()
+                .sorted(Comparator.comparing(Contrato::getCreatedAt).thenComparing(Contrato::getId).reversed())
+                .map(Contrato::getId)
+                .toList();
+
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            CursorPageResponse<ContratoResponse> page = contratoService.findPage(null, cursor, 4);
+            page.getItems().forEach(c -> ids.add(c.getId()));
+            cursor = page.getNextCursor();
+            assertThat(page.isHasMore()).isEqualTo(cursor != null);
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(paginas).isEqualTo(7);
+        assertThat(ids).containsExactlyElementsOf(esperado);
+    }
+
+    @Test
+    void filtrosIsoladosECombinados() {
+        Long rascunhoAntigo = salvar(ContratoStatus.DRAFT, BASE.minusDays(10), "11122233344", null);
+        Long finalAntigo = salvar(ContratoStatus.FINAL, BASE.minusDays(10), null, "55566677788");
+        Long rascunhoNovo = salvar(ContratoStatus.DRAFT, BASE, null, "55566677788");
+        Long finalNovo = salvar(ContratoStatus.FINAL, BASE.plusDays(1).withHour(23).withMinute(59), "11122233344", null);
+
+        assertThat(ids(ContratoFiltro.builder().status(ContratoStatus.DRAFT).build()))
+                .containsExactly(rascunhoNovo, rascunhoAntigo);
+        // dataInicio e dataFim inclusivas, pelo dia inteiro
+        assertThat(ids(ContratoFiltro.builder().dataInicio(BASE.toLocalDate()).build()))
+                .containsExactly(finalNovo, rascunhoNovo);
+        assertThat(ids(ContratoFiltro.builder().dataFim(BASE.toLocalDate().plusDays(1)).build()))
+                .containsExactly(finalNovo, rascunhoNovo, finalAntigo, rascunhoAntigo);
+        assertThat(ids(ContratoFiltro.builder().dataFim(BASE.toLocalDate()).build()))
+                .containsExactly(rascunhoNovo, finalAntigo, rascunhoAntigo);
+        // Documento de vendedor ou comprador, com máscara
+        assertThat(ids(ContratoFiltro.builder().documento("111.222.333-44").build()))
+                .containsExactly(finalNovo, rascunhoAntigo);
+        assertThat(ids(ContratoFiltro.builder().documento("555.666.777-88").build()))
+                .containsExactly(rascunhoNovo, finalAntigo);
+
+        assertThat(ids(ContratoFiltro.builder().status(ContratoStatus.FINAL).documento("55566677788").build()))
+                .containsExactly(finalAntigo);
+        assertThat(ids(ContratoFiltro.builder().status(ContratoStatus.DRAFT)
+                .dataInicio(BASE.toLocalDate()).dataFim(BASE.toLocalDate()).documento("55566677788").build()))
+                .containsExactly(rascunhoNovo);
+        assertThat(ids(ContratoFiltro.builder().status(ContratoStatus.FINAL).dataFim(BASE.toLocalDate()).build()))
+                .containsExactly(finalAntigo);
+
+        assertThatThrownBy(() -> contratoService.findPage(
+                ContratoFiltro.builder().dataInicio(BASE.toLocalDate()).dataFim(BASE.toLocalDate().minusDays(1)).build(), null, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void limite_padraoQuandoAusenteOuInvalido_eLimitadoAoMaximo() {
+        criar(105, 1);
+
+        assertThat(contratoService.findPage(null, null, null).getItems()).hasSize(20);
+        assertThat(contratoService.findPage(null, null, 0).getItems()).hasSize(20);
+        assertThat(contratoService.findPage(null, null, -5).getItems()).hasSize(20);
+        assertThat(contratoService.findPage(null, null, 1000).getItems()).hasSize(100);
+        assertThat(contratoService.findPage(null, null, 1000).isHasMore()).isTrue();
+        assertThat(contratoService.findPage(null, null, 7).getItems()).hasSize(7);
+    }
+
+    @Test
+    void cursorInvalido_retorna400() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(
+                        new ContratoController(contratoService, mock(ContratoAuditService.class), mock(ParcelamentoService.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        String semSeparador = base64("2025-05-05T14:30");
+        String dataInvalida = base64("ontem|10");
+        String idInvalido = base64("2025-05-05T14:30|dez");
+        for (String cursor : List.of("%%%", "não-é-base64", semSeparador, dataInvalida, idInvalido)) {
+            mockMvc.perform(get("/api/contratos/pagina").param("cursor", cursor))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value("Cursor inválido"));
+        }
+        mockMvc.perform(get("/api/contratos/pagina").param("cursor", new KeysetCursor(BASE, 1L).encode()))
+                .andExpect(status().isOk());
+    }
+
+    private List<Long> ids(ContratoFiltro filtro) {
+        return contratoService.findPage(filtro, null, 50).getItems().stream().map(ContratoResponse::getId).toList();
+    }
+
+    /** {@code instantes} valores de created_at com {@code porInstante} contratos cada, ids intercalados entre os grupos. */
+    private List<Contrato> criar(int instantes, int porInstante) {
+        List<Contrato> criados = new ArrayList<>();
+        for (int j = 0; j < porInstante; j++) {
+            for (int i = 0; i < instantes; i++) {
+                criados.add(contratoRepository.save(Contrato.builder().createdAt(BASE.minusMinutes(i)).build()));
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return criados;
+    }
+
+    private Long salvar(ContratoStatus status, LocalDateTime createdAt, String docVendedor, String docComprador) {
+        Contrato contrato = Contrato.builder().status(status).createdAt(createdAt).build();
+        if (docVendedor != null) {
+            contrato.getVendedores().add(ContratoVendedor.builder().contrato(contrato).nome("Vendedor").documento(docVendedor).build());
+        }
+        if (docComprador != null) {
+            contrato.getCompradores().add(ContratoComprador.builder().contrato(contrato).nome("Comprador").documento(docComprador).build());
+        }
+        Long id = contratoRepository.save(contrato).getId();
+        entityManager.flush();
+        entityManager.clear();
+        return id;
+    }
+
+    private static String base64(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
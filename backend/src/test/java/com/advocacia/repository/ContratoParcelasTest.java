@@ -0,0 +1,157 @@
+package com.advocacia.repository;
+
+import com.advocacia.dto.ContratoRequest;
+import com.advocacia.dto.ContratoResponse;
+import com.advocacia.dto.CursorPageResponse;
+import com.advocacia.dto.ParcelaItemDto;
+import com.advocacia.dto.ParcelaPagamentoRequest;
+import com.advocacia.dto.ParcelaPendenteResponse;
+import com.advocacia.entity.Contrato;
+import com.advocacia.entity.ContratoParcela;
+import com.advocacia.service.ContratoService;
+import com.advocacia.service.KeysetCursor;
+import com.advocacia.service.ParcelaService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Parcelas em contrato_parcelas: merge pelo número preservando o pagamento e listagem de pendentes por
+ * faixa de vencimento entre contratos, paginada por cursor.
+ * Usa H2 em modo PostgreSQL com o schema gerado pelo Hibernate (sem o índice parcial da migration).
+ */
+@ContratoServiceJpaTest
+@Import(ParcelaService.class)
+class ContratoParcelasTest {
+
+    private static final LocalDate HOJE = LocalDate.now();
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ParcelaService parcelaService;
+
+    @Autowired
+    private ContratoParcelaRepository parcelaRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void reenviarParcelas_mantemPagamentoERemoveExcedentes() {
+        Long id = criar(List.of(parcela(1, HOJE.minusDays(10), "100.00"), parcela(2, HOJE.plusDays(20), "100.00"),
+                parcela(3, HOJE.plusDays(50), "100.00")), false);
+        Long primeira = parcelaRepository.findAll().stream().filter(p -> p.getNumero() == 1).findFirst().orElseThrow().getId();
+        parcelaService.registrarPagamento(primeira, ParcelaPagamentoRequest.builder().pago(true).build());
+        limpar();
+
+        ContratoRequest update = new ContratoRequest();
+        update.setNegocioValorTotal(new BigDecimal("250.00"));
+        update.setParcelas(List.of(parcela(1, HOJE.minusDays(10), "100"), parcela(2, HOJE.plusDays(21), "150.00")));
+        ContratoResponse response = contratoService.update(id, update);
+
+        assertThat(response.getParcelas()).extracting(ParcelaItemDto::getNumero).containsExactly(1, 2);
+        assertThat(response.getParcelas().get(0).getPago()).isTrue();
+        assertThat(response.getParcelas().get(0).getPagoEm()).isEqualTo(HOJE.toString());
+        assertThat(response.getParcelas().get(1).getValor()).isEqualByComparingTo("150.00");
+        assertThat(response.getParcelas().get(1).getVencimento()).isEqualTo(HOJE.plusDays(21).toString());
+        limpar();
+        assertThat(parcelaRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void parcelaPaga_naoERemovidaNemAlteradaSemConfirmacao() {
+        Long id = criar(List.of(parcela(1, HOJE, "100.00"), parcela(2, HOJE.plusMonths(1), "100.00")), false);
+        Long primeira = parcelaRepository.findAll().stream().filter(p -> p.getNumero() == 1).findFirst().orElseThrow().getId();
+        parcelaService.registrarPagamento(primeira, ParcelaPagamentoRequest.builder().pago(true).build());
+        limpar();
+
+        ContratoRequest vazia = new ContratoRequest();
+        vazia.setParcelas(List.of());
+        assertThatThrownBy(() -> contratoService.update(id, vazia))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Parcela 1");
+        limpar();
+
+        ContratoRequest regerada = new ContratoRequest();
+        regerada.setParcelas(List.of(parcela(1, HOJE.plusDays(1), "100.00"), parcela(2, HOJE.plusMonths(1), "100.00")));
+        assertThatThrownBy(() -> contratoService.update(id, regerada))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Parcela 1");
+        limpar();
+        assertThat(parcelaRepository.count()).isEqualTo(2);
+
+        regerada.setSubstituirParcelasPagas(true);
+        ContratoResponse response = contratoService.update(id, regerada);
+        assertThat(response.getParcelas().get(0).getVencimento()).isEqualTo(HOJE.plusDays(1).toString());
+        assertThat(response.getParcelas().get(0).getPago()).isTrue();
+    }
+
+    @Test
+    void pendentes_soContratosFinalizadosEmOrdemDeVencimento() {
+        List<ParcelaItemDto> parcelas = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            parcelas.add(parcela(i, HOJE.plusDays(i), "10.00"));
+        }
+        parcelas.add(parcela(6, HOJE.minusDays(3), "10.00"));
+        criar(parcelas, true);
+        criar(List.of(parcela(1, HOJE.plusDays(1), "99.00")), false);
+        limpar();
+
+        CursorPageResponse<ParcelaPendenteResponse> pagina1 = parcelaService.findProximas(3, null, 2);
+        assertThat(pagina1.getItems()).extracting(ParcelaPendenteResponse::getNumero).containsExactly(1, 2);
+        assertThat(pagina1.isHasMore()).isTrue();
+        CursorPageResponse<ParcelaPendenteResponse> pagina2 = parcelaService.findProximas(3, pagina1.getNextCursor(), 2);
+        assertThat(pagina2.getItems()).extracting(ParcelaPendenteResponse::getNumero).containsExactly(3);
+        assertThat(pagina2.isHasMore()).isFalse();
+
+        // Cursor de outra listagem (timestamp) não é aceito como cursor de vencimento
+        String cursorDeContratos = new KeysetCursor(HOJE.atStartOfDay(), 1L).encode();
+        assertThatThrownBy(() -> parcelaService.findProximas(3, cursorDeContratos, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        CursorPageResponse<ParcelaPendenteResponse> vencidas = parcelaService.findVencidas(null, null);
+        assertThat(vencidas.getItems()).singleElement().satisfies(p -> {
+            assertThat(p.getNumero()).isEqualTo(6);
+            assertThat(p.getDiasAtraso()).isEqualTo(3L);
+        });
+    }
+
+    @Test
+    void numeroRepetidoNoMesmoContrato_recusadoPeloBanco() {
+        Long id = criar(List.of(parcela(1, HOJE, "100.00")), false);
+        limpar();
+
+        Contrato contrato = entityManager.find(Contrato.class, id);
+        entityManager.persist(ContratoParcela.builder().contrato(contrato).numero(1).vencimento(HOJE).valor(BigDecimal.ONE).build());
+        assertThatThrownBy(() -> entityManager.flush()).isInstanceOf(ConstraintViolationException.class);
+    }
+
+    private Long criar(List<ParcelaItemDto> parcelas, boolean finalizar) {
+        ContratoRequest request = new ContratoRequest();
+        // Parcelas somam o saldo a parcelar (sem entrada nem permutas: o valor total)
+        request.setNegocioValorTotal(parcelas.stream().map(ParcelaItemDto::getValor).reduce(BigDecimal.ZERO, BigDecimal::add));
+        request.setParcelas(parcelas);
+        Long id = contratoService.create(request).getId();
+        if (finalizar) contratoService.finalizar(id);
+        return id;
+    }
+
+    private void limpar() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private static ParcelaItemDto parcela(int numero, LocalDate vencimento, String valor) {
+        return ParcelaItemDto.builder().numero(numero).vencimento(vencimento.toString()).valor(new BigDecimal(valor)).build();
+    }
+}
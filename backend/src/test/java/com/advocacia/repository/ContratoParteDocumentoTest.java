@@ -0,0 +1,73 @@
+package com.advocacia.repository;
+
+import com.advocacia.dto.CompradorRequest;
+import com.advocacia.dto.ContratoRequest;
+import com.advocacia.dto.ParteContratoResponse;
+import com.advocacia.dto.VendedorRequest;
+import com.advocacia.service.ContratoService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Consulta de contratos por documento da parte: vendedor, sócio, comprador e cônjuge, com ou sem máscara.
+ * Usa H2 em modo PostgreSQL com o schema gerado pelo Hibernate (sem os índices das migrations).
+ */
+@ContratoServiceJpaTest
+class ContratoParteDocumentoTest {
+
+    private static final String CPF = "12345678900";
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void documento_encontradoEmTodosOsPapeis() {
+        Long comoVendedorESocio = criar(
+                VendedorRequest.builder().nome("Ana").documento("123.456.789-00").socioNome("Ana").socioCpf("123.456.789-00").build(),
+                CompradorRequest.builder().nome("Bruno").documento("98765432100").build());
+        Long comoConjuge = criar(
+                VendedorRequest.builder().nome("Carlos").documento("11122233344").build(),
+                CompradorRequest.builder().nome("Bruno").documento("98765432100").conjugeNome("Ana").conjugeCpf("123.456.789-00").build());
+        criar(VendedorRequest.builder().nome("Outro").documento("55566677788").build(),
+                CompradorRequest.builder().nome("Outra").documento("99988877766").build());
+        entityManager.flush();
+
+        List<ParteContratoResponse> contratos = contratoService.findContratosByDocumento("123.456.789-00");
+
+        assertThat(contratos).extracting(ParteContratoResponse::getContratoId)
+                .containsExactlyInAnyOrder(comoVendedorESocio, comoConjuge);
+        assertThat(contratos).filteredOn(c -> c.getContratoId().equals(comoVendedorESocio))
+                .singleElement().satisfies(c -> {
+                    assertThat(c.getPapeis()).containsExactly("VENDEDOR", "SOCIO");
+                    assertThat(c.getNome()).isEqualTo("Ana");
+                });
+        assertThat(contratos).filteredOn(c -> c.getContratoId().equals(comoConjuge))
+                .singleElement().extracting(ParteContratoResponse::getPapeis).isEqualTo(List.of("CONJUGE"));
+        assertThat(contratoService.findContratosByDocumento("98765432100"))
+                .allSatisfy(c -> assertThat(c.getPapeis()).containsExactly("COMPRADOR"))
+                .hasSize(2);
+    }
+
+    @Test
+    void documentoInvalido_recusado() {
+        assertThatThrownBy(() -> contratoService.findContratosByDocumento("123"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(contratoService.findContratosByDocumento(CPF)).isEmpty();
+    }
+
+    private Long criar(VendedorRequest vendedor, CompradorRequest comprador) {
+        ContratoRequest request = new ContratoRequest();
+        request.setVendedores(List.of(vendedor));
+        request.setCompradores(List.of(comprador));
+        return contratoService.create(request).getId();
+    }
+}
@@ -0,0 +1,175 @@
+package com.advocacia.repository;
+
+import com.advocacia.dto.CompradorRequest;
+import com.advocacia.dto.CompradorResponse;
+import com.advocacia.dto.ContratoRequest;
+import com.advocacia.dto.ContratoResponse;
+import com.advocacia.dto.VendedorRequest;
+import com.advocacia.dto.VendedorResponse;
+import com.advocacia.entity.ContratoComprador;
+import com.advocacia.entity.ContratoVendedor;
+import com.advocacia.service.ContratoService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Merge de vendedores e compradores no update: partes sem alteração mantêm o id e não geram UPDATE, a parte
+ * alterada só leva as colunas modificadas (@DynamicUpdate) e só a diferença é inserida ou removida.
+ */
+@ContratoServiceJpaTest
+@TestPropertySource(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.advocacia.repository.ContratoPartesMergeTest$SqlExecutado")
+class ContratoPartesMergeTest {
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+    private Long contratoId;
+    private List<VendedorResponse> vendedores;
+    private List<CompradorResponse> compradores;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        ContratoRequest request = new ContratoRequest();
+        List<VendedorRequest> vs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            vs.add(VendedorRequest.builder().nome("Vendedor " + i).documento("1112223334" + i).email("v" + i + "@x.com").build());
+        }
+        request.setVendedores(vs);
+        request.setCompradores(List.of(
+                CompradorRequest.builder().nome("Comprador 0").documento("55566677788").build(),
+                CompradorRequest.builder().nome("Comprador 1").documento("55566677799").build()));
+        ContratoResponse criado = contratoService.create(request);
+        entityManager.flush();
+        contratoId = criado.getId();
+        vendedores = criado.getVendedores();
+        compradores = criado.getCompradores();
+    }
+
+    @Test
+    void semAlteracao_mantemIdsSemComandos() {
+        executar(() -> {
+            contratoService.updateVendedores(contratoId, vendedores.stream().map(ContratoPartesMergeTest::vendedor).toList());
+            contratoService.updateCompradores(contratoId, compradores.stream().map(ContratoPartesMergeTest::comprador).toList());
+        });
+
+        assertThat(comandos("contrato_vendedores")).isEmpty();
+        assertThat(comandos("contrato_compradores")).isEmpty();
+        assertThat(statistics.getEntityUpdateCount() + statistics.getEntityInsertCount() + statistics.getEntityDeleteCount()).isZero();
+        assertThat(idsVendedores()).containsExactlyElementsOf(vendedores.stream().map(VendedorResponse::getId).toList());
+    }
+
+    @Test
+    void campoAlterado_updateSoDaColunaModificada() {
+        List<VendedorRequest> vs = vendedores.stream().map(ContratoPartesMergeTest::vendedor).toList();
+        vs.get(1).setEmail("novo@x.com");
+        List<CompradorRequest> cs = compradores.stream().map(ContratoPartesMergeTest::comprador).toList();
+        cs.get(0).setNome("Comprador Zero");
+
+        executar(() -> {
+            contratoService.updateVendedores(contratoId, vs);
+            contratoService.updateCompradores(contratoId, cs);
+        });
+
+        assertThat(comandos("contrato_vendedores"))
+                .containsExactly("update contrato_vendedores set email=? where id=?");
+        assertThat(comandos("contrato_compradores"))
+                .containsExactly("update contrato_compradores set nome=? where id=?");
+        assertThat(estatisticas(ContratoVendedor.class).getUpdateCount()).isEqualTo(1);
+        assertThat(estatisticas(ContratoComprador.class).getUpdateCount()).isEqualTo(1);
+        assertThat(idsVendedores()).containsExactlyElementsOf(vendedores.stream().map(VendedorResponse::getId).toList());
+    }
+
+    @Test
+    void parteRemovidaENova_soADiferencaEInseridaOuRemovida() {
+        // Sai o primeiro vendedor, os outros dois sobem uma posição e entra um novo no fim
+        List<VendedorRequest> vs = new ArrayList<>(vendedores.subList(1, 3).stream().map(ContratoPartesMergeTest::vendedor).toList());
+        vs.forEach(v -> v.setOrdem(null));
+        vs.add(VendedorRequest.builder().nome("Vendedor 3").documento("11122233343").build());
+
+        executar(() -> contratoService.updateVendedores(contratoId, vs));
+
+        EntityStatistics stats = estatisticas(ContratoVendedor.class);
+        assertThat(stats.getInsertCount()).isEqualTo(1);
+        assertThat(stats.getDeleteCount()).isEqualTo(1);
+        // Os mantidos só mudam de posição
+        assertThat(stats.getUpdateCount()).isEqualTo(2);
+        assertThat(comandos("contrato_vendedores"))
+                .filteredOn(sql -> sql.startsWith("update"))
+                .containsOnly("update contrato_vendedores set ordem=? where id=?");
+        assertThat(comandos("contrato_compradores")).isEmpty();
+
+        List<Long> ids = idsVendedores();
+        assertThat(ids).hasSize(3);
+        assertThat(ids.subList(0, 2)).containsExactly(vendedores.get(1).getId(), vendedores.get(2).getId());
+        assertThat(ids).doesNotContain(vendedores.get(0).getId());
+    }
+
+    private void executar(Runnable update) {
+        entityManager.clear();
+        statistics.clear();
+        SqlExecutado.SQL.clear();
+        update.run();
+        entityManager.flush();
+    }
+
+    private static List<String> comandos(String tabela) {
+        return SqlExecutado.SQL.stream()
+                .map(sql -> sql.replaceAll("\\s+", " ").trim())
+                .filter(sql -> {
+                    String s = sql.toLowerCase(Locale.ROOT);
+                    return !s.startsWith("select") && s.contains(" " + tabela + " ");
+                })
+                .toList();
+    }
+
+    private EntityStatistics estatisticas(Class<?> entidade) {
+        return statistics.getEntityStatistics(entidade.getName());
+    }
+
+    private List<Long> idsVendedores() {
+        entityManager.clear();
+        return contratoService.findById(contratoId).getVendedores().stream().map(VendedorResponse::getId).toList();
+    }
+
+    private static VendedorRequest vendedor(VendedorResponse v) {
+        return VendedorRequest.builder().id(v.getId()).ordem(v.getOrdem()).nome(v.getNome())
+                .documento(v.getDocumento()).email(v.getEmail()).build();
+    }
+
+    private static CompradorRequest comprador(CompradorResponse c) {
+        return CompradorRequest.builder().id(c.getId()).ordem(c.getOrdem()).nome(c.getNome())
+                .documento(c.getDocumento()).build();
+    }
+
+    /** Comandos enviados ao banco, na ordem; registrado no Hibernate pela propriedade do teste. */
+    public static class SqlExecutado implements StatementInspector {
+
+        static final List<String> SQL = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            SQL.add(sql);
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.advocacia.repository;
+
+import com.advocacia.dto.ContratoFiltro;
+import com.advocacia.dto.ContratoResumoResponse;
+import com.advocacia.dto.CursorPageResponse;
+import com.advocacia.entity.Contrato;
+import com.advocacia.entity.ContratoComprador;
+import com.advocacia.entity.ContratoStatus;
+import com.advocacia.entity.ContratoVendedor;
+import com.advocacia.service.ContratoService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Resumo paginado: filtros da listagem, primeiro vendedor/comprador pela ordem, contagens das partes e
+ * continuidade do cursor com created_at empatado, uma consulta por página.
+ */
+@ContratoServiceJpaTest
+class ContratoResumosTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 3, 10, 10, 0);
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private ContratoRepository contratoRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long antigo;
+    private Long comPartes;
+    private Long finalSemPartes;
+    private Long rascunho;
+    private Long recente;
+
+    @BeforeEach
+    void setUp() {
+        Contrato c1 = contrato(ContratoStatus.DRAFT, BASE.minusDays(2));
+        // Inserido fora de ordem: o primeiro vendedor é o de menor ordem, não o de menor id
+        c1.getVendedores().add(vendedor(c1, 1, "Beatriz", null));
+        c1.getVendedores().add(vendedor(c1, 0, "Ana", "11122233344"));
+        antigo = contratoRepository.save(c1).getId();
+
+        Contrato c2 = contrato(ContratoStatus.FINAL, BASE);
+        c2.getVendedores().add(vendedor(c2, 0, "Carlos", null));
+        c2.getCompradores().add(comprador(c2, 1, "Eva", null));
+        c2.getCompradores().add(comprador(c2, 0, "Davi", "55566677788"));
+        comPartes = contratoRepository.save(c2).getId();
+
+        finalSemPartes = contratoRepository.save(contrato(ContratoStatus.FINAL, BASE)).getId();
+        rascunho = contratoRepository.save(contrato(ContratoStatus.DRAFT, BASE)).getId();
+        recente = contratoRepository.save(contrato(ContratoStatus.FINAL, BASE.plusDays(2))).getId();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void primeiraParteEContagens() {
+        List<ContratoResumoResponse> items = contratoService.findResumos(null, null, 10).getItems();
+
+        assertThat(items).extracting(ContratoResumoResponse::getId)
+                .containsExactly(recente, rascunho, finalSemPartes, comPartes, antigo);
+
+        ContratoResumoResponse c1 = items.get(4);
+        assertThat(c1.getVendedorNome()).isEqualTo("Ana");
+        assertThat(c1.getTotalVendedores()).isEqualTo(2);
+        assertThat(c1.getCompradorNome()).isNull();
+        assertThat(c1.getTotalCompradores()).isZero();
+        assertThat(c1.getStatus()).isEqualTo(ContratoStatus.DRAFT);
+
+        ContratoResumoResponse c2 = items.get(3);
+        assertThat(c2.getVendedorNome()).isEqualTo("Carlos");
+        assertThat(c2.getTotalVendedores()).isEqualTo(1);
+        assertThat(c2.getCompradorNome()).isEqualTo("Davi");
+        assertThat(c2.getTotalCompradores()).isEqualTo(2);
+        assertThat(c2.getCreatedAt()).isEqualTo(BASE);
+    }
+
+    @Test
+    void filtrosIsoladosECombinados() {
+        assertThat(ids(ContratoFiltro.builder().status(ContratoStatus.FINAL).build()))
+                .containsExactly(recente, finalSemPartes, comPartes);
+        assertThat(ids(ContratoFiltro.builder().dataInicio(BASE.toLocalDate()).dataFim(BASE.toLocalDate()).build()))
+                .containsExactly(rascunho, finalSemPartes, comPartes);
+        assertThat(ids(ContratoFiltro.builder().dataFim(LocalDate.of(2025, 3, 9)).build()))
+                .containsExactly(antigo);
+        // Documento com máscara, de vendedor e de comprador
+        assertThat(ids(ContratoFiltro.builder().documento("111.222.333-44").build())).containsExactly(antigo);
+        assertThat(ids(ContratoFiltro.builder().documento("555.666.777-88").build())).containsExactly(comPartes);
+
+        assertThat(ids(ContratoFiltro.builder().status(ContratoStatus.DRAFT).dataInicio(LocalDate.of(2025, 3, 9)).build()))
+                .containsExactly(rascunho);
+        assertThat(ids(ContratoFiltro.builder().status(ContratoStatus.DRAFT).documento("55566677788").build()))
+                .isEmpty();
+    }
+
+    @Test
+    void cursor_continuaNoEmpateSemRepetir_umaConsultaPorPagina() {
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int paginas = 0;
+        do {
+            statistics.clear();
+            CursorPageResponse<ContratoResumoResponse> page = contratoService.findResumos(null, cursor, 2);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+            page.getItems().forEach(r -> ids.add(r.getId()));
+            cursor = page.getNextCursor();
+            paginas++;
+        } while (cursor != null);
+
+        assertThat(paginas).isEqualTo(3);
+        assertThat(ids).containsExactly(recente, rascunho, finalSemPartes, comPartes, antigo);
+    }
+
+    private List<Long> ids(ContratoFiltro filtro) {
+        return contratoService.findResumos(filtro, null, 10).getItems().stream().map(ContratoResumoResponse::getId).toList();
+    }
+
+    private static Contrato contrato(ContratoStatus status, LocalDateTime createdAt) {
+        return Contrato.builder().status(status).createdAt(createdAt).build();
+    }
+
+    private static ContratoVendedor vendedor(Contrato contrato, int ordem, String nome, String documento) {
+        return ContratoVendedor.builder().contrato(contrato).ordem(ordem).nome(nome).documento(documento).build();
+    }
+
+    private static ContratoComprador comprador(Contrato contrato, int ordem, String nome, String documento) {
+        return ContratoComprador.builder().contrato(contrato).ordem(ordem).nome(nome).documento(documento).build();
+    }
+}
@@ -0,0 +1,72 @@
+package com.advocacia.repository;
+
+import com.advocacia.dto.CompradorRequest;
+import com.advocacia.dto.ContratoRequest;
+import com.advocacia.dto.VendedorRequest;
+import com.advocacia.service.ContratoService;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Round-trips ao banco para salvar um contrato com várias partes.
+ * Com GenerationType.IDENTITY eram 1 + 2 * PARTES (um INSERT por linha, sem lote: 51 para 25 partes);
+ * com sequences pooled + hibernate.jdbc.batch_size ficam algumas chamadas de sequence e um lote por tabela.
+ * Usa H2 em modo PostgreSQL com o schema gerado pelo Hibernate (as migrations Flyway são específicas do Postgres).
+ */
+@ContratoServiceJpaTest
+class ContratoSaveRoundTripTest {
+
+    private static final int PARTES = 25;
+
+    @Autowired
+    private ContratoService contratoService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void create_comVariasPartes_enviaInsertsEmLote() {
+        ContratoRequest request = new ContratoRequest();
+        List<VendedorRequest> vendedores = new ArrayList<>();
+        List<CompradorRequest> compradores = new ArrayList<>();
+        for (int i = 0; i < PARTES; i++) {
+            vendedores.add(VendedorRequest.builder().nome("Vendedor " + i).documento("1234567890" + i).build());
+            compradores.add(CompradorRequest.builder().nome("Comprador " + i).documento("9876543210" + i).build());
+        }
+        request.setVendedores(vendedores);
+        request.setCompradores(compradores);
+
+        long roundTrips = contarRoundTrips(() -> {
+            contratoService.create(request);
+            entityManager.flush();
+        });
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1 + 2 * PARTES);
+        // nextval das 3 sequences (pooled) + 1 lote de INSERT por tabela
+        assertThat(roundTrips).isLessThanOrEqualTo(10);
+    }
+
+    private long contarRoundTrips(Runnable action) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
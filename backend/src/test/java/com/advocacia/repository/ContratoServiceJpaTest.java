@@ -0,0 +1,29 @@
+package com.advocacia.repository;
+
+import com.advocacia.service.ContratoAuditCoalescer;
+import com.advocacia.service.ContratoAuditService;
+import com.advocacia.service.ContratoService;
+import com.advocacia.service.ParcelamentoService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link H2JpaTest} com o {@link ContratoService} e suas dependências de serviço; o histórico é montado de verdade
+ * e só a entrega ao writer ({@link ContratoAuditCoalescer}) é simulada. Uma nova dependência do serviço entra só aqui.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@H2JpaTest
+@Import({ContratoService.class, ContratoAuditService.class, ParcelamentoService.class})
+@MockBean(ContratoAuditCoalescer.class)
+public @interface ContratoServiceJpaTest {
+}
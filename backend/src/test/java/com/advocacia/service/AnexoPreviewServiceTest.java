@@ -0,0 +1,97 @@
+package com.advocacia.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Prévia pedida antes de existir: gerada no pool, nunca na thread da requisição; pedidos simultâneos do mesmo
+ * arquivo compartilham a tarefa e, se ela não termina dentro da espera, a resposta é "em geração".
+ */
+class AnexoPreviewServiceTest {
+
+    private static final String ARQUIVO = "ab/cd/foto.png";
+    private static final String CHAVE = FileStorageService.previewPath(ARQUIVO);
+
+    @TempDir
+    Path tempDir;
+
+    private FileStorageService storage;
+    private AnexoPreviewService service;
+    private final CountDownLatch liberarLeitura = new CountDownLatch(1);
+    private final AtomicReference<String> threadDaGeracao = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path original = tempDir.resolve("foto.png");
+        ImageIO.write(new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB), "png", original.toFile());
+
+        storage = mock(FileStorageService.class);
+        when(storage.getTempPath()).thenReturn(tempDir);
+        when(storage.size(ARQUIVO)).thenReturn(Files.size(original));
+        when(storage.size(CHAVE)).thenReturn(-1L);
+        when(storage.localPath(ARQUIVO)).thenAnswer(inv -> {
+            threadDaGeracao.set(Thread.currentThread().getName());
+            liberarLeitura.await(5, TimeUnit.SECONDS);
+            return Optional.of(original);
+        });
+        service = new AnexoPreviewService(storage, new SimpleMeterRegistry(), 1, 10, 32, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        liberarLeitura.countDown();
+        service.stop();
+    }
+
+    @Test
+    void geracaoLenta_respondeEmGeracaoSemRenderizarNaRequisicao() {
+        AnexoPreviewService.Previa primeira = service.obter(ARQUIVO, "image/png");
+        AnexoPreviewService.Previa segunda = service.obter(ARQUIVO, "image/png");
+
+        assertThat(primeira.situacao()).isEqualTo(AnexoPreviewService.Previa.Situacao.EM_GERACAO);
+        assertThat(segunda.situacao()).isEqualTo(AnexoPreviewService.Previa.Situacao.EM_GERACAO);
+        assertThat(threadDaGeracao.get()).startsWith("anexo-preview-");
+        // O segundo pedido acompanha a tarefa em andamento em vez de agendar outra
+        verify(storage, times(1)).localPath(ARQUIVO);
+    }
+
+    @Test
+    void geracaoDentroDaEspera_retornaPronta() throws Exception {
+        liberarLeitura.countDown();
+        AnexoPreviewService comEspera = new AnexoPreviewService(storage, new SimpleMeterRegistry(), 1, 10, 32, Duration.ofSeconds(10));
+        try {
+            AnexoPreviewService.Previa previa = comEspera.obter(ARQUIVO, "image/png");
+
+            assertThat(previa.situacao()).isEqualTo(AnexoPreviewService.Previa.Situacao.PRONTA);
+            assertThat(previa.chave()).isEqualTo(CHAVE);
+            verify(storage).storeDerived(eq(CHAVE), any(Path.class));
+            assertThat(threadDaGeracao.get()).startsWith("anexo-preview-");
+        } finally {
+            comEspera.stop();
+        }
+    }
+
+    @Test
+    void tipoSemPrevia_indisponivelSemAgendar() {
+        assertThat(service.obter(ARQUIVO, "text/plain").situacao()).isEqualTo(AnexoPreviewService.Previa.Situacao.INDISPONIVEL);
+        verify(storage, never()).localPath(any());
+    }
+}
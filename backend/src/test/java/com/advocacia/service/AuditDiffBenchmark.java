@@ -0,0 +1,62 @@
+package com.advocacia.service;
+
+import com.advocacia.dto.ContratoResponse;
+import com.advocacia.dto.ParcelaItemDto;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Diff de auditoria: árvore JSON (implementação anterior) x {@link AuditDiffer}, com 1, 10 e 50 partes.
+ * <p>
+ * Execução: {@code mvn test-compile exec:java -Dexec.mainClass=com.advocacia.service.AuditDiffBenchmark -Dexec.classpathScope=test}
+ * (ou rodar o {@code main} pela IDE).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditDiffBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int partes;
+
+    private AuditDiffer differ;
+    private ContratoResponse before;
+    private ContratoResponse after;
+
+    @Setup
+    public void setup() {
+        differ = new AuditDiffer(JsonTreeAuditDiff.MAPPER,
+                JsonTreeAuditDiff.IGNORED_FIELDS_ROOT, JsonTreeAuditDiff.IGNORED_FIELDS_ANY_LEVEL);
+        before = AuditDifferTest.contrato(partes);
+        after = AuditDifferTest.contrato(partes);
+        after.setObservacoes("nova observação");
+        after.setNegocioValorTotal(new BigDecimal("260000.00"));
+        after.getVendedores().get(partes - 1).setTelefone("41988887777");
+        after.getCompradores().get(0).setEndereco("Av. Brasil, 100");
+        after.getParcelas().add(ParcelaItemDto.builder().numero(4).vencimento("10/04/2025").valor(new BigDecimal("1000.00")).build());
+    }
+
+    @Benchmark
+    public List<Map<String, String>> jsonTree() {
+        return JsonTreeAuditDiff.diff(before, after);
+    }
+
+    @Benchmark
+    public List<Map<String, String>> auditDiffer() {
+        return differ.diff(before, after);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuditDiffBenchmark.class.getSimpleName()).build()).run();
+    }
+}
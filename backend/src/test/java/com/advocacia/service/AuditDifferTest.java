@@ -0,0 +1,98 @@
+package com.advocacia.service;
+
+import com.advocacia.dto.CompradorResponse;
+import com.advocacia.dto.ContratoResponse;
+import com.advocacia.dto.ParcelaItemDto;
+import com.advocacia.dto.VendedorResponse;
+import com.advocacia.entity.ContratoStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Paridade do {@link AuditDiffer} com o diff anterior via árvore JSON ({@link JsonTreeAuditDiff}).
+ */
+class AuditDifferTest {
+
+    private final AuditDiffer differ = new AuditDiffer(JsonTreeAuditDiff.MAPPER,
+            JsonTreeAuditDiff.IGNORED_FIELDS_ROOT, JsonTreeAuditDiff.IGNORED_FIELDS_ANY_LEVEL);
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 50})
+    void mesmoResultadoQueDiffViaJson(int partes) {
+        ContratoResponse before = contrato(partes);
+        ContratoResponse after = contrato(partes);
+        after.setObservacoes("nova observação");
+        after.setNegocioValorTotal(new BigDecimal("250000.50"));
+        after.setVeiculoDataEntrega(LocalDate.of(2025, 3, 1));
+        after.setStatus(ContratoStatus.FINAL);
+        after.setUpdatedAt(LocalDateTime.now());
+        after.getVendedores().get(partes - 1).setNome("Outro Nome");
+        after.getVendedores().get(0).setId(999L);
+        after.getCompradores().remove(partes - 1);
+        after.getParcelas().add(ParcelaItemDto.builder().numero(4).vencimento("10/04/2025").valor(new BigDecimal("1000.00")).build());
+
+        List<Map<String, String>> esperado = JsonTreeAuditDiff.diff(before, after);
+
+        assertThat(differ.diff(before, after)).isEqualTo(esperado);
+        assertThat(esperado).extracting(c -> c.get("path"))
+                .contains("observacoes", "negocioValorTotal", "vendedores[" + (partes - 1) + "].nome",
+                        "compradores[" + (partes - 1) + "]", "parcelas[3]")
+                .doesNotContain("status", "updatedAt", "vendedores[0].id");
+    }
+
+    @Test
+    void valoresDecimaisEDatas_mesmoTextoQueJson() {
+        ContratoResponse before = contrato(1);
+        ContratoResponse after = contrato(1);
+        before.setNegocioValorEntrada(new BigDecimal("100.00"));
+        after.setNegocioValorEntrada(new BigDecimal("1E+2"));
+        before.setHonorariosValor(null);
+        after.setHonorariosValor(new BigDecimal("0.10"));
+        before.setCreatedAt(null);
+        after.getParcelas().get(0).setValor(new BigDecimal("1000.000"));
+        after.setParcelas(null);
+
+        assertThat(differ.diff(before, after)).isEqualTo(JsonTreeAuditDiff.diff(before, after));
+    }
+
+    @Test
+    void semAlteracao_retornaVazio() {
+        assertThat(differ.diff(contrato(10), contrato(10))).isEmpty();
+    }
+
+    /** Contrato com {@code partes} vendedores e compradores e três parcelas. */
+    static ContratoResponse contrato(int partes) {
+        List<VendedorResponse> vendedores = new ArrayList<>();
+        List<CompradorResponse> compradores = new ArrayList<>();
+        for (int i = 0; i < partes; i++) {
+            vendedores.add(VendedorResponse.builder().id((long) i + 1).ordem(i).nome("Vendedor " + i)
+                    .documento(String.format("%011d", i)).email("v" + i + "@mail.com").telefone("4199999" + i)
+                    .endereco("Rua " + i).socioNome("Sócio " + i).build());
+            compradores.add(CompradorResponse.builder().id((long) i + 1).ordem(i).nome("Comprador " + i)
+                    .documento(String.format("%014d", i)).estadoCivil("CASADO").conjugeNome("Cônjuge " + i).build());
+        }
+        List<ParcelaItemDto> parcelas = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            parcelas.add(ParcelaItemDto.builder().numero(i).vencimento("10/0" + i + "/2025").valor(new BigDecimal("1000.00")).build());
+        }
+        return ContratoResponse.builder()
+                .id(1L).status(ContratoStatus.DRAFT).paginaAtual(3)
+                .vendedores(vendedores).compradores(compradores)
+                .imovelMatricula("12345").imovelDescricao("Casa")
+                .veiculoKm(10000).veiculoDataEntrega(LocalDate.of(2025, 1, 1))
+                .negocioValorTotal(new BigDecimal("250000.00")).negocioNumParcelas(3).parcelas(parcelas)
+                .dataContrato(LocalDate.of(2025, 1, 10))
+                .createdAt(LocalDateTime.of(2025, 1, 10, 9, 30)).updatedAt(LocalDateTime.of(2025, 1, 10, 9, 30))
+                .build();
+    }
+}
@@ -0,0 +1,66 @@
+package com.advocacia.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Lock por conteúdo: no Postgres, advisory lock tomado na transação antes da ação; fora dele, só o lock local.
+ */
+class ConteudoLockTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<String> eventos = new ArrayList<>();
+
+    /** Transação falsa: registra início e fim em volta do callback. */
+    private final TransactionOperations transacao = new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+            eventos.add("begin");
+            try {
+                return action.doInTransaction(null);
+            } finally {
+                eventos.add("end");
+            }
+        }
+    };
+
+    @Test
+    void postgres_advisoryLockNaTransacaoAntesDaAcao() {
+        ConteudoLock lock = new ConteudoLock(transacao, jdbcTemplate, true);
+        doAnswer(inv -> eventos.add("lock")).when(jdbcTemplate)
+                .query(eq("SELECT pg_advisory_xact_lock(hashtext(?))"), any(RowCallbackHandler.class), eq("ab/cd/abcd"));
+
+        String resultado = lock.executar("ab/cd/abcd", () -> {
+            eventos.add("acao");
+            return "ok";
+        });
+
+        assertThat(resultado).isEqualTo("ok");
+        assertThat(eventos).containsExactly("begin", "lock", "acao", "end");
+    }
+
+    @Test
+    void semPostgres_naoConsultaOBanco() {
+        ConteudoLock lock = new ConteudoLock(transacao, jdbcTemplate, false);
+
+        assertThatThrownBy(() -> lock.executar("ab/cd/abcd", () -> {
+            throw new IllegalStateException("falha no registro");
+        })).hasMessage("falha no registro");
+
+        assertThat(eventos).containsExactly("begin", "end");
+        verifyNoInteractions(jdbcTemplate);
+        assertThat(ConteudoLock.local().executar("x", () -> 1)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,111 @@
+package com.advocacia.service;
+
+import com.advocacia.entity.ContratoAlteracao;
+import com.advocacia.repository.ContratoAlteracaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Agrupamento de rajadas de autosave numa única entrada de histórico.
+ */
+class ContratoAuditCoalescerTest {
+
+    private final ContratoAuditWriter writer = mock(ContratoAuditWriter.class);
+    private final ContratoAlteracaoRepository alteracaoRepository = mock(ContratoAlteracaoRepository.class);
+    private ContratoAuditCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) coalescer.stop();
+    }
+
+    @Test
+    void mesmaJanela_mesmoUsuarioEContrato_geraUmaEntrada() {
+        when(writer.isAsync()).thenReturn(true);
+        coalescer = new ContratoAuditCoalescer(writer, alteracaoRepository, new SimpleMeterRegistry(), Duration.ofMinutes(5));
+
+        coalescer.submit(alteracao(1L, "ana", change("observacoes", "null", "a"), change("imovelLivro", "1", "2")));
+        coalescer.submit(alteracao(1L, "ana", change("observacoes", "a", "b")));
+        coalescer.submit(alteracao(1L, "ana", change("imovelLivro", "2", "1")));
+        coalescer.submit(alteracao(1L, "bia", change("observacoes", "b", "c")));
+        verify(writer, never()).enqueue(any());
+
+        coalescer.flush();
+
+        ArgumentCaptor<ContratoAlteracao> captor = ArgumentCaptor.forClass(ContratoAlteracao.class);
+        verify(writer, times(2)).enqueue(captor.capture());
+        ContratoAlteracao ana = captor.getAllValues().stream().filter(a -> "ana".equals(a.getUsername())).findFirst().orElseThrow();
+        // Primeiro oldValue e último newValue; imovelLivro voltou ao valor original e some
+        assertThat(ana.getChanges()).containsExactly(change("observacoes", "null", "b"));
+    }
+
+    @Test
+    void semDiff_descartadoQuandoHaAlteracaoReal() {
+        ContratoAlteracao merged = ContratoAuditCoalescer.mesclar(
+                alteracao(1L, "ana", change("alteracao", ContratoAuditService.SEM_DIFF, "registro de auditoria")),
+                alteracao(1L, "ana", change("observacoes", "a", "b")));
+
+        assertThat(merged.getChanges()).extracting(c -> c.get("path")).containsExactly("observacoes");
+    }
+
+    @Test
+    void modoTransacional_alteracoesAnuladas_mantemEntradaNeutra() {
+        coalescer = new ContratoAuditCoalescer(writer, alteracaoRepository, new SimpleMeterRegistry(), Duration.ofMinutes(5));
+        ContratoAlteracao ultima = alteracao(1L, "ana", change("observacoes", "a", "b"));
+        ultima.setId(7L);
+        ultima.setFirstRecordedAt(LocalDateTime.now());
+        when(alteracaoRepository.findFirstByContratoIdOrderByChangedAtDescIdDesc(1L)).thenReturn(Optional.of(ultima));
+
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            coalescer.submit(alteracao(1L, "ana", change("observacoes", "b", "a")));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        // Já entregue ao polling: a linha fica, neutra, e o save avança o recordedAt
+        verify(alteracaoRepository, never()).delete(any());
+        verify(alteracaoRepository).save(ultima);
+        assertThat(ultima.getChanges()).extracting(c -> c.get("newValue"))
+                .containsExactly(ContratoAuditService.SEM_ALTERACAO_LIQUIDA);
+        verify(writer, never()).submit(any());
+    }
+
+    @Test
+    void janelaZero_repassaDireto() {
+        coalescer = new ContratoAuditCoalescer(writer, alteracaoRepository, new SimpleMeterRegistry(), Duration.ZERO);
+
+        ContratoAlteracao alteracao = alteracao(1L, "ana", change("observacoes", "a", "b"));
+        coalescer.submit(alteracao);
+
+        verify(writer).submit(alteracao);
+        verify(writer, never()).enqueue(any());
+    }
+
+    @SafeVarargs
+    private static ContratoAlteracao alteracao(Long contratoId, String username, Map<String, String>... changes) {
+        return ContratoAlteracao.builder()
+                .contratoId(contratoId)
+                .username(username)
+                .changedAt(LocalDateTime.now())
+                .changes(List.of(changes))
+                .build();
+    }
+
+    private static Map<String, String> change(String path, String oldValue, String newValue) {
+        return Map.of("path", path, "oldValue", oldValue, "newValue", newValue);
+    }
+}
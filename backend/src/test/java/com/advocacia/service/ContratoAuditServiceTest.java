@@ -3,27 +3,28 @@ package com.advocacia.service;
 import com.advocacia.dto.ContratoAlteracaoResponse;
 import com.advocacia.entity.ContratoAlteracao;
 import com.advocacia.repository.ContratoAlteracaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 /**
  * Testes do histórico de alterações de contrato.
- * - Ao chamar recordChanges, deve ser criado pelo menos 1 registro (save chamado).
+ * - Ao chamar recordChanges com as alterações coletadas no update, deve ser entregue pelo menos 1 registro ao writer.
  * - GET histórico retorna registros do contrato (findByContratoIdOrderByChangedAtDesc).
  */
 @ExtendWith(MockitoExtension.class)
@@ -33,37 +34,73 @@ class ContratoAuditServiceTest {
     private ContratoAlteracaoRepository alteracaoRepository;
 
     @Mock
-    private TransactionTemplate transactionTemplateRequiresNew;
+    private ContratoAuditWriter auditWriter;
 
-    @InjectMocks
     private ContratoAuditService auditService;
 
+    @BeforeEach
+    void setUp() {
+        // Janela 0: sem agrupamento, cada alteração vai direto ao writer
+        auditService = new ContratoAuditService(alteracaoRepository,
+                new ContratoAuditCoalescer(auditWriter, alteracaoRepository, new SimpleMeterRegistry(), Duration.ZERO));
+    }
+
     @Test
-    void recordChanges_deveChamarSave_comContratoIdEChanges() {
+    void recordChanges_deveEnviarAoWriter_comContratoIdEChanges() {
         SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("user", null));
 
-        Object before = new DummyResponse("10");
-        Object after = new DummyResponse("20");
+        AuditChangeSet changes = auditService.newChangeSet();
+        changes.track("negocioValorTotal", new BigDecimal("10.5"), new BigDecimal("20.25"));
 
-        when(alteracaoRepository.save(any(ContratoAlteracao.class))).thenAnswer(inv -> {
-            ContratoAlteracao a = inv.getArgument(0);
-            return ContratoAlteracao.builder().id(99L).contratoId(a.getContratoId()).username(a.getUsername()).changedAt(a.getChangedAt()).changes(a.getChanges()).build();
-        });
-
-        auditService.recordChanges(1L, before, after);
+        auditService.recordChanges(1L, changes);
 
         ArgumentCaptor<ContratoAlteracao> captor = ArgumentCaptor.forClass(ContratoAlteracao.class);
-        verify(alteracaoRepository, atLeastOnce()).save(captor.capture());
+        verify(auditWriter, atLeastOnce()).submit(captor.capture());
 
         ContratoAlteracao saved = captor.getValue();
         assertThat(saved.getContratoId()).isEqualTo(1L);
         assertThat(saved.getUsername()).isNotNull();
         assertThat(saved.getChanges()).isNotEmpty();
         assertThat(saved.getChanges().stream().anyMatch(m ->
-                "negocioValorTotal".equals(m.get("path")) && "10".equals(m.get("oldValue")) && "20".equals(m.get("newValue"))))
+                "negocioValorTotal".equals(m.get("path")) && "10.5".equals(m.get("oldValue")) && "20.25".equals(m.get("newValue"))))
                 .isTrue();
     }
 
+    @Test
+    void recordChanges_changeSet_enviaSomenteCamposAlterados() {
+        AuditChangeSet changes = auditService.newChangeSet();
+        changes.track("observacoes", "antes", "depois");
+        changes.track("negocioValorTotal", new BigDecimal("10.00"), new BigDecimal("10.0"));
+        changes.track("vendedores", List.of(new DummyResponse("Ana")), List.of(new DummyResponse("Ana"), new DummyResponse("Bia")));
+
+        auditService.recordChanges(1L, changes);
+
+        ArgumentCaptor<ContratoAlteracao> captor = ArgumentCaptor.forClass(ContratoAlteracao.class);
+        verify(auditWriter).submit(captor.capture());
+        assertThat(captor.getValue().getChanges()).extracting(m -> m.get("path"))
+                .containsExactly("observacoes", "vendedores[1]");
+        // Rótulos e valores de exibição já saem prontos na gravação
+        assertThat(captor.getValue().getChanges().get(0))
+                .containsEntry("label", "Observações")
+                .containsEntry("displayOld", "antes");
+    }
+
+    @Test
+    void recordChanges_changeSetVazioComAgrupamento_naoGravaSemDiff() {
+        ContratoAuditService comAgrupamento = new ContratoAuditService(alteracaoRepository,
+                new ContratoAuditCoalescer(auditWriter, alteracaoRepository, new SimpleMeterRegistry(), Duration.ofSeconds(60)));
+
+        comAgrupamento.recordChanges(1L, comAgrupamento.newChangeSet());
+        verifyNoInteractions(auditWriter);
+
+        // Sem agrupamento o save vazio continua gerando a linha sintética
+        auditService.recordChanges(1L, auditService.newChangeSet());
+        ArgumentCaptor<ContratoAlteracao> captor = ArgumentCaptor.forClass(ContratoAlteracao.class);
+        verify(auditWriter).submit(captor.capture());
+        assertThat(captor.getValue().getChanges()).singleElement()
+                .satisfies(c -> assertThat(c).containsEntry("oldValue", ContratoAuditService.SEM_DIFF));
+    }
+
     @Test
     void getHistorico_retornaRegistrosDoContrato() {
         ContratoAlteracao entity = ContratoAlteracao.builder()
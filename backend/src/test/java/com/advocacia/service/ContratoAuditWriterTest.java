@@ -0,0 +1,85 @@
+package com.advocacia.service;
+
+import com.advocacia.entity.ContratoAlteracao;
+import com.advocacia.repository.ContratoAlteracaoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Testes do writer de auditoria: gravação em lote, modo transacional e fila cheia.
+ */
+class ContratoAuditWriterTest {
+
+    private final ContratoAlteracaoRepository repository = mock(ContratoAlteracaoRepository.class);
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ContratoAuditWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) writer.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void async_gravaPendentesEmLote() {
+        writer = new ContratoAuditWriter(repository, transactionTemplate, meterRegistry, true, 100, 100);
+
+        writer.submit(alteracao(1L));
+        writer.submit(alteracao(1L));
+        writer.submit(alteracao(2L));
+        writer.flush();
+
+        ArgumentCaptor<List<ContratoAlteracao>> captor = ArgumentCaptor.forClass(List.class);
+        verify(repository, atLeastOnce()).saveAll(captor.capture());
+        assertThat(captor.getAllValues().stream().mapToInt(List::size).sum()).isEqualTo(3);
+        verify(repository, never()).save(any());
+        assertThat(writer.queueDepth()).isZero();
+        assertThat(meterRegistry.counter("contrato.audit.written").count()).isEqualTo(3);
+    }
+
+    @Test
+    void transacional_gravaDiretoNaTransacaoCorrente() {
+        writer = new ContratoAuditWriter(repository, transactionTemplate, meterRegistry, false, 100, 100);
+
+        ContratoAlteracao alteracao = alteracao(1L);
+        writer.submit(alteracao);
+
+        verify(repository).save(alteracao);
+        verify(repository, never()).saveAll(any());
+    }
+
+    @Test
+    void filaCheia_gravaDeFormaSincronaSemDescartar() {
+        writer = new ContratoAuditWriter(repository, transactionTemplate, meterRegistry, true, 1, 100);
+
+        writer.submit(alteracao(1L));
+        writer.submit(alteracao(2L));
+
+        assertThat(writer.queueDepth()).isEqualTo(1);
+        verify(repository, times(1)).saveAll(any());
+        assertThat(meterRegistry.counter("contrato.audit.queue.full").count()).isEqualTo(1);
+
+        writer.flush();
+        assertThat(meterRegistry.counter("contrato.audit.written").count()).isEqualTo(2);
+    }
+
+    private ContratoAlteracao alteracao(Long contratoId) {
+        return ContratoAlteracao.builder()
+                .contratoId(contratoId)
+                .username("teste")
+                .changes(List.of(Map.of("path", "observacoes", "oldValue", "a", "newValue", "b")))
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.advocacia.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Texto digitado na busca convertido em tsquery: prefixos combinados, documentos e placas sem pontuação;
+ * cursor da busca opaco como os das listagens.
+ */
+class ContratoBuscaQueryTest {
+
+    @Test
+    void nomes_viramPrefixosCombinados() {
+        assertThat(ContratoService.toTsQuery("  João  da Silva ")).isEqualTo("João:* & da:* & Silva:*");
+        assertThat(ContratoService.toTsQuery("Maria-José")).isEqualTo("Maria:* & José:*");
+    }
+
+    @Test
+    void documentosEPlacas_semPontuacao() {
+        assertThat(ContratoService.toTsQuery("123.456.789-00")).isEqualTo("12345678900:*");
+        assertThat(ContratoService.toTsQuery("ABC-1D23 silva")).isEqualTo("ABC1D23:* & silva:*");
+    }
+
+    @Test
+    void sintaxeDeConsulta_descartada() {
+        assertThat(ContratoService.toTsQuery("silva & !(souza | 'x'):*")).isEqualTo("silva:* & souza:*");
+        assertThat(ContratoService.toTsQuery("a & |")).isNull();
+        assertThat(ContratoService.toTsQuery("")).isNull();
+        assertThat(ContratoService.toTsQuery(null)).isNull();
+    }
+
+    @Test
+    void cursor_opacoEmBase64() {
+        String cursor = new OffsetCursor(40).encode();
+
+        assertThat(cursor).isNotEqualTo("40").matches("[A-Za-z0-9_-]+");
+        assertThat(OffsetCursor.decode(cursor).offset()).isEqualTo(40);
+        assertThat(OffsetCursor.decode(null).offset()).isZero();
+
+        for (String invalido : new String[]{"40", "%%%", new OffsetCursor(-1).encode(),
+                new KeysetCursor(LocalDateTime.of(2025, 1, 1, 0, 0), 1L).encode()}) {
+            assertThatThrownBy(() -> OffsetCursor.decode(invalido))
+                    .isInstanceOf(IllegalArgumentException.class).hasMessage("Cursor inválido");
+        }
+    }
+}
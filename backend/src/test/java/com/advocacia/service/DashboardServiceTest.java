@@ -0,0 +1,58 @@
+package com.advocacia.service;
+
+import com.advocacia.dto.DashboardStatsResponse;
+import com.advocacia.entity.ContratoStatus;
+import com.advocacia.repository.ContratoRepository;
+import com.advocacia.repository.DashboardContagemProjection;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Dashboard lido dos contadores: status sem contratos aparecem zerados, janelas limitadas.
+ */
+class DashboardServiceTest {
+
+    private final ContratoRepository contratoRepository = mock(ContratoRepository.class);
+    private final DashboardService service = new DashboardService(contratoRepository);
+
+    @Test
+    void statusAusente_zerado() {
+        when(contratoRepository.findDashboardStatus()).thenReturn(List.of(contagem("DRAFT", 42L, null)));
+        when(contratoRepository.findDashboardParcelas(any(), any())).thenReturn(contagem("PARCELAS", 7L, new BigDecimal("3500.00")));
+        when(contratoRepository.findDashboardMensal(any())).thenReturn(List.of());
+
+        DashboardStatsResponse stats = service.getStats(null, null);
+
+        assertThat(stats.getContratosPorStatus())
+                .containsEntry(ContratoStatus.DRAFT, 42L)
+                .containsEntry(ContratoStatus.FINAL, 0L);
+        assertThat(stats.getProximasParcelasQuantidade()).isEqualTo(7L);
+        assertThat(stats.getProximasParcelasAte()).isEqualTo(LocalDate.now().plusDays(DashboardService.DEFAULT_DIAS));
+    }
+
+    @Test
+    void janelas_limitadas() {
+        when(contratoRepository.findDashboardParcelas(any(), any())).thenReturn(contagem("PARCELAS", 0L, BigDecimal.ZERO));
+
+        service.getStats(1000, 1000);
+
+        LocalDate hoje = LocalDate.now();
+        verify(contratoRepository).findDashboardMensal(hoje.withDayOfMonth(1).minusMonths(DashboardService.MAX_MESES - 1L));
+        verify(contratoRepository).findDashboardParcelas(hoje, hoje.plusDays(DashboardService.MAX_DIAS));
+    }
+
+    private static DashboardContagemProjection contagem(String chave, Long quantidade, BigDecimal valor) {
+        return new DashboardContagemProjection() {
+            @Override public String getChave() { return chave; }
+            @Override public Long getQuantidade() { return quantidade; }
+            @Override public BigDecimal getValor() { return valor; }
+        };
+    }
+}
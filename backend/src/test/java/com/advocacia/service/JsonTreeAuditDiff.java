@@ -0,0 +1,92 @@
+package com.advocacia.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.util.*;
+
+/**
+ * Implementação anterior do diff de auditoria (valueToTree + comparação de JsonNode), mantida só como
+ * referência para o teste de paridade e o benchmark do {@link AuditDiffer}.
+ */
+final class JsonTreeAuditDiff {
+
+    static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    static final Set<String> IGNORED_FIELDS_ROOT = Set.of(
+            "createdAt", "updatedAt", "id", "status", "paginaAtual"
+    );
+
+    static final Set<String> IGNORED_FIELDS_ANY_LEVEL = Set.of(
+            "createdAt", "updatedAt", "id", "ordem", "status", "paginaAtual"
+    );
+
+    private JsonTreeAuditDiff() {
+    }
+
+    static List<Map<String, String>> diff(Object before, Object after) {
+        List<Map<String, String>> changes = new ArrayList<>();
+        computeDiff("", MAPPER.valueToTree(before), MAPPER.valueToTree(after), changes);
+        return changes;
+    }
+
+    private static void computeDiff(String prefix, JsonNode before, JsonNode after, List<Map<String, String>> changes) {
+        if (before == null && after == null) return;
+        if (before == null) before = MAPPER.nullNode();
+        if (after == null) after = MAPPER.nullNode();
+
+        if (before.isObject() && after.isObject()) {
+            Set<String> allKeys = new LinkedHashSet<>();
+            before.fieldNames().forEachRemaining(allKeys::add);
+            after.fieldNames().forEachRemaining(allKeys::add);
+
+            for (String key : allKeys) {
+                if (prefix.isEmpty() && IGNORED_FIELDS_ROOT.contains(key)) continue;
+                if (IGNORED_FIELDS_ANY_LEVEL.contains(key)) continue;
+                String path = prefix.isEmpty() ? key : prefix + "." + key;
+                computeDiff(path, before.get(key), after.get(key), changes);
+            }
+        } else if (before.isArray() && after.isArray()) {
+            int maxLen = Math.max(before.size(), after.size());
+            for (int i = 0; i < maxLen; i++) {
+                String path = prefix + "[" + i + "]";
+                JsonNode bElem = i < before.size() ? before.get(i) : null;
+                JsonNode aElem = i < after.size() ? after.get(i) : null;
+
+                if (bElem == null && aElem != null) {
+                    changes.add(changeEntry(path, "null", nodeToString(aElem)));
+                } else if (bElem != null && aElem == null) {
+                    changes.add(changeEntry(path, nodeToString(bElem), "(removido)"));
+                } else {
+                    computeDiff(path, bElem, aElem, changes);
+                }
+            }
+        } else {
+            String bVal = nodeToString(before);
+            String aVal = nodeToString(after);
+            if (!bVal.equals(aVal)) {
+                changes.add(changeEntry(prefix, bVal, aVal));
+            }
+        }
+    }
+
+    private static String nodeToString(JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) return "null";
+        if (node.isTextual()) return node.asText();
+        if (node.isNumber()) return node.asText();
+        if (node.isBoolean()) return node.asText();
+        return node.toString();
+    }
+
+    private static Map<String, String> changeEntry(String path, String oldValue, String newValue) {
+        Map<String, String> entry = new LinkedHashMap<>();
+        entry.put("path", path);
+        entry.put("oldValue", oldValue);
+        entry.put("newValue", newValue);
+        return entry;
+    }
+}
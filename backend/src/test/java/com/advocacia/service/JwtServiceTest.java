@@ -0,0 +1,70 @@
+package com.advocacia.service;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Validação de tokens: claims verificadas uma vez e reaproveitadas do cache; token adulterado ou expirado não entra.
+ */
+class JwtServiceTest {
+
+    static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    static final UserDetails ADMIN = User.withUsername("admin").password("x").roles("ADMIN").build();
+
+    @Test
+    void tokenValido_claimsVemDoCacheNasChamadasSeguintes() {
+        JwtService jwt = new JwtService(SECRET, 60_000, 100);
+        String token = jwt.generateToken(ADMIN);
+
+        Claims claims = jwt.extractAllClaims(token);
+
+        assertThat(claims.getSubject()).isEqualTo("admin");
+        assertThat(jwt.extractAllClaims(token)).isSameAs(claims);
+        assertThat(jwt.isTokenValid(claims, ADMIN)).isTrue();
+        assertThat(jwt.isTokenValid(token, User.withUsername("outro").password("x").build())).isFalse();
+    }
+
+    @Test
+    void tokenAdulterado_lancaENaoUsaCache() {
+        JwtService jwt = new JwtService(SECRET, 60_000, 100);
+        String token = jwt.generateToken(ADMIN);
+        jwt.extractAllClaims(token);
+
+        String adulterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> jwt.extractAllClaims(adulterado)).isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void tokenExpirado_lanca() {
+        JwtService jwt = new JwtService(SECRET, -1_000, 100);
+        String token = jwt.generateToken(ADMIN);
+
+        assertThatThrownBy(() -> jwt.extractAllClaims(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void cacheCheio_continuaValidando() {
+        JwtService jwt = new JwtService(SECRET, 60_000, 2);
+        for (int i = 0; i < 5; i++) {
+            UserDetails usuario = User.withUsername("user" + i).password("x").build();
+            assertThat(jwt.extractAllClaims(jwt.generateToken(usuario)).getSubject()).isEqualTo("user" + i);
+        }
+    }
+
+    @Test
+    void semCache_verificaTodaVez() {
+        JwtService jwt = new JwtService(SECRET, 60_000, 0);
+        String token = jwt.generateToken(ADMIN);
+
+        assertThat(jwt.extractAllClaims(token)).isNotSameAs(jwt.extractAllClaims(token));
+        assertThat(jwt.isTokenValid(token, ADMIN)).isTrue();
+    }
+}
@@ -0,0 +1,60 @@
+package com.advocacia.service;
+
+import com.advocacia.dto.ParcelaItemDto;
+import com.advocacia.entity.Contrato;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cronograma de parcelas: geração (preview) e conferência ao salvar, com 12, 120 e 480 parcelas.
+ * <p>
+ * Execução: {@code mvn test-compile exec:java -Dexec.mainClass=com.advocacia.service.ParcelamentoBenchmark -Dexec.classpathScope=test}
+ * (ou rodar o {@code main} pela IDE).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParcelamentoBenchmark {
+
+    private static final BigDecimal SALDO = new BigDecimal("987654.32");
+    private static final LocalDate PRIMEIRA = LocalDate.of(2025, 1, 31);
+
+    @Param({"12", "120", "480"})
+    public int parcelas;
+
+    private ParcelamentoService service;
+    private Contrato contrato;
+    private List<ParcelaItemDto> cronograma;
+
+    @Setup
+    public void setup() {
+        service = new ParcelamentoService(new String[0]);
+        contrato = Contrato.builder().negocioValorTotal(SALDO).negocioNumParcelas(parcelas).build();
+        cronograma = service.gerar(SALDO, parcelas, PRIMEIRA, null);
+    }
+
+    @Benchmark
+    public List<ParcelaItemDto> gerar() {
+        return service.gerar(SALDO, parcelas, PRIMEIRA, null);
+    }
+
+    @Benchmark
+    public List<ParcelaItemDto> validar() {
+        service.validar(contrato, cronograma);
+        return cronograma;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ParcelamentoBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,184 @@
+package com.advocacia.service;
+
+import com.advocacia.dto.ParcelaItemDto;
+import com.advocacia.dto.ParcelamentoPreviewRequest;
+import com.advocacia.dto.ParcelamentoPreviewResponse;
+import com.advocacia.entity.Contrato;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Cronograma de parcelas: centavos exatos (resto na última), vencimentos em dia útil bancário, conferência ao salvar.
+ */
+class ParcelamentoServiceTest {
+
+    private final ParcelamentoService service = new ParcelamentoService(new String[0]);
+
+    @Test
+    void centavos_restoNaUltimaParcela() {
+        List<ParcelaItemDto> parcelas = service.gerar(new BigDecimal("1000.00"), 3, LocalDate.of(2025, 1, 10), null);
+
+        assertThat(parcelas).extracting(ParcelaItemDto::getValor)
+                .containsExactly(new BigDecimal("333.33"), new BigDecimal("333.33"), new BigDecimal("333.34"));
+        assertThat(parcelas).extracting(ParcelaItemDto::getNumero).containsExactly(1, 2, 3);
+        assertThat(parcelas).extracting(ParcelaItemDto::getVencimento)
+                .containsExactly("2025-01-10", "2025-02-10", "2025-03-10");
+    }
+
+    @Test
+    void quatrocentasEOitentaParcelas_somamOSaldo() {
+        List<ParcelaItemDto> parcelas = service.gerar(new BigDecimal("100000.00"), 480, LocalDate.of(2025, 1, 10), null);
+
+        assertThat(parcelas).hasSize(480);
+        assertThat(parcelas.get(0).getValor()).isEqualTo(new BigDecimal("208.33"));
+        assertThat(parcelas.get(479).getValor()).isEqualTo(new BigDecimal("209.93"));
+        assertThat(parcelas.stream().map(ParcelaItemDto::getValor).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualTo(new BigDecimal("100000.00"));
+        assertThat(parcelas.get(479).getVencimento()).startsWith("2064-12");
+    }
+
+    @Test
+    void vencimentos_adiadosParaODiaUtil() {
+        // Sábado
+        assertThat(service.proximoDiaUtil(LocalDate.of(2025, 5, 10))).isEqualTo(LocalDate.of(2025, 5, 12));
+        // Tiradentes (segunda)
+        assertThat(service.proximoDiaUtil(LocalDate.of(2025, 4, 21))).isEqualTo(LocalDate.of(2025, 4, 22));
+        // Carnaval: segunda e terça
+        assertThat(service.proximoDiaUtil(LocalDate.of(2025, 3, 3))).isEqualTo(LocalDate.of(2025, 3, 5));
+        // Sexta-feira Santa e Corpus Christi
+        assertThat(service.diaUtil(LocalDate.of(2025, 4, 18))).isFalse();
+        assertThat(service.diaUtil(LocalDate.of(2025, 6, 19))).isFalse();
+        // Consciência Negra só a partir de 2024
+        assertThat(service.diaUtil(LocalDate.of(2025, 11, 20))).isFalse();
+        assertThat(service.diaUtil(LocalDate.of(2023, 11, 20))).isTrue();
+
+        assertThat(ParcelamentoService.pascoa(2024)).isEqualTo(LocalDate.of(2024, 3, 31));
+        assertThat(ParcelamentoService.pascoa(2026)).isEqualTo(LocalDate.of(2026, 4, 5));
+    }
+
+    @Test
+    void diaDoVencimento_limitadoAoFimDoMes() {
+        List<ParcelaItemDto> parcelas = service.gerar(new BigDecimal("400.00"), 4, LocalDate.of(2025, 1, 31), null);
+
+        assertThat(parcelas).extracting(ParcelaItemDto::getVencimento)
+                .containsExactly("2025-01-31", "2025-02-28", "2025-03-31", "2025-04-30");
+    }
+
+    @Test
+    void feriadoAdicionalConfigurado() {
+        ParcelamentoService comFeriado = new ParcelamentoService(new String[]{"2025-02-10", " "});
+
+        assertThat(comFeriado.gerar(new BigDecimal("200.00"), 2, LocalDate.of(2025, 1, 10), null))
+                .extracting(ParcelaItemDto::getVencimento)
+                .containsExactly("2025-01-10", "2025-02-11");
+    }
+
+    @Test
+    void preview_descontaEntradaPermutasEFinanciamento() {
+        ParcelamentoPreviewResponse response = service.preview(ParcelamentoPreviewRequest.builder()
+                .negocioValorTotal(new BigDecimal("250000"))
+                .negocioValorEntrada(new BigDecimal("50000"))
+                .negocioValorImovelPermuta(new BigDecimal("100000"))
+                .negocioValorVeiculoPermuta(new BigDecimal("40000"))
+                .negocioValorFinanciamento(new BigDecimal("50000.01"))
+                .negocioNumParcelas(3)
+                .negocioDataPrimeiraParcela(LocalDate.of(2025, 1, 2))
+                .negocioVencimentos("Todo dia 15")
+                .build());
+
+        assertThat(response.getSaldo()).isEqualTo(new BigDecimal("9999.99"));
+        assertThat(response.getParcelas()).extracting(ParcelaItemDto::getValor)
+                .containsExactly(new BigDecimal("3333.33"), new BigDecimal("3333.33"), new BigDecimal("3333.33"));
+        assertThat(response.getParcelas()).extracting(ParcelaItemDto::getVencimento)
+                .containsExactly("2025-01-15", "2025-02-17", "2025-03-17");
+    }
+
+    @Test
+    void preview_semSaldoOuParametrosInvalidos() {
+        ParcelamentoPreviewRequest quitado = ParcelamentoPreviewRequest.builder()
+                .negocioValorTotal(new BigDecimal("100")).negocioValorEntrada(new BigDecimal("150")).build();
+        assertThat(service.preview(quitado).getParcelas()).isEmpty();
+        assertThat(service.preview(quitado).getSaldo()).isEqualByComparingTo("0");
+
+        assertThatThrownBy(() -> service.gerar(BigDecimal.TEN, 481, LocalDate.of(2025, 1, 1), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.gerar(BigDecimal.TEN, 2, null, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(ParcelamentoService.parseDiaVencimento("dia 45")).isNull();
+        assertThat(ParcelamentoService.parseDiaVencimento("5")).isEqualTo(5);
+    }
+
+    @Test
+    void preview_mantemParcelasPagasEDivideORestante() {
+        // 1ª parcela paga com vencimento antigo; o total sobe de 1200 para 1500
+        ParcelaItemDto paga = parcela(1, "2025-01-03", "300.00");
+        paga.setPagoEm("2025-01-03");
+        ParcelamentoPreviewResponse response = service.preview(ParcelamentoPreviewRequest.builder()
+                .negocioValorTotal(new BigDecimal("1500.01"))
+                .negocioNumParcelas(4)
+                .negocioDataPrimeiraParcela(LocalDate.of(2025, 1, 10))
+                .parcelasPagas(List.of(paga))
+                .build());
+
+        assertThat(response.getParcelas()).extracting(ParcelaItemDto::getValor).containsExactly(
+                new BigDecimal("300.00"), new BigDecimal("400.00"), new BigDecimal("400.00"), new BigDecimal("400.01"));
+        assertThat(response.getParcelas()).extracting(ParcelaItemDto::getVencimento)
+                .containsExactly("2025-01-03", "2025-02-10", "2025-03-10", "2025-04-10");
+        assertThat(response.getParcelas().get(0).getPago()).isTrue();
+        assertThat(response.getParcelas().get(0).getPagoEm()).isEqualTo("2025-01-03");
+    }
+
+    @Test
+    void parcelasPagas_foraDoCronogramaOuAcimaDoSaldo() {
+        LocalDate primeira = LocalDate.of(2025, 1, 10);
+        List<ParcelaItemDto> ultimaPaga = List.of(parcela(2, "2025-02-10", "500.00"));
+
+        // Última paga: o saldo restante vai todo para a 1ª, a única em aberto
+        assertThat(service.gerar(new BigDecimal("1000.00"), 2, primeira, null, ultimaPaga))
+                .extracting(ParcelaItemDto::getValor)
+                .containsExactly(new BigDecimal("500.00"), new BigDecimal("500.00"));
+        assertThatThrownBy(() -> service.gerar(new BigDecimal("1000.00"), 1, primeira, null, ultimaPaga))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("Parcela 2 já está paga");
+        assertThatThrownBy(() -> service.gerar(new BigDecimal("400.00"), 2, primeira, null, ultimaPaga))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("saldo");
+        assertThatThrownBy(() -> service.gerar(new BigDecimal("600.00"), 1, primeira, null,
+                List.of(parcela(1, "2025-01-10", "500.00"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("saldo");
+    }
+
+    @Test
+    void validar_confereSomaNumeracaoEQuantidade() {
+        Contrato contrato = Contrato.builder()
+                .negocioValorTotal(new BigDecimal("1000.00"))
+                .negocioValorEntrada(new BigDecimal("400.00"))
+                .negocioNumParcelas(2)
+                .build();
+
+        service.validar(contrato, List.of(parcela(1, "2025-01-10", "300.00"), parcela(2, "2025-02-10", "300")));
+
+        assertThatThrownBy(() -> service.validar(contrato,
+                List.of(parcela(1, "2025-01-10", "300.00"), parcela(2, "2025-02-10", "299.99"))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("saldo");
+        assertThatThrownBy(() -> service.validar(contrato,
+                List.of(parcela(1, "2025-01-10", "300.00"), parcela(3, "2025-02-10", "300.00"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.validar(contrato,
+                List.of(parcela(1, "2025-01-10", "300.001"), parcela(2, "2025-02-10", "299.999"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.validar(contrato,
+                List.of(parcela(1, "10/01/2025", "300.00"), parcela(2, "2025-02-10", "300.00"))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.validar(contrato, List.of(parcela(1, "2025-01-10", "600.00"))))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static ParcelaItemDto parcela(int numero, String vencimento, String valor) {
+        return ParcelaItemDto.builder().numero(numero).vencimento(vencimento).valor(new BigDecimal(valor)).build();
+    }
+}
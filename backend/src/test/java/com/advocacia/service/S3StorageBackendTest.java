@@ -0,0 +1,146 @@
+package com.advocacia.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Backend S3: chaves com prefixo, multipart acima do tamanho de parte, leitura por intervalo e objeto inexistente.
+ * O cliente é um stub; contra MinIO real, ver {@code S3StorageBackendMinioIntegrationTest}.
+ */
+class S3StorageBackendTest {
+
+    @TempDir
+    Path tempDir;
+
+    private S3Client s3;
+    private S3StorageBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        // Métodos com Consumer<Builder> são default no S3Client e delegam para a variante com request
+        s3 = mock(S3Client.class, withSettings().defaultAnswer(CALLS_REAL_METHODS));
+        backend = new S3StorageBackend(s3, "anexos", "advocacia", 4);
+    }
+
+    @Test
+    void put_arquivoPequeno_putObjectComPrefixoERemoveOrigem() throws Exception {
+        Path origem = arquivo("0123");
+        doReturn(PutObjectResponse.builder().build()).when(s3).putObject(any(PutObjectRequest.class), any(RequestBody.class));
+
+        backend.put("ab/cd/abcd", origem);
+
+        ArgumentCaptor<PutObjectRequest> request = ArgumentCaptor.forClass(PutObjectRequest.class);
+        verify(s3).putObject(request.capture(), any(RequestBody.class));
+        assertThat(request.getValue().bucket()).isEqualTo("anexos");
+        assertThat(request.getValue().key()).isEqualTo("advocacia/ab/cd/abcd");
+        assertThat(origem).doesNotExist();
+        verify(s3, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void put_arquivoGrande_multipartLendoFatiasDoArquivo() throws Exception {
+        Path origem = arquivo("0123456789");
+        doReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build())
+                .when(s3).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+        List<String> partes = new ArrayList<>();
+        doAnswer(inv -> {
+            RequestBody body = inv.getArgument(1);
+            try (InputStream in = body.contentStreamProvider().newStream()) {
+                partes.add(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            return UploadPartResponse.builder().eTag("e" + partes.size()).build();
+        }).when(s3).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        doReturn(CompleteMultipartUploadResponse.builder().build())
+                .when(s3).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+
+        backend.put("ab/cd/abcd", origem);
+
+        assertThat(partes).containsExactly("0123", "4567", "89");
+        ArgumentCaptor<CompleteMultipartUploadRequest> complete = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3).completeMultipartUpload(complete.capture());
+        assertThat(complete.getValue().uploadId()).isEqualTo("u1");
+        assertThat(complete.getValue().multipartUpload().parts()).extracting(CompletedPart::eTag).containsExactly("e1", "e2", "e3");
+        verify(s3, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void put_falhaNumaParte_abortaMultipart() throws Exception {
+        Path origem = arquivo("0123456789");
+        doReturn(CreateMultipartUploadResponse.builder().uploadId("u1").build())
+                .when(s3).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+        doThrow(S3Exception.builder().statusCode(500).message("erro").build())
+                .when(s3).uploadPart(any(UploadPartRequest.class), any(RequestBody.class));
+        doReturn(AbortMultipartUploadResponse.builder().build())
+                .when(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+
+        assertThatThrownBy(() -> backend.put("ab/cd/abcd", origem)).isInstanceOf(IOException.class);
+
+        verify(s3).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void open_intervalo_enviaRangeDoTrecho() throws Exception {
+        doReturn(new ResponseInputStream<>(GetObjectResponse.builder().build(),
+                AbortableInputStream.create(new ByteArrayInputStream("56789".getBytes(StandardCharsets.UTF_8)))))
+                .when(s3).getObject(any(GetObjectRequest.class));
+
+        try (InputStream in = backend.open("ab/cd/abcd", 5, 5)) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("56789");
+        }
+
+        ArgumentCaptor<GetObjectRequest> request = ArgumentCaptor.forClass(GetObjectRequest.class);
+        verify(s3).getObject(request.capture());
+        assertThat(request.getValue().range()).isEqualTo("bytes=5-9");
+        assertThat(request.getValue().key()).isEqualTo("advocacia/ab/cd/abcd");
+    }
+
+    @Test
+    void size_objetoInexistente_retornaMenosUm() throws Exception {
+        doThrow(NoSuchKeyException.builder().statusCode(404).build()).when(s3).headObject(any(HeadObjectRequest.class));
+
+        assertThat(backend.size("ab/cd/abcd")).isEqualTo(-1);
+    }
+
+    @Test
+    void list_removePrefixoDasChaves() throws Exception {
+        Instant agora = Instant.now();
+        doReturn(ListObjectsV2Response.builder().isTruncated(false)
+                .contents(S3Object.builder().key("advocacia/.uploads/u1/0").size(4L).lastModified(agora).build())
+                .build()).when(s3).listObjectsV2(any(ListObjectsV2Request.class));
+
+        assertThat(backend.list(".uploads/"))
+                .containsExactly(new StorageBackend.StoredObject(".uploads/u1/0", 4, agora));
+    }
+
+    private Path arquivo(String conteudo) {
+        try {
+            return Files.writeString(tempDir.resolve("origem.part"), conteudo, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
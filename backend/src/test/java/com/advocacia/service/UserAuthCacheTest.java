@@ -0,0 +1,100 @@
+package com.advocacia.service;
+
+import com.advocacia.entity.User;
+import com.advocacia.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Autenticação pelas claims: uma consulta por usuário dentro do TTL, versão do token conferida, invalidação explícita.
+ */
+class UserAuthCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtService jwt = new JwtService(JwtServiceTest.SECRET, 60_000, 100);
+    private UserAuthCache cache;
+    private User maria;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserAuthCache(userRepository, Duration.ofMinutes(1), 100);
+        maria = User.builder().id(7L).username("maria").password("x").role("USER").tokenVersion(2).build();
+        when(userRepository.findByUsername("maria")).thenAnswer(inv -> Optional.of(copia(maria)));
+    }
+
+    @Test
+    void tokenValido_consultaOBancoUmaVez() {
+        Claims claims = jwt.extractAllClaims(jwt.generateToken(maria));
+
+        assertThat(cache.resolve(claims)).get().extracting(User::getId).isEqualTo(7L);
+        assertThat(cache.resolve(claims)).isPresent();
+        assertThat(claims.get(JwtService.CLAIM_ROLE, String.class)).isEqualTo("USER");
+        verify(userRepository, times(1)).findByUsername("maria");
+    }
+
+    @Test
+    void versaoAlterada_tokenAntigoRecusadoAposInvalidacao() {
+        Claims antigo = jwt.extractAllClaims(jwt.generateToken(maria));
+        assertThat(cache.resolve(antigo)).isPresent();
+
+        maria.setTokenVersion(3);
+        cache.invalidateAfterCommit("maria");
+
+        assertThat(cache.resolve(antigo)).isEmpty();
+    }
+
+    @Test
+    void tokenMaisNovoQueOCache_recarregaUsuario() {
+        assertThat(cache.resolve(jwt.extractAllClaims(jwt.generateToken(maria)))).isPresent();
+
+        // Login logo após uma alteração feita em outro nó: o cache ainda tem a versão anterior
+        maria.setTokenVersion(3);
+        Claims novo = jwt.extractAllClaims(jwt.generateToken(maria));
+
+        assertThat(cache.resolve(novo)).isPresent();
+        verify(userRepository, times(2)).findByUsername("maria");
+    }
+
+    @Test
+    void usuarioInativoOuTokenSemVersao_recusados() {
+        Claims claims = jwt.extractAllClaims(jwt.generateToken(maria));
+        maria.setActive(false);
+        cache.invalidate("maria");
+
+        assertThat(cache.resolve(claims)).isEmpty();
+        // Token emitido sem as claims de autenticação: fica com o carregamento pelo banco
+        assertThat(cache.resolve(jwt.extractAllClaims(jwt.generateToken((UserDetails) maria)))).isEmpty();
+    }
+
+    @Test
+    void mesmoUsernameOutroId_tokenDaContaAntigaRecusado() {
+        // Conta excluída; o username é reaproveitado por uma conta nova, também na versão 2
+        User antiga = User.builder().id(3L).username("maria").password("x").role("ADMIN").tokenVersion(2).build();
+        Claims claims = jwt.extractAllClaims(jwt.generateToken(antiga));
+
+        assertThat(cache.resolve(claims)).isEmpty();
+    }
+
+    @Test
+    void perfilDaClaimDiferenteDoGravado_valeOGravado() {
+        User comoAdmin = copia(maria);
+        comoAdmin.setRole("ADMIN");
+        Claims claims = jwt.extractAllClaims(jwt.generateToken(comoAdmin));
+
+        assertThat(claims.get(JwtService.CLAIM_ROLE, String.class)).isEqualTo("ADMIN");
+        assertThat(cache.resolve(claims)).get().extracting(User::getRole).isEqualTo("USER");
+    }
+
+    private static User copia(User u) {
+        return User.builder().id(u.getId()).username(u.getUsername()).password(u.getPassword())
+                .role(u.getRole()).active(u.getActive()).tokenVersion(u.getTokenVersion()).build();
+    }
+}
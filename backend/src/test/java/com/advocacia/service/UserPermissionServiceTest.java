@@ -0,0 +1,69 @@
+package com.advocacia.service;
+
+import com.advocacia.entity.Screen;
+import com.advocacia.entity.User;
+import com.advocacia.repository.ScreenRepository;
+import com.advocacia.repository.UserRepository;
+import com.advocacia.repository.UserScreenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Permissões por tela: consulta uma vez por usuário, invalidação ao salvar e as regras do guard de rotas.
+ */
+class UserPermissionServiceTest {
+
+    private final ScreenRepository screenRepository = mock(ScreenRepository.class);
+    private final UserScreenRepository userScreenRepository = mock(UserScreenRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final UserPermissionService service = new UserPermissionService(
+            screenRepository, userScreenRepository, userRepository, Duration.ofMinutes(5), 100);
+
+    private final User joao = User.builder().id(5L).username("joao").password("x").role("USER").build();
+
+    @Test
+    void telasDoUsuario_consultaUmaVezEInvalidaAoSalvar() {
+        when(userScreenRepository.findScreenCodesByUserId(5L)).thenReturn(List.of("contratos")).thenReturn(List.of("usuarios"));
+        when(userRepository.findById(5L)).thenReturn(Optional.of(joao));
+        when(screenRepository.findByCode("usuarios"))
+                .thenReturn(Optional.of(Screen.builder().id(3L).code("usuarios").label("Usuários").route("/usuarios").build()));
+
+        Authentication auth = autenticacao(joao);
+        assertThat(service.hasScreenAccess(auth, "contratos")).isTrue();
+        assertThat(service.findScreenCodesByUserId(5L)).containsExactly("contratos");
+        verify(userScreenRepository, times(1)).findScreenCodesByUserId(5L);
+
+        service.updateUserScreens(5L, List.of("usuarios"));
+
+        assertThat(service.hasScreenAccess(auth, "contratos")).isFalse();
+        assertThat(service.hasScreenAccess(auth, "contratos", "usuarios")).isTrue();
+        verify(userScreenRepository, times(2)).findScreenCodesByUserId(5L);
+        verify(userScreenRepository).save(any());
+    }
+
+    @Test
+    void semTelas_soDashboard_eAdminAcessaTudo() {
+        when(userScreenRepository.findScreenCodesByUserId(5L)).thenReturn(List.of());
+        Authentication auth = autenticacao(joao);
+
+        assertThat(service.hasScreenAccess(auth, UserPermissionService.SCREEN_DASHBOARD)).isTrue();
+        assertThat(service.hasScreenAccess(auth, "contratos")).isFalse();
+
+        User admin = User.builder().id(1L).username("admin").password("x").role("ADMIN").build();
+        assertThat(service.hasScreenAccess(autenticacao(admin), "permissoes")).isTrue();
+        verify(userScreenRepository, never()).findScreenCodesByUserId(1L);
+    }
+
+    private static Authentication autenticacao(User user) {
+        return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+    }
+}
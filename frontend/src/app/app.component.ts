@@ -482,6 +482,7 @@ export class AppComponent implements OnInit {
     if (this.isMobile) {
       this.sidebarCollapsed = true;
     }
+    this.authService.refreshScreens();
   }
 
   @HostListener('window:resize')
@@ -1,7 +1,9 @@
 import { Component, OnInit, ViewChild, ElementRef } from '@angular/core';
 import { CommonModule } from '@angular/common';
 import { ReactiveFormsModule, FormBuilder, FormGroup, FormArray } from '@angular/forms';
-import { ContratoService, ContratoResponse, ContratoRequest, ContratoAnexo, VendedorData, CompradorData, ContratoAlteracao, FieldChange, ParcelaItem } from '../../services/contrato.service';
+import { Observable, merge, of } from 'rxjs';
+import { catchError, debounceTime, filter, map, switchMap } from 'rxjs/operators';
+import { ContratoService, ContratoResponse, ContratoRequest, ContratoAnexo, VendedorData, CompradorData, ContratoAlteracao, FieldChange, ParcelaItem, ParcelamentoPreviewRequest } from '../../services/contrato.service';
 
 interface Step {
   number: number;
@@ -46,8 +48,12 @@ export class ContratosComponent implements OnInit {
   vendedorCollapsed: boolean[] = [false];
   compradorCollapsed: boolean[] = [false];
 
-  // Parcelamento: sempre disponível quando há saldo a pagar; lista carregada do backend ao editar
+  // Parcelamento: cronograma gerado pelo backend quando há saldo a pagar; lista carregada do backend ao editar
   parcelasList: ParcelaItem[] = [];
+  /** Valores do negócio que geraram parcelasList (evita nova prévia com os mesmos valores). */
+  private chaveParcelamento: string | null = null;
+  /** Erro da última prévia do parcelamento: a lista anterior é mantida e o salvamento fica bloqueado. */
+  parcelamentoErro: string | null = null;
   /** Último saldo usado para gerar parcelas (para aviso de recálculo). */
   ultimoSaldoParcelado: number | null = null;
   /** Exibir aviso "Parcelas recalculadas pelo novo saldo." */
@@ -63,7 +69,10 @@ export class ContratosComponent implements OnInit {
 
   // Anexos
   anexos: ContratoAnexo[] = [];
+  /** Miniaturas dos anexos (object URLs) por id */
+  previas: Record<number, string> = {};
   isUploading = false;
+  isBaixandoZip = false;
 
   @ViewChild('fileInput') fileInput!: ElementRef<HTMLInputElement>;
   @ViewChild('cameraInput') cameraInput!: ElementRef<HTMLInputElement>;
@@ -76,6 +85,7 @@ export class ContratosComponent implements OnInit {
   ngOnInit(): void {
     this.initForm();
     this.setupParcelamentoSaldoWatch();
+    this.setupParcelamentoPreview();
     this.loadContratos();
   }
 
@@ -97,6 +107,25 @@ export class ContratosComponent implements OnInit {
     this.contratoForm.get('negocioValorTotal')?.valueChanges.subscribe(checkRecalc);
     this.contratoForm.get('negocioValorImovelPermuta')?.valueChanges.subscribe(checkRecalc);
     this.contratoForm.get('negocioValorVeiculoPermuta')?.valueChanges.subscribe(checkRecalc);
+    this.contratoForm.get('negocioValorEntrada')?.valueChanges.subscribe(checkRecalc);
+    this.contratoForm.get('negocioValorFinanciamento')?.valueChanges.subscribe(checkRecalc);
+  }
+
+  /** Regera o cronograma no backend (dias úteis, centavos exatos) quando os valores do negócio mudam. */
+  private setupParcelamentoPreview(): void {
+    const campos = ['negocioValorTotal', 'negocioValorEntrada', 'negocioValorImovelPermuta', 'negocioValorVeiculoPermuta',
+      'negocioValorFinanciamento', 'negocioNumParcelas', 'negocioDataPrimeiraParcela', 'negocioVencimentos'];
+    merge(...campos.map(c => this.contratoForm.get(c)!.valueChanges)).pipe(
+      debounceTime(300),
+      map(() => this.getParcelamentoRequest()),
+      filter(req => JSON.stringify(req) !== this.chaveParcelamento),
+      switchMap(req => {
+        this.chaveParcelamento = JSON.stringify(req);
+        return this.gerarParcelas(req);
+      })
+    ).subscribe(parcelas => {
+      if (parcelas) this.parcelasList = parcelas;
+    });
   }
 
   initForm(): void {
@@ -303,6 +332,8 @@ export class ContratosComponent implements OnInit {
     this.ultimoSaldoParcelado = null;
     this.parcelasRecalculadasAviso = false;
     this.parcelasList = [];
+    this.chaveParcelamento = null;
+    this.parcelamentoErro = null;
     this.contratoForm.reset();
     // Reset form arrays to single item
     this.vendedoresArray.clear();
@@ -426,6 +457,10 @@ export class ContratosComponent implements OnInit {
     this.error = null;
     this.successMessage = null;
     this.parcelasList = contrato.parcelas ?? [];
+    this.parcelamentoErro = null;
+    // Parcelas salvas que não somam o saldo atual (ex.: gravadas antes de descontar entrada/financiamento) são regeradas
+    const soma = Math.round(this.parcelasList.reduce((t, p) => t + this.toNumber(p.valor), 0) * 100) / 100;
+    this.chaveParcelamento = soma === this.getSaldoEmDinheiro() ? JSON.stringify(this.getParcelamentoRequest()) : null;
     if (this.parcelasList.length > 0) this.ultimoSaldoParcelado = this.getSaldoEmDinheiro();
     this.carregarAnexos();
   }
@@ -448,6 +483,7 @@ export class ContratosComponent implements OnInit {
     this.vendedorCollapsed = [false];
     this.compradorCollapsed = [false];
     this.anexos = [];
+    this.limparPrevias();
     this.loadContratos();
   }
 
@@ -557,7 +593,12 @@ export class ContratosComponent implements OnInit {
       return;
     }
 
-    const parcelas = this.getParcelasList();
+    const parcelas = await this.atualizarParcelas();
+    if (parcelas == null) {
+      this.error = this.parcelamentoErro;
+      this.isSaving = false;
+      return;
+    }
     const diaVenc = this.parseDiaVencimento(formData.negocioVencimentos);
     const request: ContratoRequest = {
       ...formData,
@@ -570,7 +611,7 @@ export class ContratosComponent implements OnInit {
       negocioDataPrimeiraParcela: formData.negocioDataPrimeiraParcela || undefined,
       negocioValorParcela: this.getValorEstimadoParcela() || undefined,
       negocioVencimentos: diaVenc != null ? String(diaVenc) : formData.negocioVencimentos,
-      parcelas: parcelas.length > 0 ? parcelas : undefined
+      parcelas
     };
 
     try {
@@ -671,12 +712,14 @@ export class ContratosComponent implements OnInit {
     }).format(value);
   }
 
-  /** Saldo a pagar em dinheiro = valor total - imóvel permuta - veículo permuta (mín. 0). */
+  /** Saldo a pagar em dinheiro = valor total - entrada - imóvel permuta - veículo permuta - financiamento (mín. 0). */
   getSaldoEmDinheiro(): number {
     const total = this.toNumber(this.contratoForm.get('negocioValorTotal')?.value);
+    const entrada = this.toNumber(this.contratoForm.get('negocioValorEntrada')?.value);
     const imovel = this.toNumber(this.contratoForm.get('negocioValorImovelPermuta')?.value);
     const veiculo = this.toNumber(this.contratoForm.get('negocioValorVeiculoPermuta')?.value);
-    return Math.max(0, total - imovel - veiculo);
+    const financiamento = this.toNumber(this.contratoForm.get('negocioValorFinanciamento')?.value);
+    return Math.max(0, Math.round((total - entrada - imovel - veiculo - financiamento) * 100) / 100);
   }
 
   /** Alias para uso no template (Saldo a pagar). */
@@ -684,35 +727,69 @@ export class ContratosComponent implements OnInit {
     return this.getSaldoEmDinheiro();
   }
 
-  /** Lista de parcelas: gerada quando há saldo e n/data válidos; senão lista carregada do backend. */
+  /** Lista de parcelas: cronograma gerado pelo backend (ou carregado ao editar). */
   getParcelasList(): ParcelaItem[] {
-    if (this.getSaldoAPagar() > 0) return this.buildParcelas();
     return this.parcelasList;
   }
 
-  /** Monta parcelas a partir dos controles do formulário (delega para gerarParcelas). */
-  buildParcelas(): ParcelaItem[] {
-    const saldoAPagar = this.getSaldoAPagar();
-    const n = this.toNumber(this.contratoForm.get('negocioNumParcelas')?.value);
-    const firstStr = (this.contratoForm.get('negocioDataPrimeiraParcela')?.value as string) || null;
-    const diaVencimento = this.parseDiaVencimento(this.contratoForm.get('negocioVencimentos')?.value);
-    return this.gerarParcelas(saldoAPagar, n, firstStr, diaVencimento);
-  }
-
-  /** Gera array de parcelas: totalParcelar/n com última parcela ajustada; datas +1 mês com dia opcional. */
-  gerarParcelas(saldoAPagar: number, n: number, dataPrimeira: string | null, diaVencimento?: number | null): ParcelaItem[] {
-    if (!dataPrimeira || n < 1) return [];
-    const valorBase = Math.round((saldoAPagar / n) * 100) / 100;
-    const out: ParcelaItem[] = [];
-    let soma = 0;
-    for (let i = 1; i < n; i++) {
-      const venc = this.addMonthsWithDay(dataPrimeira, i - 1, diaVencimento ?? null);
-      out.push({ numero: i, vencimento: venc, valor: valorBase });
-      soma += valorBase;
+  /**
+   * Valores do negócio enviados para a prévia do parcelamento. As parcelas já pagas vão junto para o backend
+   * mantê-las e regerar só as em aberto (alterar uma parcela paga faria o salvamento ser recusado).
+   */
+  private getParcelamentoRequest(): ParcelamentoPreviewRequest {
+    const f = this.contratoForm.value;
+    const dia = this.parseDiaVencimento(f.negocioVencimentos);
+    const pagas = this.parcelasList.filter(p => p.pago);
+    return {
+      negocioValorTotal: this.toNumber(f.negocioValorTotal),
+      negocioValorEntrada: this.toNumber(f.negocioValorEntrada),
+      negocioValorImovelPermuta: this.toNumber(f.negocioValorImovelPermuta),
+      negocioValorVeiculoPermuta: this.toNumber(f.negocioValorVeiculoPermuta),
+      negocioValorFinanciamento: this.toNumber(f.negocioValorFinanciamento),
+      negocioNumParcelas: this.toNumber(f.negocioNumParcelas) || undefined,
+      negocioDataPrimeiraParcela: f.negocioDataPrimeiraParcela || undefined,
+      negocioVencimentos: dia != null ? String(dia) : undefined,
+      parcelasPagas: pagas.length > 0 ? pagas : undefined
+    };
+  }
+
+  /**
+   * Cronograma do backend; vazio sem saldo ou sem nº de parcelas/1º vencimento. Em caso de erro emite null
+   * (a lista atual é mantida) e registra a mensagem em parcelamentoErro.
+   */
+  private gerarParcelas(req: ParcelamentoPreviewRequest): Observable<ParcelaItem[] | null> {
+    if (this.getSaldoAPagar() <= 0 || !req.negocioNumParcelas || !req.negocioDataPrimeiraParcela) {
+      this.parcelamentoErro = null;
+      return of([]);
     }
-    const lastValor = Math.round((saldoAPagar - soma) * 100) / 100;
-    out.push({ numero: n, vencimento: this.addMonthsWithDay(dataPrimeira, n - 1, diaVencimento ?? null), valor: lastValor });
-    return out;
+    return this.contratoService.previewParcelamento(req).pipe(
+      map(r => {
+        this.parcelamentoErro = null;
+        return r.parcelas;
+      }),
+      catchError(err => {
+        this.parcelamentoErro = err?.error?.message || 'Não foi possível gerar as parcelas. Tente salvar novamente.';
+        // Nova tentativa na próxima alteração ou ao salvar
+        this.chaveParcelamento = null;
+        return of(null);
+      })
+    );
+  }
+
+  /**
+   * Garante parcelas geradas com os valores atuais antes de salvar (prévia com debounce pode estar pendente).
+   * null quando a prévia falhou: o salvamento é interrompido em vez de enviar uma lista vazia ou desatualizada.
+   */
+  private async atualizarParcelas(): Promise<ParcelaItem[] | null> {
+    const req = this.getParcelamentoRequest();
+    const chave = JSON.stringify(req);
+    if (chave !== this.chaveParcelamento) {
+      this.chaveParcelamento = chave;
+      const parcelas = await this.gerarParcelas(req).toPromise();
+      if (parcelas == null) return null;
+      this.parcelasList = parcelas;
+    }
+    return this.parcelasList;
   }
 
   /** Valor estimado da parcela (read-only): primeira parcela ou total/n quando n > 0. */
@@ -736,24 +813,6 @@ export class ContratosComponent implements OnInit {
     return day >= 1 && day <= 31 ? day : null;
   }
 
-  /** Adiciona months à data. Se diaVencimento for informado, usa esse dia (ou último dia do mês se menor). */
-  private addMonthsWithDay(dateStr: string, months: number, diaVencimento: number | null): string {
-    const [y, m, d] = dateStr.split('-').map(Number);
-    const date = new Date(y, (m ?? 1) - 1, d ?? 1);
-    date.setMonth(date.getMonth() + months);
-    const year = date.getFullYear();
-    const month = date.getMonth();
-    let day: number;
-    if (diaVencimento != null) {
-      const lastDay = new Date(year, month + 1, 0).getDate();
-      day = Math.min(diaVencimento, lastDay);
-    } else {
-      day = date.getDate();
-    }
-    const out = new Date(year, month, day);
-    return out.toISOString().slice(0, 10);
-  }
-
   private toNumber(v: any): number {
     if (v === null || v === undefined || v === '') return 0;
     const n = Number(v);
@@ -1052,6 +1111,7 @@ export class ContratosComponent implements OnInit {
   // ========== ANEXOS ==========
 
   carregarAnexos(): void {
+    this.limparPrevias();
     if (!this.contratoId) {
       this.anexos = [];
       return;
@@ -1059,6 +1119,7 @@ export class ContratosComponent implements OnInit {
     this.contratoService.getAnexos(this.contratoId).subscribe({
       next: (anexos) => {
         this.anexos = anexos;
+        anexos.forEach(anexo => this.carregarPrevia(anexo));
       },
       error: (err) => {
         console.error('Erro ao carregar anexos:', err);
@@ -1066,6 +1127,25 @@ export class ContratosComponent implements OnInit {
     });
   }
 
+  carregarPrevia(anexo: ContratoAnexo): void {
+    if (!this.contratoId || !anexo.previa) return;
+    this.contratoService.getAnexoPreview(this.contratoId, anexo.id).subscribe({
+      next: (blob) => {
+        if (this.anexos.some(a => a.id === anexo.id)) {
+          this.previas[anexo.id] = URL.createObjectURL(blob);
+        }
+      },
+      error: () => {
+        // Sem miniatura: mantém o ícone do tipo de arquivo
+      }
+    });
+  }
+
+  limparPrevias(): void {
+    Object.values(this.previas).forEach(url => URL.revokeObjectURL(url));
+    this.previas = {};
+  }
+
   abrirCamera(): void {
     if (this.cameraInput) {
       this.cameraInput.nativeElement.click();
@@ -1107,6 +1187,7 @@ export class ContratosComponent implements OnInit {
     this.contratoService.uploadAnexo(this.contratoId, file).subscribe({
       next: (anexo) => {
         this.anexos.unshift(anexo);
+        this.carregarPrevia(anexo);
         this.isUploading = false;
         this.successMessage = 'Documento anexado com sucesso!';
         setTimeout(() => this.successMessage = null, 3000);
@@ -1124,6 +1205,28 @@ export class ContratosComponent implements OnInit {
     window.open(url, '_blank');
   }
 
+  downloadTodosAnexos(): void {
+    if (!this.contratoId || this.isBaixandoZip) return;
+    const contratoId = this.contratoId;
+    this.isBaixandoZip = true;
+    this.contratoService.downloadAnexosZip(contratoId).subscribe({
+      next: (blob) => {
+        const url = URL.createObjectURL(blob);
+        const link = document.createElement('a');
+        link.href = url;
+        link.download = `contrato-${contratoId}-anexos.zip`;
+        link.click();
+        // Revogada depois que o navegador inicia o download
+        setTimeout(() => URL.revokeObjectURL(url));
+        this.isBaixandoZip = false;
+      },
+      error: () => {
+        this.error = 'Erro ao baixar os anexos.';
+        this.isBaixandoZip = false;
+      }
+    });
+  }
+
   excluirAnexo(anexo: ContratoAnexo): void {
     if (!this.contratoId) return;
     if (!confirm(`Deseja excluir o documento "${anexo.nomeOriginal}"?`)) {
@@ -1133,6 +1236,10 @@ export class ContratosComponent implements OnInit {
     this.contratoService.deleteAnexo(this.contratoId, anexo.id).subscribe({
       next: () => {
         this.anexos = this.anexos.filter(a => a.id !== anexo.id);
+        if (this.previas[anexo.id]) {
+          URL.revokeObjectURL(this.previas[anexo.id]);
+          delete this.previas[anexo.id];
+        }
         this.successMessage = 'Documento excluído com sucesso!';
         setTimeout(() => this.successMessage = null, 3000);
       },
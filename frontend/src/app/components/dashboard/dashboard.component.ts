@@ -1,5 +1,6 @@
-import { Component } from '@angular/core';
+import { Component, OnInit } from '@angular/core';
 import { CommonModule } from '@angular/common';
+import { DashboardService } from '../../services/dashboard.service';
 
 interface ContratoRecente {
   numero: string;
@@ -17,14 +18,14 @@ interface ContratoRecente {
   templateUrl: './dashboard.component.html',
   styleUrl: './dashboard.component.scss'
 })
-export class DashboardComponent {
-  // Dados mock conforme a imagem de referência
+export class DashboardComponent implements OnInit {
   stats = {
-    emAberto: 42,
-    aguardandoAssinatura: 15,
-    vencendo30Dias: 7
+    emAberto: 0,
+    finalizados: 0,
+    vencendo30Dias: 0
   };
 
+  // Dados mock conforme a imagem de referência
   contratosRecentes: ContratoRecente[] = [
     {
       numero: 'CT-2024-089',
@@ -52,6 +53,21 @@ export class DashboardComponent {
     }
   ];
 
+  constructor(private dashboardService: DashboardService) {}
+
+  ngOnInit(): void {
+    this.dashboardService.getStats(undefined, 30).subscribe({
+      next: (s) => {
+        this.stats = {
+          emAberto: s.contratosPorStatus.DRAFT ?? 0,
+          finalizados: s.contratosPorStatus.FINAL ?? 0,
+          vencendo30Dias: s.proximasParcelasQuantidade ?? 0
+        };
+      },
+      error: (err) => console.error('Erro ao carregar números do dashboard', err)
+    });
+  }
+
   getStatusLabel(status: string): string {
     const labels: Record<string, string> = {
       'EM_ANALISE': 'Em Análise',
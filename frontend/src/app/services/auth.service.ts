@@ -68,6 +68,25 @@ export class AuthService {
     return this.currentUserSubject.value;
   }
 
+  /**
+   * Atualiza as telas liberadas a partir do servidor (permissões alteradas depois do login).
+   * O guard de rotas continua usando a lista local; esta chamada roda uma vez ao abrir a aplicação.
+   */
+  refreshScreens(): void {
+    const user = this.getCurrentUser();
+    if (!user || !this.isAuthenticated()) return;
+    this.http.get<string[]>(`${environment.apiUrl}/users/me/screens`).subscribe({
+      next: (screens) => {
+        const atualizado: User = { ...user, allowedScreens: screens };
+        this.storeUser(atualizado);
+        this.currentUserSubject.next(atualizado);
+      },
+      error: () => {
+        // Mantém a lista do login
+      }
+    });
+  }
+
   hasScreenAccess(screenCode: string): boolean {
     const user = this.getCurrentUser();
     if (!user) return false;
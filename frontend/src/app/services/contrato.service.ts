@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { HttpClient, HttpErrorResponse } from '@angular/common/http';
+import { Observable, from, of, throwError, timer } from 'rxjs';
+import { last, map, mergeMap, retry, switchMap } from 'rxjs/operators';
 import { environment } from '../../environments/environment';
 
 export type ContratoStatus = 'DRAFT' | 'FINAL';
@@ -9,6 +10,29 @@ export interface ParcelaItem {
   numero: number;
   vencimento: string; // ISO date (YYYY-MM-DD)
   valor: number;
+  pago?: boolean; // somente leitura: alterado por PUT /parcelas/{id}/pagamento
+  pagoEm?: string | null; // ISO date (YYYY-MM-DD)
+}
+
+/** Valores do negócio para o cronograma gerado no servidor (POST /contratos/parcelamento/preview). */
+export interface ParcelamentoPreviewRequest {
+  negocioValorTotal?: number;
+  negocioValorEntrada?: number;
+  negocioValorImovelPermuta?: number;
+  negocioValorVeiculoPermuta?: number;
+  negocioValorFinanciamento?: number;
+  negocioNumParcelas?: number;
+  negocioDataPrimeiraParcela?: string; // ISO date (YYYY-MM-DD)
+  negocioVencimentos?: string;
+  /** Parcelas já pagas: mantidas no cronograma, o restante do saldo vai para as demais */
+  parcelasPagas?: ParcelaItem[];
+}
+
+export interface ParcelamentoPreviewResponse {
+  /** Total - entrada - permutas - financiamento */
+  saldo: number;
+  /** Vencimentos em dias úteis; a última parcela leva o ajuste de centavos */
+  parcelas: ParcelaItem[];
 }
 
 export interface VendedorData {
@@ -104,6 +128,8 @@ export interface ContratoRequest {
   negocioPrazoPagamento?: string;
   negocioDataPrimeiraParcela?: string;
   parcelas?: ParcelaItem[];
+  /** true: permite remover ou alterar parcelas já pagas (senão o backend recusa com 400) */
+  substituirParcelasPagas?: boolean;
 
   // Página 4: Conta Bancária
   contaTitular?: string;
@@ -138,9 +164,22 @@ export interface ContratoAnexo {
   nomeArquivo: string;
   tipoMime: string;
   tamanho: number;
+  sha256?: string;
+  previa?: boolean;
   createdAt: string;
 }
 
+export interface UploadSessao {
+  uploadId: string;
+  contratoId: number;
+  nome: string;
+  tipoMime?: string;
+  tamanho: number;
+  tamanhoParte: number;
+  totalPartes: number;
+  partesRecebidas: number[];
+}
+
 export interface FieldChange {
   path: string;
   oldValue: any;
@@ -157,6 +196,8 @@ export interface ContratoAlteracao {
   id: number;
   contratoId: number;
   changedAt: string;
+  /** Instante da gravação; o maior valor recebido é o próximo `since` do polling. */
+  recordedAt: string;
   username: string;
   changes: FieldChange[];
 }
@@ -185,6 +226,10 @@ export class ContratoService {
     return this.http.put<ContratoResponse>(`${this.apiUrl}/${id}`, data);
   }
 
+  previewParcelamento(data: ParcelamentoPreviewRequest): Observable<ParcelamentoPreviewResponse> {
+    return this.http.post<ParcelamentoPreviewResponse>(`${this.apiUrl}/parcelamento/preview`, data);
+  }
+
   updateVendedores(id: number, vendedores: VendedorData[]): Observable<ContratoResponse> {
     return this.http.put<ContratoResponse>(`${this.apiUrl}/${id}/vendedores`, vendedores);
   }
@@ -209,14 +254,53 @@ export class ContratoService {
 
   // ========== ANEXOS ==========
 
+  /** Acima deste tamanho o upload é feito em partes (retomável). */
+  private static readonly UPLOAD_EM_PARTES_ACIMA_DE = 16 * 1024 * 1024;
+
   getAnexos(contratoId: number): Observable<ContratoAnexo[]> {
     return this.http.get<ContratoAnexo[]>(`${this.apiUrl}/${contratoId}/anexos`);
   }
 
+  /**
+   * Envia o arquivo como corpo da requisição (upload em streaming, sem multipart).
+   * Arquivos grandes vão em partes: uma parte que falhar é reenviada sozinha, sem recomeçar o upload.
+   */
   uploadAnexo(contratoId: number, file: File): Observable<ContratoAnexo> {
-    const formData = new FormData();
-    formData.append('file', file, file.name);
-    return this.http.post<ContratoAnexo>(`${this.apiUrl}/${contratoId}/anexos`, formData);
+    if (file.size > ContratoService.UPLOAD_EM_PARTES_ACIMA_DE) {
+      return this.uploadAnexoEmPartes(contratoId, file);
+    }
+    return this.http.post<ContratoAnexo>(`${this.apiUrl}/${contratoId}/anexos/stream`, file, {
+      params: { nome: file.name },
+      headers: { 'Content-Type': file.type || 'application/octet-stream' }
+    });
+  }
+
+  /** Upload retomável: inicia a sessão, envia as partes que faltam (3 em paralelo) e conclui. */
+  uploadAnexoEmPartes(contratoId: number, file: File, uploadId?: string): Observable<ContratoAnexo> {
+    const base = `${this.apiUrl}/${contratoId}/anexos/uploads`;
+    const sessao$ = uploadId
+      ? this.http.get<UploadSessao>(`${base}/${uploadId}`)
+      : this.http.post<UploadSessao>(base, { nome: file.name, tipoMime: file.type || null, tamanho: file.size });
+
+    return sessao$.pipe(
+      switchMap(sessao => {
+        const recebidas = new Set(sessao.partesRecebidas);
+        const faltando = Array.from({ length: sessao.totalPartes }, (_, i) => i).filter(i => !recebidas.has(i));
+        const partes$: Observable<unknown> = faltando.length === 0 ? of(null) : from(faltando).pipe(
+          mergeMap(i => {
+            const inicio = i * sessao.tamanhoParte;
+            const parte = file.slice(inicio, Math.min(file.size, inicio + sessao.tamanhoParte));
+            return this.http.put<void>(`${base}/${sessao.uploadId}/partes/${i}`, parte, {
+              headers: { 'Content-Type': 'application/octet-stream' }
+            }).pipe(retry({ count: 3, delay: 1000 }));
+          }, 3),
+          last()
+        );
+        return partes$.pipe(
+          switchMap(() => this.http.post<ContratoAnexo>(`${base}/${sessao.uploadId}/concluir`, null))
+        );
+      })
+    );
   }
 
   deleteAnexo(contratoId: number, anexoId: number): Observable<void> {
@@ -226,4 +310,26 @@ export class ContratoService {
   getAnexoDownloadUrl(contratoId: number, anexoId: number): string {
     return `${this.apiUrl}/${contratoId}/anexos/${anexoId}/download`;
   }
+
+  /** Prévia do anexo; enquanto o servidor responde 202 (prévia em geração), tenta de novo a cada segundo. */
+  getAnexoPreview(contratoId: number, anexoId: number): Observable<Blob> {
+    return this.http.get(`${this.apiUrl}/${contratoId}/anexos/${anexoId}/preview`, { responseType: 'blob', observe: 'response' })
+      .pipe(
+        map(response => {
+          if (response.status === 202 || !response.body) {
+            throw new Error('Prévia em geração');
+          }
+          return response.body;
+        }),
+        retry({
+          count: 10,
+          delay: (err) => err instanceof HttpErrorResponse ? throwError(() => err) : timer(1000)
+        })
+      );
+  }
+
+  /** ZIP com todos os anexos, via HttpClient para levar o token (window.open não envia o Authorization). */
+  downloadAnexosZip(contratoId: number): Observable<Blob> {
+    return this.http.get(`${this.apiUrl}/${contratoId}/anexos.zip`, { responseType: 'blob' });
+  }
 }
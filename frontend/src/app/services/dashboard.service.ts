@@ -0,0 +1,37 @@
+import { Injectable } from '@angular/core';
+import { HttpClient, HttpParams } from '@angular/common/http';
+import { Observable } from 'rxjs';
+import { environment } from '../../environments/environment';
+
+export interface DashboardMensal {
+  mes: string;
+  status: 'DRAFT' | 'FINAL';
+  contratos: number;
+  negocioValorTotal: number;
+  honorariosValor: number;
+}
+
+export interface DashboardStats {
+  contratosPorStatus: Record<'DRAFT' | 'FINAL', number>;
+  mensal: DashboardMensal[];
+  proximasParcelasQuantidade: number;
+  proximasParcelasValor: number;
+  proximasParcelasAte: string;
+}
+
+@Injectable({
+  providedIn: 'root'
+})
+export class DashboardService {
+  private readonly apiUrl = `${environment.apiUrl}/dashboard`;
+
+  constructor(private http: HttpClient) {}
+
+  /** Números do dashboard, mantidos no servidor por contadores (não depende de carregar os contratos). */
+  getStats(meses?: number, dias?: number): Observable<DashboardStats> {
+    let params = new HttpParams();
+    if (meses) params = params.set('meses', meses);
+    if (dias) params = params.set('dias', dias);
+    return this.http.get<DashboardStats>(`${this.apiUrl}/stats`, { params });
+  }
+}